@@ -419,6 +419,8 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		addToEnableGroup("jb", "jb.tr", getjbjb_trcompare_type_assigners_widget(), "compare-type-assigners");
 		
+		addToEnableGroup("jb", "jb.tr", getjbjb_trreport_timing_widget(), "report-timing");
+		
 		getjbjb_trenabled_widget().getButton().addSelectionListener(this);
 		
 		getjbjb_trignore_wrong_staticness_widget().getButton().addSelectionListener(this);
@@ -427,6 +429,8 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		getjbjb_trcompare_type_assigners_widget().getButton().addSelectionListener(this);
 		
+		getjbjb_trreport_timing_widget().getButton().addSelectionListener(this);
+		
 		
 		makeNewEnableGroup("jb", "jb.ulp");
 		
@@ -711,6 +715,9 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		addToEnableGroup("cg", getcgtrim_clinit_widget(), "trim-clinit");
 		
 		
+		addToEnableGroup("cg", getcgcompact_widget(), "compact");
+		
+		
 		getcgenabled_widget().getButton().addSelectionListener(this);
 		
 		getcgsafe_forname_widget().getButton().addSelectionListener(this);
@@ -725,6 +732,8 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		getcgtrim_clinit_widget().getButton().addSelectionListener(this);
 		
+		getcgcompact_widget().getButton().addSelectionListener(this);
+		
 		
 		makeNewEnableGroup("cg", "cg.cha");
 		
@@ -796,6 +805,9 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		addToEnableGroup("cg", "cg.spark", getcgcg_sparkignore_types_for_sccs_widget(), "ignore-types-for-sccs");
 
 		
+		addToEnableGroup("cg", "cg.spark", getcgcg_sparklazy_cycle_detection_widget(), "lazy-cycle-detection");
+
+		
 		addToEnableGroup("cg", "cg.spark", getcgcg_sparkpropagator_widget(), "propagator");
 
 		
@@ -817,6 +829,9 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		addToEnableGroup("cg", "cg.spark", getcgcg_sparkdump_solution_widget(), "dump-solution");
 
 		
+		addToEnableGroup("cg", "cg.spark", getcgcg_sparkdump_snapshot_widget(), "dump-snapshot");
+
+		
 		addToEnableGroup("cg", "cg.spark", getcgcg_sparktopo_sort_widget(), "topo-sort");
 
 		
@@ -1249,10 +1264,14 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		addToEnableGroup("sop", "sop.cpf", getsopsop_cpfprune_cfg_widget(), "prune-cfg");
 		
+		addToEnableGroup("sop", "sop.cpf", getsopsop_cpfsparse_widget(), "sparse");
+		
 		getsopsop_cpfenabled_widget().getButton().addSelectionListener(this);
 		
 		getsopsop_cpfprune_cfg_widget().getButton().addSelectionListener(this);
 		
+		getsopsop_cpfsparse_widget().getButton().addSelectionListener(this);
+		
 		
 		makeNewEnableGroup("jtp");
 		
@@ -2084,6 +2103,15 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getInput_Optionssoot_classpath_widget().getAlias(), stringRes);
 		}
 		
+		stringRes = getInput_Optionsclasspath_index_widget().getText().getText();
+		
+		defStringRes = "";
+		
+
+	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionsclasspath_index_widget().getAlias(), stringRes);
+		}
+		
 		stringRes = getInput_Optionsprocess_dir_widget().getText().getText();
 		
 		defStringRes = "";
@@ -2101,6 +2129,15 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
 			getConfig().put(getInput_Optionsmain_class_widget().getAlias(), stringRes);
 		}
+		
+		stringRes = getInput_Optionscache_dir_widget().getText().getText();
+		
+		defStringRes = "";
+		
+
+	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getInput_Optionscache_dir_widget().getAlias(), stringRes);
+		}
 		 
 		stringRes = getInput_Optionssrc_prec_widget().getSelectedAlias();
 
@@ -2278,6 +2315,15 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		if (boolRes != defBoolRes) {
 			getConfig().put(getProcessing_Optionstrim_cfgs_widget().getAlias(), new Boolean(boolRes));
 		}
+		
+		stringRes = getProcessing_Optionsnum_threads_widget().getText().getText();
+		
+		defStringRes = "1";
+		
+
+	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getProcessing_Optionsnum_threads_widget().getAlias(), stringRes);
+		}
 		 
 		stringRes = getProcessing_Optionsthrow_analysis_widget().getSelectedAlias();
 
@@ -2399,6 +2445,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getjbjb_trcompare_type_assigners_widget().getAlias(), new Boolean(boolRes));
 		}
 		
+		boolRes = getjbjb_trreport_timing_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getjbjb_trreport_timing_widget().getAlias(), new Boolean(boolRes));
+		}
+		
 		boolRes = getjbjb_ulpenabled_widget().getButton().getSelection();
 		
 		
@@ -2859,6 +2915,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getcgtrim_clinit_widget().getAlias(), new Boolean(boolRes));
 		}
 		
+		boolRes = getcgcompact_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcompact_widget().getAlias(), new Boolean(boolRes));
+		}
+		
 		stringRes = getcgjdkver_widget().getText().getText();
 		
 		defStringRes = "3";
@@ -3085,6 +3151,25 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		if (boolRes != defBoolRes) {
 			getConfig().put(getcgcg_sparkignore_types_for_sccs_widget().getAlias(), new Boolean(boolRes));
 		}
+		
+		boolRes = getcgcg_sparklazy_cycle_detection_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcg_sparklazy_cycle_detection_widget().getAlias(), new Boolean(boolRes));
+		}
+		
+		stringRes = getcgcg_sparkseed_snapshot_widget().getText().getText();
+		
+		defStringRes = "";
+		
+
+	        if ( (!(stringRes.equals(defStringRes))) && (stringRes != null) && (stringRes.length() != 0)) {
+			getConfig().put(getcgcg_sparkseed_snapshot_widget().getAlias(), stringRes);
+		}
 		 
 		stringRes = getcgcg_sparkpropagator_widget().getSelectedAlias();
 
@@ -3156,6 +3241,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getcgcg_sparkdump_solution_widget().getAlias(), new Boolean(boolRes));
 		}
 		
+		boolRes = getcgcg_sparkdump_snapshot_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getcgcg_sparkdump_snapshot_widget().getAlias(), new Boolean(boolRes));
+		}
+		
 		boolRes = getcgcg_sparktopo_sort_widget().getButton().getSelection();
 		
 		
@@ -4183,6 +4278,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 			getConfig().put(getsopsop_cpfprune_cfg_widget().getAlias(), new Boolean(boolRes));
 		}
 		
+		boolRes = getsopsop_cpfsparse_widget().getButton().getSelection();
+		
+		
+		defBoolRes = false;
+		
+
+		if (boolRes != defBoolRes) {
+			getConfig().put(getsopsop_cpfsparse_widget().getAlias(), new Boolean(boolRes));
+		}
+		
 		boolRes = getjtpenabled_widget().getButton().getSelection();
 		
 		
@@ -6572,6 +6677,18 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 	
 	
 	
+	private StringOptionWidget Input_Optionsclasspath_index_widget;
+	
+	private void setInput_Optionsclasspath_index_widget(StringOptionWidget widget) {
+		Input_Optionsclasspath_index_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionsclasspath_index_widget() {
+		return Input_Optionsclasspath_index_widget;
+	}
+	
+	
+	
 	private StringOptionWidget Input_Optionsmain_class_widget;
 	
 	private void setInput_Optionsmain_class_widget(StringOptionWidget widget) {
@@ -6584,6 +6701,18 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 	
 	
 	
+	private StringOptionWidget Input_Optionscache_dir_widget;
+	
+	private void setInput_Optionscache_dir_widget(StringOptionWidget widget) {
+		Input_Optionscache_dir_widget = widget;
+	}
+	
+	public StringOptionWidget getInput_Optionscache_dir_widget() {
+		return Input_Optionscache_dir_widget;
+	}
+	
+	
+	
 	private MultiOptionWidget Input_Optionssrc_prec_widget;
 	
 	private void setInput_Optionssrc_prec_widget(MultiOptionWidget widget) {
@@ -6774,6 +6903,18 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 	}	
 	
 	
+	private StringOptionWidget Processing_Optionsnum_threads_widget;
+	
+	private void setProcessing_Optionsnum_threads_widget(StringOptionWidget widget) {
+		Processing_Optionsnum_threads_widget = widget;
+	}
+	
+	public StringOptionWidget getProcessing_Optionsnum_threads_widget() {
+		return Processing_Optionsnum_threads_widget;
+	}
+	
+	
+	
 	private MultiOptionWidget Processing_Optionsthrow_analysis_widget;
 	
 	private void setProcessing_Optionsthrow_analysis_widget(MultiOptionWidget widget) {
@@ -6895,6 +7036,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		return jbjb_trcompare_type_assigners_widget;
 	}	
 	
+	private BooleanOptionWidget jbjb_trreport_timing_widget;
+	
+	private void setjbjb_trreport_timing_widget(BooleanOptionWidget widget) {
+		jbjb_trreport_timing_widget = widget;
+	}
+	
+	public BooleanOptionWidget getjbjb_trreport_timing_widget() {
+		return jbjb_trreport_timing_widget;
+	}	
+	
 	private BooleanOptionWidget jbjb_ulpenabled_widget;
 	
 	private void setjbjb_ulpenabled_widget(BooleanOptionWidget widget) {
@@ -7355,6 +7506,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		return cgtrim_clinit_widget;
 	}	
 	
+	private BooleanOptionWidget cgcompact_widget;
+	
+	private void setcgcompact_widget(BooleanOptionWidget widget) {
+		cgcompact_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcompact_widget() {
+		return cgcompact_widget;
+	}	
+	
 	
 	private StringOptionWidget cgjdkver_widget;
 	
@@ -7591,6 +7752,28 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		return cgcg_sparkignore_types_for_sccs_widget;
 	}	
 	
+	private BooleanOptionWidget cgcg_sparklazy_cycle_detection_widget;
+	
+	private void setcgcg_sparklazy_cycle_detection_widget(BooleanOptionWidget widget) {
+		cgcg_sparklazy_cycle_detection_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcg_sparklazy_cycle_detection_widget() {
+		return cgcg_sparklazy_cycle_detection_widget;
+	}	
+	
+	
+	private StringOptionWidget cgcg_sparkseed_snapshot_widget;
+	
+	private void setcgcg_sparkseed_snapshot_widget(StringOptionWidget widget) {
+		cgcg_sparkseed_snapshot_widget = widget;
+	}
+	
+	public StringOptionWidget getcgcg_sparkseed_snapshot_widget() {
+		return cgcg_sparkseed_snapshot_widget;
+	}
+	
+	
 	
 	private MultiOptionWidget cgcg_sparkpropagator_widget;
 	
@@ -7669,6 +7852,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		return cgcg_sparkdump_solution_widget;
 	}	
 	
+	private BooleanOptionWidget cgcg_sparkdump_snapshot_widget;
+	
+	private void setcgcg_sparkdump_snapshot_widget(BooleanOptionWidget widget) {
+		cgcg_sparkdump_snapshot_widget = widget;
+	}
+	
+	public BooleanOptionWidget getcgcg_sparkdump_snapshot_widget() {
+		return cgcg_sparkdump_snapshot_widget;
+	}	
+	
 	private BooleanOptionWidget cgcg_sparktopo_sort_widget;
 	
 	private void setcgcg_sparktopo_sort_widget(BooleanOptionWidget widget) {
@@ -8761,6 +8954,16 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		return sopsop_cpfprune_cfg_widget;
 	}	
 	
+	private BooleanOptionWidget sopsop_cpfsparse_widget;
+	
+	private void setsopsop_cpfsparse_widget(BooleanOptionWidget widget) {
+		sopsop_cpfsparse_widget = widget;
+	}
+	
+	public BooleanOptionWidget getsopsop_cpfsparse_widget() {
+		return sopsop_cpfsparse_widget;
+	}	
+	
 	private BooleanOptionWidget jtpenabled_widget;
 	
 	private void setjtpenabled_widget(BooleanOptionWidget widget) {
@@ -10285,6 +10488,21 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		setInput_Optionssoot_classpath_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Soot Classpath",  "", "","cp", "\nUse PATH as the list of directories in which Soot should search \nfor classes. PATH should be a series of directories, separated \nby the path separator character for your system. If no classpath \nis set on the command line, but the system property \nsoot.class.path has been set, Soot uses its value as the \nclasspath. If neither the command line nor the system properties \nspecify a Soot classpath, Soot falls back on a default classpath \nconsisting of the value of the system property java.class.path \nfollowed java.home/lib/rt.jar, where java.home stands for the \ncontents of the system property java.home and / stands for the \nsystem file separator.", defaultString)));
 		
 		
+		defKey = ""+" "+""+" "+"classpath-index";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		}
+		else {
+			
+			defaultString = "";
+			
+		}
+
+		setInput_Optionsclasspath_index_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Classpath Index File",  "", "","classpath-index", "\nSoot indexes the entries of the archives on the soot classpath \nonce, so that it can find the archive holding a class without \nsearching every archive in turn. With this option, the index is \nalso read from and written to FILE, so that later runs only need \nto scan archives that were added or modified since.", defaultString)));
+		
+		
 		defKey = ""+" "+""+" "+"main-class";
 		defKey = defKey.trim();
 		
@@ -10299,6 +10517,21 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 
 		setInput_Optionsmain_class_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Main Class",  "", "","main-class", "\nBy default, the first class encountered with a main method is \ntreated as the main class (entry point) in whole-program \nanalysis. This option overrides this default. ", defaultString)));
 		
+		
+		defKey = ""+" "+""+" "+"cache-dir";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		}
+		else {
+			
+			defaultString = "";
+			
+		}
+
+		setInput_Optionscache_dir_widget(new StringOptionWidget(editGroupInput_Options, SWT.NONE, new OptionData("Class Cache Directory",  "", "","cache-dir", "\nKeep a cache of library classes in DIR. When a library class is \nread from a class file, Soot stores its fields, method \nsignatures and the Jimple bodies produced by the jb pack in the \ncache, keyed by a hash of the class file and of the jb options. \nLater runs with the same class file and options resolve the \nclass from the cache instead, without running coffi; the cached \nJimple of its bodies is only parsed when one of them is needed, \nand skips the jb pack. Only the bodies that were constructed are \nstored; a later run that needs another body constructs it from \nthe class file and adds it to the cache. Changing other classes, \nsuch as application classes, does not invalidate an entry, \nalthough jb reads the hierarchy of the classes a body refers to; \nempty the cache after replacing a library by an incompatible \nversion. Application classes are never taken from the cache. \nClasses read from the cache carry no tags, so annotations and \ngeneric signatures of library classes are not available. The \ncache is not used when -keep-line-number or \n-keep-bytecode-offset is set.", defaultString)));
+		
 
 		
 		return editGroupInput_Options;
@@ -10744,6 +10977,21 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		}
 		
 		
+		
+		defKey = ""+" "+""+" "+"num-threads";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		}
+		else {
+			
+			defaultString = "1";
+			
+		}
+
+		setProcessing_Optionsnum_threads_widget(new StringOptionWidget(editGroupProcessing_Options, SWT.NONE, new OptionData("Number of Threads",  "", "","num-threads", "\nApply the intraprocedural packs (stp, sop, jtp, jop, jap, gop, \nbop and tag) to the method bodies of the application classes \nusing NUM worker threads. Each concrete method is scheduled as \nan independent task; classes are still reported and written in \nthe same order as in sequential mode, so the output can be \ncompared with a run using a single thread. The same threads read \nand parse class files while classes are being resolved, and \nconstruct the Jimple bodies of all concrete methods (the jb \npack) before the other packs run. Classes are still resolved in \nthe same order as in sequential mode, and the bodies are the \nsame. The types, and the phantom classes, methods and fields, \nthat are first created while the bodies are constructed are \nnumbered in the order the threads reach them, so their numbers, \nand the order in which the Scene's numberers list them, can \nchange from one run to the next. Spark's parallel propagator \nalso uses NUM threads, and so does cg.cha, which finds the calls \nof the methods reachable in each step of its construction on the \nworker threads. Its call graph is the same for any number of \nworker threads, but may have a few more edges than the one built \non a single thread: calls on an abstract type always include the \nmethods of that type, and calls through methods that phantom \nclasses gain as bodies are built may resolve differently. When \ncg.spark starts from a CHA call graph, that is without \non-fly-cg, it builds the pointer assignment graphs of the \nreachable methods on NUM threads. Their nodes are numbered and \ntheir edges added in the same order as with a single thread. The \ngeometric points-to analysis (geom-pta) solves the constraints \nof the strongly connected components of the call graph on NUM \nthreads, in rounds. Its result is the same for any number of \nthreads above 1, but the figures it keeps, and so its \ncontext-sensitive precision, may differ from those of a \nsingle-threaded run, which uses the sequential solver. The \nparallel solver only pays off with several cores: on a single \nCPU it is slower than the sequential one. By default, the IFDS \nsolver in soot.jimple.toolkits.ide processes path edges on NUM \nthreads. The default, 1, processes one method after another on \nthe main thread. Interactive mode always runs sequentially, and \nso do the body packs for Dava output.", defaultString)));
+		
 
 		
 		return editGroupProcessing_Options;
@@ -11070,6 +11318,22 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		setjbjb_trcompare_type_assigners_widget(new BooleanOptionWidget(editGroupjbjb_tr, SWT.NONE, new OptionData("Compare type assigners", "p", "jb.tr","compare-type-assigners", "\nEnables comparison (both runtime and results) of Ben Bellamy's \ntype assigner with the older type assigner that was in Soot. ", defaultBool)));
 		
 		
+		
+		defKey = "p"+" "+"jb.tr"+" "+"report-timing";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setjbjb_trreport_timing_widget(new BooleanOptionWidget(editGroupjbjb_tr, SWT.NONE, new OptionData("Report timing", "p", "jb.tr","report-timing", "\nPrints a line for each method typed by Ben Bellamy's type \nassigner, so that the methods which are expensive to type can be \nfound. Each line is written as semicolon-delimited fields, the \nfirst of which is always 'tr' for use in grep: tr;Method \nName;Stmt Count;Local Count;Inference Time \n(ms);Typings;Assignments Evaluated;Promotions;LCA Queries;LCA \nCache Hits ", defaultBool)));
+		
+		
 
 		
 		return editGroupjbjb_tr;
@@ -12557,6 +12821,22 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		
 		
+		defKey = "p"+" "+"cg"+" "+"compact";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setcgcompact_widget(new BooleanOptionWidget(editGroupcg, SWT.NONE, new OptionData("Compact Call Graph", "p", "cg","compact", "\nWhen this option is set to true, after the call graph has been \nbuilt and static initializer edges have been trimmed, it is \nreplaced by a call graph that keeps its edges in arrays of \nmethod and call site numbers instead of one Edge object per \nedge, which takes much less memory for large call graphs. This \ncall graph cannot be changed afterwards, so this option cannot \nbe used with whole-program optimization (-W), whose wjop phases \nchange it. Spark no longer keeps its on-the-fly call graph, so \npoints-to sets can then no longer be updated incrementally. ", defaultBool)));
+		
+		
+		
 		defKey = "p"+" "+"cg"+" "+"jdkver";
 		defKey = defKey.trim();
 		
@@ -13071,6 +13351,22 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		setcgcg_sparkignore_types_for_sccs_widget(new BooleanOptionWidget(editGroupcgSpark_Pointer_Assignment_Graph_Simplification_Options, SWT.NONE, new OptionData("Ignore Types For SCCs", "p", "cg.spark","ignore-types-for-sccs", "\nWhen this option is set to true, when collapsing \nstrongly-connected components, nodes forming SCCs are collapsed \nregardless of their declared type. The collapsed SCC is given \nthe most general type of all the nodes in the component. When \nthis option is set to false, only edges connecting nodes of the \nsame type are considered when detecting SCCs. This option has \nno effect unless simplify-sccs is true. ", defaultBool)));
 		
 		
+		
+		defKey = "p"+" "+"cg.spark"+" "+"lazy-cycle-detection";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setcgcg_sparklazy_cycle_detection_widget(new BooleanOptionWidget(editGroupcgSpark_Pointer_Assignment_Graph_Simplification_Options, SWT.NONE, new OptionData("Lazy Cycle Detection", "p", "cg.spark","lazy-cycle-detection", "\nWhen this option is set to true, the worklist propagator looks \nfor a cycle through a simple edge whenever the edge is found to \nconnect two variable (Green) nodes with equal points-to sets, \nand merges the nodes of the cycles it finds. Unlike \nsimplify-sccs, this also collapses cycles formed by edges added \nduring propagation, and it may be used with on-fly-cg. Only \ncycles of edges which do not filter objects by type are \ncollapsed, so the points-to sets are the same as without this \noption. Spark stops with an error if this option is set and \npropagator is not worklist. ", defaultBool)));
+		
+		
 
 		
 		return editGroupcgSpark_Pointer_Assignment_Graph_Simplification_Options;
@@ -13116,6 +13412,12 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		true),
 		
+		new OptionData("Parallel",
+		"parallel",
+		"\nParallel is a variant of Worklist that processes the worklist \nin rounds, propagating the new points-to sets of all nodes in a \nround along simple and load edges on the number of threads given \nby the global -num-threads option. Points-to sets are updated \nunder a lock on their node. The resulting points-to sets are the \nsame as those of Worklist. Only the double set implementation \nwith non-shared old and new sets is propagated in parallel; with \nother set implementations, this algorithm runs on a single \nthread. ",
+		
+		false),
+		
 		new OptionData("Cycle",
 		"cycle",
 		"\nThis algorithm finds cycles in the PAG on-the-fly. It is not yet \nfinished.",
@@ -13194,6 +13496,12 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		false),
 		
+		new OptionData("Roaring",
+		"roaring",
+		"\nRoaring splits the elements into chunks of 65536 by the high \nbits 									of their numbers, and stores each chunk as a \nsorted array of the low 									bits if it holds few elements, \nor as a bitmap if it holds many. 								",
+		
+		false),
+		
 		new OptionData("Double",
 		"double",
 		"\nDouble is an implementation that itself uses a pair of sets for \neach points-to set. The first set in the pair stores new \npointed-to objects that have not yet been propagated, while the \nsecond set stores old pointed-to objects that have been \npropagated and need not be reconsidered. This allows the \npropagation algorithms to be incremental, often speeding them up \nsignificantly. ",
@@ -13254,6 +13562,12 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		false),
 		
+		new OptionData("Roaring",
+		"roaring",
+		"\nRoaring splits the elements into chunks of 65536 by the high \nbits 									of their numbers, and stores each chunk as a \nsorted array of the low 									bits if it holds few elements, \nor as a bitmap if it holds many. 								",
+		
+		false),
+		
 		};
 		
 										
@@ -13308,6 +13622,12 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		false),
 		
+		new OptionData("Roaring",
+		"roaring",
+		"\nRoaring splits the elements into chunks of 65536 by the high \nbits 									of their numbers, and stores each chunk as a \nsorted array of the low 									bits if it holds few elements, \nor as a bitmap if it holds many. 								",
+		
+		false),
+		
 		};
 		
 										
@@ -13323,6 +13643,21 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		}
 		
 		
+		
+		defKey = "p"+" "+"cg.spark"+" "+"seed-snapshot";
+		defKey = defKey.trim();
+		
+		if (isInDefList(defKey)) {
+			defaultString = getStringDef(defKey);	
+		}
+		else {
+			
+			defaultString = "";
+			
+		}
+
+		setcgcg_sparkseed_snapshot_widget(new StringOptionWidget(editGroupcgSpark_Points_To_Set_Flowing_Options, SWT.NONE, new OptionData("Seed Snapshot",  "p", "cg.spark","seed-snapshot", "\nWhen this option is set to the name of a file written by the \nDump Snapshot option, the points-to sets of the snapshot are \nadded to those of the matching nodes before propagation begins, \nand propagation starts from these nodes, so that it only has to \nfind what is new. With on-fly-cg, the call edges of the snapshot \nare added to the call graph first. If the program has changed \nsince the snapshot was written, the result includes the old \npoints-to sets and call edges, and may be less precise than a \nnew analysis. This option requires the worklist or iter \npropagator. ", defaultString)));
+		
 
 		
 		return editGroupcgSpark_Points_To_Set_Flowing_Options;
@@ -13402,6 +13737,22 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		
 		
 		
+		defKey = "p"+" "+"cg.spark"+" "+"dump-snapshot";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setcgcg_sparkdump_snapshot_widget(new BooleanOptionWidget(editGroupcgSpark_Output_Options, SWT.NONE, new OptionData("Dump Snapshot", "p", "cg.spark","dump-snapshot", "\nWhen this option is set to true, the pointer assignment graph, \nthe points-to sets of its nodes and the call graph are written \nto a file called pag.snapshot in the output directory at the \nend of the call graph pack, so that the call graph is the one \nleft by Trim Clinit. The points-to sets are delta-encoded, so the \nsnapshot is much smaller than the output of Dump Solution. A \nlater run can load it with PAGSnapshot.load() to answer \npoints-to queries without running Spark, or pass it to the Seed \nSnapshot option. ", defaultBool)));
+		
+		
+		
 		defKey = "p"+" "+"cg.spark"+" "+"topo-sort";
 		defKey = defKey.trim();
 
@@ -16272,6 +16623,22 @@ Composite dbdb_force_recompileChild = dbdb_force_recompileCreate(getPageContaine
 		setsopsop_cpfprune_cfg_widget(new BooleanOptionWidget(editGroupsopsop_cpf, SWT.NONE, new OptionData("Prune Control Flow Graph", "p", "sop.cpf","prune-cfg", "\nConditional branching statements that are found \nto branch unconditionally (or fall through) are \nreplaced with unconditional branches (or \nremoved). This transformation exposes more \nopportunities for dead code removal. \n", defaultBool)));
 		
 		
+		
+		defKey = "p"+" "+"sop.cpf"+" "+"sparse";
+		defKey = defKey.trim();
+
+		if (isInDefList(defKey)) {
+			defaultBool = getBoolDef(defKey);	
+		}
+		else {
+			
+			defaultBool = false;
+			
+		}
+
+		setsopsop_cpfsparse_widget(new BooleanOptionWidget(editGroupsopsop_cpf, SWT.NONE, new OptionData("Sparse Analysis", "p", "sop.cpf","sparse", "\nUse a sparse version of the analysis, which \nkeeps one assumption per local instead of a set \nof assumptions at every statement, and \npropagates changes along the SSA def-use chains. \nIt finds the same constants and branches. \n", defaultBool)));
+		
+		
 
 		
 		return editGroupsopsop_cpf;
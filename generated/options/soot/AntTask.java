@@ -173,6 +173,11 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-prepend-classpath");
         }
   
+        public void setclasspath_index(String arg) {
+            addArg("-classpath-index");
+            addArg(arg);
+        }
+  
         public void setprocess_dir(Path arg) {
             if(process_dir == null )
                 process_dir = new Path(getProject());
@@ -236,6 +241,11 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-polyglot");
         }
   
+        public void setcache_dir(String arg) {
+            addArg("-cache-dir");
+            addArg(arg);
+        }
+  
         public void setoutput_dir(String arg) {
             addArg("-output-dir");
             addArg(arg);
@@ -346,6 +356,11 @@ public class AntTask extends MatchingTask {
             if(arg) addArg("-via-shimple");
         }
   
+        public void setnum_threads(int arg) {
+            addArg("-num-threads");
+            addArg(Integer.toString(arg));
+        }
+  
         public void setthrow_analysis(String arg) {
             if(false
     
@@ -576,6 +591,12 @@ public class AntTask extends MatchingTask {
             addArg("compare-type-assigners:"+(arg?"true":"false"));
           }
       
+          public void setreport_timing(boolean arg) {
+            addArg("-p");
+            addArg("jb.tr");
+            addArg("report-timing:"+(arg?"true":"false"));
+          }
+      
         }
     
         public Object createp_jb_ulp() {
@@ -1077,6 +1098,12 @@ public class AntTask extends MatchingTask {
             addArg("trim-clinit:"+(arg?"true":"false"));
           }
       
+          public void setcompact(boolean arg) {
+            addArg("-p");
+            addArg("cg");
+            addArg("compact:"+(arg?"true":"false"));
+          }
+      
           public void setjdkver(String arg) {
             addArg("-p");
             addArg("cg");
@@ -1233,6 +1260,12 @@ public class AntTask extends MatchingTask {
             addArg("ignore-types-for-sccs:"+(arg?"true":"false"));
           }
       
+          public void setlazy_cycle_detection(boolean arg) {
+            addArg("-p");
+            addArg("cg.spark");
+            addArg("lazy-cycle-detection:"+(arg?"true":"false"));
+          }
+      
           public void setdump_html(boolean arg) {
             addArg("-p");
             addArg("cg.spark");
@@ -1251,6 +1284,12 @@ public class AntTask extends MatchingTask {
             addArg("dump-solution:"+(arg?"true":"false"));
           }
       
+          public void setdump_snapshot(boolean arg) {
+            addArg("-p");
+            addArg("cg.spark");
+            addArg("dump-snapshot:"+(arg?"true":"false"));
+          }
+      
           public void settopo_sort(boolean arg) {
             addArg("-p");
             addArg("cg.spark");
@@ -1341,6 +1380,12 @@ public class AntTask extends MatchingTask {
             addArg("double-set-new:"+arg);
           }
       
+          public void setseed_snapshot(String arg) {
+            addArg("-p");
+            addArg("cg.spark");
+            addArg("seed-snapshot:"+arg);
+          }
+      
           public void settraversal(String arg) {
             addArg("-p");
             addArg("cg.spark");
@@ -2079,6 +2124,12 @@ public class AntTask extends MatchingTask {
             addArg("prune-cfg:"+(arg?"true":"false"));
           }
       
+          public void setsparse(boolean arg) {
+            addArg("-p");
+            addArg("sop.cpf");
+            addArg("sparse:"+(arg?"true":"false"));
+          }
+      
         }
     
         public Object createp_jtp() {
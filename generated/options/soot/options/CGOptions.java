@@ -142,6 +142,24 @@ public class CGOptions
         return soot.PhaseOptions.getBoolean( options, "trim-clinit" );
     }
     
+    /** Compact Call Graph --
+    
+     * Keep the finished call graph in arrays of numbers.
+    
+     * When this option is set to true, after the call graph has been 
+     * built and static initializer edges have been trimmed, it is 
+     * replaced by a call graph that keeps its edges in arrays of 
+     * method and call site numbers instead of one Edge object per 
+     * edge, which takes much less memory for large call graphs. This 
+     * call graph cannot be changed afterwards, so this option cannot 
+     * be used with whole-program optimization (-W), whose wjop phases 
+     * change it. Spark no longer keeps its on-the-fly call graph, so 
+     * points-to sets can then no longer be updated incrementally. 
+     */
+    public boolean compact() {
+        return soot.PhaseOptions.getBoolean( options, "compact" );
+    }
+    
     /** JDK version --
     
      * JDK version for native methods.
@@ -84,5 +84,21 @@ public class JBTROptions
         return soot.PhaseOptions.getBoolean( options, "compare-type-assigners" );
     }
     
+    /** Report timing --
+    
+     * Reports the cost of typing each method.
+    
+     * Prints a line for each method typed by Ben Bellamy's type 
+     * assigner, so that the methods which are expensive to type can be 
+     * found. Each line is written as semicolon-delimited fields, the 
+     * first of which is always 'tr' for use in grep: tr;Method 
+     * Name;Stmt Count;Local Count;Inference Time 
+     * (ms);Typings;Assignments Evaluated;Promotions;LCA Queries;LCA 
+     * Cache Hits 
+     */
+    public boolean report_timing() {
+        return soot.PhaseOptions.getBoolean( options, "report-timing" );
+    }
+    
 }
         
\ No newline at end of file
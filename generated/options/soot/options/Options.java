@@ -193,6 +193,23 @@ public class Options extends OptionsBase {
             )
                 prepend_classpath = true;
   
+            else if( false
+            || option.equals( "classpath-index" )
+            ) {
+                if( !hasMoreOptions() ) {
+                    G.v().out.println( "No value given for option -"+option );
+                    return false;
+                }
+                String value = nextOption();
+    
+                if( classpath_index.length() == 0 )
+                    classpath_index = value;
+                else {
+                    G.v().out.println( "Duplicate values "+classpath_index+" and "+value+" for option -"+option );
+                    return false;
+                }
+            }
+  
             else if( false
             || option.equals( "process-path" )
             || option.equals( "process-dir" )
@@ -335,6 +352,23 @@ public class Options extends OptionsBase {
             )
                 polyglot = true;
   
+            else if( false
+            || option.equals( "cache-dir" )
+            ) {
+                if( !hasMoreOptions() ) {
+                    G.v().out.println( "No value given for option -"+option );
+                    return false;
+                }
+                String value = nextOption();
+    
+                if( cache_dir.length() == 0 )
+                    cache_dir = value;
+                else {
+                    G.v().out.println( "Duplicate values "+cache_dir+" and "+value+" for option -"+option );
+                    return false;
+                }
+            }
+  
             else if( false
             || option.equals( "d" )
             || option.equals( "output-dir" )
@@ -673,6 +707,23 @@ public class Options extends OptionsBase {
             )
                 via_shimple = true;
   
+            else if( false
+            || option.equals( "num-threads" )
+            ) {
+                if( !hasMoreOptions() ) {
+                    G.v().out.println( "No value given for option -"+option );
+                    return false;
+                }
+                String value = nextOption();
+    
+                try {
+                    num_threads = Integer.parseInt( value );
+                } catch( NumberFormatException e ) {
+                    G.v().out.println( "Invalid value "+value+" given for option -"+option );
+                    return false;
+                }
+            }
+  
             else if( false
             || option.equals( "throw-analysis" )
             ) {
@@ -985,6 +1036,9 @@ public class Options extends OptionsBase {
     private boolean prepend_classpath = false;
     public void set_prepend_classpath( boolean setting ) { prepend_classpath = setting; }
   
+    public String classpath_index() { return classpath_index; }
+    public void set_classpath_index( String setting ) { classpath_index = setting; }
+    private String classpath_index = "";
     public List process_dir() { 
         if( process_dir == null )
             return java.util.Collections.EMPTY_LIST;
@@ -1030,6 +1084,9 @@ public class Options extends OptionsBase {
     private boolean polyglot = false;
     public void set_polyglot( boolean setting ) { polyglot = setting; }
   
+    public String cache_dir() { return cache_dir; }
+    public void set_cache_dir( String setting ) { cache_dir = setting; }
+    private String cache_dir = "";
     public String output_dir() { return output_dir; }
     public void set_output_dir( String setting ) { output_dir = setting; }
     private String output_dir = "";
@@ -1091,6 +1148,9 @@ public class Options extends OptionsBase {
     private boolean via_shimple = false;
     public void set_via_shimple( boolean setting ) { via_shimple = setting; }
   
+    public int num_threads() { return num_threads; }
+    public void set_num_threads( int setting ) { num_threads = setting; }
+    private int num_threads = 1;
     public int throw_analysis() {
         if( throw_analysis == 0 ) return throw_analysis_pedantic;
         return throw_analysis; 
@@ -1184,6 +1244,7 @@ public class Options extends OptionsBase {
       
 +padOpt(" -cp PATH -soot-class-path PATH -soot-classpath PATH", "Use PATH as the classpath for finding classes." )
 +padOpt(" -pp -prepend-classpath", "Prepend the given soot classpath to the default classpath." )
++padOpt(" -classpath-index FILE", "Keep the index of the archives on the classpath in file" )
 +padOpt(" -process-path DIR -process-dir DIR", "Process all classes found in DIR" )
 +padOpt(" -oaat", "From the process-dir, processes one class at a time." )
 +padOpt(" -ast-metrics", "Compute AST Metrics if performing java to jimple" )
@@ -1199,6 +1260,7 @@ public class Options extends OptionsBase {
 +padOpt(" -j2me", "Use J2ME mode; changes assignment of types" )
 +padOpt(" -main-class CLASS", "Sets the main class for whole-program analysis." )
 +padOpt(" -polyglot", "Use Java 1.4 Polyglot frontend instead of JastAdd" )
++padOpt(" -cache-dir DIR", "Cache library classes and their Jimple bodies in dir" )
 +"\nOutput Options:\n"
       
 +padOpt(" -d DIR -output-dir DIR", "Store output files in DIR" )
@@ -1233,6 +1295,7 @@ public class Options extends OptionsBase {
 +padOpt(" -W -whole-optimize", "Perform whole program optimizations" )
 +padOpt(" -via-grimp", "Convert to bytecode via Grimp instead of via Baf" )
 +padOpt(" -via-shimple", "Enable Shimple SSA representation" )
++padOpt(" -num-threads NUM", "Load classes and apply body packs using NUM threads" )
 +padOpt(" -throw-analysis ARG", "" )
 +padVal(" pedantic (default)", "Pedantically conservative throw analysis" )
 +padVal(" unit", "Unit Throw Analysis" )
@@ -1411,7 +1474,8 @@ public class Options extends OptionsBase {
                 +padOpt( "enabled (true)", "" )
                 +padOpt( "ignore-wrong-staticness (false)", "Ignores errors due to wrong staticness" )
                 +padOpt( "use-older-type-assigner (false)", "Enables the older type assigner" )
-                +padOpt( "compare-type-assigners (false)", "Compares Ben Bellamy's and the older type assigner" );
+                +padOpt( "compare-type-assigners (false)", "Compares Ben Bellamy's and the older type assigner" )
+                +padOpt( "report-timing (false)", "Reports the cost of typing each method" );
     
         if( phaseName.equals( "jb.ulp" ) )
             return "Phase "+phaseName+":\n"+
@@ -1584,6 +1648,7 @@ public class Options extends OptionsBase {
                 +padOpt( "all-reachable (false)", "Assume all methods of application classes are reachable." )
                 +padOpt( "implicit-entry (true)", "Include methods called implicitly by the VM as entry points" )
                 +padOpt( "trim-clinit (true)", "Removes redundant static initializer calls" )
+                +padOpt( "compact (false)", "Keep the finished call graph in arrays of numbers" )
                 +padOpt( "reflection-log", "Uses a reflection log to resolve reflective calls." )
                 +padOpt( "guards (ignore)", "Describes how to guard the program from unsound assumptions." );
     
@@ -1616,11 +1681,14 @@ public class Options extends OptionsBase {
                 +padOpt( "simplify-offline (false)", "Collapse single-entry subgraphs of the PAG" )
                 +padOpt( "simplify-sccs (false)", "Collapse strongly-connected components of the PAG" )
                 +padOpt( "ignore-types-for-sccs (false)", "Ignore declared types when determining node equivalence for SCCs" )
+                +padOpt( "lazy-cycle-detection (false)", "Collapse cycles of the PAG found during propagation" )
                 +padOpt( "propagator", "Select propagation algorithm" )
                 +padVal( "iter", "Simple iterative algorithm" )
                 
                 +padVal( "worklist (default)", "Fast, worklist-based algorithm" )
                 
+                +padVal( "parallel", "Worklist-based algorithm using -num-threads threads" )
+                
                 +padVal( "cycle", "Unfinished on-the-fly cycle detection algorithm" )
                 
                 +padVal( "merge", "Unfinished field reference merging algorithms" )
@@ -1642,6 +1710,8 @@ public class Options extends OptionsBase {
                 
                 +padVal( "sharedlist", "Shared list representation" )
                 
+                +padVal( "roaring", "Compressed bitmap representation" )
+                
                 +padVal( "double (default)", "Double set representation for incremental propagation" )
                 
                 +padOpt( "double-set-old", "Select implementation of points-to set for old part of double set" )
@@ -1657,6 +1727,8 @@ public class Options extends OptionsBase {
                 
                 +padVal( "sharedlist", "Shared list representation" )
                 
+                +padVal( "roaring", "Compressed bitmap representation" )
+                
                 +padOpt( "double-set-new", "Select implementation of points-to set for new part of double set" )
                 +padVal( "hash", "Use Java HashSet" )
                 
@@ -1670,9 +1742,13 @@ public class Options extends OptionsBase {
                 
                 +padVal( "sharedlist", "Shared list representation" )
                 
+                +padVal( "roaring", "Compressed bitmap representation" )
+                
+                +padOpt( "seed-snapshot ()", "Start propagation from the points-to sets of a snapshot" )
                 +padOpt( "dump-html (false)", "Dump pointer assignment graph to HTML for debugging" )
                 +padOpt( "dump-pag (false)", "Dump pointer assignment graph for other solvers" )
                 +padOpt( "dump-solution (false)", "Dump final solution for comparison with other solvers" )
+                +padOpt( "dump-snapshot (false)", "Write a binary snapshot of the PAG, points-to sets and call graph" )
                 +padOpt( "topo-sort (false)", "Sort variable nodes in dump" )
                 +padOpt( "dump-types (true)", "Include declared types in dump" )
                 +padOpt( "class-method-var (true)", "In dump, label variables by class and method" )
@@ -2004,7 +2080,8 @@ public class Options extends OptionsBase {
                 "\nA powerful constant propagator and folder based \non an algorithm sketched by Cytron et al that \ntakes conditional control flow into account. This \noptimization demonstrates some of the benefits of \nSSA -- particularly the fact that Phi nodes \nrepresent natural merge points in the control \nflow. "
                 +"\n\nRecognized options (with default values):\n"
                 +padOpt( "enabled (true)", "" )
-                +padOpt( "prune-cfg (true)", "Take advantage of CFG optimization             opportunities." );
+                +padOpt( "prune-cfg (true)", "Take advantage of CFG optimization             opportunities." )
+                +padOpt( "sparse (false)", "Propagate constants along def-use chains." );
     
         if( phaseName.equals( "jtp" ) )
             return "Phase "+phaseName+":\n"+
@@ -2405,7 +2482,8 @@ public class Options extends OptionsBase {
                 +"enabled "
                 +"ignore-wrong-staticness "
                 +"use-older-type-assigner "
-                +"compare-type-assigners ";
+                +"compare-type-assigners "
+                +"report-timing ";
     
         if( phaseName.equals( "jb.ulp" ) )
             return ""
@@ -2528,6 +2606,7 @@ public class Options extends OptionsBase {
                 +"all-reachable "
                 +"implicit-entry "
                 +"trim-clinit "
+                +"compact "
                 +"reflection-log "
                 +"guards ";
     
@@ -2556,13 +2635,16 @@ public class Options extends OptionsBase {
                 +"simplify-offline "
                 +"simplify-sccs "
                 +"ignore-types-for-sccs "
+                +"lazy-cycle-detection "
                 +"propagator "
                 +"set-impl "
                 +"double-set-old "
                 +"double-set-new "
+                +"seed-snapshot "
                 +"dump-html "
                 +"dump-pag "
                 +"dump-solution "
+                +"dump-snapshot "
                 +"topo-sort "
                 +"dump-types "
                 +"class-method-var "
@@ -2726,7 +2808,8 @@ public class Options extends OptionsBase {
         if( phaseName.equals( "sop.cpf" ) )
             return ""
                 +"enabled "
-                +"prune-cfg ";
+                +"prune-cfg "
+                +"sparse ";
     
         if( phaseName.equals( "jtp" ) )
             return ""
@@ -3009,7 +3092,8 @@ public class Options extends OptionsBase {
               +"enabled:true "
               +"ignore-wrong-staticness:false "
               +"use-older-type-assigner:false "
-              +"compare-type-assigners:false ";
+              +"compare-type-assigners:false "
+              +"report-timing:false ";
     
         if( phaseName.equals( "jb.ulp" ) )
             return ""
@@ -3132,6 +3216,7 @@ public class Options extends OptionsBase {
               +"all-reachable:false "
               +"implicit-entry:true "
               +"trim-clinit:true "
+              +"compact:false "
               +"guards:ignore ";
     
         if( phaseName.equals( "cg.cha" ) )
@@ -3159,13 +3244,16 @@ public class Options extends OptionsBase {
               +"simplify-offline:false "
               +"simplify-sccs:false "
               +"ignore-types-for-sccs:false "
+              +"lazy-cycle-detection:false "
               +"propagator:worklist "
               +"set-impl:double "
               +"double-set-old:hybrid "
               +"double-set-new:hybrid "
+              +"seed-snapshot: "
               +"dump-html:false "
               +"dump-pag:false "
               +"dump-solution:false "
+              +"dump-snapshot:false "
               +"topo-sort:false "
               +"dump-types:true "
               +"class-method-var:true "
@@ -3330,7 +3418,8 @@ public class Options extends OptionsBase {
         if( phaseName.equals( "sop.cpf" ) )
             return ""
               +"enabled:true "
-              +"prune-cfg:true ";
+              +"prune-cfg:true "
+              +"sparse:false ";
     
         if( phaseName.equals( "jtp" ) )
             return ""
@@ -263,6 +263,25 @@ public class SparkOptions
         return soot.PhaseOptions.getBoolean( options, "ignore-types-for-sccs" );
     }
     
+    /** Lazy Cycle Detection --
+    
+     * Collapse cycles of the PAG found during propagation.
+    
+     * When this option is set to true, the worklist propagator looks 
+     * for a cycle through a simple edge whenever the edge is found to 
+     * connect two variable (Green) nodes with equal points-to sets, 
+     * and merges the nodes of the cycles it finds. Unlike 
+     * simplify-sccs, this also collapses cycles formed by edges added 
+     * during propagation, and it may be used with on-fly-cg. Only 
+     * cycles of edges which do not filter objects by type are 
+     * collapsed, so the points-to sets are the same as without this 
+     * option. Spark stops with an error if this option is set and 
+     * propagator is not worklist. 
+     */
+    public boolean lazy_cycle_detection() {
+        return soot.PhaseOptions.getBoolean( options, "lazy-cycle-detection" );
+    }
+    
     /** Dump HTML --
     
      * Dump pointer assignment graph to HTML for debugging.
@@ -302,6 +321,25 @@ public class SparkOptions
         return soot.PhaseOptions.getBoolean( options, "dump-solution" );
     }
     
+    /** Dump Snapshot --
+    
+     * Write a binary snapshot of the PAG, points-to sets and call 
+     * graph.
+    
+     * When this option is set to true, the pointer assignment graph, 
+     * the points-to sets of its nodes and the call graph are written 
+     * to a file called pag.snapshot in the output directory at the 
+     * end of the call graph pack, so that the call graph is the one 
+     * left by Trim Clinit. The points-to sets are delta-encoded, so the 
+     * snapshot is much smaller than the output of Dump Solution. A 
+     * later run can load it with PAGSnapshot.load() to answer 
+     * points-to queries without running Spark, or pass it to the Seed 
+     * Snapshot option. 
+     */
+    public boolean dump_snapshot() {
+        return soot.PhaseOptions.getBoolean( options, "dump-snapshot" );
+    }
+    
     /** Topological Sort --
     
      * Sort variable nodes in dump.
@@ -518,6 +556,25 @@ public class SparkOptions
         return soot.PhaseOptions.getInt( options, "geom-runs" );
     }
     
+    /** Seed Snapshot --
+    
+     * Start propagation from the points-to sets of a snapshot.
+    
+     * When this option is set to the name of a file written by the 
+     * Dump Snapshot option, the points-to sets of the snapshot are 
+     * added to those of the matching nodes before propagation begins, 
+     * and propagation starts from these nodes, so that it only has to 
+     * find what is new. With on-fly-cg, the call edges of the snapshot 
+     * are added to the call graph first. If the program has changed 
+     * since the snapshot was written, the result includes the old 
+     * points-to sets and call edges, and may be less precise than a 
+     * new analysis. This option requires the worklist or iter 
+     * propagator. 
+     */
+    public String seed_snapshot() {
+        return soot.PhaseOptions.getString( options, "seed-snapshot" );
+    }
+    
     /** Verbose dump file --
     
      * Filename for detailed execution log.
@@ -547,10 +604,11 @@ public class SparkOptions
     
     public static final int propagator_iter = 1;
     public static final int propagator_worklist = 2;
-    public static final int propagator_cycle = 3;
-    public static final int propagator_merge = 4;
-    public static final int propagator_alias = 5;
-    public static final int propagator_none = 6;
+    public static final int propagator_parallel = 3;
+    public static final int propagator_cycle = 4;
+    public static final int propagator_merge = 5;
+    public static final int propagator_alias = 6;
+    public static final int propagator_none = 7;
     /** Propagator --
     
      * Select propagation algorithm.
@@ -567,6 +625,9 @@ public class SparkOptions
         if( s.equalsIgnoreCase( "worklist" ) )
             return propagator_worklist;
         
+        if( s.equalsIgnoreCase( "parallel" ) )
+            return propagator_parallel;
+        
         if( s.equalsIgnoreCase( "cycle" ) )
             return propagator_cycle;
         
@@ -588,7 +649,8 @@ public class SparkOptions
     public static final int set_impl_array = 4;
     public static final int set_impl_heintze = 5;
     public static final int set_impl_sharedlist = 6;
-    public static final int set_impl_double = 7;
+    public static final int set_impl_roaring = 7;
+    public static final int set_impl_double = 8;
     /** Set Implementation --
     
      * Select points-to set implementation.
@@ -616,6 +678,9 @@ public class SparkOptions
         if( s.equalsIgnoreCase( "sharedlist" ) )
             return set_impl_sharedlist;
         
+        if( s.equalsIgnoreCase( "roaring" ) )
+            return set_impl_roaring;
+        
         if( s.equalsIgnoreCase( "double" ) )
             return set_impl_double;
         
@@ -628,6 +693,7 @@ public class SparkOptions
     public static final int double_set_old_array = 4;
     public static final int double_set_old_heintze = 5;
     public static final int double_set_old_sharedlist = 6;
+    public static final int double_set_old_roaring = 7;
     /** Double Set Old --
     
      * Select implementation of points-to set for old part of double 
@@ -658,6 +724,9 @@ public class SparkOptions
         if( s.equalsIgnoreCase( "sharedlist" ) )
             return double_set_old_sharedlist;
         
+        if( s.equalsIgnoreCase( "roaring" ) )
+            return double_set_old_roaring;
+        
         throw new RuntimeException( "Invalid value "+s+" of phase option double-set-old" );
     }
     
@@ -667,6 +736,7 @@ public class SparkOptions
     public static final int double_set_new_array = 4;
     public static final int double_set_new_heintze = 5;
     public static final int double_set_new_sharedlist = 6;
+    public static final int double_set_new_roaring = 7;
     /** Double Set New --
     
      * Select implementation of points-to set for new part of double 
@@ -697,6 +767,9 @@ public class SparkOptions
         if( s.equalsIgnoreCase( "sharedlist" ) )
             return double_set_new_sharedlist;
         
+        if( s.equalsIgnoreCase( "roaring" ) )
+            return double_set_new_roaring;
+        
         throw new RuntimeException( "Invalid value "+s+" of phase option double-set-new" );
     }
     
@@ -83,8 +83,25 @@ class AbstractSootFieldRef implements SootFieldRef {
         return ret;
     }
     private SootField resolve(StringBuffer trace) {
+        if( trace == null ) {
+            SootField ret = resolveInHierarchy(null, false);
+            if( ret != null ) return ret;
+        }
+        // A phantom field is to be added. Bodies constructed concurrently
+        // may add the same one, so add it under the Scene lock, and look
+        // for it again in case another thread just did.
+        synchronized( Scene.v() ) {
+            return resolveInHierarchy(trace, true);
+        }
+    }
+    /** Finds the field in the hierarchy. Unless mayAddPhantom is set,
+     * returns null instead of adding a phantom field, and does not read
+     * the members of phantom classes, which other threads may change. */
+    private SootField resolveInHierarchy(StringBuffer trace, boolean mayAddPhantom) {
         SootClass cl = declaringClass;
         while(true) {
+            if(Scene.v().allowsPhantomRefs() && cl.isPhantom() && !mayAddPhantom)
+                return null;
             if(trace != null) trace.append(
                     "Looking in "+cl+" which has fields "+cl.getFields()+"\n" );
             if( cl.declaresField(name, type) ) {
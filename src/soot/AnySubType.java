@@ -39,7 +39,13 @@ public class AnySubType extends RefLikeType
         this.base = base;
     }
 
-    public static AnySubType v( RefType base ) {
+    public static synchronized AnySubType v( RefType base ) {
+        SharedLibrary library = G.v().getSharedLibrary();
+        if( library != null && library.contains( base ) && base.getAnySubType() == null ) {
+            AnySubType ret = G.v().AnySubType_ofSharedType.get( base );
+            if( ret == null ) G.v().AnySubType_ofSharedType.put( base, ret = new AnySubType( base ) );
+            return ret;
+        }
         if( base.getAnySubType() == null ) {
             base.setAnySubType( new AnySubType( base ) );
         }
@@ -68,7 +68,7 @@ public class ArrayType extends RefLikeType
      *  @param numDimensions the dimension count to parametrize the ArrayType.
      *  @return an ArrayType parametrized accrodingly.
      */
-    public static ArrayType v(Type baseType, int numDimensions)
+    public static synchronized ArrayType v(Type baseType, int numDimensions)
     {
         if( numDimensions < 1 ) throw new RuntimeException( "attempt to create array with "+numDimensions+" dimensions" );
         ArrayType ret;
@@ -78,10 +78,16 @@ public class ArrayType extends RefLikeType
         } else {
             elementType = ArrayType.v( baseType, numDimensions-1 );
         }
+        // the types of a shared library must not change, so the array
+        // types of its types made afterwards are kept in the G
+        SharedLibrary library = G.v().getSharedLibrary();
+        boolean shared = library != null && library.contains( elementType );
         ret = elementType.getArrayType();
+        if( ret == null && shared ) ret = G.v().ArrayType_ofSharedType.get( elementType );
         if( ret == null ) {
             ret = new ArrayType(baseType, numDimensions);
-            elementType.setArrayType( ret );
+            if( shared ) G.v().ArrayType_ofSharedType.put( elementType, ret );
+            else elementType.setArrayType( ret );
         }
         return ret;
     }
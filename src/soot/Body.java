@@ -54,6 +54,7 @@ import soot.tagkit.Tag;
 import soot.toolkits.exceptions.PedanticThrowAnalysis;
 import soot.toolkits.graph.ExceptionalUnitGraph;
 import soot.toolkits.graph.UnitGraph;
+import soot.toolkits.scalar.BodyAnalysisCache;
 import soot.toolkits.scalar.FlowSet;
 import soot.toolkits.scalar.InitAnalysis;
 import soot.toolkits.scalar.LocalDefs;
@@ -89,6 +90,9 @@ public abstract class Body extends AbstractHost implements Serializable
     /** The chain of units for this Body. */
     protected PatchingChain<Unit> unitChain = new PatchingChain<Unit>(new HashChain<Unit>());
 
+    /** The analyses of this Body shared by its transformers. */
+    private transient BodyAnalysisCache analysisCache;
+
     /** Creates a deep copy of this Body. */
     abstract public Object clone();
 
@@ -399,6 +403,21 @@ public abstract class Body extends AbstractHost implements Serializable
         return unitChain;
     }
 
+    /**
+     *   Returns the cache of the control flow graph, dominators, and local
+     *   definitions and uses of this Body. Transformers that use it instead
+     *   of building their own graph share it with the others, until one of
+     *   them changes this Body.
+     *
+     *   @see BodyAnalysisCache
+     */
+    public synchronized BodyAnalysisCache getAnalysisCache()
+    {
+        if (analysisCache == null)
+            analysisCache = new BodyAnalysisCache(this);
+        return analysisCache;
+    }
+
     /**
      * Returns the result of iterating through all Units in this body
      * and querying them for their UnitBoxes.  All UnitBoxes thus
@@ -0,0 +1,479 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot;
+
+import java.io.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import soot.javaToJimple.IInitialResolver.Dependencies;
+import soot.jimple.parser.JimpleAST;
+import soot.options.Options;
+import soot.util.EscapedWriter;
+
+/** A persistent cache of library classes, kept in the directory given
+ * by -cache-dir. An entry is keyed by a hash of the class file and of
+ * the jb options. It consists of two files: the skeleton of the class
+ * and the classes it refers to, in binary form, and the Jimple of the
+ * methods whose bodies were constructed, as the jb pack produced them.
+ * A class found in the cache is resolved from its skeleton alone; the
+ * Jimple is only parsed when a body of the class is first needed, and
+ * the bodies skip coffi and jb. A body the entry lacks is constructed
+ * from the class file, and the entry is stored again with it.
+ *
+ * An entry does not depend on the other classes on the soot classpath,
+ * so changing an application class leaves the entries of the library
+ * alone. The jb pack does look at the hierarchy of the classes a body
+ * refers to when it types locals, so after a library is replaced by an
+ * incompatible version, the cache directory should be emptied.
+ */
+public class ClassCache
+{
+    public ClassCache( Singletons.Global g ) {}
+    public static ClassCache v() { return G.v().soot_ClassCache(); }
+
+    /** Changes whenever the format of the entries changes. */
+    private static final int FORMAT = 2;
+
+    /** Classes that were not in the cache, by name. */
+    private final Map<String, Miss> misses = new LinkedHashMap<String, Miss>();
+    /** Copies of the bodies of missed classes, as the jb pack left them. */
+    private final Map<SootMethod, Body> jbBodies = new HashMap<SootMethod, Body>();
+
+    private Set<String> processDirClasses;
+    private String optionsKey;
+
+    /** A class whose entry is to be stored once its bodies are known:
+     * one that was read from its class file, or one found in the cache
+     * that lacked a body that was needed. */
+    private static class Miss {
+        final String key;
+        byte[] skeleton;
+        /** The entry the class was found in, if any. */
+        CachedClassSource cached;
+        Miss( String key ) { this.key = key; }
+    }
+
+    public boolean isEnabled() {
+        return Options.v().cache_dir().length() > 0;
+    }
+
+    /** Returns true if className is looked up in and stored to the cache,
+     * which is only done for classes that will not be application
+     * classes, and only if no option asks for tags that cached bodies
+     * would lack. */
+    public boolean caches( String className ) {
+        if( !isEnabled() || Options.v().app() ) return false;
+        if( Options.v().keep_line_number() || Options.v().keep_offset() ) return false;
+        if( Options.v().classes().contains( className ) ) return false;
+        int dot = className.lastIndexOf( '.' );
+        String pkg = ( dot < 0 ? "" : className.substring( 0, dot ) ) + ".";
+        for( Iterator pkgIt = Options.v().include().iterator(); pkgIt.hasNext(); ) {
+            if( pkg.startsWith( (String) pkgIt.next() ) ) return false;
+        }
+        if( processDirClasses == null ) {
+            processDirClasses = new HashSet<String>();
+            for( Iterator pathIt = Options.v().process_dir().iterator(); pathIt.hasNext(); ) {
+                final String path = (String) pathIt.next();
+                processDirClasses.addAll( SourceLocator.v().getClassesUnder( path ) );
+            }
+        }
+        return !processDirClasses.contains( className );
+    }
+
+    /** Returns a source for className, whose class file is file: the
+     * cache entry if there is one, and the class file otherwise. */
+    public ClassSource find( String className, SourceLocator.FoundFile file ) {
+        byte[] classBytes = readFully( file.inputStream() );
+        String key = keyFor( classBytes );
+        File skeleton = skeletonFile( key );
+        if( skeleton.exists() ) {
+            try {
+                return new CachedClassSource( className, key,
+                        readFully( new FileInputStream( skeleton ) ), classBytes );
+            } catch( IOException e ) {
+                G.v().out.println( "Warning: could not read "+skeleton+" for "+className+": "+e );
+            }
+        }
+        final Miss miss = new Miss( key );
+        synchronized( this ) {
+            misses.put( className, miss );
+        }
+        return new CoffiClassSource( className, new ByteArrayInputStream( classBytes ) ) {
+            public Dependencies resolve( SootClass sc ) {
+                Dependencies deps = super.resolve( sc );
+                try {
+                    miss.skeleton = writeSkeleton( sc, deps );
+                } catch( RuntimeException e ) {
+                    // Not a class we can cache; store() will skip it.
+                }
+                return deps;
+            }
+        };
+    }
+
+    /** Called when a class found in the cache needs a body its entry
+     * lacks, so that the entry is stored again with the new body. */
+    private synchronized void bodyMissing( CachedClassSource cached ) {
+        if( misses.containsKey( cached.className ) ) return;
+        Miss miss = new Miss( cached.key );
+        miss.skeleton = cached.skeleton;
+        miss.cached = cached;
+        misses.put( cached.className, miss );
+    }
+
+    /** Called with each body the jb pack has produced from a class file,
+     * to keep a copy if its class is to be stored. */
+    public void jbApplied( Body b ) {
+        if( !isEnabled() ) return;
+        SootMethod m = b.getMethod();
+        synchronized( this ) {
+            if( !misses.containsKey( m.getDeclaringClass().getName() ) ) return;
+        }
+        Body copy = (Body) b.clone();
+        synchronized( this ) {
+            jbBodies.put( m, copy );
+        }
+    }
+
+    /** Stores the classes that were not found in the cache, or whose
+     * entries lacked a body, provided they were resolved to BODIES and
+     * are still library classes. Only the bodies that were constructed
+     * are stored. */
+    public synchronized void store() {
+        if( !isEnabled() ) return;
+        Printer printer = Printer.v();
+        boolean useAbbreviations = printer.useAbbreviations();
+        boolean addJimpleLn = printer.addJimpleLn();
+        printer.clearOption( Printer.USE_ABBREVIATIONS | Printer.ADD_JIMPLE_LN );
+        try {
+            for( Map.Entry<String, Miss> e : new ArrayList<Map.Entry<String, Miss>>( misses.entrySet() ) ) {
+                String className = e.getKey();
+                Miss miss = e.getValue();
+                if( miss.skeleton == null || !Scene.v().containsClass( className ) ) continue;
+                SootClass sc = Scene.v().getSootClass( className );
+                if( sc.isPhantom() || !sc.isLibraryClass()
+                        || sc.resolvingLevel() < SootClass.BODIES ) continue;
+                try {
+                    store( sc, miss );
+                } catch( RuntimeException ex ) {
+                    if( Options.v().verbose() )
+                        G.v().out.println( "Not caching "+className+": "+ex.getMessage() );
+                }
+            }
+        } finally {
+            if( useAbbreviations ) printer.setOption( Printer.USE_ABBREVIATIONS );
+            if( addJimpleLn ) printer.setOption( Printer.ADD_JIMPLE_LN );
+            misses.clear();
+            jbBodies.clear();
+        }
+    }
+
+    private void store( SootClass sc, Miss miss ) {
+        // The bodies as jb left them, not as later packs changed them.
+        JimpleAST cached = miss.cached == null ? null : miss.cached.parse();
+        Map<SootMethod, Body> bodies = new LinkedHashMap<SootMethod, Body>();
+        for( SootMethod m : sc.getMethods() ) {
+            if( !m.isConcrete() ) continue;
+            Body b = jbBodies.get( m );
+            if( b == null && cached != null ) b = cached.getBody( m );
+            if( b != null ) bodies.put( m, b );
+        }
+        try {
+            write( jimpleFile( miss.key ), true, new Printout( sc, bodies.values() ) );
+            // The skeleton goes last, as it marks the entry as complete.
+            write( skeletonFile( miss.key ), false, miss.skeleton );
+        } catch( IOException e ) {
+            throw new RuntimeException( "could not write "+miss.key+": "+e );
+        }
+    }
+
+    /** Writes contents, a byte[] or a Printout, to a temporary file which
+     * then replaces file, so that concurrent runs never see partial
+     * entries. */
+    private static void write( File file, boolean gzip, Object contents ) throws IOException {
+        File dir = file.getParentFile();
+        dir.mkdirs();
+        File tmp = File.createTempFile( file.getName(), ".tmp", dir );
+        boolean written = false;
+        try {
+            OutputStream out = new FileOutputStream( tmp );
+            if( gzip ) out = new GZIPOutputStream( out );
+            if( contents instanceof byte[] ) {
+                out.write( (byte[]) contents );
+                out.close();
+            } else {
+                PrintWriter writer = new PrintWriter( new EscapedWriter( new OutputStreamWriter( out ) ) );
+                ((Printout) contents).printTo( writer );
+                writer.close();
+                if( writer.checkError() ) throw new IOException( "could not write "+tmp );
+            }
+            written = tmp.renameTo( file );
+            if( !written ) throw new IOException( "could not rename "+tmp+" to "+file );
+        } finally {
+            if( !written ) tmp.delete();
+        }
+    }
+
+    /** The Jimple of some bodies of a class, to be written to an entry.
+     * Only the class's name is printed with them, as the rest of the
+     * class is in the skeleton. */
+    private static class Printout {
+        final SootClass sc;
+        final Collection<Body> bodies;
+        Printout( SootClass sc, Collection<Body> bodies ) {
+            this.sc = sc;
+            this.bodies = bodies;
+        }
+        void printTo( PrintWriter out ) {
+            out.println( "class "+Scene.v().quotedNameOf( sc.getName() ) );
+            out.println( "{" );
+            for( Body b : bodies ) {
+                Printer.v().printTo( b, out );
+                out.println();
+            }
+            out.println( "}" );
+        }
+    }
+
+    private static byte[] writeSkeleton( SootClass sc, Dependencies deps ) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream( bytes );
+            out.writeInt( FORMAT );
+            out.writeInt( sc.getModifiers() );
+            out.writeUTF( sc.hasSuperclass() ? sc.getSuperclass().getName() : "" );
+            out.writeInt( sc.getInterfaceCount() );
+            for( SootClass iface : sc.getInterfaces() ) {
+                out.writeUTF( iface.getName() );
+            }
+            out.writeInt( sc.getFieldCount() );
+            for( SootField f : sc.getFields() ) {
+                out.writeInt( f.getModifiers() );
+                out.writeUTF( f.getName() );
+                out.writeUTF( AbstractJasminClass.jasminDescriptorOf( f.getType() ) );
+            }
+            out.writeInt( sc.getMethodCount() );
+            for( SootMethod m : sc.getMethods() ) {
+                out.writeInt( m.getModifiers() );
+                out.writeUTF( m.getName() );
+                out.writeUTF( AbstractJasminClass.jasminDescriptorOf( m.makeRef() ) );
+                out.writeInt( m.getExceptions().size() );
+                for( SootClass exception : m.getExceptions() ) {
+                    out.writeUTF( exception.getName() );
+                }
+            }
+            writeReferences( out, deps.typesToHierarchy );
+            writeReferences( out, deps.typesToSignature );
+            out.close();
+            return bytes.toByteArray();
+        } catch( IOException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /** References are class names or types, as the class sources give them. */
+    private static void writeReferences( DataOutputStream out, Set references ) throws IOException {
+        out.writeInt( references.size() );
+        for( Object ref : references ) {
+            if( ref instanceof String ) {
+                out.writeBoolean( false );
+                out.writeUTF( (String) ref );
+            } else if( ref instanceof Type ) {
+                out.writeBoolean( true );
+                out.writeUTF( AbstractJasminClass.jasminDescriptorOf( (Type) ref ) );
+            } else throw new RuntimeException( "cannot cache reference "+ref );
+        }
+    }
+
+    private static Set readReferences( DataInputStream in ) throws IOException {
+        Set<Object> references = new HashSet<Object>();
+        for( int i = in.readInt(); i > 0; i-- ) {
+            boolean isType = in.readBoolean();
+            String ref = in.readUTF();
+            references.add( isType ? soot.coffi.Util.v().jimpleTypeOfFieldDescriptor( ref ) : ref );
+        }
+        return references;
+    }
+
+    /** Resolves a class from its skeleton, giving its methods bodies
+     * parsed from the Jimple of the entry, or, for the bodies the entry
+     * lacks, constructed from the class file. */
+    private static class CachedClassSource extends ClassSource implements MethodSource {
+        private final String key;
+        private final byte[] skeleton;
+        private final byte[] classBytes;
+        private JimpleAST jimpleAST;
+        private soot.coffi.ClassFile coffiClass;
+
+        CachedClassSource( String className, String key, byte[] skeleton, byte[] classBytes ) {
+            super( className );
+            this.key = key;
+            this.skeleton = skeleton;
+            this.classBytes = classBytes;
+        }
+
+        public Dependencies resolve( SootClass sc ) {
+            if(Options.v().verbose())
+                G.v().out.println("resolving [from cache]: " + className );
+            soot.coffi.Util util = soot.coffi.Util.v();
+            Dependencies deps = new Dependencies();
+            try {
+                DataInputStream in = new DataInputStream( new ByteArrayInputStream( skeleton ) );
+                if( in.readInt() != FORMAT )
+                    throw new RuntimeException( "unknown cache format" );
+                sc.setModifiers( in.readInt() );
+                String superclass = in.readUTF();
+                if( superclass.length() > 0 )
+                    sc.setSuperclass( SootResolver.v().makeClassRef( superclass ) );
+                for( int i = in.readInt(); i > 0; i-- ) {
+                    sc.addInterface( SootResolver.v().makeClassRef( in.readUTF() ) );
+                }
+                for( int i = in.readInt(); i > 0; i-- ) {
+                    int modifiers = in.readInt();
+                    String name = in.readUTF();
+                    sc.addField( new SootField( name,
+                                util.jimpleTypeOfFieldDescriptor( in.readUTF() ), modifiers ) );
+                }
+                for( int i = in.readInt(); i > 0; i-- ) {
+                    int modifiers = in.readInt();
+                    String name = in.readUTF();
+                    Type[] types = util.jimpleTypesOfFieldOrMethodDescriptor( in.readUTF() );
+                    List<Type> parameterTypes = new ArrayList<Type>(
+                            Arrays.asList( types ).subList( 0, types.length - 1 ) );
+                    SootMethod m = new SootMethod( name, parameterTypes,
+                            types[types.length - 1], modifiers );
+                    sc.addMethod( m );
+                    for( int j = in.readInt(); j > 0; j-- ) {
+                        m.addExceptionIfAbsent( SootResolver.v().makeClassRef( in.readUTF() ) );
+                    }
+                    m.setSource( this );
+                }
+                deps.typesToHierarchy.addAll( readReferences( in ) );
+                deps.typesToSignature.addAll( readReferences( in ) );
+            } catch( IOException e ) {
+                throw new RuntimeException( "could not read skeleton of "+className+": "+e );
+            }
+            return deps;
+        }
+
+        public Body getBody( SootMethod m, String phaseName ) {
+            // The cached bodies have already been through jb.
+            Body ret = jimpleAST().getBody( m );
+            if( ret != null ) return ret;
+            ClassCache.v().bodyMissing( this );
+            return soot.coffi.CoffiMethodSource.forMethod( coffiClass(), m )
+                .getBody( m, phaseName );
+        }
+
+        private synchronized JimpleAST jimpleAST() {
+            if( jimpleAST == null ) jimpleAST = parse();
+            return jimpleAST;
+        }
+
+        /** Parses the Jimple of the entry. */
+        JimpleAST parse() {
+            try {
+                InputStream in = new GZIPInputStream( new FileInputStream( jimpleFile( key ) ) );
+                try {
+                    return new JimpleAST( in );
+                } finally {
+                    in.close();
+                }
+            } catch( IOException e ) {
+                throw new RuntimeException( "could not read the Jimple of "+className+": "+e );
+            }
+        }
+
+        private synchronized soot.coffi.ClassFile coffiClass() {
+            if( coffiClass == null ) {
+                soot.coffi.ClassFile cf = new soot.coffi.ClassFile( className );
+                if( !cf.loadClassFile( new ByteArrayInputStream( classBytes ) ) )
+                    throw new RuntimeException( "could not load the class file of "+className );
+                coffiClass = cf;
+            }
+            return coffiClass;
+        }
+    }
+
+    private static File skeletonFile( String key ) {
+        return new File( new File( Options.v().cache_dir(), key.substring( 0, 2 ) ), key + ".skel" );
+    }
+
+    private static File jimpleFile( String key ) {
+        return new File( new File( Options.v().cache_dir(), key.substring( 0, 2 ) ), key + ".jimple.gz" );
+    }
+
+    private String keyFor( byte[] classBytes ) {
+        try {
+            MessageDigest md = MessageDigest.getInstance( "SHA-1" );
+            md.update( classBytes );
+            md.update( optionsKey().getBytes( "UTF-8" ) );
+            return hex( md.digest() );
+        } catch( NoSuchAlgorithmException e ) {
+            throw new RuntimeException( e );
+        } catch( UnsupportedEncodingException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /** Returns the options that influence the bodies jb produces. */
+    private synchronized String optionsKey() {
+        if( optionsKey == null ) {
+            StringBuffer key = new StringBuffer( "format=" + FORMAT );
+            key.append( ";j2me=" ).append( Options.v().j2me() );
+            key.append( ";jb=" ).append( new TreeMap( PhaseOptions.v().getPhaseOptions( "jb" ) ) );
+            for( Iterator tIt = PackManager.v().getPack( "jb" ).iterator(); tIt.hasNext(); ) {
+                final Transform t = (Transform) tIt.next();
+                key.append( ";" ).append( t.getPhaseName() ).append( "=" );
+                key.append( new TreeMap( PhaseOptions.v().getPhaseOptions( t ) ) );
+            }
+            optionsKey = key.toString();
+        }
+        return optionsKey;
+    }
+
+    private static String hex( byte[] digest ) {
+        StringBuffer ret = new StringBuffer();
+        for( byte b : digest ) {
+            ret.append( Character.forDigit( ( b >> 4 ) & 0xf, 16 ) );
+            ret.append( Character.forDigit( b & 0xf, 16 ) );
+        }
+        return ret.toString();
+    }
+
+    private static byte[] readFully( InputStream in ) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int read;
+            while( ( read = in.read( buf ) ) != -1 ) {
+                bytes.write( buf, 0, read );
+            }
+            in.close();
+            return bytes.toByteArray();
+        } catch( IOException e ) {
+            throw new RuntimeException( "Caught IOException "+e );
+        }
+    }
+}
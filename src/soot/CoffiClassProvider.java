@@ -31,7 +31,9 @@ public class CoffiClassProvider implements ClassProvider
         SourceLocator.FoundFile file = 
             SourceLocator.v().lookupInClassPath(fileName);
         if( file == null ) return null;
-        return new CoffiClassSource(className, file.inputStream());
+        if( ClassCache.v().caches(className) )
+            return ClassCache.v().find(className, file);
+        return new CoffiClassSource(className, file);
     }
 }
 
@@ -32,11 +32,33 @@ public class CoffiClassSource extends ClassSource
         super( className );
         this.classFile = classFile;
     }
+    /** Creates a class source that opens the class file only when it is
+     * loaded. */
+    public CoffiClassSource( String className, SourceLocator.FoundFile foundFile ) {
+        super( className );
+        this.foundFile = foundFile;
+    }
+    /** Reads and parses the class file. This does not touch the Scene, so
+     * it may be called on another thread ahead of resolve(). */
+    public synchronized void load() {
+        if( loadFailure != null ) throw loadFailure;
+        if( coffiClass != null ) return;
+        try {
+            if( classFile == null ) classFile = foundFile.inputStream();
+            soot.coffi.ClassFile cf = new soot.coffi.ClassFile( className );
+            loaded = cf.loadClassFile( classFile );
+            coffiClass = cf;
+        } catch( RuntimeException e ) {
+            loadFailure = e;
+            throw e;
+        }
+    }
     public Dependencies resolve( SootClass sc ) {
         if(Options.v().verbose())
             G.v().out.println("resolving [from .class]: " + className );
+        load();
         List references = new ArrayList();
-        soot.coffi.Util.v().resolveFromClassFile(sc, classFile, references);
+        soot.coffi.Util.v().resolveFromClassFile(sc, coffiClass, loaded, references);
 
         try {
             classFile.close();
@@ -47,5 +69,8 @@ public class CoffiClassSource extends ClassSource
         return deps;
     }
     protected InputStream classFile;
+    protected SourceLocator.FoundFile foundFile;
+    protected soot.coffi.ClassFile coffiClass;
+    protected boolean loaded;
+    private RuntimeException loadFailure;
 }
-
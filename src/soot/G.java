@@ -30,21 +30,126 @@ import soot.dava.internal.SET.SETNode;
 
 import java.io.PrintStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import soot.jimple.toolkits.pointer.util.NativeHelper;
 import soot.jimple.spark.pag.MethodPAG;
 import soot.jimple.spark.sets.P2SetFactory;
+import soot.jimple.Stmt;
 import soot.jimple.toolkits.annotation.arraycheck.Array2ndDimensionSymbol;
+import soot.jimple.toolkits.annotation.purity.PurityEdge;
+import soot.jimple.toolkits.annotation.purity.PurityNode;
 import soot.jimple.toolkits.pointer.UnionFactory;
 import soot.jimple.toolkits.typing.ClassHierarchy;
 import soot.shimple.*;
 import soot.toolkits.astmetrics.ClassData;
 
-/** A class to group together all the global variables in Soot. */
+/** A class to group together all the global variables in Soot.
+ *
+ * By default there is a single G for the whole JVM. To run several
+ * independent analyses in one JVM, each on its own thread, give each of
+ * them its own G with setThreadInstance(); Scene, Options, PackManager
+ * and all the other singletons are then separate for each analysis.
+ * Threads started by a thread which has its own G, such as the worker
+ * threads used with -num-threads, share that G. The G's of the analyses
+ * may start from the same library classes, frozen once in a SharedLibrary.
+ * A few toolkits still keep state in static fields, and cannot run in
+ * several G's at the same time: wjtp.tn (see LockAllocator), and the
+ * geometric points-to analysis unless all the G's give it the same
+ * geom-frac-base and geom-runs.
+ */
 public class G extends Singletons 
 {
     private static G instance = new G();
-    public static G v() { return instance; }
-    public static void reset() { instance = new G(); }
+    private static final InheritableThreadLocal<G> threadInstance = new InheritableThreadLocal<G>();
+    private static volatile boolean threadInstances = false;
+
+    public static G v() {
+        if( threadInstances ) {
+            G ret = threadInstance.get();
+            if( ret != null ) return ret;
+        }
+        return instance;
+    }
+
+    /** Replaces the G of the calling thread, if it has its own (see
+     * setThreadInstance()), or else the G of the JVM, by a new one, which
+     * shares the same library, if any. */
+    public static void reset() {
+        if( threadInstances && threadInstance.get() != null )
+            threadInstance.set( new G( threadInstance.get().sharedLibrary ) );
+        else
+            instance = new G();
+    }
+
+    /** Makes g the G of the calling thread and of the threads it will
+     * start, in place of the G of the JVM. Passing null makes the
+     * calling thread use the G of the JVM again. */
+    public static void setThreadInstance( G g ) {
+        if( g != null ) threadInstances = true;
+        threadInstance.set( g );
+    }
+
+    /** Returns the G set for the calling thread by setThreadInstance(),
+     * or null if it uses the G of the JVM. */
+    public static G getThreadInstance() {
+        return threadInstances ? threadInstance.get() : null;
+    }
+
+    private final SharedLibrary sharedLibrary;
+
+    public G() { this( null ); }
+
+    /** Makes a G whose Scene starts with the classes of library, or with
+     * none if library is null. */
+    public G( SharedLibrary library ) { sharedLibrary = library; }
+
+    /** Returns the library this G shares with others, or null. */
+    public SharedLibrary getSharedLibrary() { return sharedLibrary; }
+
+    // The shared classes and bodies hold the types and the null constant of
+    // the G the library was frozen in, so a G sharing it uses those too
+    public BooleanType soot_BooleanType() {
+        return sharedLibrary == null ? super.soot_BooleanType() : sharedLibrary.booleanType;
+    }
+    public ByteType soot_ByteType() {
+        return sharedLibrary == null ? super.soot_ByteType() : sharedLibrary.byteType;
+    }
+    public CharType soot_CharType() {
+        return sharedLibrary == null ? super.soot_CharType() : sharedLibrary.charType;
+    }
+    public ShortType soot_ShortType() {
+        return sharedLibrary == null ? super.soot_ShortType() : sharedLibrary.shortType;
+    }
+    public IntType soot_IntType() {
+        return sharedLibrary == null ? super.soot_IntType() : sharedLibrary.intType;
+    }
+    public LongType soot_LongType() {
+        return sharedLibrary == null ? super.soot_LongType() : sharedLibrary.longType;
+    }
+    public FloatType soot_FloatType() {
+        return sharedLibrary == null ? super.soot_FloatType() : sharedLibrary.floatType;
+    }
+    public DoubleType soot_DoubleType() {
+        return sharedLibrary == null ? super.soot_DoubleType() : sharedLibrary.doubleType;
+    }
+    public VoidType soot_VoidType() {
+        return sharedLibrary == null ? super.soot_VoidType() : sharedLibrary.voidType;
+    }
+    public NullType soot_NullType() {
+        return sharedLibrary == null ? super.soot_NullType() : sharedLibrary.nullType;
+    }
+    public UnknownType soot_UnknownType() {
+        return sharedLibrary == null ? super.soot_UnknownType() : sharedLibrary.unknownType;
+    }
+    public ErroneousType soot_ErroneousType() {
+        return sharedLibrary == null ? super.soot_ErroneousType() : sharedLibrary.erroneousType;
+    }
+    public StmtAddressType soot_StmtAddressType() {
+        return sharedLibrary == null ? super.soot_StmtAddressType() : sharedLibrary.stmtAddressType;
+    }
+    public soot.jimple.NullConstant soot_jimple_NullConstant() {
+        return sharedLibrary == null ? super.soot_jimple_NullConstant() : sharedLibrary.nullConstant;
+    }
 
     public PrintStream out = System.out;
 
@@ -54,6 +159,10 @@ public class G extends Singletons
     public long coffi_BasicBlock_ids = 0;
     public Utf8_Enumeration coffi_CONSTANT_Utf8_info_e1 = new Utf8_Enumeration();
     public Utf8_Enumeration coffi_CONSTANT_Utf8_info_e2 = new Utf8_Enumeration();
+    public final ThreadLocal<Util> coffi_Util_threadUtil = new ThreadLocal<Util>();
+    public final Map<SootMethod, int[]> coffi_CFG_methodsToVEM = new ConcurrentHashMap<SootMethod, int[]>();
+    public final Map<Type, ArrayType> ArrayType_ofSharedType = new HashMap<Type, ArrayType>();
+    public final Map<RefType, AnySubType> AnySubType_ofSharedType = new HashMap<RefType, AnySubType>();
     public int SETNodeLabel_uniqueId = 0;
     public HashMap<SETNode, SETBasicBlock> SETBasicBlock_binding = new HashMap<SETNode, SETBasicBlock>();
     public boolean ASTAnalysis_modified;
@@ -77,8 +186,35 @@ public class G extends Singletons
     public int Timer_count;
     public final Map<Scene, ClassHierarchy> ClassHierarchy_classHierarchyMap = new HashMap<Scene, ClassHierarchy>();
     public final Map<MethodContext, MethodContext> MethodContext_map = new HashMap<MethodContext, MethodContext>();
+    public final Map<SootMethod, Integer> PurityMethodNode_nMap = new HashMap<SootMethod, Integer>();
+    public final Map<Stmt, Integer> PurityStmtNode_nMap = new HashMap<Stmt, Integer>();
+    public final Map<PurityNode, PurityNode> PurityGraph_nodeCache = new HashMap<PurityNode, PurityNode>();
+    public final Map<PurityEdge, PurityEdge> PurityGraph_edgeCache = new HashMap<PurityEdge, PurityEdge>();
+    public final int[] PurityGraph_maxStat = new int[5];
 
     public ShimpleFactory shimpleFactory = new DefaultShimpleFactory();
+    private final ThreadLocal<ShimpleFactory> ShimpleFactory_threadFactory = new ThreadLocal<ShimpleFactory>();
+
+    /**
+     * Returns the ShimpleFactory to be used by the calling thread.
+     * A ShimpleFactory caches the graphs of the one body it was last
+     * given, so when body packs are applied on several threads (see
+     * -num-threads), each thread gets its own instance of the class
+     * of shimpleFactory.
+     */
+    public ShimpleFactory shimpleFactory() {
+        if( soot.options.Options.v().num_threads() <= 1 ) return shimpleFactory;
+        ShimpleFactory ret = ShimpleFactory_threadFactory.get();
+        if( ret == null || ret.getClass() != shimpleFactory.getClass() ) {
+            try {
+                ret = shimpleFactory.getClass().newInstance();
+            } catch( Exception e ) {
+                throw new RuntimeException( "Could not create a "+shimpleFactory.getClass()+" for thread "+Thread.currentThread().getName(), e );
+            }
+            ShimpleFactory_threadFactory.set( ret );
+        }
+        return ret;
+    }
 
     
     public boolean ASTTransformations_modified;
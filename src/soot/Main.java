@@ -130,6 +130,14 @@ public class Main {
                 CompilationDeathException.COMPILATION_ABORTED,
                 "No input classes specified!");
         }
+        CGOptions cgOptions = new CGOptions( PhaseOptions.v().getPhaseOptions("cg") );
+        if (cgOptions.compact() && Options.v().whole_program()
+        && PhaseOptions.getBoolean(PhaseOptions.v().getPhaseOptions("wjop"), "enabled")) {
+            throw new CompilationDeathException(
+                CompilationDeathException.COMPILATION_ABORTED,
+                "cg compact:true cannot be used with whole-program optimization (-W), "
+                + "since wjop changes the call graph");
+        }
     }
 
     public String[] cmdLineArgs = new String[0];
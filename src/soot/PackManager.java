@@ -19,6 +19,10 @@
 
 package soot;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.io.*;
 import java.util.zip.*;
 import soot.util.*;
@@ -68,6 +72,7 @@ import soot.dava.toolkits.base.AST.transformations.RemoveEmptyBodyDefaultConstru
 import soot.dava.toolkits.base.AST.transformations.VoidReturnRemover;
 import soot.dava.toolkits.base.misc.*;
 import soot.xml.*;
+import soot.toolkits.exceptions.ThrowableSet;
 import soot.toolkits.exceptions.TrapTightener;
 import soot.toolkits.graph.interaction.*;
 
@@ -393,7 +398,7 @@ public class PackManager {
     public void coffiMetrics() {
       int tV = 0, tE = 0, hM = 0;
       double aM = 0;
-      HashMap<SootMethod, int[]> hashVem = soot.coffi.CFG.methodsToVEM;
+      Map<SootMethod, int[]> hashVem = G.v().coffi_CFG_methodsToVEM;
       Iterator<SootMethod> it = hashVem.keySet().iterator();
       while (it.hasNext()) {
         int vem[] = hashVem.get(it.next());
@@ -425,6 +430,7 @@ public class PackManager {
         }
         postProcessXML( reachableClasses() );
         releaseBodies( reachableClasses() );
+        ClassCache.v().store();
         if(Options.v().verbose())
             PhaseDumper.v().dumpAfter("output");
     }
@@ -495,6 +501,18 @@ public class PackManager {
     }
 
     private void runBodyPacks( Iterator classes ) {
+        int numThreads = Scene.v().getNumThreads();
+        if( numThreads > 1
+                && Options.v().output_format() != Options.output_format_dava
+                && !Options.v().interactive_mode() ) {
+            String phase = findSequentialBodyPhase();
+            if( phase == null ) {
+                runBodyPacksInParallel( classes, numThreads );
+                return;
+            }
+            G.v().out.println( "Note: transforming bodies on a single thread, "+
+                    "since "+phase+" may not see several bodies changed at once." );
+        }
         while( classes.hasNext() ) {
             SootClass cl = (SootClass) classes.next();
             runBodyPacks( cl );
@@ -727,47 +745,10 @@ public class PackManager {
         }
         G.v().out.println(c.getName() + "... ");
 
-        boolean produceBaf = false, produceGrimp = false, produceDava = false,
-            produceJimple = true, produceShimple = false;
-
-        switch (format) {
-            case Options.output_format_none :
-            case Options.output_format_xml :
-            case Options.output_format_jimple :
-            case Options.output_format_jimp :
-            case Options.output_format_template :
-                break;
-            case Options.output_format_shimp:
-            case Options.output_format_shimple:
-                produceShimple = true;
-                // FLIP produceJimple
-                produceJimple = false;
-                break;
-            case Options.output_format_dava :
-                produceDava = true;
-                // FALL THROUGH
-            case Options.output_format_grimp :
-            case Options.output_format_grimple :
-                produceGrimp = true;
-                break;
-            case Options.output_format_baf :
-            case Options.output_format_b :
-                produceBaf = true;
-                break;
-            case Options.output_format_jasmin :
-            case Options.output_format_class :
-                produceGrimp = Options.v().via_grimp();
-                produceBaf = !produceGrimp;
-                break;
-            default :
-                throw new RuntimeException();
-        }
+        BodyProduction production = new BodyProduction();
 
         soot.xml.TagCollector tc = new soot.xml.TagCollector();
         
-        boolean wholeShimple = Options.v().whole_shimple();
-        if( Options.v().via_shimple() ) produceShimple = true;
-
         //here we create a copy of the methods so that transformers are able
         //to add method bodies during the following iteration;
         //such adding of methods happens in rare occasions: for instance when
@@ -785,53 +766,7 @@ public class PackManager {
             
             if (!m.isConcrete()) continue;
 
-            if (produceShimple || wholeShimple) {
-                ShimpleBody sBody = null;
-
-                // whole shimple or not?
-                {
-                    Body body = m.retrieveActiveBody();
-
-                    if(body instanceof ShimpleBody){
-                        sBody = (ShimpleBody) body;
-                        if(!sBody.isSSA())
-                            sBody.rebuild();
-                    }
-                    else{
-                        sBody = Shimple.v().newBody(body);
-                    }
-                }
-                
-                m.setActiveBody(sBody);
-                PackManager.v().getPack("stp").apply(sBody);
-                PackManager.v().getPack("sop").apply(sBody);
-
-                if( produceJimple || (wholeShimple && !produceShimple) )
-                    m.setActiveBody(sBody.toJimpleBody());
-            }
-
-            if (produceJimple) {
-                JimpleBody body =(JimpleBody) m.retrieveActiveBody();
-                PackManager.v().getPack("jtp").apply(body);
-                if( Options.v().validate() ) {
-                    body.validate();
-                }
-                PackManager.v().getPack("jop").apply(body);
-                PackManager.v().getPack("jap").apply(body);
-                if (Options.v().xml_attributes() && Options.v().output_format() != Options.output_format_jimple) {
-                    //System.out.println("collecting body tags");
-                    tc.collectBodyTags(body);
-                }
-            }
-            
-            //PackManager.v().getPack("cfg").apply(m.retrieveActiveBody());
-
-            if (produceGrimp) {
-                m.setActiveBody(Grimp.v().newBody(m.getActiveBody(), "gb"));
-                PackManager.v().getPack("gop").apply(m.getActiveBody());
-            } else if (produceBaf) {
-        		m.setActiveBody(convertJimpleBodyToBaf(m));
-            }
+            runBodyPacks(m, production, tc);
         }
             
         if (Options.v().xml_attributes() && Options.v().output_format() != Options.output_format_jimple) {
@@ -839,7 +774,7 @@ public class PackManager {
             //System.out.println("processed xml for class");
         }
 
-        if (produceDava) {
+        if (production.produceDava) {
             methodIt = c.methodIterator();
             while (methodIt.hasNext()) {
                 SootMethod m = (SootMethod) methodIt.next();
@@ -869,6 +804,208 @@ public class PackManager {
         }//end if produceDava
     }
 
+    /** Applies the body packs selected by <code>production</code> to the
+     * active body of the concrete method <code>m</code>, collecting body
+     * tags into <code>tc</code>.  Only touches <code>m</code> and its
+     * body, so it may be called for several methods at once when
+     * <code>-num-threads</code> is greater than one. */
+    private void runBodyPacks(SootMethod m, BodyProduction production, TagCollector tc) {
+        if (production.produceShimple || production.wholeShimple) {
+            ShimpleBody sBody = null;
+
+            // whole shimple or not?
+            {
+                Body body = m.retrieveActiveBody();
+
+                if(body instanceof ShimpleBody){
+                    sBody = (ShimpleBody) body;
+                    if(!sBody.isSSA())
+                        sBody.rebuild();
+                }
+                else{
+                    sBody = Shimple.v().newBody(body);
+                }
+            }
+            
+            m.setActiveBody(sBody);
+            PackManager.v().getPack("stp").apply(sBody);
+            PackManager.v().getPack("sop").apply(sBody);
+
+            if( production.produceJimple || (production.wholeShimple && !production.produceShimple) )
+                m.setActiveBody(sBody.toJimpleBody());
+        }
+
+        if (production.produceJimple) {
+            JimpleBody body =(JimpleBody) m.retrieveActiveBody();
+            PackManager.v().getPack("jtp").apply(body);
+            if( Options.v().validate() ) {
+                body.validate();
+            }
+            PackManager.v().getPack("jop").apply(body);
+            PackManager.v().getPack("jap").apply(body);
+            if (Options.v().xml_attributes() && Options.v().output_format() != Options.output_format_jimple) {
+                //System.out.println("collecting body tags");
+                tc.collectBodyTags(body);
+            }
+        }
+        
+        //PackManager.v().getPack("cfg").apply(m.retrieveActiveBody());
+
+        if (production.produceGrimp) {
+            m.setActiveBody(Grimp.v().newBody(m.getActiveBody(), "gb"));
+            PackManager.v().getPack("gop").apply(m.getActiveBody());
+        } else if (production.produceBaf) {
+    		m.setActiveBody(convertJimpleBodyToBaf(m));
+        }
+    }
+
+    /** Returns the name of an enabled body phase which reads the bodies of
+     * other methods, or keeps state across bodies, and so may not see the
+     * bodies of several methods changed at once; or null if there is none. */
+    private String findSequentialBodyPhase() {
+        if( isEnabled( "jap" ) ) {
+            if( isEnabled( "jap.sea" ) ) return "jap.sea";
+            if( isEnabled( "jap.fieldrw" ) ) return "jap.fieldrw";
+            if( isEnabled( "jap.abc" ) ) {
+                Map options = PhaseOptions.v().getPhaseOptions( "jap.abc" );
+                if( PhaseOptions.getBoolean( options, "with-all" )
+                        || PhaseOptions.getBoolean( options, "with-classfield" ) )
+                    return "jap.abc";
+            }
+        }
+        // the jbco transformers share static tables between bodies
+        String[] packs = { "jtp", "jop", "bb", "bop" };
+        for( int i = 0; i < packs.length; i++ ) {
+            for( Iterator tIt = getPack( packs[i] ).iterator(); tIt.hasNext(); ) {
+                final Transform t = (Transform) tIt.next();
+                if( t.getPhaseName().indexOf( "jbco_" ) >= 0
+                        && isEnabled( t.getPhaseName() ) )
+                    return t.getPhaseName();
+            }
+        }
+        return null;
+    }
+
+    private boolean isEnabled( String phaseName ) {
+        return PhaseOptions.getBoolean(
+                PhaseOptions.v().getPhaseOptions( phaseName ), "enabled" );
+    }
+
+    /** Applies the body packs to the application classes using a pool of
+     * <code>numThreads</code> workers, one task per concrete method.
+     * Classes are announced, and their XML attributes are written, in
+     * the same order as {@link #runBodyPacks(SootClass)} would do, so the
+     * result does not depend on the scheduling of the workers. */
+    private void runBodyPacksInParallel( Iterator classes, int numThreads ) {
+        final BodyProduction production = new BodyProduction();
+        final boolean collectTags = Options.v().xml_attributes()
+            && Options.v().output_format() != Options.output_format_jimple;
+
+        // Create the shared structures up front, rather than having the
+        // workers race to create them lazily.
+        Scene.v().getOrMakeFastHierarchy();
+        ThrowableSet.Manager.v();
+
+        List<SootClass> classList = new ArrayList<SootClass>();
+        Map<SootClass, List<TagCollector>> classToTags = new HashMap<SootClass, List<TagCollector>>();
+        List<Future> tasks = new ArrayList<Future>();
+        ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+        try {
+            while( classes.hasNext() ) {
+                SootClass c = (SootClass) classes.next();
+                G.v().out.println("Transforming " + c.getName() + "... ");
+                classList.add( c );
+
+                List<TagCollector> tags = new ArrayList<TagCollector>();
+                classToTags.put( c, tags );
+                for( SootMethod m : new ArrayList<SootMethod>(c.getMethods()) ) {
+                    if( !m.isConcrete() ) continue;
+                    final SootMethod method = m;
+                    final TagCollector tc = new TagCollector();
+                    tags.add( tc );
+                    tasks.add( executor.submit( new Runnable() {
+                        public void run() {
+                            runBodyPacks( method, production, tc );
+                        }
+                    } ) );
+                }
+            }
+            waitFor( tasks );
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if( collectTags ) {
+            for( SootClass c : classList ) {
+                TagCollector tc = new TagCollector();
+                for( TagCollector methodTags : classToTags.get( c ) ) {
+                    tc.addAll( methodTags );
+                }
+                processXMLForClass( c, tc );
+            }
+        }
+    }
+
+    /** Waits for all tasks to complete, rethrowing the first failure. */
+    private static void waitFor( List<Future> tasks ) {
+        for( Future task : tasks ) {
+            try {
+                task.get();
+            } catch( ExecutionException e ) {
+                Throwable cause = e.getCause();
+                if( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+                if( cause instanceof Error ) throw (Error) cause;
+                throw new RuntimeException( cause );
+            } catch( InterruptedException e ) {
+                throw new RuntimeException( "Interrupted while waiting for worker threads", e );
+            }
+        }
+    }
+
+    /** The intermediate representations that the body packs have to
+     * produce for the current output format. */
+    private static class BodyProduction {
+        boolean produceBaf = false, produceGrimp = false, produceDava = false,
+            produceJimple = true, produceShimple = false;
+        final boolean wholeShimple = Options.v().whole_shimple();
+
+        BodyProduction() {
+            switch (Options.v().output_format()) {
+                case Options.output_format_none :
+                case Options.output_format_xml :
+                case Options.output_format_jimple :
+                case Options.output_format_jimp :
+                case Options.output_format_template :
+                    break;
+                case Options.output_format_shimp:
+                case Options.output_format_shimple:
+                    produceShimple = true;
+                    // FLIP produceJimple
+                    produceJimple = false;
+                    break;
+                case Options.output_format_dava :
+                    produceDava = true;
+                    // FALL THROUGH
+                case Options.output_format_grimp :
+                case Options.output_format_grimple :
+                    produceGrimp = true;
+                    break;
+                case Options.output_format_baf :
+                case Options.output_format_b :
+                    produceBaf = true;
+                    break;
+                case Options.output_format_jasmin :
+                case Options.output_format_class :
+                    produceGrimp = Options.v().via_grimp();
+                    produceBaf = !produceGrimp;
+                    break;
+                default :
+                    throw new RuntimeException();
+            }
+            if( Options.v().via_shimple() ) produceShimple = true;
+        }
+    }
+
 	public BafBody convertJimpleBodyToBaf(SootMethod m) {
 		BafBody bafBody = Baf.v().newBody((JimpleBody) m.getActiveBody());
 		PackManager.v().getPack("bop").apply(bafBody);
@@ -1006,6 +1143,12 @@ public class PackManager {
     }
 
     private void retrieveAllBodies() {
+        int numThreads = Scene.v().getNumThreads();
+        if( numThreads > 1 && !soot.jbco.Main.metrics
+                && !Options.v().interactive_mode() ) {
+            retrieveAllBodiesInParallel( numThreads );
+            return;
+        }
         Iterator clIt = reachableClasses();
         while( clIt.hasNext() ) {
             SootClass cl = (SootClass) clIt.next();
@@ -1025,4 +1168,38 @@ public class PackManager {
             }
         }
     }
+
+    /** Constructs the bodies of all concrete methods on numThreads
+     * threads, one task per method. The bodies are the same as with a
+     * single thread, but the types and phantom classes, methods and
+     * fields they create are numbered in the order the tasks reach them. */
+    private void retrieveAllBodiesInParallel( int numThreads ) {
+        // Create the shared structures up front, rather than having the
+        // workers race to create them lazily.
+        ThrowableSet.Manager.v();
+
+        List<SootMethod> methods = new ArrayList<SootMethod>();
+        Iterator clIt = reachableClasses();
+        while( clIt.hasNext() ) {
+            SootClass cl = (SootClass) clIt.next();
+            for( SootMethod m : cl.getMethods() ) {
+                if( m.isConcrete() ) methods.add( m );
+            }
+        }
+
+        List<Future> tasks = new ArrayList<Future>();
+        ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+        try {
+            for( final SootMethod m : methods ) {
+                tasks.add( executor.submit( new Runnable() {
+                    public void run() {
+                        m.retrieveActiveBody();
+                    }
+                } ) );
+            }
+            waitFor( tasks );
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
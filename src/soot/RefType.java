@@ -62,12 +62,15 @@ public class RefType extends RefLikeType implements Comparable
      */
     public static RefType v(String className)
     {
-        if(Scene.v().containsType(className)) {
-        	return Scene.v().getRefType( className );
-        } else {
-	        RefType ret = new RefType(className);
-	        Scene.v().addRefType( ret );
-	        return ret;
+        Scene scene = Scene.v();
+        synchronized( scene ) {
+            if(scene.containsType(className)) {
+                return scene.getRefType( className );
+            } else {
+                RefType ret = new RefType(className);
+                scene.addRefType( ret );
+                return ret;
+            }
         }
     }
 
@@ -39,6 +39,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import soot.jimple.toolkits.callgraph.CallGraph;
 import soot.jimple.toolkits.callgraph.ContextSensitiveCallGraph;
@@ -52,7 +53,10 @@ import soot.toolkits.exceptions.ThrowAnalysis;
 import soot.toolkits.exceptions.UnitThrowAnalysis;
 import soot.util.ArrayNumberer;
 import soot.util.Chain;
+import soot.util.ConcurrentArrayNumberer;
+import soot.util.ConcurrentStringNumberer;
 import soot.util.HashChain;
+import soot.util.IterableNumberer;
 import soot.util.MapNumberer;
 import soot.util.Numberer;
 import soot.util.SingletonList;
@@ -86,6 +90,24 @@ public class Scene  //extends AbstractHost
         addSootBasicClasses();
         
         determineExcludedPackages();
+
+        SharedLibrary library = G.v().getSharedLibrary();
+        if( library != null ) shareLibrary( library );
+    }
+
+    /** Starts this Scene with the classes of a shared library. They keep
+     * their numbers, and the numberers number new objects after them. */
+    private void shareLibrary( SharedLibrary library ) {
+        typeNumberer = newArrayNumberer( library.typeNumberer );
+        methodNumberer = newArrayNumberer( library.methodNumberer );
+        fieldNumberer = newArrayNumberer( library.fieldNumberer );
+        classNumberer = newArrayNumberer( library.classNumberer );
+        localNumberer = newArrayNumberer( library.localNumberer );
+        subSigNumberer = newStringNumberer( library.subSigNumberer );
+        classes.addAll( library.classes );
+        libraryClasses.addAll( library.libraryClasses );
+        phantomClasses.addAll( library.phantomClasses );
+        nameToClass.putAll( library.nameToClass );
     }
 	private void determineExcludedPackages() {
 		excludedPackages = new LinkedList<String>();
@@ -111,17 +133,52 @@ public class Scene  //extends AbstractHost
     Chain<SootClass> libraryClasses = new HashChain<SootClass>();
     Chain<SootClass> phantomClasses = new HashChain<SootClass>();
     
-    private final Map<String,Type> nameToClass = new HashMap<String,Type>();
+    final Map<String,Type> nameToClass = new ConcurrentHashMap<String,Type>();
 
-    ArrayNumberer kindNumberer = new ArrayNumberer();
-    ArrayNumberer typeNumberer = new ArrayNumberer();
-    ArrayNumberer methodNumberer = new ArrayNumberer();
+    IterableNumberer kindNumberer = newArrayNumberer();
+    IterableNumberer typeNumberer = newArrayNumberer();
+    IterableNumberer methodNumberer = newArrayNumberer();
     Numberer unitNumberer = new MapNumberer();
     Numberer contextNumberer = null;
-    ArrayNumberer fieldNumberer = new ArrayNumberer();
-    ArrayNumberer classNumberer = new ArrayNumberer();
-    StringNumberer subSigNumberer = new StringNumberer();
-    ArrayNumberer localNumberer = new ArrayNumberer();
+    IterableNumberer fieldNumberer = newArrayNumberer();
+    IterableNumberer classNumberer = newArrayNumberer();
+    StringNumberer subSigNumberer = newStringNumberer();
+    IterableNumberer localNumberer = newArrayNumberer();
+
+    /** Returns a numberer which can be used by several threads without
+     * them waiting on each other when -num-threads is greater than 1. */
+    private static IterableNumberer newArrayNumberer() {
+        return newArrayNumberer( null );
+    }
+    private static IterableNumberer newArrayNumberer( IterableNumberer base ) {
+        if( Options.v().num_threads() > 1 ) return new ConcurrentArrayNumberer( base );
+        return new ArrayNumberer( base );
+    }
+    private static StringNumberer newStringNumberer() {
+        return newStringNumberer( null );
+    }
+    private static StringNumberer newStringNumberer( StringNumberer base ) {
+        if( Options.v().num_threads() > 1 ) return new ConcurrentStringNumberer( base );
+        return new StringNumberer( base );
+    }
+
+    private boolean warnedNumThreads = false;
+
+    /** Returns the number of threads which may change this Scene at once:
+     * -num-threads, or 1 if the Scene was created before -num-threads was
+     * set greater than 1, since its numberers are then not safe to share. */
+    public int getNumThreads() {
+        int numThreads = Options.v().num_threads();
+        if( numThreads > 1 && !(typeNumberer instanceof ConcurrentArrayNumberer) ) {
+            if( !warnedNumThreads ) {
+                G.v().out.println( "Warning: the Scene was created before -num-threads "+
+                        "was set; using a single thread." );
+                warnedNumThreads = true;
+            }
+            return 1;
+        }
+        return numThreads;
+    }
 
     private Hierarchy activeHierarchy;
     private FastHierarchy activeFastHierarchy;
@@ -280,7 +337,7 @@ public class Scene  //extends AbstractHost
         activePointsToAnalysis = null;
     }
 
-    public void addClass(SootClass c) 
+    public synchronized void addClass(SootClass c) 
     {
         if(c.isInScene())
             throw new RuntimeException("already managed: "+c.getName());
@@ -301,6 +358,7 @@ public class Scene  //extends AbstractHost
     {
         if(!c.isInScene())
             throw new RuntimeException();
+        c.checkNotShared();
 
         classes.remove(c);
         
@@ -500,10 +558,16 @@ public class Scene  //extends AbstractHost
 			return toReturn;
 		} else if (allowsPhantomRefs() ||
 				   className.equals(SootClass.INVOKEDYNAMIC_DUMMY_CLASS_NAME)) {
-			SootClass c = new SootClass(className);
-			c.setPhantom(true);
-			addClass(c);
-			return c;
+			synchronized (this) {
+				// another thread constructing a body may have added it
+				type = (RefType) nameToClass.get(className);
+				if (type != null && type.hasSootClass())
+					return type.getSootClass();
+				SootClass c = new SootClass(className);
+				c.setPhantom(true);
+				addClass(c);
+				return c;
+			}
 		} else {
 			throw new RuntimeException(System.getProperty("line.separator")
 					+ "Aborting: can't find classfile " + className);
@@ -631,7 +695,7 @@ public class Scene  //extends AbstractHost
     /****************************************************************************/
     /** Makes a new fast hierarchy is none is active, and returns the active
      * fast hierarchy. */
-    public FastHierarchy getOrMakeFastHierarchy() {
+    public synchronized FastHierarchy getOrMakeFastHierarchy() {
 	if(!hasFastHierarchy() ) {
 	    setFastHierarchy( new FastHierarchy() );
 	}
@@ -788,14 +852,14 @@ public class Scene  //extends AbstractHost
         return getPhantomRefs();
     }
     public Numberer kindNumberer() { return kindNumberer; }
-    public ArrayNumberer getTypeNumberer() { return typeNumberer; }
-    public ArrayNumberer getMethodNumberer() { return methodNumberer; }
+    public IterableNumberer getTypeNumberer() { return typeNumberer; }
+    public IterableNumberer getMethodNumberer() { return methodNumberer; }
     public Numberer getContextNumberer() { return contextNumberer; }
     public Numberer getUnitNumberer() { return unitNumberer; }
-    public ArrayNumberer getFieldNumberer() { return fieldNumberer; }
-    public ArrayNumberer getClassNumberer() { return classNumberer; }
+    public IterableNumberer getFieldNumberer() { return fieldNumberer; }
+    public IterableNumberer getClassNumberer() { return classNumberer; }
     public StringNumberer getSubSigNumberer() { return subSigNumberer; }
-    public ArrayNumberer getLocalNumberer() { return localNumberer; }
+    public IterableNumberer getLocalNumberer() { return localNumberer; }
 
     public void setContextNumberer( Numberer n ) {
         if( contextNumberer != null )
@@ -0,0 +1,137 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot;
+
+import java.util.*;
+
+import soot.jimple.NullConstant;
+import soot.util.IterableNumberer;
+import soot.util.StringNumberer;
+
+/** The library classes of a Scene, with their fields, methods and method
+ * bodies, frozen so that the Scenes of other G's can start with them
+ * instead of each resolving the library again.
+ *
+ * Load the library in a G of its own, in whole-program mode, and call
+ * freeze() on that G's thread; that G must not be used any more. Then
+ * give each analysis a new G(library) with G.setThreadInstance(). Its
+ * Scene holds the shared classes, which keep their numbers, and adds its
+ * own application classes after them. The classes, types, methods and
+ * bodies are the same objects in all these Scenes, and they are only
+ * read: the analyses must not transform or tag the library bodies, and
+ * a class of the library cannot get new members, so with
+ * -allow-phantom-refs, a reference from the application to a member that
+ * a shared class lacks fails instead of adding a phantom one. Each Scene
+ * builds its own hierarchies, since the application classes extend the
+ * library's.
+ */
+public class SharedLibrary
+{
+    final List<SootClass> classes;
+    final List<SootClass> libraryClasses;
+    final List<SootClass> phantomClasses;
+    final Map<String, Type> nameToClass;
+
+    final IterableNumberer typeNumberer;
+    final IterableNumberer methodNumberer;
+    final IterableNumberer fieldNumberer;
+    final IterableNumberer classNumberer;
+    final IterableNumberer localNumberer;
+    final StringNumberer subSigNumberer;
+    private final int numClasses;
+    private final int numTypes;
+
+    // The singletons that the shared classes and bodies hold, which the
+    // G's sharing the library use in place of their own
+    final BooleanType booleanType = BooleanType.v();
+    final ByteType byteType = ByteType.v();
+    final CharType charType = CharType.v();
+    final ShortType shortType = ShortType.v();
+    final IntType intType = IntType.v();
+    final LongType longType = LongType.v();
+    final FloatType floatType = FloatType.v();
+    final DoubleType doubleType = DoubleType.v();
+    final VoidType voidType = VoidType.v();
+    final NullType nullType = NullType.v();
+    final UnknownType unknownType = UnknownType.v();
+    final ErroneousType erroneousType = ErroneousType.v();
+    final StmtAddressType stmtAddressType = StmtAddressType.v();
+    final NullConstant nullConstant = NullConstant.v();
+
+    private SharedLibrary( Scene scene )
+    {
+        classes = new ArrayList<SootClass>( scene.getClasses() );
+        libraryClasses = new ArrayList<SootClass>( scene.getLibraryClasses() );
+        phantomClasses = new ArrayList<SootClass>( scene.getPhantomClasses() );
+        nameToClass = new HashMap<String, Type>( scene.nameToClass );
+        typeNumberer = scene.getTypeNumberer();
+        methodNumberer = scene.getMethodNumberer();
+        fieldNumberer = scene.getFieldNumberer();
+        classNumberer = scene.getClassNumberer();
+        localNumberer = scene.getLocalNumberer();
+        subSigNumberer = scene.getSubSigNumberer();
+        numClasses = classNumberer.size();
+        numTypes = typeNumberer.size();
+    }
+
+    /** Freezes the classes of the Scene of the calling thread's G, after
+     * constructing the bodies of all their concrete methods. The Scene
+     * must have no application classes, and must have been loaded in
+     * whole-program mode, so that every class which is not phantom is
+     * resolved to BODIES. */
+    public static SharedLibrary freeze()
+    {
+        Scene scene = Scene.v();
+        if( !scene.getApplicationClasses().isEmpty() )
+            throw new RuntimeException( "cannot share a Scene with application classes, such as "+
+                    scene.getApplicationClasses().getFirst() );
+        int numDone = -1;
+        while( numDone != scene.getClasses().size() ) {
+            numDone = scene.getClasses().size();
+            // Constructing bodies may refer to types which have no class yet
+            for( String name : new ArrayList<String>( scene.nameToClass.keySet() ) ) {
+                RefType type = (RefType) scene.nameToClass.get( name );
+                if( !type.hasSootClass() ) scene.getSootClass( name );
+            }
+            for( SootClass c : new ArrayList<SootClass>( scene.getClasses() ) ) {
+                if( c.isPhantom() ) continue;
+                if( c.resolvingLevel() < SootClass.BODIES )
+                    throw new RuntimeException( "cannot share "+c+", which is not resolved to bodies; "+
+                            "load the library in whole-program mode" );
+                for( SootMethod m : new ArrayList<SootMethod>( c.getMethods() ) ) {
+                    if( m.isConcrete() && !m.isPhantom() ) m.retrieveActiveBody();
+                }
+            }
+        }
+        return new SharedLibrary( scene );
+    }
+
+    /** Returns true if c is one of the shared classes. */
+    public boolean contains( SootClass c )
+    {
+        return c.getNumber() != 0 && c.getNumber() <= numClasses;
+    }
+
+    /** Returns true if t is one of the types of the shared classes. */
+    public boolean contains( Type t )
+    {
+        return t.getNumber() != 0 && t.getNumber() <= numTypes;
+    }
+}
@@ -129,6 +129,14 @@ public class SootClass extends AbstractHost implements Numberable
         }
     }
 
+    /** Throws an exception if this class belongs to the shared library of
+     * the current G, since the other G's sharing it read it concurrently. */
+    void checkNotShared() {
+        SharedLibrary library = G.v().getSharedLibrary();
+        if( library != null && library.contains(this) )
+            throw new RuntimeException( "cannot change "+name+", which belongs to a shared library" );
+    }
+
     public int resolvingLevel() { return resolvingLevel; }
     public void setResolvingLevel( int newLevel ) {
         resolvingLevel = newLevel;
@@ -179,6 +187,7 @@ public class SootClass extends AbstractHost implements Numberable
     public void addField(SootField f) 
     {
         checkLevel(SIGNATURES);
+        checkNotShared();
         if(f.isDeclared())
             throw new RuntimeException("already declared: "+f.getName());
 
@@ -198,6 +207,7 @@ public class SootClass extends AbstractHost implements Numberable
     public void removeField(SootField f) 
     {
         checkLevel(SIGNATURES);
+        checkNotShared();
         if(!f.isDeclared() || f.getDeclaringClass() != this)
             throw new RuntimeException("did not declare: "+f.getName());
 
@@ -572,6 +582,7 @@ public class SootClass extends AbstractHost implements Numberable
     public void addMethod(SootMethod m) 
     {
         checkLevel(SIGNATURES);
+        checkNotShared();
         if(m.isDeclared())
             throw new RuntimeException("already declared: "+m.getName());
 
@@ -598,6 +609,7 @@ public class SootClass extends AbstractHost implements Numberable
     public void removeMethod(SootMethod m) 
     {
         checkLevel(SIGNATURES);
+        checkNotShared();
         if(!m.isDeclared() || m.getDeclaringClass() != this)
             throw new RuntimeException("incorrect declarer for remove: "+m.getName());
 
@@ -943,6 +955,7 @@ public class SootClass extends AbstractHost implements Numberable
     /** Makes this class an application class. */
     public void setApplicationClass()
     {
+        checkNotShared();
         Chain<SootClass> c = Scene.v().getContainingChain(this);
         if (c != null)
             c.remove(this);
@@ -338,6 +338,9 @@ public class SootMethod
             throw new RuntimeException(
                 "cannot set body for non-concrete method! " + this);
 
+        if (declaringClass != null)
+            declaringClass.checkNotShared();
+
         if (body!= null && body.getMethod() != this)
             body.setMethod(this);
 
@@ -351,6 +354,8 @@ public class SootMethod
 
     /** Releases the active body associated with this method. */
     public void releaseActiveBody() {
+        if (declaringClass != null)
+            declaringClass.checkNotShared();
         activeBody = null;
     }
 
@@ -114,6 +114,17 @@ class SootMethodRefImpl implements SootMethodRef {
     }
     
     private SootMethod resolve(StringBuffer trace) {
+        // Without phantom refs, resolving only reads the hierarchy. With
+        // them, it may add a method to a class, which bodies constructed
+        // concurrently may be looking up or adding too, and the member
+        // maps of a class cannot be read while they change; so the whole
+        // lookup is done under the Scene lock.
+        if( !Options.v().allow_phantom_refs() ) return resolveInHierarchy(trace);
+        synchronized( Scene.v() ) {
+            return resolveInHierarchy(trace);
+        }
+    }
+    private SootMethod resolveInHierarchy(StringBuffer trace) {
     	if(declaringClass.getName().equals("java.dyn.InvokeDynamic")) {
     		throw new IllegalStateException("Cannot resolve invokedynamic method references at compile time!");
     	}
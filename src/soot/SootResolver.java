@@ -32,6 +32,8 @@ import soot.options.*;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import polyglot.util.StdErrorQueue;
 
@@ -54,6 +56,14 @@ public class SootResolver
     /** SootClasses waiting to be resolved. */
     private final LinkedList/*SootClass*/[] worklist = new LinkedList[4];
 
+    /** Class sources looked up by loadClassSources, but whose classes
+     * have not been brought to HIERARCHY yet. */
+    private final Map<SootClass, ClassSource> classToSource = new HashMap<SootClass, ClassSource>();
+
+    /** Loads class files while the worklist is processed, if -num-threads
+     * is greater than 1. */
+    private ExecutorService loader;
+
 	protected Program program;
 
     public SootResolver (Singletons.Global g) {
@@ -101,15 +111,18 @@ public class SootResolver
      * */
     public SootClass makeClassRef(String className)
     {
-        if(Scene.v().containsClass(className))
-            return Scene.v().getSootClass(className);
+        // Bodies constructed concurrently may refer to the same new class.
+        synchronized(Scene.v()) {
+            if(Scene.v().containsClass(className))
+                return Scene.v().getSootClass(className);
 
-        SootClass newClass;
-        newClass = new SootClass(className);
-        newClass.setResolvingLevel(SootClass.DANGLING);
-        Scene.v().addClass(newClass);
+            SootClass newClass;
+            newClass = new SootClass(className);
+            newClass.setResolvingLevel(SootClass.DANGLING);
+            Scene.v().addClass(newClass);
 
-        return newClass;
+            return newClass;
+        }
     }
 
 
@@ -118,7 +131,7 @@ public class SootResolver
      * decide to resolve other classes as well. If the class has already
      * been resolved, just returns the class that was already resolved.
      * */
-    public SootClass resolveClass(String className, int desiredLevel) {
+    public synchronized SootClass resolveClass(String className, int desiredLevel) {
         SootClass resolvedClass = makeClassRef(className);
         addToResolveWorklist(resolvedClass, desiredLevel);
         processResolveWorklist();
@@ -127,9 +140,28 @@ public class SootResolver
 
     /** Resolve all classes on toResolveWorklist. */
     private void processResolveWorklist() {
+        int numThreads = Scene.v().getNumThreads();
+        if( loader != null || numThreads <= 1 ) {
+            resolveWorklist();
+            return;
+        }
+        loader = Executors.newFixedThreadPool(numThreads);
+        try {
+            resolveWorklist();
+        } finally {
+            loader.shutdownNow();
+            loader = null;
+            classToSource.clear();
+        }
+    }
+
+    private void resolveWorklist() {
         for( int i = SootClass.BODIES; i >= SootClass.HIERARCHY; i-- ) {
             while( !worklist[i].isEmpty() ) {
                 SootClass sc = (SootClass) worklist[i].removeFirst();
+                if( loader != null && sc.resolvingLevel() < SootClass.HIERARCHY
+                        && !classToSource.containsKey(sc) )
+                    loadClassSources(sc);
                 if( resolveEverything() ) {
                     boolean onlySignatures = sc.isPhantom() || (
 	            			Options.v().no_bodies_for_excluded() &&
@@ -159,6 +191,39 @@ public class SootResolver
         }
     }
 
+    /** Looks up the sources of next and of all classes on the worklist
+     * that are not yet at HIERARCHY, and starts reading and parsing their
+     * class files on the loader threads. The classes themselves are still
+     * resolved one by one, in worklist order, on this thread, so the
+     * levels they reach do not depend on the number of threads. */
+    private void loadClassSources(SootClass next) {
+        List<SootClass> toLoad = new ArrayList<SootClass>();
+        toLoad.add(next);
+        for( int i = SootClass.BODIES; i >= SootClass.HIERARCHY; i-- ) {
+            toLoad.addAll(worklist[i]);
+        }
+        for( SootClass sc : toLoad ) {
+            if( sc.resolvingLevel() >= SootClass.HIERARCHY
+                    || classToSource.containsKey(sc) ) continue;
+            final ClassSource is;
+            try {
+                is = SourceLocator.v().getClassSource(sc.getName());
+            } catch( RuntimeException e ) {
+                // Leave it to bringToHierarchy to report.
+                continue;
+            }
+            classToSource.put(sc, is);
+            if( is instanceof CoffiClassSource ) {
+                // Failures are rethrown when the class is resolved.
+                loader.submit(new Runnable() {
+                    public void run() {
+                        ((CoffiClassSource) is).load();
+                    }
+                });
+            }
+        }
+    }
+
     private void addToResolveWorklist(Type type, int level) {
         if( type instanceof RefType )
             addToResolveWorklist(((RefType) type).getClassName(), level);
@@ -170,6 +235,9 @@ public class SootResolver
     }
     private void addToResolveWorklist(SootClass sc, int desiredLevel) {
         if( sc.resolvingLevel() >= desiredLevel ) return;
+        // the classes of a shared library are resolved as far as they go
+        SharedLibrary library = G.v().getSharedLibrary();
+        if( library != null && library.contains(sc) ) return;
         worklist[desiredLevel].add(sc);
     }
 
@@ -183,7 +251,8 @@ public class SootResolver
         sc.setResolvingLevel(SootClass.HIERARCHY);
 
         String className = sc.getName();
-        ClassSource is = SourceLocator.v().getClassSource(className);
+        ClassSource is = classToSource.containsKey(sc) ? classToSource.remove(sc)
+            : SourceLocator.v().getClassSource(className);
         boolean modelAsPhantomRef = is == null;
 //        || (
 //        		Options.v().no_jrl() &&
@@ -315,7 +384,7 @@ public class SootResolver
         }
     }
 
-    public void reResolve(SootClass cl) {
+    public synchronized void reResolve(SootClass cl) {
         int resolvingLevel = cl.resolvingLevel();
         if( resolvingLevel < SootClass.HIERARCHY ) return;
         reResolveHierarchy(cl);
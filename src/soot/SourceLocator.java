@@ -18,9 +18,14 @@
  */
 
 package soot;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -159,8 +164,21 @@ public class SourceLocator
 
     private List<String> classPath;
     public List<String> classPath() { return classPath; }
-    public void invalidateClassPath() {
+    /** Forgets the classpath, closing the archives opened on it; files
+     * found in them before can no longer be read. */
+    public synchronized void invalidateClassPath() {
         classPath = null;
+        classPathIndex = null;
+        classPathArchives = null;
+        archiveEntries.clear();
+        for( ZipFile archive : archives.values() ) {
+            try {
+                archive.close();
+            } catch( IOException e ) {
+                G.v().out.println("Warning: could not close " + archive.getName() + ": " + e);
+            }
+        }
+        archives.clear();
     }
 
     private List<String> sourcePath;
@@ -196,11 +214,7 @@ public class SourceLocator
             inputExtensions.add(".java");
 
 	    try {
-		ZipFile archive = new ZipFile(aPath);
-		for (Enumeration entries = archive.entries(); 
-		     entries.hasMoreElements(); ) {
-		    ZipEntry entry = (ZipEntry) entries.nextElement();
-		    String entryName = entry.getName();
+		for (String entryName : archiveEntries(aPath)) {
 		    int extensionIndex = entryName.lastIndexOf('.');
 		    if (extensionIndex >= 0) {
 			String entryExtension = entryName.substring(extensionIndex);
@@ -214,6 +228,7 @@ public class SourceLocator
                 classes.addAll(dexClassProvider().classesOfDex(new File(aPath)));
 		    }
 		}
+		writeStoredIndex();
 	    } catch(IOException e) {
 		G.v().out.println("Error reading " + aPath + ": " 
 				  + e.toString());
@@ -468,16 +483,178 @@ public class SourceLocator
 
     /** Searches for a file with the given name in the exploded classPath. */
     public FoundFile lookupInClassPath( String fileName ) {
-        for (String dir : classPath) {
-            FoundFile ret;
-            if(isArchive(dir)) {
-                ret = lookupInArchive(dir, fileName);
-            } else {
-                ret = lookupInDir(dir, fileName);
-            }
+        Integer archivePos = classPathIndex().get(fileName);
+        // Only directories that come before the first archive holding
+        // fileName can shadow it.
+        int end = archivePos == null ? classPath.size() : archivePos.intValue();
+        for( int i = 0; i < end; i++ ) {
+            if( classPathArchives[i] ) continue;
+            FoundFile ret = lookupInDir(classPath.get(i), fileName);
             if( ret != null ) return ret;
         }
-        return null;
+        if( archivePos == null ) return null;
+        return lookupInArchive(classPath.get(archivePos.intValue()), fileName);
+    }
+
+    /** Maps the name of each entry of the archives on the classpath to
+     * the position of the first archive holding it. */
+    private Map<String, Integer> classPathIndex;
+    /** Whether each position of the classpath is an archive. */
+    private boolean[] classPathArchives;
+
+    private synchronized Map<String, Integer> classPathIndex() {
+        if( classPathIndex == null ) {
+            Map<String, Integer> index = new HashMap<String, Integer>();
+            boolean[] archives = new boolean[classPath.size()];
+            // Go backwards, so that earlier archives override later ones.
+            for( int i = classPath.size() - 1; i >= 0; i-- ) {
+                String path = classPath.get(i);
+                if( !isArchive(path) ) continue;
+                archives[i] = true;
+                try {
+                    for (String entryName : archiveEntries(path)) {
+                        index.put(entryName, i);
+                    }
+                } catch( IOException e ) {
+                    throw new RuntimeException("Caught IOException " + e + " reading archive file " + path);
+                }
+            }
+            writeStoredIndex();
+            classPathArchives = archives;
+            classPathIndex = index;
+        }
+        return classPathIndex;
+    }
+
+    /** Open archives, by path. As ZipFile is thread-safe, each archive is
+     * opened once and shared by all files found in it. */
+    private final Map<String, ZipFile> archives = new HashMap<String, ZipFile>();
+
+    private synchronized ZipFile archive(String path) throws IOException {
+        ZipFile ret = archives.get(path);
+        if( ret == null ) {
+            ret = new ZipFile(path);
+            archives.put(path, ret);
+        }
+        return ret;
+    }
+
+    /** The names of the entries of each archive, by path. */
+    private final Map<String, List<String>> archiveEntries = new HashMap<String, List<String>>();
+
+    /** Returns the names of the entries of the archive at path, taking
+     * them from the -classpath-index file if the archive is unchanged
+     * since it was written. */
+    private synchronized List<String> archiveEntries(String path) throws IOException {
+        List<String> ret = archiveEntries.get(path);
+        if( ret != null ) return ret;
+        File f = new File(path);
+        StoredArchive stored = storedIndex().get(path);
+        if( stored != null && stored.length == f.length()
+                && stored.lastModified == f.lastModified() ) {
+            ret = stored.entries;
+        } else {
+            ret = new ArrayList<String>();
+            for (Enumeration<? extends ZipEntry> entries = archive(path).entries();
+                    entries.hasMoreElements(); ) {
+                ret.add(entries.nextElement().getName());
+            }
+            if( Options.v().classpath_index().length() > 0 ) {
+                storedIndex.put(path, new StoredArchive(f.length(), f.lastModified(), ret));
+                storedIndexChanged = true;
+            }
+        }
+        archiveEntries.put(path, ret);
+        return ret;
+    }
+
+    /** An archive as recorded in the -classpath-index file. */
+    private static class StoredArchive {
+        final long length;
+        final long lastModified;
+        final List<String> entries;
+        StoredArchive(long length, long lastModified, List<String> entries) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.entries = entries;
+        }
+    }
+
+    /** Changes whenever the format of the -classpath-index file changes. */
+    private static final int INDEX_FORMAT = 1;
+
+    private Map<String, StoredArchive> storedIndex;
+    private boolean storedIndexChanged;
+
+    private Map<String, StoredArchive> storedIndex() {
+        if( storedIndex == null ) {
+            storedIndex = new HashMap<String, StoredArchive>();
+            File file = new File(Options.v().classpath_index());
+            if( Options.v().classpath_index().length() > 0 && file.exists() ) {
+                try {
+                    DataInputStream in = new DataInputStream(
+                            new BufferedInputStream(new FileInputStream(file)));
+                    try {
+                        if( in.readInt() != INDEX_FORMAT )
+                            throw new IOException("unknown format");
+                        for( int i = in.readInt(); i > 0; i-- ) {
+                            String path = in.readUTF();
+                            long length = in.readLong();
+                            long lastModified = in.readLong();
+                            List<String> entries = new ArrayList<String>();
+                            for( int j = in.readInt(); j > 0; j-- ) {
+                                entries.add(in.readUTF());
+                            }
+                            storedIndex.put(path, new StoredArchive(length, lastModified, entries));
+                        }
+                    } finally {
+                        in.close();
+                    }
+                } catch( IOException e ) {
+                    G.v().out.println("Warning: could not read classpath index " + file + ": " + e);
+                    storedIndex.clear();
+                }
+            }
+        }
+        return storedIndex;
+    }
+
+    /** Writes the -classpath-index file, if archives were scanned since it
+     * was read. */
+    private synchronized void writeStoredIndex() {
+        if( !storedIndexChanged ) return;
+        storedIndexChanged = false;
+        File file = new File(Options.v().classpath_index());
+        File tmp = null;
+        try {
+            File dir = file.getAbsoluteFile().getParentFile();
+            dir.mkdirs();
+            tmp = File.createTempFile(file.getName(), ".tmp", dir);
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(INDEX_FORMAT);
+                out.writeInt(storedIndex.size());
+                for( Map.Entry<String, StoredArchive> e : storedIndex.entrySet() ) {
+                    StoredArchive stored = e.getValue();
+                    out.writeUTF(e.getKey());
+                    out.writeLong(stored.length);
+                    out.writeLong(stored.lastModified);
+                    out.writeInt(stored.entries.size());
+                    for (String entryName : stored.entries) {
+                        out.writeUTF(entryName);
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            if( !tmp.renameTo(file) ) throw new IOException("could not rename " + tmp);
+            tmp = null;
+        } catch( IOException e ) {
+            G.v().out.println("Warning: could not write classpath index " + file + ": " + e);
+        } finally {
+            if( tmp != null ) tmp.delete();
+        }
     }
     private FoundFile lookupInDir(String dir, String fileName) {
         File f = new File( dir+File.separatorChar+fileName );
@@ -488,7 +665,7 @@ public class SourceLocator
     }
     private FoundFile lookupInArchive(String archivePath, String fileName) {
         try {
-            ZipFile archive = new ZipFile(archivePath);
+            ZipFile archive = archive(archivePath);
             ZipEntry entry = archive.getEntry(fileName);
             if( entry == null ) return null;
             return new FoundFile(archive, entry);
@@ -35,7 +35,7 @@ public class Timer
 {
     private long duration;
     private long startTime;
-    private boolean hasStarted;
+    private int running;
 		
     private String name;
 		
@@ -57,7 +57,7 @@ public class Timer
     public void start()
     {
         // Subtract garbage collection time
-				if(!G.v().Timer_isGarbageCollecting && Options.v() != null && Options.v().subtract_gc() && ((G.v().Timer_count++ % 4) == 0))
+				if(!G.v().Timer_isGarbageCollecting && Options.v() != null && Options.v().subtract_gc() && !concurrent() && ((G.v().Timer_count++ % 4) == 0))
             {
                 // garbage collects only every 4 calls to avoid round off errors
                 
@@ -97,17 +97,21 @@ public class Timer
             }
                         
         
-        startTime = System.currentTimeMillis();
-        
-        if(hasStarted)
-            throw new RuntimeException("timer " + name + " has already been started!");
-        else
-            hasStarted = true;
-        
+        synchronized(this)
+        {
+            if(running > 0 && !concurrent())
+                throw new RuntimeException("timer " + name + " has already been started!");
+
+            if(running++ == 0)
+                startTime = System.currentTimeMillis();
+        }
         
         if(!G.v().Timer_isGarbageCollecting) 
         {
-            G.v().Timer_outstandingTimers.add(this);
+            synchronized(G.v().Timer_outstandingTimers)
+            {
+                G.v().Timer_outstandingTimers.add(this);
+            }
         }
             
     }
@@ -121,22 +125,35 @@ public class Timer
     /** Stops the current timer. */
     public void end()
     {   
-        if(!hasStarted)
-            throw new RuntimeException("timer " + name + " has not been started!");
-        else
-            hasStarted = false;
-        
-        duration += System.currentTimeMillis() - startTime;
-        
+        synchronized(this)
+        {
+            if(running == 0)
+                throw new RuntimeException("timer " + name + " has not been started!");
+
+            if(--running == 0)
+                duration += System.currentTimeMillis() - startTime;
+        }
         
         if(!G.v().Timer_isGarbageCollecting)
         {
-            G.v().Timer_outstandingTimers.remove(this);
+            synchronized(G.v().Timer_outstandingTimers)
+            {
+                G.v().Timer_outstandingTimers.remove(this);
+            }
         }
     }
 
+    /** Returns true if body packs may be running on several threads,
+     * in which case the same timer may legitimately be started again
+     * before it has been stopped.  The timer then measures the wall-clock
+     * time during which at least one thread is inside it. */
+    private static boolean concurrent()
+    {
+        return Options.v().num_threads() > 1;
+    }
+
     /** Returns the sum of the intervals start()-end() of the current timer. */
-    public long getTime()
+    public synchronized long getTime()
     {
         return duration;
     }
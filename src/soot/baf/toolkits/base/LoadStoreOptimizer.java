@@ -39,9 +39,6 @@ public class LoadStoreOptimizer extends BodyTransformer
     public LoadStoreOptimizer( Singletons.Global g ) {}
     public static LoadStoreOptimizer v() { return G.v().soot_baf_toolkits_base_LoadStoreOptimizer(); }
 
-    // Constants
-    boolean debug = false;
-    
     // constants returned by the stackIndependent function.
     final static private int FAILURE = 0;
     final static private int SUCCESS = 1;
@@ -54,8 +51,6 @@ public class LoadStoreOptimizer extends BodyTransformer
     final static private int STORE_LOAD_ELIMINATION = 0;
     final static private int STORE_LOAD_LOAD_ELIMINATION = -1;
 
-        
-    private Map gOptions;
 
     /** The method that drives the optimizations. */
     /* This is the public interface to LoadStoreOptimizer */
@@ -63,13 +58,14 @@ public class LoadStoreOptimizer extends BodyTransformer
     protected void internalTransform(Body body, String phaseName, Map options) 
     {   
 
-        gOptions = options;
-
         Instance instance = new Instance();
         instance.mBody = body;        
         instance.mUnits =  body.getUnits();
-        
-        debug = PhaseOptions.getBoolean(gOptions, "debug");
+        // kept in the Instance, not this singleton, as several bodies
+        // may be optimized at once with -num-threads
+        instance.gOptions = options;
+        instance.debug = PhaseOptions.getBoolean(options, "debug");
+        boolean debug = instance.debug;
         
         if(Options.v().verbose())
             G.v().out.println("[" + body.getMethod().getName() + "] Performing LoadStore optimizations...");
@@ -87,6 +83,8 @@ class Instance {
     private LocalUses mLocalUses;
     private Map<Unit, Block> mUnitToBlockMap;     // maps a unit it's containing block
     private boolean mPass2 = false;
+    private Map gOptions;
+    private boolean debug = false;
 
 
     void go() {
@@ -117,7 +117,6 @@ public class CFG {
 	*/
     }
 
-    public static HashMap<SootMethod, int[]> methodsToVEM = new HashMap<SootMethod, int[]>();
     private void complexity() 
     {
       // ignore all non-app classes
@@ -153,7 +152,7 @@ public class CFG {
         edges += tmp;
         b = b.next;
       }
-      methodsToVEM.put(method.jmethod,new int[]{nodes, edges, highest});
+      G.v().coffi_CFG_methodsToVEM.put(method.jmethod,new int[]{nodes, edges, highest});
     }
 
     // Constructs the actual control flow graph. Assumes the hash table
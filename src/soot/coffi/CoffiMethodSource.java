@@ -42,6 +42,25 @@ public class CoffiMethodSource implements MethodSource
         this.coffiMethod = coffiMethod;
     }
 
+    /** Returns a source for the body of m, taken from coffiClass, a
+     * loaded class file that was not resolved into m's class. */
+    public static CoffiMethodSource forMethod(ClassFile coffiClass, SootMethod m)
+    {
+        String descriptor = AbstractJasminClass.jasminDescriptorOf(m.makeRef());
+        for(int i = 0; i < coffiClass.methods_count; i++)
+        {
+            method_info methodInfo = coffiClass.methods[i];
+            String name = ((CONSTANT_Utf8_info) coffiClass.constant_pool[methodInfo.name_index]).convert();
+            String desc = ((CONSTANT_Utf8_info) coffiClass.constant_pool[methodInfo.descriptor_index]).convert();
+            if(name.equals(m.getName()) && desc.equals(descriptor))
+            {
+                methodInfo.jmethod = m;
+                return new CoffiMethodSource(coffiClass, methodInfo);
+            }
+        }
+        throw new RuntimeException("no method " + m + " in the class file of " + m.getDeclaringClass());
+    }
+
     public Body getBody(SootMethod m, String phaseName)
     {
         JimpleBody jb = Jimple.v().newBody(m);
@@ -115,6 +134,7 @@ public class CoffiMethodSource implements MethodSource
          coffiClass = null;
          
          PackManager.v().getPack("jb").apply(jb);
+         ClassCache.v().jbApplied(jb);
          return jb;
     }
 }
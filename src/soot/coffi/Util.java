@@ -40,7 +40,19 @@ import soot.*;
 public class Util
 {
     public Util( Singletons.Global g ) {}
-    public static Util v() { return G.v().soot_coffi_Util(); }
+    private Util() {}
+
+    /** Returns the Util to be used by the calling thread. A Util holds
+     * the state of the method body it is jimplifying, so when bodies
+     * are constructed on several threads (see -num-threads), each
+     * thread gets its own instance. */
+    public static Util v() {
+        if( soot.options.Options.v().num_threads() <= 1 )
+            return G.v().soot_coffi_Util();
+        Util ret = G.v().coffi_Util_threadUtil.get();
+        if( ret == null ) G.v().coffi_Util_threadUtil.set( ret = new Util() );
+        return ret;
+    }
 
 
     Map classNameToAbbreviation;
@@ -60,15 +72,20 @@ public class Util
     }    
 
     public void resolveFromClassFile(SootClass aClass, InputStream is, List references)
+    {
+        ClassFile coffiClass = new ClassFile(aClass.getName());
+        resolveFromClassFile(aClass, coffiClass, coffiClass.loadClassFile(is), references);
+    }
+
+    /** Resolves aClass from coffiClass, on which loadClassFile has
+     * already been called and returned success. */
+    public void resolveFromClassFile(SootClass aClass, ClassFile coffiClass, boolean success, List references)
     {
         SootClass bclass = aClass;                
         String className = bclass.getName();
-        ClassFile coffiClass = new ClassFile(className);
         
-        // Load up class file, and retrieve bclass from class manager.
+        // Retrieve bclass from class manager.
         {
-            boolean success = coffiClass.loadClassFile(is);
-
             if(!success)
                 {
                     if(!Scene.v().allowsPhantomRefs())
@@ -59,11 +59,8 @@ public class ConstructorFolder extends BodyTransformer
 
       Iterator<Unit> it = stmtList.iterator();
 
-      ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body);
-              
-        
-      LocalDefs localDefs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
-      LocalUses localUses = new SimpleLocalUses(graph, localDefs);
+      LocalDefs localDefs = body.getAnalysisCache().getLocalDefs();
+      LocalUses localUses = body.getAnalysisCache().getLocalUses();
 
       /* fold in NewExpr's with specialinvoke's */
       while (it.hasNext())
@@ -93,7 +93,7 @@ public class JimpleAST
      *   @param m the method we want to get a body for.
      *   @return the actual body for the given method.
      */
-    public Body getBody(SootMethod m)
+    public synchronized Body getBody(SootMethod m)
     {
         if (methodToParsedBodyMap == null)
             stashBodiesForClass(m.getDeclaringClass());
@@ -18,6 +18,8 @@
  */
 
 package soot.jimple.spark;
+import java.io.File;
+import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.Map;
@@ -45,6 +47,7 @@ import soot.jimple.spark.pag.Node;
 import soot.jimple.spark.pag.PAG;
 import soot.jimple.spark.pag.PAG2HTML;
 import soot.jimple.spark.pag.PAGDumper;
+import soot.jimple.spark.pag.PAGSnapshot;
 import soot.jimple.spark.pag.VarNode;
 import soot.jimple.spark.sets.P2SetVisitor;
 import soot.jimple.spark.sets.PointsToSetInternal;
@@ -53,6 +56,7 @@ import soot.jimple.spark.solver.PropAlias;
 import soot.jimple.spark.solver.PropCycle;
 import soot.jimple.spark.solver.PropIter;
 import soot.jimple.spark.solver.PropMerge;
+import soot.jimple.spark.solver.PropParallel;
 import soot.jimple.spark.solver.PropWorklist;
 import soot.jimple.spark.solver.Propagator;
 import soot.jimple.spark.solver.SCCCollapser;
@@ -74,6 +78,11 @@ public class SparkTransformer extends SceneTransformer
     {
         SparkOptions opts = new SparkOptions( options );
         final String output_dir = SourceLocator.v().getOutputDir();
+        if( opts.lazy_cycle_detection()
+                && opts.propagator() != SparkOptions.propagator_worklist ) {
+            throw new RuntimeException(
+                    "lazy-cycle-detection needs the worklist propagator" );
+        }
 
         // Build pointer assignment graph
         ContextInsensitiveBuilder b = new ContextInsensitiveBuilder();
@@ -125,6 +134,20 @@ public class SparkTransformer extends SceneTransformer
         }
         if( opts.dump_pag() ) dumper.dump();
 
+        // Seed points-to sets from a snapshot
+        Collection<VarNode> seeded = null;
+        if( opts.seed_snapshot().length() > 0 ) {
+            if( opts.propagator() != SparkOptions.propagator_worklist
+                    && opts.propagator() != SparkOptions.propagator_iter ) {
+                throw new RuntimeException(
+                        "seed-snapshot needs the worklist or iter propagator" );
+            }
+            Date startSeed = new Date();
+            seeded = PAGSnapshot.load( new File( opts.seed_snapshot() ) ).seed( pag );
+            Date endSeed = new Date();
+            reportTime( "Seeded from snapshot", startSeed, endSeed );
+        }
+
         // Propagate
         Date startProp = new Date();
         final Propagator[] propagator = new Propagator[1];
@@ -135,6 +158,9 @@ public class SparkTransformer extends SceneTransformer
             case SparkOptions.propagator_worklist:
                 propagator[0] = new PropWorklist( pag );
                 break;
+            case SparkOptions.propagator_parallel:
+                propagator[0] = new PropParallel( pag );
+                break;
             case SparkOptions.propagator_cycle:
                 propagator[0] = new PropCycle( pag );
                 break;
@@ -149,10 +175,14 @@ public class SparkTransformer extends SceneTransformer
             default:
                 throw new RuntimeException();
         }
-        if( propagator[0] != null ) propagator[0].propagate();
+        if( seeded != null && propagator[0] instanceof PropWorklist ) {
+            ((PropWorklist) propagator[0]).propagate( seeded );
+        } else if( propagator[0] != null ) propagator[0].propagate();
         Date endProp = new Date();
         reportTime( "Propagation", startProp, endProp );
         reportTime( "Solution found", startSimplify, endProp );
+        // the on-the-fly call graph added edges after cleanUpMerges trimmed them
+        if( opts.on_fly_cg() ) pag.trimEdges();
 
         if( opts.force_gc() ) doGC();
         
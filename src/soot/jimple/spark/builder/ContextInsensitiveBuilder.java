@@ -82,13 +82,28 @@ public class ContextInsensitiveBuilder {
             cgb.build();
             reachables = cgb.reachables();
         }
+        List<SootMethod> methods = new ArrayList<SootMethod>();
         for( Iterator cIt = Scene.v().getClasses().iterator(); cIt.hasNext(); ) {
             final SootClass c = (SootClass) cIt.next();
-	    handleClass( c );
+	    handleClass( c, methods );
 	}
+        int numThreads = Scene.v().getNumThreads();
+        if( ofcg == null && numThreads > 1 ) {
+            // With the call graph built beforehand, the MethodPAGs of the
+            // reachable methods can be built independently.
+            new ParallelPAGBuilder( pag, numThreads ).build( methods );
+        } else {
+            for (SootMethod m : methods) {
+                MethodPAG mpag = MethodPAG.v( pag, m );
+                mpag.build();
+                mpag.addToPAG(null);
+            }
+        }
         while(callEdges.hasNext()) {
             Edge e = (Edge) callEdges.next();
-            MethodPAG.v( pag, e.tgt() ).addToPAG(null);
+            MethodPAG mpag = MethodPAG.v( pag, e.tgt() );
+            mpag.build();
+            mpag.addToPAG(null);
             pag.addCallTarget( e );
         }
 
@@ -101,7 +116,8 @@ public class ContextInsensitiveBuilder {
 
     /* End of public methods. */
     /* End of package methods. */
-    protected void handleClass( SootClass c ) {
+    /** Adds the reachable methods of c to methods. */
+    protected void handleClass( SootClass c, List<SootMethod> methods ) {
         boolean incedClasses = false;
 	Iterator methodsIt = c.methodIterator();
 	while( methodsIt.hasNext() ) 
@@ -110,9 +126,7 @@ public class ContextInsensitiveBuilder {
 	    if( !m.isConcrete() && !m.isNative() ) continue;
             totalMethods++;
             if( reachables.contains( m ) ) {
-                MethodPAG mpag = MethodPAG.v( pag, m );
-                mpag.build();
-                mpag.addToPAG(null);
+                methods.add( m );
                 analyzedMethods++;
                 if( !incedClasses ) {
                     incedClasses = true;
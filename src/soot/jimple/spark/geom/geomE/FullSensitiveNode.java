@@ -35,6 +35,7 @@ import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
 import soot.jimple.spark.geom.geomPA.CgEdge;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IEncodingBroker;
+import soot.jimple.spark.geom.geomPA.IFigureManager;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
 import soot.jimple.spark.geom.geomPA.PlainConstraint;
@@ -74,10 +75,16 @@ public class FullSensitiveNode extends IVarAbstraction
 	
 	public static String symbols[] = {"/", "[]", "|", "-" };
 	
+	// A shape manager that has only one all map to all member, representing the context insensitive points-to info
+	// Each encoding has its own pair, so that the encodings can be run one after another in the same VM
+	protected static final IFigureManager stubManager;
+	// This is used to indicate the corresponding object should be removed
+	protected static final IFigureManager deadManager;
+	
 	static {
 		stubManager = new GeometricManager();
-		pres = new RectangleNode(1, 1, GeomPointsTo.MAX_CONTEXTS, GeomPointsTo.MAX_CONTEXTS);
-		stubManager.addNewFigure(IEncodingBroker.MANY_TO_MANY, pres);
+		stubManager.addNewFigure(IEncodingBroker.MANY_TO_MANY,
+				new RectangleNode(1, 1, GeomPointsTo.MAX_CONTEXTS, GeomPointsTo.MAX_CONTEXTS));
 		deadManager = new GeometricManager();
 	}
 	
@@ -181,46 +188,50 @@ public class FullSensitiveNode extends IVarAbstraction
 	public boolean add_points_to_3(AllocNode obj, long I1, long I2,
 			long L) 
 	{			
+		RectangleNode pres = scratch();
 		pres.I1 = I1;
 		pres.I2 = I2;
 		pres.L = L;
 
-		return addPointsTo(IEncodingBroker.ONE_TO_ONE, obj);
+		return add_points_to_figure(IEncodingBroker.ONE_TO_ONE, obj, pres);
 	}
 
 	@Override
 	public boolean add_points_to_4(AllocNode obj, long I1, long I2,
 			long L1, long L2) 
 	{
+		RectangleNode pres = scratch();
 		pres.I1 = I1;
 		pres.I2 = I2;
 		pres.L = L1;
 		pres.L_prime = L2;
 		
-		return addPointsTo(IEncodingBroker.MANY_TO_MANY, obj);
+		return add_points_to_figure(IEncodingBroker.MANY_TO_MANY, obj, pres);
 	}
 
 	@Override
 	public boolean add_simple_constraint_3(IVarAbstraction qv, long I1,
 			long I2, long L) 
 	{
+		RectangleNode pres = scratch();
 		pres.I1 = I1;
 		pres.I2 = I2;
 		pres.L = L;
 		
-		return addFlowsTo(IEncodingBroker.ONE_TO_ONE, qv);
+		return add_flows_to_figure(IEncodingBroker.ONE_TO_ONE, qv, pres);
 	}
 
 	@Override
 	public boolean add_simple_constraint_4(IVarAbstraction qv, long I1,
 			long I2, long L1, long L2) 
 	{
+		RectangleNode pres = scratch();
 		pres.I1 = I1;
 		pres.I2 = I2;
 		pres.L = L1;
 		pres.L_prime = L2;
 		
-		return addFlowsTo(IEncodingBroker.MANY_TO_MANY, qv);
+		return add_flows_to_figure(IEncodingBroker.MANY_TO_MANY, qv, pres);
 	}
 
 	@Override
@@ -806,12 +817,11 @@ public class FullSensitiveNode extends IVarAbstraction
 	}
 	
 	
-	// -----------------------------------Private Functions---------------------------------------
 	/**
-	 * A non-interface public function.
 	 * It adds the points-to tuple to the geometric manager.
 	 */
-	private boolean addPointsTo(int code, AllocNode obj) 
+	@Override
+	public boolean add_points_to_figure(int code, AllocNode obj, RectangleNode figure) 
 	{
 		GeometricManager gm = pt_objs.get(obj);
 		
@@ -824,7 +834,7 @@ public class FullSensitiveNode extends IVarAbstraction
 			return false;
 		}
 		
-		SegmentNode p = gm.addNewFigure( code, pres );
+		SegmentNode p = gm.addNewFigure( code, figure );
 		if ( p != null ) {
 			new_pts.put(obj, gm);
 			return true;
@@ -834,10 +844,10 @@ public class FullSensitiveNode extends IVarAbstraction
 	}
 
 	/**
-	 * A non-interface public function.
 	 * It adds the flows-to tuple to the geometric manager.
 	 */
-	private boolean addFlowsTo(int code, IVarAbstraction qv) 
+	@Override
+	public boolean add_flows_to_figure(int code, IVarAbstraction qv, RectangleNode figure) 
 	{
 		GeometricManager gm = flowto.get(qv);
 		
@@ -846,13 +856,14 @@ public class FullSensitiveNode extends IVarAbstraction
 			flowto.put( (FullSensitiveNode)qv, gm);
 		}
 		
-		if (gm.addNewFigure( code, pres ) != null) {
+		if (gm.addNewFigure( code, figure ) != null) {
 			return true;
 		}
 		
 		return false;
 	}
 	
+	// -----------------------------------Private Functions---------------------------------------
 	private void do_pts_interval_merge()
 	{
 		for ( GeometricManager gm : new_pts.values() ) {
@@ -882,6 +893,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	 */
 	private int infer_pts_is_one_to_one( SegmentNode pts, SegmentNode pe, int code )
 	{
+		RectangleNode pres = scratch();
 		long interI, interJ;
 		
 		// The left-end is the larger one
@@ -916,6 +928,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	 */
 	private int infer_pts_is_many_to_many( RectangleNode pts, SegmentNode pe, int code )
 	{
+		RectangleNode pres = scratch();
 		long interI, interJ;
 		
 		// The left-end is the larger one
@@ -973,7 +986,7 @@ public class FullSensitiveNode extends IVarAbstraction
 		}
 		
 		if (ret_type != IEncodingBroker.Undefined_Mapping)
-			return qn.addPointsTo( ret_type, obj );
+			return propagate_points_to( qn, ret_type, obj );
 		
 		return false;
 	}
@@ -984,6 +997,7 @@ public class FullSensitiveNode extends IVarAbstraction
 	private boolean instantiateLoadConstraint(FullSensitiveNode objn,
 			FullSensitiveNode qn, SegmentNode pts, int code ) 
 	{
+		RectangleNode pres = scratch();
 		int ret_type = IEncodingBroker.Undefined_Mapping;
 		
 		if ( (code>>8) == IEncodingBroker.ONE_TO_ONE ) {
@@ -1032,13 +1046,14 @@ public class FullSensitiveNode extends IVarAbstraction
 //		if ( !( pres.I1 != 0 && pres.I2 != 0 && pres.L > 0 ) )
 //			assert false;
 		
-		return objn.addFlowsTo(ret_type, qn);
+		return propagate_flows_to(objn, ret_type, qn);
 	}
 
 	// code can only be 1-1 and 1-many
 	private boolean instantiateStoreConstraint(FullSensitiveNode qn,
 			FullSensitiveNode objn, SegmentNode pts, int code) 
 	{
+		RectangleNode pres = scratch();
 		int ret_type = IEncodingBroker.Undefined_Mapping;
 		
 		if ( (code>>8) == IEncodingBroker.ONE_TO_ONE ) {
@@ -1082,6 +1097,6 @@ public class FullSensitiveNode extends IVarAbstraction
 			}
 		}
 
-		return qn.addFlowsTo(ret_type, objn);
+		return propagate_flows_to(qn, ret_type, objn);
 	}
 }
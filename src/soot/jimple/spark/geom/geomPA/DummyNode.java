@@ -72,6 +72,18 @@ public class DummyNode extends IVarAbstraction
 		return false;
 	}
 
+	@Override
+	public boolean add_points_to_figure(int code, AllocNode obj,
+			RectangleNode figure) {
+		return false;
+	}
+
+	@Override
+	public boolean add_flows_to_figure(int code, IVarAbstraction qv,
+			RectangleNode figure) {
+		return false;
+	}
+
 	@Override
 	public void put_complex_constraint(PlainConstraint cons) {
 		// TODO Auto-generated method stub
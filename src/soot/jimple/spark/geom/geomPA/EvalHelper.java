@@ -71,7 +71,7 @@ public class EvalHelper
 		if ( vn.getType() instanceof RefType ) {
 			SootClass sc = ((RefType)vn.getType()).getSootClass();
 			if ( !sc.isInterface() && Scene.v().getActiveHierarchy().isClassSubclassOfIncluding(
-					sc, GeomPointsTo.exeception_type.getSootClass()) ) {
+					sc, ptsProvider.exeception_type.getSootClass()) ) {
 				ptsProvider.ps.println( "An exeception receiver!" );
 				ptsProvider.ps.println();
 				return;
@@ -114,7 +114,7 @@ public class EvalHelper
 		if ( vn.getType() instanceof RefType ) {
 			SootClass sc = ((RefType)vn.getType()).getSootClass();
 			if ( !sc.isInterface() && Scene.v().getActiveHierarchy().isClassSubclassOfIncluding(
-					sc, GeomPointsTo.exeception_type.getSootClass()) ) {
+					sc, ptsProvider.exeception_type.getSootClass()) ) {
 				ptsProvider.ps.println( "An exeception receiver!" );
 				ptsProvider.ps.println();
 				return;
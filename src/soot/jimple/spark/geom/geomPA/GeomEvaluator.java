@@ -244,6 +244,7 @@ public class GeomEvaluator {
 																ptsProvider.getNumberOfFunctions() );
 		outputer.printf("Reachable User Methods : %d (%d)\n", ptsProvider.n_reach_user_methods, 
 																		ptsProvider.n_reach_spark_user_methods );
+		outputer.printf("Solving Time : %.3fs on %d thread(s)\n", (double)ptsProvider.solve_time / 1000, ptsProvider.n_threads );
 		outputer.println("#Pointers (all code): " + ptsProvider.getNumberOfPointers() );
 		outputer.println("#Pointers (app code): " + n_legal_var + ", in which #AllocDot Fields : " + n_alloc_dot_fields );
 		outputer.printf("Total/Average Projected Points-to Tuples (app code): %d (%d) / %.3f (%.3f) \n", 
@@ -463,7 +464,7 @@ public class GeomEvaluator {
 			if ( v.getType() instanceof RefType ) {
 				SootClass sc = ((RefType)v.getType()).getSootClass();
 				if ( !sc.isInterface() && Scene.v().getActiveHierarchy().isClassSubclassOfIncluding(
-						sc, GeomPointsTo.exeception_type.getSootClass()) ) {
+						sc, ptsProvider.exeception_type.getSootClass()) ) {
 					continue;
 				}
 			}
@@ -63,6 +63,7 @@ import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
 import soot.jimple.spark.geom.geomPA.OfflineProcessor;
 import soot.jimple.spark.geom.geomPA.PQ_Worklist;
+import soot.jimple.spark.geom.geomPA.ParallelSolver;
 import soot.jimple.spark.geom.geomPA.PlainConstraint;
 import soot.jimple.spark.geom.geomPA.ZArrayNumberer;
 import soot.jimple.spark.internal.TypeManager;
@@ -111,10 +112,12 @@ public class GeomPointsTo extends PAG
 	// Using big integer would not bring too many benefits.
 	public static final long MAX_CONTEXTS = Long.MAX_VALUE - 1;
 	
-	// Some commonly referred to information
-	public static final RefType exeception_type = RefType.v( "java.lang.Throwable" );
+	// Some commonly referred to information, in the G of this analysis
+	public final RefType exeception_type = RefType.v( "java.lang.Throwable" );
 	
-	// The parameters that are used to tune the precision and performance tradeoff
+	// The parameters that are used to tune the precision and performance tradeoff.
+	// They are static, so the analyses of several G's running at the same time
+	// must use the same geom-frac-base and geom-runs
 	public static int max_cons_budget = 40;
 	public static int max_pts_budget = 80;
 	public static int cg_refine_times = 1;
@@ -132,6 +135,9 @@ public class GeomPointsTo extends PAG
 	// The offline processing strategies for the constraints
 	protected OfflineProcessor offlineProcessor = null;
 	
+	// The solver that is running on several threads, if any
+	protected ParallelSolver parallelSolver = null;
+	
 	// A table that maps the SPARK nodes to the geometric nodes 
 	public Map<Node, IVarAbstraction> consG = new HashMap<Node, IVarAbstraction>();
 	
@@ -163,6 +169,11 @@ public class GeomPointsTo extends PAG
 	public int max_scc_size, max_scc_id;
 	public int n_var, n_alloc_sites, n_func, n_calls;
 	public int n_reach_methods, n_reach_user_methods, n_reach_spark_user_methods;
+	// The time in milliseconds spent on solving the constraints, and the number of threads used
+	public long solve_time = 0;
+	public int n_threads = 1;
+	// The number of times a pointer was propagated
+	public long n_propagations = 0;
 	
 	// Output options
 	public String dump_file_name = null;
@@ -754,6 +765,7 @@ public class GeomPointsTo extends PAG
 			pn.propagate(this, worklist);
 //			ps.println( "------finish propagtion");
 			pn.do_after_propagation();
+			++n_propagations;
 //			ps.println( "------finish postprocess");
 		}
 	}
@@ -1039,8 +1051,12 @@ public class GeomPointsTo extends PAG
 			// We construct the initial flow graph
 			nodeGenerator.initFlowGraph(this);
 
-			// Solve the constraints
-			solveConstraints();
+			// Solve the constraints, on several threads if the user asks for it
+			n_threads = Scene.v().getNumThreads();
+			if ( n_threads > 1 )
+				new ParallelSolver( this, n_threads ).solve( worklist );
+			else
+				solveConstraints();
 			
 			// We update the call graph when the new points-to information is ready
 			// The call graph update time is not included in the points-to analysis
@@ -1061,6 +1077,8 @@ public class GeomPointsTo extends PAG
 		ps.println();
 		ps.printf("Preprocess [Time] : %.3fs \n", (double) prepare_time / 1000);
 		ps.printf("Geometric [Time] : %.3fs \n", (double) solve_time / 1000 );
+		ps.printf("Geometric [Propagations] : %d \n", n_propagations );
+		this.solve_time = solve_time;
 		ps.printf("Geometric [Memory] : %.3fMB \n", (double) (mem) / 1024 / 1024 );
 		
 		// Prepare for use in various of clients
@@ -1270,7 +1288,11 @@ public class GeomPointsTo extends PAG
 		return worklist;
 	}
 	
-	public IVarAbstraction findAndInsertInstanceField(AllocNode obj, SparkField field) 
+	/**
+	 * Find or create the instance field of obj.
+	 * It is synchronized because the parallel solver calls it from several threads.
+	 */
+	public synchronized IVarAbstraction findAndInsertInstanceField(AllocNode obj, SparkField field) 
 	{
 		AllocDotField af = findAllocDotField(obj, field);
 		if ( af == null ) {
@@ -1282,6 +1304,12 @@ public class GeomPointsTo extends PAG
 			
 			af = makeAllocDotField(obj, field);
 			IVarAbstraction pn = makeInternalNode(af);
+			if ( parallelSolver != null ) {
+				pn.partition = parallelSolver.partitionOf(pn);
+				// A worker thread leaves the numbering to the end of the round
+				if ( ParallelSolver.deferNumbering(pn) )
+					return pn;
+			}
 			pointers.add(pn);
 			return pn;
 		}
@@ -1303,7 +1331,7 @@ public class GeomPointsTo extends PAG
 		if ( v.getType() instanceof RefType ) {
 			SootClass sc = ((RefType)v.getType()).getSootClass();
 			if ( !sc.isInterface() && Scene.v().getActiveHierarchy().isClassSubclassOfIncluding(
-					sc, GeomPointsTo.exeception_type.getSootClass()) ) {
+					sc, exeception_type.getSootClass()) ) {
 				return false;
 			}
 		}
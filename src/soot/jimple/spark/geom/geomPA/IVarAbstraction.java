@@ -26,12 +26,12 @@ import soot.Type;
 import soot.jimple.spark.geom.geomE.GeometricManager;
 import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
-import soot.jimple.spark.geom.geomPA.IFigureManager;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
 import soot.jimple.spark.geom.geomPA.PlainConstraint;
 import soot.jimple.spark.geom.geomPA.RectangleNode;
 import soot.jimple.spark.geom.geomPA.ZArrayNumberer;
+import soot.jimple.spark.pag.AllocDotField;
 import soot.jimple.spark.pag.AllocNode;
 import soot.jimple.spark.pag.Node;
 import soot.util.Numberable;
@@ -45,12 +45,14 @@ import soot.util.Numberable;
  */
 public abstract class IVarAbstraction implements Numberable {
 	
-	// A shape manager that has only one all map to all member, representing the context insensitive points-to info
-	protected static IFigureManager stubManager;
-	// This is used to indicate the corresponding object should be removed
-	protected static IFigureManager deadManager;
-	// A temporary rectangle for public use 
-	protected static RectangleNode pres;
+	// A temporary rectangle, which a node fills in before adding a figure to itself or to another node
+	// Each thread has its own, since the analyses of several G's may run at the same time,
+	// and the worker threads of the ParallelSolver have another one, so it is obtained with scratch()
+	private static final ThreadLocal<RectangleNode> pres = new ThreadLocal<RectangleNode>() {
+		protected RectangleNode initialValue() {
+			return new RectangleNode();
+		}
+	};
 	
 	// Corresponding SPARK node
 	public Node me;
@@ -58,6 +60,8 @@ public abstract class IVarAbstraction implements Numberable {
 	public int id = -1;
 	// Position in the queue
 	public int Qpos = 0;
+	// The call graph SCC this node is solved with when the constraints are solved in parallel, otherwise 0
+	public int partition = 0;
 	// Will we update the points-to information for this node in the geometric analysis?
 	// Because of constraints distillation, not all the pointers will be updated.
 	public boolean willUpdate = false;
@@ -114,6 +118,22 @@ public abstract class IVarAbstraction implements Numberable {
     	return id;
     }
     
+	/**
+	 * The flows-to figures are kept in hash maps keyed by nodes, and the figure managers merge figures
+	 * in the order they come in, so the hash code must not vary between runs, as the identity hash code does.
+	 * It does not use the id either, since the instance fields made while solving in parallel are only numbered
+	 * at the end of each round: it is computed from the numbers of the base object and the field instead.
+	 */
+	@Override
+	public int hashCode()
+	{
+		if ( me instanceof AllocDotField ) {
+			AllocDotField af = (AllocDotField)me;
+			return af.getBase().getNumber() * 31 + af.getField().getNumber();
+		}
+		return me.getNumber();
+	}
+    
 	// Initiation
 	public abstract boolean add_points_to_3( AllocNode obj, long I1, long I2, long L );
 	public abstract boolean add_points_to_4( AllocNode obj, long I1, long I2, long L1, long L2 );
@@ -122,6 +142,10 @@ public abstract class IVarAbstraction implements Numberable {
 	public abstract void put_complex_constraint(PlainConstraint cons);
 	public abstract void reconstruct();
 	
+	// Adding a figure computed by a node, with the code of its shape in the encoding
+	public abstract boolean add_points_to_figure( int code, AllocNode obj, RectangleNode figure );
+	public abstract boolean add_flows_to_figure( int code, IVarAbstraction qv, RectangleNode figure );
+	
 	// Points-to analysis core components
 	public abstract void do_before_propagation();
 	public abstract void do_after_propagation();
@@ -153,4 +177,36 @@ public abstract class IVarAbstraction implements Numberable {
 	
 	// Debugging facilities
 	public abstract void print_context_sensitive_points_to( PrintStream outPrintStream );
+	
+	/**
+	 * Get the temporary rectangle of the current thread: pres, or the worker's own one in the ParallelSolver.
+	 */
+	protected static RectangleNode scratch()
+	{
+		return ParallelSolver.scratch( pres );
+	}
+	
+	/**
+	 * Adds the figure in pres to the points-to tuples of qv for obj, while propagating this node.
+	 * If qv is solved by another thread, the figure is left to the parallel solver, and false is returned.
+	 */
+	protected final boolean propagate_points_to( IVarAbstraction qv, int code, AllocNode obj )
+	{
+		RectangleNode pres = scratch();
+		if ( qv.partition != partition )
+			return ParallelSolver.deferPointsTo( qv, code, obj, pres );
+		return qv.add_points_to_figure( code, obj, pres );
+	}
+	
+	/**
+	 * Adds the figure in pres to the flows-to tuples of pv for qv, while propagating this node.
+	 * If pv is solved by another thread, the figure is left to the parallel solver, and false is returned.
+	 */
+	protected final boolean propagate_flows_to( IVarAbstraction pv, int code, IVarAbstraction qv )
+	{
+		RectangleNode pres = scratch();
+		if ( pv.partition != partition )
+			return ParallelSolver.deferFlowsTo( pv, code, qv, pres );
+		return pv.add_flows_to_figure( code, qv, pres );
+	}
 }
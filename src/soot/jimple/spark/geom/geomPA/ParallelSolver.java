@@ -0,0 +1,341 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+package soot.jimple.spark.geom.geomPA;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import soot.Scene;
+import soot.SootMethod;
+import soot.jimple.spark.pag.AllocDotField;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.LocalVarNode;
+import soot.jimple.spark.pag.Node;
+
+/**
+ * Solves the constraints on several threads.
+ *
+ * The pointers are partitioned by the SCCs of the call graph: a local pointer belongs to the SCC of its method,
+ * an instance field to the SCC of the method allocating its base object, and the other pointers to the SCC of SUPER_MAIN.
+ * The solving goes in rounds. In every round, the pointers in the worklist are grouped by SCC,
+ * and each group is solved to a fixed point by one of the threads, with a FIFO worklist of its own.
+ * The figures a pointer computes for the pointers of another SCC are not added to them but recorded,
+ * and at the end of the round they are added in the order of the groups on the calling thread,
+ * which puts the pointers they change into the worklist for the next round.
+ *
+ * Hence, the figure managers of a pointer are only changed by one thread at a time.
+ * The instance fields made while a round is solved are numbered at its end, ordered by base object and field,
+ * and the pointers hash on their numbers, so the result, and the number of figures passed,
+ * is the same for any number of threads; only the Spark node numbers of these fields may vary.
+ * It is not exactly that of solveConstraints, which GeomPointsTo uses with a single thread, though:
+ * the figures reach the pointers in another order, and as the figure managers merge figures when they hold too many,
+ * the tuples kept, hence the tuple counts and the context-sensitive precision, may differ.
+ */
+public class ParallelSolver
+{
+	// A figure computed for a pointer of another SCC
+	private static class Figure
+	{
+		IVarAbstraction target;
+		int code;
+		// The object of a points-to figure
+		AllocNode obj;
+		// The pointer the target flows to, for a flows-to figure
+		IVarAbstraction qv;
+		RectangleNode shape;
+	}
+
+	// The pointers of an SCC to solve in a round, and the figures they compute for other SCCs
+	private static class Partition
+	{
+		List<IVarAbstraction> pointers = new ArrayList<IVarAbstraction>();
+		List<Figure> figures = new ArrayList<Figure>();
+		// The instance fields made while solving, to be numbered at the end of the round
+		List<IVarAbstraction> fields = new ArrayList<IVarAbstraction>();
+		// The number of times a pointer was propagated
+		long propagations = 0;
+	}
+
+	// Orders instance fields by their base object and field, which, unlike their creation order, do not depend on the threads
+	private static final Comparator<IVarAbstraction> BY_BASE_AND_FIELD = new Comparator<IVarAbstraction>() {
+		public int compare( IVarAbstraction pn, IVarAbstraction qn )
+		{
+			AllocDotField p = (AllocDotField)pn.getWrappedNode(), q = (AllocDotField)qn.getWrappedNode();
+			if ( p.getBase().getNumber() != q.getBase().getNumber() )
+				return p.getBase().getNumber() < q.getBase().getNumber() ? -1 : 1;
+			if ( p.getField().getNumber() != q.getField().getNumber() )
+				return p.getField().getNumber() < q.getField().getNumber() ? -1 : 1;
+			return 0;
+		}
+	};
+
+	// A thread solving partitions
+	private static class Worker
+	{
+		// The partition being solved
+		Partition part;
+		// The temporary rectangle the nodes fill in on this thread, instead of its own IVarAbstraction.pres
+		final RectangleNode pres = new RectangleNode();
+	}
+
+	// The worker running on the current thread
+	private static final ThreadLocal<Worker> current = new ThreadLocal<Worker>();
+
+	private GeomPointsTo ptAnalyzer;
+	private int numThreads;
+
+	// Statistics
+	private int n_rounds = 0, n_partitions = 0;
+	private long n_figures = 0, n_new_figures = 0;
+
+	public ParallelSolver( GeomPointsTo ptAnalyzer, int numThreads )
+	{
+		this.ptAnalyzer = ptAnalyzer;
+		this.numThreads = numThreads;
+	}
+
+	/**
+	 * Solve the constraints for the pointers in the worklist, until the worklist is empty.
+	 */
+	public void solve( IWorklist worklist )
+	{
+		for ( IVarAbstraction pn : ptAnalyzer.pointers )
+			pn.partition = partitionOf( pn );
+
+		// The encodings use the hierarchy, which is made lazily
+		Scene.v().getActiveHierarchy();
+
+		ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+		ptAnalyzer.parallelSolver = this;
+		try {
+			while ( worklist.has_job() ) {
+				List<Partition> parts = nextRound( worklist );
+				solveAll( parts, executor );
+
+				List<IVarAbstraction> fields = new ArrayList<IVarAbstraction>();
+				for ( Partition part : parts )
+					fields.addAll( part.fields );
+				Collections.sort( fields, BY_BASE_AND_FIELD );
+				for ( IVarAbstraction pn : fields )
+					ptAnalyzer.pointers.add( pn );
+
+				for ( Partition part : parts ) {
+					for ( Figure f : part.figures ) {
+						boolean added;
+
+						if ( f.obj != null )
+							added = f.target.add_points_to_figure( f.code, f.obj, f.shape );
+						else
+							added = f.target.add_flows_to_figure( f.code, f.qv, f.shape );
+						if ( added ) {
+							worklist.push( f.target );
+							++n_new_figures;
+						}
+					}
+					n_figures += part.figures.size();
+					ptAnalyzer.n_propagations += part.propagations;
+				}
+
+				++n_rounds;
+				n_partitions += parts.size();
+			}
+		}
+		finally {
+			executor.shutdownNow();
+			ptAnalyzer.parallelSolver = null;
+			for ( IVarAbstraction pn : ptAnalyzer.pointers )
+				pn.partition = 0;
+		}
+
+		ptAnalyzer.ps.printf( "Parallel solving : %d threads, %d rounds, %d SCCs solved, %d figures passed between SCCs, %d of them new \n",
+				numThreads, n_rounds, n_partitions, n_figures, n_new_figures );
+	}
+
+	/**
+	 * Get the SCC of the call graph that pn is solved with.
+	 */
+	public int partitionOf( IVarAbstraction pn )
+	{
+		Node node = pn.getWrappedNode();
+		SootMethod sm = null;
+
+		if ( node instanceof LocalVarNode )
+			sm = ((LocalVarNode)node).getMethod();
+		else if ( node instanceof AllocDotField )
+			sm = ((AllocDotField)node).getBase().getMethod();
+
+		if ( sm == null )
+			return GeomPointsTo.SUPER_MAIN;
+
+		Integer fid = ptAnalyzer.func2int.get( sm );
+		if ( fid == null || ptAnalyzer.vis_cg[fid] == 0 )
+			return GeomPointsTo.SUPER_MAIN;
+		return ptAnalyzer.rep_cg[fid];
+	}
+
+	/**
+	 * Record a points-to figure that the pointer being propagated computes for pn, which is solved by another thread.
+	 */
+	static boolean deferPointsTo( IVarAbstraction pn, int code, AllocNode obj, RectangleNode figure )
+	{
+		Figure f = newFigure( pn, code, figure );
+		f.obj = obj;
+		return false;
+	}
+
+	/**
+	 * Record a flows-to figure from pn to qv that the pointer being propagated computes, when pn is solved by another thread.
+	 */
+	static boolean deferFlowsTo( IVarAbstraction pn, int code, IVarAbstraction qv, RectangleNode figure )
+	{
+		Figure f = newFigure( pn, code, figure );
+		f.qv = qv;
+		return false;
+	}
+
+	/**
+	 * Record an instance field made by the pointer being propagated, so that it is numbered at the end of the round,
+	 * in the same order for any number of threads.
+	 * Returns false if no partition is being solved on this thread, in which case it must be numbered right away.
+	 */
+	static boolean deferNumbering( IVarAbstraction pn )
+	{
+		Worker w = current.get();
+		if ( w == null )
+			return false;
+		w.part.fields.add( pn );
+		return true;
+	}
+
+	/**
+	 * Get the temporary rectangle of the current thread: the worker's one if it is solving a partition, and the thread's otherwise.
+	 */
+	static RectangleNode scratch( ThreadLocal<RectangleNode> own )
+	{
+		Worker w = current.get();
+		return w == null ? own.get() : w.pres;
+	}
+
+	private static Figure newFigure( IVarAbstraction pn, int code, RectangleNode figure )
+	{
+		Worker w = current.get();
+		if ( w == null )
+			throw new RuntimeException( "Pointers of different SCCs are propagated outside of the parallel solver." );
+
+		Figure f = new Figure();
+		f.target = pn;
+		f.code = code;
+		f.shape = new RectangleNode( figure );
+		w.part.figures.add( f );
+		return f;
+	}
+
+	/**
+	 * Take all the pointers out of the worklist and group them by SCC.
+	 */
+	private List<Partition> nextRound( IWorklist worklist )
+	{
+		Map<Integer, Partition> sccs = new HashMap<Integer, Partition>();
+		List<Partition> parts = new ArrayList<Partition>();
+
+		while ( worklist.has_job() ) {
+			IVarAbstraction pn = worklist.next();
+			Partition part = sccs.get( pn.partition );
+			if ( part == null ) {
+				part = new Partition();
+				sccs.put( pn.partition, part );
+				parts.add( part );
+			}
+			part.pointers.add( pn );
+		}
+
+		return parts;
+	}
+
+	private void solveAll( final List<Partition> parts, ExecutorService executor )
+	{
+		if ( parts.size() == 1 ) {
+			solve( parts.get(0), new Worker() );
+			return;
+		}
+
+		final AtomicInteger next = new AtomicInteger();
+		List<Future<Object>> tasks = new ArrayList<Future<Object>>();
+		for ( int i = 0; i < numThreads && i < parts.size(); ++i ) {
+			tasks.add( executor.submit( new Callable<Object>() {
+				public Object call() {
+					Worker w = new Worker();
+					for ( int j = next.getAndIncrement(); j < parts.size(); j = next.getAndIncrement() )
+						solve( parts.get(j), w );
+					return null;
+				}
+			} ) );
+		}
+
+		for ( Future<Object> task : tasks ) {
+			try {
+				task.get();
+			} catch ( ExecutionException e ) {
+				Throwable cause = e.getCause();
+				if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+				if ( cause instanceof Error ) throw (Error) cause;
+				throw new RuntimeException( cause );
+			} catch ( InterruptedException e ) {
+				throw new RuntimeException( "Interrupted while waiting for worker threads", e );
+			}
+		}
+	}
+
+	/**
+	 * Solve the pointers of an SCC, as GeomPointsTo.solveConstraints does.
+	 */
+	private void solve( Partition part, Worker w )
+	{
+		IWorklist worklist = new FIFO_Worklist();
+		worklist.initialize( part.pointers.size() );
+		for ( IVarAbstraction pn : part.pointers )
+			worklist.push( pn );
+
+		w.part = part;
+		current.set( w );
+		try {
+			while ( worklist.has_job() ) {
+				IVarAbstraction pn = worklist.next();
+				pn.do_before_propagation();
+				pn.propagate( ptAnalyzer, worklist );
+				pn.do_after_propagation();
+				++part.propagations;
+			}
+		}
+		finally {
+			current.remove();
+			w.part = null;
+		}
+	}
+}
@@ -44,6 +44,7 @@ import soot.jimple.spark.geom.geomPA.RectangleNode;
 import soot.jimple.spark.geom.heapinsE.HeapInsIntervalManager;
 import soot.jimple.spark.geom.heapinsE.HeapInsNode;
 import soot.jimple.spark.geom.geomPA.IEncodingBroker;
+import soot.jimple.spark.geom.geomPA.IFigureManager;
 import soot.jimple.spark.pag.AllocNode;
 import soot.jimple.spark.pag.LocalVarNode;
 import soot.jimple.spark.pag.Node;
@@ -70,10 +71,16 @@ public class HeapInsNode extends IVarAbstraction
 	// store/load complex constraints
 	public Vector<PlainConstraint> complex_cons = null;
 	
+	// A shape manager that has only one all map to all member, representing the context insensitive points-to info
+	// Each encoding has its own pair, so that the encodings can be run one after another in the same VM
+	protected static final IFigureManager stubManager;
+	// This is used to indicate the corresponding object should be removed
+	protected static final IFigureManager deadManager;
+	
 	static {
 		stubManager = new HeapInsIntervalManager();
-		pres = new RectangleNode(0, 0, GeomPointsTo.MAX_CONTEXTS, GeomPointsTo.MAX_CONTEXTS);
-		stubManager.addNewFigure(HeapInsIntervalManager.ALL_TO_ALL, pres);
+		stubManager.addNewFigure(HeapInsIntervalManager.ALL_TO_ALL,
+				new RectangleNode(0, 0, GeomPointsTo.MAX_CONTEXTS, GeomPointsTo.MAX_CONTEXTS));
 		deadManager = new HeapInsIntervalManager();
 	}
 	
@@ -165,19 +172,9 @@ public class HeapInsNode extends IVarAbstraction
 	
 	@Override
 	public boolean add_points_to_3(AllocNode obj, long I1, long I2, long L) 
-	{	
-		int code = 0;
-		
-		pres.I1 = I1;
-		pres.I2 = I2;
-		pres.L = L;
-		
-		if ( I1 == 0 )
-			code = ( I2 == 0 ? HeapInsIntervalManager.ALL_TO_ALL : HeapInsIntervalManager.ALL_TO_MANY );
-		else
-			code = ( I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE );
-		
-		return addPointsTo(code, obj);
+	{
+		RectangleNode pres = scratch();
+		return add_points_to_figure( make_figure(I1, I2, L), obj, pres );
 	}
 	
 	@Override
@@ -190,18 +187,8 @@ public class HeapInsNode extends IVarAbstraction
 	@Override
 	public boolean add_simple_constraint_3(IVarAbstraction qv, long I1, long I2, long L) 
 	{
-		int code = 0;
-		
-		pres.I1 = I1;
-		pres.I2 = I2;
-		pres.L = L;
-		
-		if ( I1 == 0 )
-			code = ( I2 == 0 ? HeapInsIntervalManager.ALL_TO_ALL : HeapInsIntervalManager.ALL_TO_MANY );
-		else
-			code = ( I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE );
-		
-		return addFlowsTo(code, (HeapInsNode)qv);
+		RectangleNode pres = scratch();
+		return add_flows_to_figure( make_figure(I1, I2, L), qv, pres );
 	}
 
 	@Override
@@ -269,21 +256,19 @@ public class HeapInsNode extends IVarAbstraction
 							case GeomPointsTo.STORE_CONS:
 								// Store, qv -> pv.field
 								// pts.I2 may be zero, pts.L may be less than zero
-								if ( qn.add_simple_constraint_3( objn,
+								if ( propagate_flows_to( qn, make_figure(
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
 										pts.I2,
-										pts.L < 0  ? -pts.L : pts.L
-								) )
+										pts.L < 0  ? -pts.L : pts.L ), objn ) )
 									worklist.push( qn );
 								break;
 								
 							case GeomPointsTo.LOAD_CONS:
 								// Load, pv.field -> qv
-								if ( objn.add_simple_constraint_3( qn, 
-										pts.I2, 
+								if ( propagate_flows_to( objn, make_figure(
+										pts.I2,
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
-										pts.L < 0 ? -pts.L : pts.L
-								) )
+										pts.L < 0 ? -pts.L : pts.L ), qn ) )
 									worklist.push( objn );
 								break;
 								
@@ -699,7 +684,8 @@ public class HeapInsNode extends IVarAbstraction
 		}
 	}
 	
-	private boolean addPointsTo( int code, AllocNode obj )
+	@Override
+	public boolean add_points_to_figure( int code, AllocNode obj, RectangleNode figure )
 	{
 		HeapInsIntervalManager im = pt_objs.get(obj);
 		
@@ -712,8 +698,7 @@ public class HeapInsNode extends IVarAbstraction
 			return false;
 		}
 		
-		// pres has been filled properly before calling this method
-		if ( im.addNewFigure(code, pres) != null ) {
+		if ( im.addNewFigure(code, figure) != null ) {
 			new_pts.put(obj, im);
 			return true;
 		}
@@ -721,23 +706,37 @@ public class HeapInsNode extends IVarAbstraction
 		return false;
 	}
 	
-	private boolean addFlowsTo( int code, HeapInsNode qv )
+	@Override
+	public boolean add_flows_to_figure( int code, IVarAbstraction qv, RectangleNode figure )
 	{
 		HeapInsIntervalManager im = flowto.get(qv);
 		
 		if ( im == null ) {
 			im = new HeapInsIntervalManager();
-			flowto.put(qv, im);
+			flowto.put((HeapInsNode)qv, im);
 		}
 		
-		// pres has been filled properly before calling this method
-		return im.addNewFigure(code, pres) != null;
+		return im.addNewFigure(code, figure) != null;
+	}
+	
+	// Fill pres with the figure (I1, I2, L) and return the code of its shape
+	private int make_figure( long I1, long I2, long L )
+	{
+		RectangleNode pres = scratch();
+		pres.I1 = I1;
+		pres.I2 = I2;
+		pres.L = L;
+		
+		if ( I1 == 0 )
+			return ( I2 == 0 ? HeapInsIntervalManager.ALL_TO_ALL : HeapInsIntervalManager.ALL_TO_MANY );
+		return ( I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE );
 	}
 	
 	// Apply the inference rules
 	private boolean add_new_points_to_tuple( SegmentNode pts, SegmentNode pe, 
 			AllocNode obj, HeapInsNode qn )
 	{
+		RectangleNode pres = scratch();
 		long interI, interJ;
 		int code = 0;
 		
@@ -778,7 +777,7 @@ public class HeapInsNode extends IVarAbstraction
 				code = ( pres.I2 == 0 ? HeapInsIntervalManager.MANY_TO_ALL : HeapInsIntervalManager.ONE_TO_ONE );
 		}
 		
-		return qn.addPointsTo( code, obj );
+		return propagate_points_to( qn, code, obj );
 	}
 	
 	// We only test if their points-to objects intersected under context
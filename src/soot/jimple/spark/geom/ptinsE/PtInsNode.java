@@ -33,6 +33,7 @@ import soot.Type;
 import soot.jimple.spark.geom.geomPA.CallsiteContextVar;
 import soot.jimple.spark.geom.geomPA.GeomPointsTo;
 import soot.jimple.spark.geom.geomPA.IEncodingBroker;
+import soot.jimple.spark.geom.geomPA.IFigureManager;
 import soot.jimple.spark.geom.geomPA.IVarAbstraction;
 import soot.jimple.spark.geom.geomPA.IWorklist;
 import soot.jimple.spark.geom.geomPA.PlainConstraint;
@@ -70,10 +71,16 @@ public class PtInsNode extends IVarAbstraction
 	// store/load complex constraints
 	public Vector<PlainConstraint> complex_cons = null;
 
+	// A shape manager that has only one all map to all member, representing the context insensitive points-to info
+	// Each encoding has its own pair, so that the encodings can be run one after another in the same VM
+	protected static final IFigureManager stubManager;
+	// This is used to indicate the corresponding object should be removed
+	protected static final IFigureManager deadManager;
+	
 	static {
 		stubManager = new PtInsIntervalManager();
-		pres = new RectangleNode(0, 0, GeomPointsTo.MAX_CONTEXTS, GeomPointsTo.MAX_CONTEXTS);
-		stubManager.addNewFigure(PtInsIntervalManager.ALL_TO_ALL, pres);
+		stubManager.addNewFigure(PtInsIntervalManager.ALL_TO_ALL,
+				new RectangleNode(0, 0, GeomPointsTo.MAX_CONTEXTS, GeomPointsTo.MAX_CONTEXTS));
 		deadManager = new PtInsIntervalManager();
 	}
 	
@@ -167,18 +174,8 @@ public class PtInsNode extends IVarAbstraction
 	@Override
 	public boolean add_points_to_3(AllocNode obj, long I1, long I2, long L) 
 	{
-		int code = 0;
-		
-		pres.I1 = I1;
-		pres.I2 = I2;
-		pres.L = L;
-		
-		if ( I1 == 0 )
-			code = ( I2 == 0 ? PtInsIntervalManager.ALL_TO_ALL : PtInsIntervalManager.ALL_TO_MANY );
-		else
-			code = ( I2 == 0 ? PtInsIntervalManager.MANY_TO_ALL : PtInsIntervalManager.ONE_TO_ONE );
-		
-		return addPointsTo(code, obj);
+		RectangleNode pres = scratch();
+		return add_points_to_figure( make_figure(I1, I2, L), obj, pres );
 	}
 	
 	@Override
@@ -191,18 +188,8 @@ public class PtInsNode extends IVarAbstraction
 	@Override
 	public boolean add_simple_constraint_3(IVarAbstraction qv, long I1, long I2, long L) 
 	{
-		int code = 0;
-		
-		pres.I1 = I1;
-		pres.I2 = I2;
-		pres.L = L;
-		
-		if ( I1 == 0 )
-			code = ( I2 == 0 ? PtInsIntervalManager.ALL_TO_ALL : PtInsIntervalManager.ALL_TO_MANY );
-		else
-			code = ( I2 == 0 ? PtInsIntervalManager.MANY_TO_ALL : PtInsIntervalManager.ONE_TO_ONE );
-		
-		return addFlowsTo(code, (PtInsNode)qv);
+		RectangleNode pres = scratch();
+		return add_flows_to_figure( make_figure(I1, I2, L), qv, pres );
 	}
 
 	@Override
@@ -271,21 +258,19 @@ public class PtInsNode extends IVarAbstraction
 							case GeomPointsTo.STORE_CONS:
 								// Store, qv -> pv.field
 								// pts.I2 may be zero, pts.L may be less than zero
-								if ( qn.add_simple_constraint_3( objn,
+								if ( propagate_flows_to( qn, make_figure(
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
 										pts.I2,
-										pts.L
-								) )
+										pts.L ), objn ) )
 									worklist.push( qn );
 								break;
 								
 							case GeomPointsTo.LOAD_CONS:
 								// Load, pv.field -> qv
-								if ( objn.add_simple_constraint_3( qn, 
-										pts.I2, 
+								if ( propagate_flows_to( objn, make_figure(
+										pts.I2,
 										pcons.code == IEncodingBroker.ONE_TO_ONE ? pts.I1 : 0,
-										pts.L
-								) )
+										pts.L ), qn ) )
 									worklist.push( objn );
 								break;
 								
@@ -704,7 +689,8 @@ public class PtInsNode extends IVarAbstraction
 		}
 	}
 	
-	private boolean addPointsTo( int code, AllocNode obj )
+	@Override
+	public boolean add_points_to_figure( int code, AllocNode obj, RectangleNode figure )
 	{
 		PtInsIntervalManager im = pt_objs.get(obj);
 		
@@ -717,8 +703,7 @@ public class PtInsNode extends IVarAbstraction
 			return false;
 		}
 		
-		// pres has been filled properly before calling this method
-		if ( im.addNewFigure(code, pres) != null ) {
+		if ( im.addNewFigure(code, figure) != null ) {
 			new_pts.put(obj, im);
 			return true;
 		}
@@ -726,23 +711,37 @@ public class PtInsNode extends IVarAbstraction
 		return false;
 	}
 	
-	private boolean addFlowsTo( int code, PtInsNode qv )
+	@Override
+	public boolean add_flows_to_figure( int code, IVarAbstraction qv, RectangleNode figure )
 	{
 		PtInsIntervalManager im = flowto.get(qv);
 		
 		if ( im == null ) {
 			im = new PtInsIntervalManager();
-			flowto.put(qv, im);
+			flowto.put((PtInsNode)qv, im);
 		}
 		
-		// pres has been filled properly before calling this method
-		return im.addNewFigure(code, pres) != null;
+		return im.addNewFigure(code, figure) != null;
+	}
+	
+	// Fill pres with the figure (I1, I2, L) and return the code of its shape
+	private int make_figure( long I1, long I2, long L )
+	{
+		RectangleNode pres = scratch();
+		pres.I1 = I1;
+		pres.I2 = I2;
+		pres.L = L;
+		
+		if ( I1 == 0 )
+			return ( I2 == 0 ? PtInsIntervalManager.ALL_TO_ALL : PtInsIntervalManager.ALL_TO_MANY );
+		return ( I2 == 0 ? PtInsIntervalManager.MANY_TO_ALL : PtInsIntervalManager.ONE_TO_ONE );
 	}
 	
 	// Implement the pointer assignment inference rules
 	private boolean add_new_points_to_tuple( SegmentNode pts, SegmentNode pe, 
 			AllocNode obj, PtInsNode qn )
 	{
+		RectangleNode pres = scratch();
 		long interI, interJ;
 		int code = 0;
 
@@ -769,7 +768,7 @@ public class PtInsNode extends IVarAbstraction
 			code = (pres.I2 == 0 ? PtInsIntervalManager.MANY_TO_ALL : PtInsIntervalManager.ONE_TO_ONE );
 		}
 		
-		return qn.addPointsTo(code, obj);
+		return propagate_points_to( qn, code, obj );
 	}
 	
 	// We only test if their points-to objects intersected under context
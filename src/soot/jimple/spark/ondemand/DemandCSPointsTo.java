@@ -24,9 +24,17 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import soot.AnySubType;
 import soot.ArrayType;
@@ -41,6 +49,7 @@ import soot.SootField;
 import soot.SootMethod;
 import soot.Type;
 import soot.jimple.spark.ondemand.genericutil.ArraySet;
+import soot.jimple.spark.ondemand.genericutil.BoundedCache;
 import soot.jimple.spark.ondemand.genericutil.HashSetMultiMap;
 import soot.jimple.spark.ondemand.genericutil.ImmutableStack;
 import soot.jimple.spark.ondemand.genericutil.Predicate;
@@ -67,6 +76,7 @@ import soot.jimple.spark.sets.P2SetVisitor;
 import soot.jimple.spark.sets.PointsToSetEqualsWrapper;
 import soot.jimple.spark.sets.PointsToSetInternal;
 import soot.jimple.toolkits.callgraph.VirtualCalls;
+import soot.options.Options;
 import soot.toolkits.scalar.Pair;
 import soot.util.NumberedString;
 
@@ -220,17 +230,23 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 		return new DemandCSPointsTo(csInfo, pag, maxTraversal, maxPasses, lazy);
 	}
 
+	/**
+	 * not bounded: an entry is put in before the calling contexts of its
+	 * allocation site are found, and a recursive search for the same
+	 * allocation site stops at it, so evicting it could make the search loop;
+	 * clearState() empties it after each pass
+	 */
 	protected final AllocAndContextCache allocAndContextCache = new AllocAndContextCache();
 
 	protected Stack<Pair<Integer, ImmutableStack<Integer>>> callGraphStack = new Stack<Pair<Integer, ImmutableStack<Integer>>>();
 
 	protected final CallSiteToTargetsMap callSiteToResolvedTargets = new CallSiteToTargetsMap();
 
-	protected HashMap<List<Object>, Set<SootMethod>> callTargetsArgCache = new HashMap<List<Object>, Set<SootMethod>>();
+	protected BoundedCache<List<Object>, Set<SootMethod>> callTargetsArgCache = new BoundedCache<List<Object>, Set<SootMethod>>();
 
 	protected final Stack<VarAndContext> contextForAllocsStack = new Stack<VarAndContext>();
 
-	protected Map<VarAndContext, Pair<PointsToSetInternal, AllocAndContextSet>> contextsForAllocsCache = new HashMap<VarAndContext, Pair<PointsToSetInternal, AllocAndContextSet>>();
+	protected BoundedCache<VarAndContext, Pair<PointsToSetInternal, AllocAndContextSet>> contextsForAllocsCache = new BoundedCache<VarAndContext, Pair<PointsToSetInternal, AllocAndContextSet>>();
 
 	protected final ContextSensitiveInfo csInfo;
 
@@ -270,16 +286,34 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 
 	protected OTFMethodSCCManager sccManager;
 
+	/**
+	 * not bounded, for the same reason as {@link #allocAndContextCache}: the
+	 * set of an entry is put in while its contexts are still being found, and
+	 * a recursive search for the same variable and allocation site stops at
+	 * it; clearState() empties it after each pass
+	 */
 	protected Map<VarContextAndUp, Map<AllocAndContext, CallingContextSet>> upContextCache = new HashMap<VarContextAndUp, Map<AllocAndContext, CallingContextSet>>();
 
 	protected ValidMatches vMatches;
 	
-	protected Map<Local,PointsToSet> reachingObjectsCache, reachingObjectsCacheNoCGRefinement;
+	protected BoundedCache<Local,PointsToSet> reachingObjectsCache, reachingObjectsCacheNoCGRefinement;
 
     protected boolean useCache;
 
 	private final boolean lazy;
 
+	/**
+	 * resolves virtual calls; each analysis answering queries on a thread of
+	 * its own has its own
+	 */
+	private final VirtualCalls virtualCalls;
+
+	/**
+	 * <code>true</code> once the PAG has been cleaned up for merged nodes, so
+	 * that looking up its edges no longer changes it
+	 */
+	private boolean mergesCleanedUp = false;
+
 	public DemandCSPointsTo(ContextSensitiveInfo csInfo, PAG pag) {
 		this(csInfo, pag, DEFAULT_MAX_TRAVERSAL, DEFAULT_MAX_PASSES, DEFAULT_LAZY);
 	}
@@ -292,9 +326,37 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 		this.lazy = lazy;
 		this.maxNodesPerPass = maxTraversal / maxPasses;
 		this.heuristicType = HeuristicType.INCR;
-		this.reachingObjectsCache = new HashMap<Local, PointsToSet>();
-		this.reachingObjectsCacheNoCGRefinement = new HashMap<Local, PointsToSet>();
+		this.reachingObjectsCache = new BoundedCache<Local, PointsToSet>();
+		this.reachingObjectsCacheNoCGRefinement = new BoundedCache<Local, PointsToSet>();
         this.useCache = true;
+        this.virtualCalls = VirtualCalls.v();
+	}
+
+	/**
+	 * Makes an analysis for answering queries on another thread than
+	 * <code>other</code>. It shares the PAG, the match information, the
+	 * settings and the caches of <code>other</code>, which must have been
+	 * initialized.
+	 */
+	private DemandCSPointsTo(DemandCSPointsTo other) {
+		this.csInfo = other.csInfo;
+		this.pag = other.pag;
+		this.maxPasses = other.maxPasses;
+		this.lazy = other.lazy;
+		this.maxNodesPerPass = other.maxNodesPerPass;
+		this.heuristicType = other.heuristicType;
+		this.refineCallGraph = other.refineCallGraph;
+		this.reachingObjectsCache = other.reachingObjectsCache;
+		this.reachingObjectsCacheNoCGRefinement = other.reachingObjectsCacheNoCGRefinement;
+		this.callTargetsArgCache = new BoundedCache<List<Object>, Set<SootMethod>>(
+				other.callTargetsArgCache.getMaxSize(), other.callTargetsArgCache.getEviction());
+		this.contextsForAllocsCache = new BoundedCache<VarAndContext, Pair<PointsToSetInternal, AllocAndContextSet>>(
+				other.contextsForAllocsCache.getMaxSize(), other.contextsForAllocsCache.getEviction());
+		this.useCache = other.useCache;
+		this.fieldToStores = other.fieldToStores;
+		this.fieldToLoads = other.fieldToLoads;
+		this.vMatches = other.vMatches;
+		this.virtualCalls = new VirtualCalls();
 	}
 
 	private void init() {
@@ -321,12 +383,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 	        init();
 		}
 		PointsToSet result;
-        Map<Local, PointsToSet> cache;
-	    if(refineCallGraph) {  //we use different caches for different settings  
-            cache = reachingObjectsCache;
-	    } else {
-            cache = reachingObjectsCacheNoCGRefinement;
-	    }
+        BoundedCache<Local, PointsToSet> cache = getReachingObjectsCache();
         result = cache.get(l);           
 	    if(result==null) {
     		result = computeReachingObjects(l);
@@ -362,6 +419,13 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 		  //no reaching objects
 		  return EmptyPointsToSet.v();
 		}
+        return computeReachingObjects(v);
+    }
+
+    /**
+     * Computes the possibly refined set of reaching objects for v.
+     */
+    protected PointsToSet computeReachingObjects(VarNode v) {
         PointsToSet contextSensitiveResult = computeRefinedReachingObjects(v);
         if(contextSensitiveResult == null ) {
             //had to abort; return Spark's points-to set in a wrapper
@@ -408,6 +472,143 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
         return contextSensitiveResult;
     }
 
+	/**
+	 * Computes the possibly refined sets of reaching objects for several
+	 * locals, as {@link #doReachingObjects(Local)} does for each of them, on
+	 * as many threads as the <code>num-threads</code> option asks for.
+	 * 
+	 * @see #reachingObjects(Collection, int)
+	 */
+	public Map<Local, PointsToSet> reachingObjects(Collection<Local> locals) {
+		return reachingObjects(locals, Options.v().num_threads());
+	}
+
+	/**
+	 * Computes the possibly refined sets of reaching objects for several
+	 * locals, as {@link #doReachingObjects(Local)} does for each of them.
+	 * Locals in the cache are not queried again, and locals with the same
+	 * node in the PAG are queried once. The remaining queries are grouped by
+	 * method, and with more than one thread the groups are shared out among
+	 * the threads, each of which answers its queries with an analysis of its
+	 * own that shares the PAG, the match information and the cache of this
+	 * one.
+	 * 
+	 * @return the sets of reaching objects, by local, in the order of
+	 *         <code>locals</code>
+	 */
+	public Map<Local, PointsToSet> reachingObjects(Collection<Local> locals,
+			int numThreads) {
+		//lazy initialization
+		if (fieldToStores == null) {
+			init();
+		}
+		BoundedCache<Local, PointsToSet> cache = getReachingObjectsCache();
+		Map<Local, PointsToSet> result = new LinkedHashMap<Local, PointsToSet>();
+		Map<VarNode, List<Local>> nodeToLocals = new HashMap<VarNode, List<Local>>();
+		Map<SootMethod, List<VarNode>> methodToNodes = new LinkedHashMap<SootMethod, List<VarNode>>();
+		for (Local l : locals) {
+			if (result.containsKey(l)) {
+				continue;
+			}
+			PointsToSet p2set = cache.get(l);
+			if (p2set == null) {
+				LocalVarNode v = pag.findLocalVarNode(l);
+				if (v == null) {
+					//no reaching objects
+					p2set = EmptyPointsToSet.v();
+					if (useCache) {
+						cache.put(l, p2set);
+					}
+				} else {
+					List<Local> sameNode = nodeToLocals.get(v);
+					if (sameNode == null) {
+						sameNode = new ArrayList<Local>();
+						nodeToLocals.put(v, sameNode);
+						List<VarNode> nodes = methodToNodes.get(v.getMethod());
+						if (nodes == null) {
+							nodes = new ArrayList<VarNode>();
+							methodToNodes.put(v.getMethod(), nodes);
+						}
+						nodes.add(v);
+					}
+					sameNode.add(l);
+				}
+			}
+			// queried locals are filled in below, keeping their place
+			result.put(l, p2set);
+		}
+		Map<VarNode, PointsToSet> answers = computeReachingObjects(
+				new ArrayList<List<VarNode>>(methodToNodes.values()), numThreads);
+		for (Map.Entry<VarNode, List<Local>> e : nodeToLocals.entrySet()) {
+			PointsToSet p2set = answers.get(e.getKey());
+			for (Local l : e.getValue()) {
+				result.put(l, p2set);
+				if (useCache) {
+					cache.put(l, p2set);
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the possibly refined sets of reaching objects for groups of
+	 * nodes, on up to numThreads threads, each of which takes whole groups.
+	 */
+	protected Map<VarNode, PointsToSet> computeReachingObjects(
+			final List<List<VarNode>> groups, int numThreads) {
+		numThreads = Math.min(numThreads, groups.size());
+		if (numThreads <= 1) {
+			Map<VarNode, PointsToSet> answers = new HashMap<VarNode, PointsToSet>();
+			for (List<VarNode> group : groups) {
+				for (VarNode v : group) {
+					answers.put(v, computeReachingObjects(v));
+				}
+			}
+			return answers;
+		}
+		if (!mergesCleanedUp) {
+			// looking up the edges of merged nodes would change the PAG
+			pag.cleanUpMerges();
+			mergesCleanedUp = true;
+		}
+		final Map<VarNode, PointsToSet> answers = new ConcurrentHashMap<VarNode, PointsToSet>();
+		final AtomicInteger nextGroup = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		try {
+			List<Future<Object>> tasks = new ArrayList<Future<Object>>();
+			for (int i = 0; i < numThreads; i++) {
+				final DemandCSPointsTo fork = new DemandCSPointsTo(this);
+				tasks.add(executor.submit(new Callable<Object>() {
+					public Object call() {
+						for (int g = nextGroup.getAndIncrement(); g < groups.size(); g = nextGroup
+								.getAndIncrement()) {
+							for (VarNode v : groups.get(g)) {
+								answers.put(v, fork.computeReachingObjects(v));
+							}
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Object> task : tasks) {
+				try {
+					task.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+					if (cause instanceof Error) throw (Error) cause;
+					throw new RuntimeException(cause);
+				} catch (InterruptedException e) {
+					throw new RuntimeException("Interrupted while waiting for worker threads", e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return answers;
+	}
+
 	protected boolean callEdgeInSCC(AssignEdge assignEdge) {
 		boolean sameSCCAlready = false;
 		assert assignEdge.isCallEdge();
@@ -444,15 +645,15 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 			VarAndContext varAndContext, AllocAndContextSet ret,
 			PointsToSetInternal locs) {
 		PointsToSetInternal retSet = null;
-		if (contextsForAllocsCache.containsKey(varAndContext)) {
-			for (AllocAndContext allocAndContext : contextsForAllocsCache.get(
-					varAndContext).getO2()) {
+		Pair<PointsToSetInternal, AllocAndContextSet> cached = contextsForAllocsCache
+				.get(varAndContext);
+		if (cached != null) {
+			for (AllocAndContext allocAndContext : cached.getO2()) {
 				if (locs.contains(allocAndContext.alloc)) {
 					ret.add(allocAndContext);
 				}
 			}
-			final PointsToSetInternal oldLocs = contextsForAllocsCache.get(
-					varAndContext).getO1();
+			final PointsToSetInternal oldLocs = cached.getO1();
 			final PointsToSetInternal tmpSet = new HybridPointsToSet(locs
 					.getType(), pag);
 			locs.forall(new P2SetVisitor() {
@@ -902,9 +1103,10 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 					assert contextForAllocsStack.size() == recursionDepth : recursionDepth
 							+ " " + contextForAllocsStack;
 					recursionDepth = -1;
-					if (contextsForAllocsCache.containsKey(varAndContext)) {
-						contextsForAllocsCache.get(varAndContext).getO2()
-								.addAll(ret);
+					Pair<PointsToSetInternal, AllocAndContextSet> cached = contextsForAllocsCache
+							.get(varAndContext);
+					if (cached != null) {
+						cached.getO2().addAll(ret);
 					} else {
 						PointsToSetInternal storedSet = new HybridPointsToSet(
 								locs.getType(), pag);
@@ -918,9 +1120,10 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 					}
 				}
 			} else {
-				if (contextsForAllocsCache.containsKey(varAndContext)) {
-					contextsForAllocsCache.get(varAndContext).getO2().addAll(
-							ret);
+				Pair<PointsToSetInternal, AllocAndContextSet> cached = contextsForAllocsCache
+						.get(varAndContext);
+				if (cached != null) {
+					cached.getO2().addAll(ret);
 				} else {
 					PointsToSetInternal storedSet = new HybridPointsToSet(locs
 							.getType(), pag);
@@ -1266,8 +1469,9 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 			Set<SootMethod> possibleTargets) {
 		List<Object> args = Arrays.asList(p2Set, methodStr, receiverType,
 				possibleTargets);
-		if (callTargetsArgCache.containsKey(args)) {
-			return callTargetsArgCache.get(args);
+		Set<SootMethod> cached = callTargetsArgCache.get(args);
+		if (cached != null) {
+			return cached;
 		}
 		Set<Type> types = p2Set.possibleTypes();
 		Set<SootMethod> ret = new HashSet<SootMethod>();
@@ -1304,7 +1508,7 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
 		}
 		RefType refType = (RefType) type;
 		SootMethod targetMethod = null;
-		targetMethod = VirtualCalls.v().resolveNonSpecial(refType, methodStr);
+		targetMethod = virtualCalls.resolveNonSpecial(refType, methodStr);
 		return Collections.<SootMethod> singleton(targetMethod);
 
 	}
@@ -2181,6 +2385,52 @@ public final class DemandCSPointsTo implements PointsToAnalysis {
         reachingObjectsCacheNoCGRefinement.clear();
 	}
 
+	/**
+	 * Bounds the cache to maxSize entries for each call graph refinement
+	 * setting, evicting entries as eviction says once it is full. Clears the
+	 * cache and its statistics. The cache is unbounded by default.
+	 */
+	public void setCacheLimit(int maxSize, BoundedCache.Eviction eviction) {
+	    reachingObjectsCache = new BoundedCache<Local, PointsToSet>(maxSize, eviction);
+	    reachingObjectsCacheNoCGRefinement = new BoundedCache<Local, PointsToSet>(maxSize, eviction);
+	}
+
+	/**
+	 * Bounds the caches of call targets and of the allocation contexts of
+	 * variables, which a query fills during each of its passes, to maxSize
+	 * entries each, evicting entries as eviction says once they are full.
+	 * Clears both caches and their statistics. They are unbounded by default.
+	 */
+	public void setPassCacheLimit(int maxSize, BoundedCache.Eviction eviction) {
+		callTargetsArgCache = new BoundedCache<List<Object>, Set<SootMethod>>(maxSize, eviction);
+		contextsForAllocsCache = new BoundedCache<VarAndContext, Pair<PointsToSetInternal, AllocAndContextSet>>(maxSize, eviction);
+	}
+
+	/**
+	 * @return the cache of call targets, with its hit, miss and eviction
+	 *         counts
+	 */
+	public BoundedCache<List<Object>, Set<SootMethod>> getCallTargetsCache() {
+		return callTargetsArgCache;
+	}
+
+	/**
+	 * @return the cache of the allocation contexts of variables, with its
+	 *         hit, miss and eviction counts
+	 */
+	public BoundedCache<VarAndContext, Pair<PointsToSetInternal, AllocAndContextSet>> getContextsForAllocsCache() {
+		return contextsForAllocsCache;
+	}
+
+	/**
+	 * @return the cache of reaching objects for the current call graph
+	 *         refinement setting, with its hit, miss and eviction counts
+	 */
+	public BoundedCache<Local, PointsToSet> getReachingObjectsCache() {
+	    //we use different caches for different settings
+	    return refineCallGraph ? reachingObjectsCache : reachingObjectsCacheNoCGRefinement;
+	}
+
     public boolean isRefineCallGraph() {
         return refineCallGraph;
     }
@@ -0,0 +1,154 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+package soot.jimple.spark.ondemand.genericutil;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache holding at most a given number of entries. When a new entry
+ * would exceed that number, the least recently used entry is evicted, or
+ * the oldest one for a {@link Eviction#FIFO} cache. Counts hits, misses
+ * and evictions. All methods are synchronized, so that a cache can be
+ * shared by several threads.
+ */
+public final class BoundedCache<K, V> {
+
+  /**
+   * Which entry a full cache evicts.
+   */
+  public static enum Eviction {
+    /** the entry least recently read or written */
+    LRU,
+    /** the entry least recently added */
+    FIFO
+  }
+
+  /**
+   * the maximum size of a cache that never evicts
+   */
+  public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+  private final int maxSize;
+
+  private final Eviction eviction;
+
+  private final LinkedHashMap<K, V> map;
+
+  private long hits;
+
+  private long misses;
+
+  private long evictions;
+
+  /**
+   * Makes an unbounded cache.
+   */
+  public BoundedCache() {
+    this(UNBOUNDED, Eviction.LRU);
+  }
+
+  @SuppressWarnings("serial")
+  public BoundedCache(int maxSize, Eviction eviction) {
+    if (maxSize < 1) {
+      throw new IllegalArgumentException("maximum size must be positive: " + maxSize);
+    }
+    this.maxSize = maxSize;
+    this.eviction = eviction;
+    this.map = new LinkedHashMap<K, V>(16, 0.75f, eviction == Eviction.LRU) {
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        if (size() > BoundedCache.this.maxSize) {
+          evictions++;
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  /**
+   * @return the value cached for key, or <code>null</code> if there is none
+   */
+  public synchronized V get(K key) {
+    V value = map.get(key);
+    if (value == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return value;
+  }
+
+  public synchronized void put(K key, V value) {
+    map.put(key, value);
+  }
+
+  /**
+   * Removes the entry for key, if there is one. This is not counted as an
+   * eviction.
+   */
+  public synchronized void remove(K key) {
+    map.remove(key);
+  }
+
+  /**
+   * Removes all entries, but keeps the statistics.
+   */
+  public synchronized void clear() {
+    map.clear();
+  }
+
+  public synchronized int size() {
+    return map.size();
+  }
+
+  public int getMaxSize() {
+    return maxSize;
+  }
+
+  public Eviction getEviction() {
+    return eviction;
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  public synchronized void resetStatistics() {
+    hits = 0;
+    misses = 0;
+    evictions = 0;
+  }
+
+  public synchronized String toString() {
+    long lookups = hits + misses;
+    return map.size() + (maxSize == UNBOUNDED ? "" : "/" + maxSize) + " entries, "
+        + hits + " hits, " + misses + " misses"
+        + (lookups == 0 ? "" : " (" + (100 * hits / lookups) + "% hits)")
+        + ", " + evictions + " evictions";
+  }
+}
@@ -0,0 +1,254 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.pag;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import soot.util.ArrayNumberer;
+
+/** One kind of edges of the pointer assignment graph, from nodes numbered
+ * by one numberer to nodes numbered by another. The targets of each
+ * source node are kept as an array of their numbers, indexed by the
+ * number of the source node; rows with many targets also get an open
+ * addressing hash table of their numbers, so that duplicate edges are
+ * found without scanning the row.
+ */
+public final class EdgeMap {
+    /** Rows with at least this many targets are indexed by a hash table. */
+    private static final int INDEX_THRESHOLD = 32;
+    private static final int[][] NO_ROWS = new int[0][];
+
+    private final ArrayNumberer sources;
+    private final ArrayNumberer targets;
+    /** The targets of each source node, by number of the source: element
+     * 0 of a row holds the number of targets, and the numbers of the
+     * targets follow. */
+    private int[][] rows = NO_ROWS;
+    /** The hash tables of rows, where present, by number of the source;
+     * few rows have one, so this stays empty until the first does, and
+     * may be shorter than rows. */
+    private int[][] indexes = NO_ROWS;
+    private int sourceCount;
+
+    public EdgeMap( ArrayNumberer sources, ArrayNumberer targets ) {
+        this.sources = sources;
+        this.targets = targets;
+    }
+
+    /** Adds an edge from source to target, returning true if it was not
+     * already there. */
+    public boolean add( Node source, Node target ) {
+        int s = source.getNumber();
+        int t = target.getNumber();
+        if( s >= rows.length ) grow( s );
+        int[] row = rows[s];
+        if( row == null ) {
+            rows[s] = row = new int[5];
+            sourceCount++;
+        }
+        int size = row[0];
+        int[] index = index( s );
+        if( index != null ) {
+            if( !insert( index, t ) ) return false;
+        } else {
+            for( int i = 1; i <= size; i++ ) {
+                if( row[i] == t ) return false;
+            }
+        }
+        if( size + 1 == row.length ) {
+            int[] newRow = new int[ row.length * 2 ];
+            System.arraycopy( row, 0, newRow, 0, row.length );
+            rows[s] = row = newRow;
+        }
+        row[++size] = t;
+        row[0] = size;
+        if( index == null && size >= INDEX_THRESHOLD ) {
+            setIndex( s, makeIndex( row ) );
+        } else if( index != null && size * 2 > index.length ) {
+            setIndex( s, makeIndex( row ) );
+        }
+        return true;
+    }
+
+    /** Returns the targets of the edges from source, in a new array. */
+    public Node[] get( Node source ) {
+        int s = source.getNumber();
+        int[] row = s < rows.length ? rows[s] : null;
+        if( row == null ) return PAG.EMPTY_NODE_ARRAY;
+        int size = row[0];
+        Node[] ret = new Node[size];
+        for( int i = 0; i < size; i++ ) {
+            ret[i] = (Node) targets.get( row[i+1] );
+        }
+        return ret;
+    }
+
+    /** Replaces the targets of the edges from source by nodes, which must
+     * be distinct. */
+    public void set( Node source, Node[] nodes ) {
+        if( nodes.length == 0 ) {
+            remove( source );
+            return;
+        }
+        int s = source.getNumber();
+        if( s >= rows.length ) grow( s );
+        if( rows[s] == null ) sourceCount++;
+        int[] row = new int[ nodes.length + 1 ];
+        row[0] = nodes.length;
+        for( int i = 0; i < nodes.length; i++ ) {
+            row[i+1] = nodes[i].getNumber();
+        }
+        rows[s] = row;
+        setIndex( s, nodes.length >= INDEX_THRESHOLD ? makeIndex( row ) : null );
+    }
+
+    /** Removes all edges from source. */
+    public void remove( Node source ) {
+        int s = source.getNumber();
+        if( s >= rows.length || rows[s] == null ) return;
+        rows[s] = null;
+        setIndex( s, null );
+        sourceCount--;
+    }
+
+    /** Removes the edge from source to target, returning true if it was
+     * there. */
+    public boolean remove( Node source, Node target ) {
+        int s = source.getNumber();
+        int[] row = s < rows.length ? rows[s] : null;
+        if( row == null ) return false;
+        int t = target.getNumber();
+        int size = row[0];
+        for( int i = 1; i <= size; i++ ) {
+            if( row[i] != t ) continue;
+            if( size == 1 ) {
+                remove( source );
+                return true;
+            }
+            row[i] = row[size];
+            row[0] = --size;
+            if( index( s ) != null ) {
+                setIndex( s, size >= INDEX_THRESHOLD ? makeIndex( row ) : null );
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public boolean containsKey( Node source ) {
+        int s = source.getNumber();
+        return s < rows.length && rows[s] != null
+            && sources.get( s ) == source;
+    }
+
+    /** Removes all edges. */
+    public void clear() {
+        rows = NO_ROWS;
+        indexes = NO_ROWS;
+        sourceCount = 0;
+    }
+
+    /** Trims the rows to the number of their targets. */
+    public void trim() {
+        for( int s = 0; s < rows.length; s++ ) {
+            int[] row = rows[s];
+            if( row != null && row[0] + 1 < row.length ) {
+                int[] newRow = new int[ row[0] + 1 ];
+                System.arraycopy( row, 0, newRow, 0, newRow.length );
+                rows[s] = newRow;
+            }
+        }
+    }
+
+    /** Returns the nodes that have edges, as a view whose iterator
+     * tolerates edges being added while it is in use. */
+    public Set<Object> keySet() {
+        return new AbstractSet<Object>() {
+            public int size() { return sourceCount; }
+            public boolean contains( Object o ) {
+                return o instanceof Node && containsKey( (Node) o );
+            }
+            public Iterator<Object> iterator() {
+                return new Iterator<Object>() {
+                    private int next = advance( 0 );
+                    private int advance( int s ) {
+                        while( s < rows.length && rows[s] == null ) s++;
+                        return s;
+                    }
+                    public boolean hasNext() {
+                        next = advance( next );
+                        return next < rows.length;
+                    }
+                    public Object next() {
+                        if( !hasNext() ) throw new NoSuchElementException();
+                        return sources.get( next++ );
+                    }
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    private void grow( int s ) {
+        int length = Math.max( s + 1, Math.max( 16, rows.length * 2 ) );
+        int[][] newRows = new int[length][];
+        System.arraycopy( rows, 0, newRows, 0, rows.length );
+        rows = newRows;
+    }
+
+    private int[] index( int s ) {
+        return s < indexes.length ? indexes[s] : null;
+    }
+
+    private void setIndex( int s, int[] index ) {
+        if( s >= indexes.length ) {
+            if( index == null ) return;
+            int[][] newIndexes = new int[rows.length][];
+            System.arraycopy( indexes, 0, newIndexes, 0, indexes.length );
+            indexes = newIndexes;
+        }
+        indexes[s] = index;
+    }
+
+    private static int[] makeIndex( int[] row ) {
+        int size = row[0];
+        int capacity = Integer.highestOneBit( size * 4 );
+        int[] index = new int[capacity];
+        for( int i = 1; i <= size; i++ ) insert( index, row[i] );
+        return index;
+    }
+
+    /** Inserts n, which is not 0, into the hash table index, returning
+     * false if it was already there. */
+    private static boolean insert( int[] index, int n ) {
+        int mask = index.length - 1;
+        int i = ( n * 0x9E3779B9 ) >>> 7 & mask;
+        while( index[i] != 0 ) {
+            if( index[i] == n ) return false;
+            i = ( i + 1 ) & mask;
+        }
+        index[i] = n;
+        return true;
+    }
+}
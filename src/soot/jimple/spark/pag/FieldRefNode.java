@@ -50,7 +50,7 @@ public class FieldRefNode extends ValNode {
 	this.base = base;
 	this.field = field;
 	base.addField( this, field );
-        pag.getFieldRefNodeNumberer().add( this );
+        pag.numberNode( this );
     }
 
     /* End of package methods. */
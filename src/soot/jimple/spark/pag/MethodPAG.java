@@ -18,6 +18,7 @@
  */
 
 package soot.jimple.spark.pag;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -90,6 +91,36 @@ public final class MethodPAG {
             pag.addEdge( src, dst );
         }
     }
+    /** Removes the edges of this method, added with no context, from the
+     * main PAG, adding the nodes they led to to targets. */
+    public void removeFromPAG( Collection<Node> targets ) {
+        if( addedContexts != null ) throw new RuntimeException(
+                "Method "+method+" was added to the PAG in contexts" );
+        if( !hasBeenAdded ) return;
+        hasBeenAdded = false;
+        QueueReader[] readers = { internalReader, inReader, outReader };
+        for (QueueReader element : readers) {
+            QueueReader reader = element.clone();
+            while(reader.hasNext()) {
+                Node src = (Node) reader.next();
+                Node dst = (Node) reader.next();
+                if( pag.removeEdge( src, dst ) ) targets.add( dst.getReplacement() );
+            }
+        }
+    }
+    /** Adds the nodes of the edges of this method, and the bases of the
+     * field references among them, to nodes. */
+    public void collectNodes( Collection<Node> nodes ) {
+        QueueReader[] readers = { internalReader, inReader, outReader };
+        for (QueueReader element : readers) {
+            QueueReader reader = element.clone();
+            while(reader.hasNext()) {
+                Node n = (Node) reader.next();
+                nodes.add( n );
+                if( n instanceof FieldRefNode ) nodes.add( ((FieldRefNode) n).getBase() );
+            }
+        }
+    }
     public void addInternalEdge( Node src, Node dst ) {
         if( src == null ) return;
         internalEdges.add( src );
@@ -135,6 +166,12 @@ public final class MethodPAG {
         return ret;
     }
 
+    /** Forgets the MethodPAG of m, so that v makes a new one from the
+     * current body of m. */
+    public static void discard( SootMethod m ) {
+        G.v().MethodPAG_methodToPag.remove( m );
+    }
+
     public void build() {
         if( hasBeenBuilt ) return;
         hasBeenBuilt = true;
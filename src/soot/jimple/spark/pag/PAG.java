@@ -19,6 +19,7 @@
 
 package soot.jimple.spark.pag;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -58,6 +59,7 @@ import soot.jimple.spark.sets.HybridPointsToSet;
 import soot.jimple.spark.sets.P2SetFactory;
 import soot.jimple.spark.sets.P2SetVisitor;
 import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.spark.sets.RoaringPointsToSet;
 import soot.jimple.spark.sets.SharedHybridSet;
 import soot.jimple.spark.sets.SharedListSet;
 import soot.jimple.spark.sets.SortedArraySet;
@@ -101,6 +103,9 @@ public class PAG implements PointsToAnalysis {
             case SparkOptions.set_impl_sharedlist:
             	setFactory = SharedListSet.getFactory();
             	break;
+            case SparkOptions.set_impl_roaring:
+                setFactory = RoaringPointsToSet.getFactory();
+                break;
             case SparkOptions.set_impl_array:
                 setFactory = SortedArraySet.getFactory();
                 break;
@@ -123,6 +128,9 @@ public class PAG implements PointsToAnalysis {
                     case SparkOptions.double_set_old_sharedlist:
                     	oldF = SharedListSet.getFactory();
                     	break;
+                    case SparkOptions.double_set_old_roaring:
+                        oldF = RoaringPointsToSet.getFactory();
+                        break;
                     case SparkOptions.double_set_old_array:
                         oldF = SortedArraySet.getFactory();
                         break;
@@ -145,6 +153,9 @@ public class PAG implements PointsToAnalysis {
                     case SparkOptions.double_set_new_sharedlist:
                     	newF = SharedListSet.getFactory();
                     	break;
+                    case SparkOptions.double_set_new_roaring:
+                        newF = RoaringPointsToSet.getFactory();
+                        break;
                     case SparkOptions.double_set_new_array:
                         newF = SortedArraySet.getFactory();
                         break;
@@ -232,16 +243,24 @@ public class PAG implements PointsToAnalysis {
     public P2SetFactory getSetFactory() {
         return setFactory;
     }
+    /** Trims the rows of the edge maps to the number of their targets;
+     * called once no more edges are added. */
+    public void trimEdges() {
+        EdgeMap[] maps = { simple, alloc, store, load,
+            simpleInv, allocInv, storeInv, loadInv };
+        for (EdgeMap m : maps) m.trim();
+    }
     public void cleanUpMerges() {
         if( opts.verbose() ) {
             G.v().out.println( "Cleaning up graph for merged nodes" );
         }
-        Map[] maps = { simple, alloc, store, load,
+        EdgeMap[] maps = { simple, alloc, store, load,
             simpleInv, allocInv, storeInv, loadInv };
-        for (Map<Object, Object> m : maps) {
+        for (EdgeMap m : maps) {
             for (Object object : m.keySet()) {
-                lookup( m, object );
+                lookup( m, (Node) object );
             }
+            m.trim();
         }
         somethingMerged = false;
         if( opts.verbose() ) {
@@ -271,82 +290,19 @@ public class PAG implements PointsToAnalysis {
         somethingMerged = true;
         if( ofcg() != null ) ofcg().mergedWith( n1, n2 );
 
-        Map[] maps = { simple, alloc, store, load,
+        EdgeMap[] maps = { simple, alloc, store, load,
             simpleInv, allocInv, storeInv, loadInv };
-        for (Map<Node, Object> m : maps) {
-            if( !m.keySet().contains( n2 ) ) continue;
-
-            Object[] os = { m.get( n1 ), m.get( n2 ) };
-            int size1 = getSize(os[0]); int size2 = getSize(os[1]);
-            if( size1 == 0 ) {
-                if( os[1] != null ) m.put( n1, os[1] );
-            } else if( size2 == 0 ) {
-                // nothing needed
-            } else if( os[0] instanceof HashSet ) {
-                if( os[1] instanceof HashSet ) {
-                    ((HashSet) os[0]).addAll( (HashSet) os[1] );
-                } else {
-                    Node[] ar = (Node[]) os[1];
-                    for (Node element0 : ar) {
-                        ( (HashSet<Node>) os[0] ).add( element0 );
-                    }
-                }
-            } else if( os[1] instanceof HashSet ) {
-                Node[] ar = (Node[]) os[0];
-                for (Node element0 : ar) {
-                    ((HashSet<Node>) os[1]).add( element0 );
-                }
-                m.put( n1, os[1] );
-            } else if( size1*size2 < 1000 ) {
-                Node[] a1 = (Node[]) os[0];
-                Node[] a2 = (Node[]) os[1];
-                Node[] ret = new Node[size1+size2];
-                System.arraycopy( a1, 0, ret, 0, a1.length ); 
-                int j = a1.length;
-                outer: for (Node rep : a2) {
-                    for( int k = 0; k < j; k++ )
-                        if( rep == ret[k] ) continue outer;
-                    ret[j++] = rep;
-                }
-                Node[] newArray = new Node[j];
-                System.arraycopy( ret, 0, newArray, 0, j );
-                m.put( n1, ret = newArray );
-            } else {
-                HashSet<Node> s = new HashSet<Node>( size1+size2 );
-                for (Object o : os) {
-                    if( o == null ) continue;
-                    if( o instanceof Set ) {
-                        s.addAll( (Set) o );
-                    } else {
-                        Node[] ar = (Node[]) o;
-                        for (Node element1 : ar) {
-                            s.add( element1 );
-                        }
-                    }
-                }
-                m.put( n1, s );
+        for (EdgeMap m : maps) {
+            if( !m.containsKey( n2 ) ) continue;
+            for (Node element : m.get( n2 )) {
+                m.add( n1, element );
             }
             m.remove( n2 );
         }
     }
     protected final static Node[] EMPTY_NODE_ARRAY = new Node[0];
-    protected Node[] lookup( Map<Object, Object> m, Object key ) {
-	Object valueList = m.get( key );
-	if( valueList == null ) {
-	    return EMPTY_NODE_ARRAY;
-	}
-	if( valueList instanceof Set ) {
-            try {
-	    m.put( key, valueList = 
-		    ( (Set) valueList ).toArray( EMPTY_NODE_ARRAY ) );
-            } catch( Exception e ) {
-                for( Iterator it = ((Set)valueList).iterator(); it.hasNext(); ) {
-                    G.v().out.println( ""+it.next() );
-                }
-                throw new RuntimeException( ""+valueList+e );
-            }
-	}
-	Node[] ret = (Node[]) valueList;
+    protected Node[] lookup( EdgeMap m, Node key ) {
+	Node[] ret = m.get( key );
         if( somethingMerged ) {
             for( int i = 0; i < ret.length; i++ ) {
                 Node reti = ret[i];
@@ -365,7 +321,7 @@ public class PAG implements PointsToAnalysis {
                         }
                         Node[] newArray = new Node[j];
                         System.arraycopy( ret, 0, newArray, 0, j );
-                        m.put( key, ret = newArray );
+                        m.set( key, ret = newArray );
                     } else {
                         s = new HashSet<Node>( ret.length * 2 );
                         for( int j = 0; j < i; j++ ) s.add( ret[j] );
@@ -375,7 +331,7 @@ public class PAG implements PointsToAnalysis {
                                 s.add( rep );
                             }
                         }
-                        m.put( key, ret = s.toArray( EMPTY_NODE_ARRAY ) );
+                        m.set( key, ret = s.toArray( EMPTY_NODE_ARRAY ) );
                     }
                     break;
                 }
@@ -418,12 +374,6 @@ public class PAG implements PointsToAnalysis {
     public Iterator<Object> storeInvSourcesIterator() { return storeInv.keySet().iterator(); }
     public Iterator<Object> loadInvSourcesIterator() { return loadInv.keySet().iterator(); }
 
-    static private int getSize( Object set ) {
-        if( set instanceof Set ) return ((Set) set).size();
-        else if( set == null ) return 0;
-        else return ((Object[]) set).length;
-    }
-
 
     protected P2SetFactory setFactory;
     protected boolean somethingMerged = false;
@@ -451,42 +401,58 @@ public class PAG implements PointsToAnalysis {
             nodeToTag.put( node, tag );
         }
     }
-    public AllocNode makeAllocNode( Object newExpr, Type type, SootMethod m ) {
+    /** Registers the new node n, made for method m. For a node whose
+     * number was deferred by a ParallelPAGBuilder, this is done by
+     * finishNode instead. */
+    private void newNode( Node n, SootMethod m ) {
+        if( n.getNumber() < 0 ) return;
+        if( n instanceof AllocNode ) newAllocNodes.add( n );
+        addNodeTag( n, m );
+    }
+    /** Returns n, recording that the method being built uses it. */
+    private <N extends Node> N used( N n ) {
+        if( parallelBuilder != null ) parallelBuilder.used( n );
+        return n;
+    }
+    private static SootMethod methodOf( Node n ) {
+        if( n instanceof AllocNode ) return ((AllocNode) n).getMethod();
+        if( n instanceof LocalVarNode ) return ((LocalVarNode) n).getMethod();
+        if( n instanceof FieldRefNode ) return methodOf( ((FieldRefNode) n).getBase() );
+        return null;
+    }
+    public synchronized AllocNode makeAllocNode( Object newExpr, Type type, SootMethod m ) {
         if( opts.types_for_sites() || opts.vta() ) newExpr = type;
 	AllocNode ret = valToAllocNode.get( newExpr );
 	if( ret == null ) {
 	    valToAllocNode.put( newExpr, ret = new AllocNode( this, newExpr, type, m ) );
-            newAllocNodes.add( ret );
-            addNodeTag( ret, m );
+            newNode( ret, m );
 	} else if( !( ret.getType().equals( type ) ) ) {
 	    throw new RuntimeException( "NewExpr "+newExpr+" of type "+type+
 		    " previously had type "+ret.getType() );
 	}
-	return ret;
+	return used( ret );
     }
-    public AllocNode makeStringConstantNode( String s ) {
+    public synchronized AllocNode makeStringConstantNode( String s ) {
         if( opts.types_for_sites() || opts.vta() )
             return makeAllocNode( RefType.v( "java.lang.String" ),
                     RefType.v( "java.lang.String" ), null );
         StringConstantNode ret = (StringConstantNode) valToAllocNode.get( s );
 	if( ret == null ) {
 	    valToAllocNode.put( s, ret = new StringConstantNode( this, s ) );
-            newAllocNodes.add( ret );
-            addNodeTag( ret, null );
+            newNode( ret, null );
 	}
-	return ret;
+	return used( ret );
     }
-    public AllocNode makeClassConstantNode( ClassConstant cc ) {
+    public synchronized AllocNode makeClassConstantNode( ClassConstant cc ) {
         if( opts.types_for_sites() || opts.vta() )
             return makeAllocNode( RefType.v( "java.lang.Class" ),
                     RefType.v( "java.lang.Class" ), null );
         ClassConstantNode ret = (ClassConstantNode) valToAllocNode.get(cc);
 	if( ret == null ) {
 	    valToAllocNode.put(cc, ret = new ClassConstantNode(this, cc));
-            newAllocNodes.add( ret );
-            addNodeTag( ret, null );
+            newNode( ret, null );
 	}
-	return ret;
+	return used( ret );
     }
 
     ChunkedQueue newAllocNodes = new ChunkedQueue();
@@ -508,8 +474,22 @@ public class PAG implements PointsToAnalysis {
         }
 	return valToLocalVarNode.get( value );
     }
+    /** Removes node, whose variable is no longer in the body of its method,
+     * from the PAG: it is no longer found for its variable, and its
+     * points-to set is discarded. It must no longer have any edges. */
+    public synchronized void removeLocalVarNode( LocalVarNode node ) {
+        Object value = node.getVariable();
+        if( value instanceof Local ) {
+            if( localToNodeMap.get( (Local) value ) == node ) {
+                localToNodeMap.put( (Local) value, null );
+            }
+        } else if( valToLocalVarNode.get( value ) == node ) {
+            valToLocalVarNode.remove( value );
+        }
+        node.discardP2Set();
+    }
     /** Finds or creates the GlobalVarNode for the variable value, of type type. */
-    public GlobalVarNode makeGlobalVarNode( Object value, Type type ) {
+    public synchronized GlobalVarNode makeGlobalVarNode( Object value, Type type ) {
         if( opts.rta() ) {
             value = null;
             type = RefType.v("java.lang.Object");
@@ -518,15 +498,15 @@ public class PAG implements PointsToAnalysis {
         if( ret == null ) {
             valToGlobalVarNode.put( value, 
                     ret = new GlobalVarNode( this, value, type ) );
-            addNodeTag( ret, null );
+            newNode( ret, null );
         } else if( !( ret.getType().equals( type ) ) ) {
             throw new RuntimeException( "Value "+value+" of type "+type+
                     " previously had type "+ret.getType() );
         }
-	return ret;
+	return used( ret );
     }
     /** Finds or creates the LocalVarNode for the variable value, of type type. */
-    public LocalVarNode makeLocalVarNode( Object value, Type type, SootMethod method ) {
+    public synchronized LocalVarNode makeLocalVarNode( Object value, Type type, SootMethod method ) {
         if( opts.rta() ) {
             value = null;
             type = RefType.v("java.lang.Object");
@@ -538,23 +518,23 @@ public class PAG implements PointsToAnalysis {
             if( ret == null ) {
                 localToNodeMap.put( (Local) value,
                     ret = new LocalVarNode( this, value, type, method ) );
-                addNodeTag( ret, method );
+                newNode( ret, method );
             } else if( !( ret.getType().equals( type ) ) ) {
                 throw new RuntimeException( "Value "+value+" of type "+type+
                         " previously had type "+ret.getType() );
             }
-            return ret;
+            return used( ret );
         }
         LocalVarNode ret = valToLocalVarNode.get( value );
         if( ret == null ) {
             valToLocalVarNode.put( value, 
                     ret = new LocalVarNode( this, value, type, method ) );
-            addNodeTag( ret, method );
+            newNode( ret, method );
         } else if( !( ret.getType().equals( type ) ) ) {
             throw new RuntimeException( "Value "+value+" of type "+type+
                     " previously had type "+ret.getType() );
         }
-	return ret;
+	return used( ret );
     }
     /** Finds the ContextVarNode for base variable value and context
      * context, or returns null. */
@@ -610,17 +590,13 @@ public class PAG implements PointsToAnalysis {
     }
     /** Finds or creates the FieldRefNode for base variable base and field
      * field, of type type. */
-    public FieldRefNode makeFieldRefNode( VarNode base, SparkField field ) {
+    public synchronized FieldRefNode makeFieldRefNode( VarNode base, SparkField field ) {
 	FieldRefNode ret = base.dot( field );
 	if( ret == null ) {
 	    ret = new FieldRefNode( this, base, field );
-	    if( base instanceof LocalVarNode ) {
-	    	addNodeTag( ret, ((LocalVarNode) base).getMethod() );
-	    } else {
-	    	addNodeTag( ret, null );
-	    }
+	    newNode( ret, methodOf( ret ) );
 	}
-	return ret;
+	return used( ret );
     }
     /** Finds the AllocDotField for base AllocNode an and field
      * field, or returns null. */
@@ -689,8 +665,11 @@ public class PAG implements PointsToAnalysis {
         return false;
     }
 
-    /** Adds an edge to the graph, returning false if it was already there. */
+    /** Adds an edge to the graph, returning false if it was already there,
+     * or if it was only recorded, to be added later, by a
+     * ParallelPAGBuilder. */
     public final boolean addEdge( Node from, Node to ) {
+        if( parallelBuilder != null && parallelBuilder.deferEdge( from, to ) ) return false;
         from = from.getReplacement();
         to = to.getReplacement();
 	if( from instanceof VarNode ) {
@@ -707,6 +686,28 @@ public class PAG implements PointsToAnalysis {
 	}
     }
 
+    /** Removes an edge from the graph, returning false if it was not
+     * there. Points-to sets are not changed. */
+    public final boolean removeEdge( Node from, Node to ) {
+        from = from.getReplacement();
+        to = to.getReplacement();
+	if( from instanceof VarNode ) {
+	    if( to instanceof VarNode ) {
+                boolean ret = simple.remove( from, to ) | simpleInv.remove( to, from );
+                if( opts.simple_edges_bidirectional() ) {
+                    ret = simple.remove( to, from ) | simpleInv.remove( from, to ) | ret;
+                }
+                return ret;
+	    } else {
+                return store.remove( from, to ) | storeInv.remove( to, from );
+	    }
+	} else if( from instanceof FieldRefNode ) {
+            return load.remove( from, to ) | loadInv.remove( to, from );
+	} else {
+            return alloc.remove( from, to ) | allocInv.remove( to, from );
+	}
+    }
+
     protected ChunkedQueue edgeQueue = new ChunkedQueue();
     public QueueReader edgeReader() { return edgeQueue.reader(); }
 
@@ -723,6 +724,7 @@ public class PAG implements PointsToAnalysis {
     /** Adds the base of a dereference to the list of dereferenced 
      * variables. */
     public void addDereference( VarNode base ) {
+        if( parallelBuilder != null && parallelBuilder.deferDereference( base ) ) return;
         dereferences.add( base );
     }
 
@@ -744,6 +746,45 @@ public class PAG implements PointsToAnalysis {
     private final ArrayNumberer allocDotFieldNodeNumberer = new ArrayNumberer();
     public ArrayNumberer getAllocDotFieldNodeNumberer() { return allocDotFieldNodeNumberer; }
 
+    /** Numbers the new node n, with the numberer of its kind of node. */
+    void numberNode( Node n ) {
+        if( parallelBuilder != null && parallelBuilder.deferNumbering( n ) ) return;
+        if( n instanceof VarNode ) {
+            varNodeNumberer.add( n );
+            ((VarNode) n).setFinishingNumber( ++maxFinishNumber );
+        } else if( n instanceof AllocNode ) {
+            allocNodeNumberer.add( n );
+        } else if( n instanceof FieldRefNode ) {
+            fieldRefNodeNumberer.add( n );
+        } else {
+            allocDotFieldNodeNumberer.add( n );
+        }
+    }
+    /** Numbers and registers node n, whose number was deferred by a
+     * ParallelPAGBuilder. */
+    void finishNode( Node n ) {
+        if( n instanceof FieldRefNode ) {
+            VarNode base = ((FieldRefNode) n).getBase();
+            if( base.getNumber() < 0 ) finishNode( base );
+        }
+        n.setNumber( 0 );
+        numberNode( n );
+        newNode( n, methodOf( n ) );
+    }
+    /** Rehashes the maps from values to nodes, some of whose keys are
+     * nodes, once finishNode has changed the numbers, and so the hash
+     * codes, of nodes. */
+    void rehashNodeKeys() {
+        rehash( valToLocalVarNode );
+        rehash( valToGlobalVarNode );
+        rehash( valToAllocNode );
+    }
+    private static <K, V> void rehash( Map<K, V> map ) {
+        Map<K, V> copy = new HashMap<K, V>( map );
+        map.clear();
+        map.putAll( copy );
+    }
+
 
     /** Returns SparkOptions for this graph. */
     public SparkOptions getOpts() { return opts; }
@@ -1068,6 +1109,22 @@ public class PAG implements PointsToAnalysis {
             }
         }
     }
+
+    /** Removes the edges that addCallTarget added for the call site of e,
+     * adding the nodes they led to to targets. */
+    final public void removeCallTarget( Edge e, Collection<Node> targets ) {
+        Stmt s = e.srcStmt();
+        if( s == null || !s.containsInvokeExpr() ) return;
+        InvokeExpr ie = s.getInvokeExpr();
+        for( Iterator pIt = callAssigns.get( ie ).iterator(); pIt.hasNext(); ) {
+            final Pair pair = (Pair) pIt.next();
+            Node to = (Node) pair.getO2();
+            if( removeEdge( (Node) pair.getO1(), to ) ) targets.add( to.getReplacement() );
+        }
+        callAssigns.remove( ie );
+        callToMethod.remove( ie );
+        virtualCallsToReceivers.remove( ie );
+    }
     
     /**
      * Delete all the assignment edges.
@@ -1088,42 +1145,18 @@ public class PAG implements PointsToAnalysis {
 
     protected SparkOptions opts;
 
-    protected Map<Object, Object> simple = new HashMap<Object, Object>();
-    protected Map<Object, Object> load = new HashMap<Object, Object>();
-    protected Map<Object, Object> store = new HashMap<Object, Object>();
-    protected Map<Object, Object> alloc = new HashMap<Object, Object>();
-
-    protected Map<Object, Object> simpleInv = new HashMap<Object, Object>();
-    protected Map<Object, Object> loadInv = new HashMap<Object, Object>();
-    protected Map<Object, Object> storeInv = new HashMap<Object, Object>();
-    protected Map<Object, Object> allocInv = new HashMap<Object, Object>();
-
-    protected boolean addToMap( Map<Object, Object> m, Node key, Node value ) {
-	Object valueList = m.get( key );
-
-	if( valueList == null ) {
-	    m.put( key, valueList = new HashSet(4) );
-	} else if( !(valueList instanceof Set) ) {
-	    Node[] ar = (Node[]) valueList;
-            HashSet<Node> vl = new HashSet<Node>(ar.length+4);
-            m.put( key, vl );
-            for (Node element : ar)
-				vl.add( element );
-            return vl.add( value );
-            /*
-	    Node[] ar = (Node[]) valueList;
-            Node[] newar = new Node[ar.length+1];
-            for( int i = 0; i < ar.length; i++ ) {
-                Node n = ar[i];
-                if( n == value ) return false;
-                newar[i] = n;
-            }
-            newar[ar.length] = value;
-            m.put( key, newar );
-            return true;
-            */
-	}
-	return ((Set<Node>) valueList).add( value );
+    protected EdgeMap simple = new EdgeMap( varNodeNumberer, varNodeNumberer );
+    protected EdgeMap load = new EdgeMap( fieldRefNodeNumberer, varNodeNumberer );
+    protected EdgeMap store = new EdgeMap( varNodeNumberer, fieldRefNodeNumberer );
+    protected EdgeMap alloc = new EdgeMap( allocNodeNumberer, varNodeNumberer );
+
+    protected EdgeMap simpleInv = new EdgeMap( varNodeNumberer, varNodeNumberer );
+    protected EdgeMap loadInv = new EdgeMap( varNodeNumberer, fieldRefNodeNumberer );
+    protected EdgeMap storeInv = new EdgeMap( fieldRefNodeNumberer, varNodeNumberer );
+    protected EdgeMap allocInv = new EdgeMap( varNodeNumberer, allocNodeNumberer );
+
+    protected boolean addToMap( EdgeMap m, Node key, Node value ) {
+	return m.add( key, value );
     }
 	
     private boolean runGeomPTA = false;
@@ -1136,6 +1169,8 @@ public class PAG implements PointsToAnalysis {
     protected TypeManager typeManager;
     private final LargeNumberedMap localToNodeMap = new LargeNumberedMap( Scene.v().getLocalNumberer() );
     public int maxFinishNumber = 0;
+    /** The builder building MethodPAGs on worker threads, if any. */
+    ParallelPAGBuilder parallelBuilder;
     private Map<Node, Tag> nodeToTag;
     private final GlobalNodeFactory nodeFactory = new GlobalNodeFactory(this);
     public GlobalNodeFactory nodeFactory() { return nodeFactory; }
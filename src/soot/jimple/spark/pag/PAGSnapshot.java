@@ -0,0 +1,972 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.pag;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+
+import soot.*;
+import soot.jimple.ClassConstant;
+import soot.jimple.Expr;
+import soot.jimple.spark.sets.EmptyPointsToSet;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.util.ArrayNumberer;
+
+/** A binary snapshot of a propagated pointer assignment graph: its
+ * nodes and edges, the points-to sets of its variable nodes and of the
+ * fields of its allocation nodes, and the call graph built with it.
+ *
+ * A snapshot which is loaded is memory-mapped, and points-to sets are
+ * only decoded when they are queried, so that a later run can answer
+ * PointsToAnalysis queries without building and propagating a PAG.
+ * It can also seed the points-to sets of a new PAG, so that propagation
+ * starts from the old solution.
+ *
+ * Nodes are matched across runs by keys: locals by their method and
+ * name, static fields by their signature, string and class constants
+ * and the special objects of Spark by their value, and allocation sites
+ * by their method and their rank among the allocation sites of the
+ * method. A snapshot is therefore only meaningful for runs that produce
+ * the same Jimple for the methods it covers. The other nodes, such as
+ * those of parameters, casts and native methods, have no key; they are
+ * not seeded, and their points-to sets are found by propagation.
+ *
+ * The file holds a header, a table of strings, tables of types, fields
+ * and nodes, the edges, the offsets of the points-to sets, the sets
+ * themselves and the call edges. Each points-to set is the number of
+ * its allocation nodes followed by the differences between their
+ * increasing indices, all as variable-length integers.
+ */
+public class PAGSnapshot implements PointsToAnalysis {
+    /** The kinds of edges, as passed to edges(). */
+    public static final int ALLOC_EDGES = 0;
+    public static final int SIMPLE_EDGES = 1;
+    public static final int LOAD_EDGES = 2;
+    public static final int STORE_EDGES = 3;
+
+    /** Writes a snapshot of pag and of the call graph cg to file. */
+    public static void write( PAG pag, CallGraph cg, File file ) {
+        try {
+            new Writer( pag ).write( cg, file );
+        } catch( IOException e ) {
+            throw new RuntimeException( "Couldn't write PAG snapshot."+e );
+        }
+    }
+
+    /** Memory-maps the snapshot in file. */
+    public static PAGSnapshot load( File file ) {
+        try {
+            RandomAccessFile raf = new RandomAccessFile( file, "r" );
+            try {
+                FileChannel channel = raf.getChannel();
+                return new PAGSnapshot( channel.map(
+                        FileChannel.MapMode.READ_ONLY, 0, channel.size() ) );
+            } finally {
+                raf.close();
+            }
+        } catch( IOException e ) {
+            throw new RuntimeException( "Couldn't load PAG snapshot."+e );
+        }
+    }
+
+    /** Returns the set of objects pointed to by variable l. */
+    public PointsToSet reachingObjects( Local l ) {
+        return varSet( localIndex( l ) );
+    }
+
+    /** Returns the set of objects pointed to by variable l in context c.
+     * As the snapshot is context-insensitive, c is ignored. */
+    public PointsToSet reachingObjects( Context c, Local l ) {
+        return reachingObjects( l );
+    }
+
+    /** Returns the set of objects pointed to by static field f. */
+    public PointsToSet reachingObjects( SootField f ) {
+        if( !f.isStatic() )
+            throw new RuntimeException( "The parameter f must be a *static* field." );
+        return varSet( varIndex( "F"+f.getSignature() ) );
+    }
+
+    /** Returns the set of objects pointed to by instance field f
+     * of the objects in the PointsToSet s. */
+    public PointsToSet reachingObjects( PointsToSet s, SootField f ) {
+        if( f.isStatic() )
+            throw new RuntimeException( "The parameter f must be an *instance* field." );
+        return fieldSet( s, f.getSignature() );
+    }
+
+    /** Returns the set of objects pointed to by instance field f
+     * of the objects pointed to by l. */
+    public PointsToSet reachingObjects( Local l, SootField f ) {
+        return reachingObjects( reachingObjects( l ), f );
+    }
+
+    /** Returns the set of objects pointed to by instance field f
+     * of the objects pointed to by l in context c. */
+    public PointsToSet reachingObjects( Context c, Local l, SootField f ) {
+        return reachingObjects( reachingObjects( c, l ), f );
+    }
+
+    /** Returns the set of objects pointed to by elements of the arrays
+     * in the PointsToSet s. */
+    public PointsToSet reachingObjectsOfArrayElement( PointsToSet s ) {
+        return fieldSet( s, ARRAY_ELEMENT );
+    }
+
+    /** Builds the call graph of the snapshot from the methods of the
+     * Scene. The call sites are found by their position in the active
+     * bodies of the calling methods. */
+    public CallGraph getCallGraph() {
+        CallGraph cg = new CallGraph();
+        addCallEdges( cg );
+        return cg;
+    }
+
+    /** Adds the points-to sets of the snapshot to those of the matching
+     * nodes of pag, which has been built but not propagated, and returns
+     * the variable nodes whose sets grew, from which propagation should
+     * start. If pag builds its call graph on the fly, the call edges of
+     * the snapshot are first added to it, so that the methods reachable
+     * in the snapshot are added to pag and their nodes seeded too. */
+    public Collection<VarNode> seed( PAG pag ) {
+        if( pag.getOnFlyCallGraph() != null ) {
+            addCallEdges( pag.getOnFlyCallGraph().callGraph() );
+            pag.getOnFlyCallGraph().build();
+        }
+
+        List<AllocNode> allocNodes = nodes( pag.getAllocNodeNumberer() );
+        String[] keys = allocKeys( allocNodes );
+        Map<String, AllocNode> keyToAllocNode = new HashMap<String, AllocNode>();
+        for( int i = 0; i < keys.length; i++ ) {
+            if( keys[i] != null ) keyToAllocNode.put( keys[i], allocNodes.get( i ) );
+        }
+        AllocNode[] allocs = new AllocNode[allocKey.length];
+        for( int i = 0; i < allocs.length; i++ ) {
+            allocs[i] = keyToAllocNode.get( string( allocKey[i] ) );
+        }
+
+        Set<VarNode> ret = new HashSet<VarNode>();
+        List<VarNode> varNodes = nodes( pag.getVarNodeNumberer() );
+        keys = varKeys( varNodes );
+        for( int i = 0; i < keys.length; i++ ) {
+            if( keys[i] == null ) continue;
+            int var = varIndex( keys[i] );
+            if( var < 0 ) continue;
+            VarNode vn = (VarNode) varNodes.get( i ).getReplacement();
+            if( add( vn.makeP2Set(), allocs, varSet[var] ) ) ret.add( vn );
+        }
+        SparkField[] fields = new SparkField[fieldKey.length];
+        for( int i = 0; i < fields.length; i++ ) {
+            fields[i] = field( strings[fieldKey[i]] );
+        }
+        for( int i = 0; i < adfAlloc.length; i++ ) {
+            AllocNode an = allocs[adfAlloc[i]];
+            SparkField field = fields[adfField[i]];
+            if( an == null || field == null ) continue;
+            add( pag.makeAllocDotField( an, field ).makeP2Set(),
+                    allocs, adfSet[i] );
+        }
+        return ret;
+    }
+
+    /** Returns the edges of the given kind, as pairs of the indices of
+     * their source and target nodes. Allocation nodes are sources of
+     * ALLOC_EDGES, field reference nodes are sources of LOAD_EDGES and
+     * targets of STORE_EDGES, and all other ends are variable nodes. */
+    public int[] edges( int kind ) {
+        ByteBuffer b = buffer.duplicate();
+        b.position( edgeStart[kind] );
+        int[] ret = new int[2*edgeCount[kind]];
+        for( int i = 0; i < ret.length; i++ ) ret[i] = b.getInt();
+        return ret;
+    }
+
+    /** Returns the key of the variable node with index i, or null if it
+     * has none. */
+    public String varNodeKey( int i ) { return string( varKey[i] ); }
+    /** Returns the index of the variable node that the variable node
+     * with index i was merged into, or i itself. */
+    public int varNodeReplacement( int i ) { return varRep[i]; }
+    /** Returns the key of the allocation node with index i, or null if
+     * it has none. */
+    public String allocNodeKey( int i ) { return string( allocKey[i] ); }
+    /** Returns the index of the base variable node of the field
+     * reference node with index i. */
+    public int fieldRefNodeBase( int i ) { return frefBase[i]; }
+    /** Returns the field of the field reference node with index i. */
+    public String fieldRefNodeField( int i ) { return strings[fieldKey[frefField[i]]]; }
+
+    public int numVarNodes() { return varKey.length; }
+    public int numAllocNodes() { return allocKey.length; }
+    public int numFieldRefNodes() { return frefBase.length; }
+    public int numAllocDotFields() { return adfAlloc.length; }
+    public int numCallEdges() { return callCount; }
+
+    /** A points-to set of a snapshot, holding the indices of its
+     * allocation nodes in increasing order. */
+    public class SnapshotPointsToSet implements PointsToSet {
+        SnapshotPointsToSet( int[] allocs ) { this.allocs = allocs; }
+
+        public boolean isEmpty() { return allocs.length == 0; }
+
+        /** Returns true if this set shares some objects with other,
+         * which must be empty or come from the same snapshot. */
+        public boolean hasNonEmptyIntersection( PointsToSet other ) {
+            if( other.isEmpty() ) return false;
+            if( !(other instanceof SnapshotPointsToSet)
+                    || ((SnapshotPointsToSet) other).snapshot() != PAGSnapshot.this ) {
+                throw new RuntimeException(
+                        "Can only intersect sets of the same snapshot" );
+            }
+            int[] o = ((SnapshotPointsToSet) other).allocs;
+            int i = 0, j = 0;
+            while( i < allocs.length && j < o.length ) {
+                if( allocs[i] < o[j] ) i++;
+                else if( allocs[i] > o[j] ) j++;
+                else return true;
+            }
+            return false;
+        }
+
+        public Set<Type> possibleTypes() {
+            Set<Type> ret = new HashSet<Type>();
+            for (int a : allocs) {
+                Type t = type( allocType[a] );
+                if( t instanceof RefType ) {
+                    RefType rt = (RefType) t;
+                    if( rt.hasSootClass() && rt.getSootClass().isAbstract() ) continue;
+                }
+                if( t != null ) ret.add( t );
+            }
+            return ret;
+        }
+
+        public Set<String> possibleStringConstants() {
+            Set<String> ret = new HashSet<String>();
+            for (int a : allocs) {
+                String key = string( allocKey[a] );
+                if( key == null || key.charAt( 0 ) != 'S' ) return null;
+                ret.add( key.substring( 1 ) );
+            }
+            return ret;
+        }
+
+        public Set<ClassConstant> possibleClassConstants() {
+            Set<ClassConstant> ret = new HashSet<ClassConstant>();
+            for (int a : allocs) {
+                String key = string( allocKey[a] );
+                if( key == null || key.charAt( 0 ) != 'C' ) return null;
+                ret.add( ClassConstant.v( key.substring( 1 ) ) );
+            }
+            return ret;
+        }
+
+        /** Returns the indices of the allocation nodes in this set. */
+        public int[] allocNodes() { return allocs.clone(); }
+
+        public int size() { return allocs.length; }
+
+        public String toString() {
+            StringBuffer ret = new StringBuffer();
+            for (int a : allocs) ret.append( string( allocKey[a] )+"," );
+            return ret.toString();
+        }
+
+        /** Returns the keys of the allocation nodes in this set, with
+         * null for those which have none. */
+        List<String> allocNodeKeys() {
+            List<String> ret = new ArrayList<String>( allocs.length );
+            for (int a : allocs) ret.add( string( allocKey[a] ) );
+            return ret;
+        }
+
+        PAGSnapshot snapshot() { return PAGSnapshot.this; }
+
+        private final int[] allocs;
+    }
+
+    /* End of public methods. */
+    /* End of package methods. */
+
+    private static final int MAGIC = 0x53504b53;
+    private static final int VERSION = 1;
+    private static final String ARRAY_ELEMENT = "[]";
+    private static final int[] EMPTY = new int[0];
+
+    private static final byte REF_TYPE = 0;
+    private static final byte ARRAY_TYPE = 1;
+    private static final byte ANY_SUB_TYPE = 2;
+    private static final byte OTHER_TYPE = 3;
+
+    private static final Kind[] KINDS = { Kind.INVALID, Kind.STATIC,
+        Kind.VIRTUAL, Kind.INTERFACE, Kind.SPECIAL, Kind.CLINIT, Kind.THREAD,
+        Kind.FINALIZE, Kind.INVOKE_FINALIZE, Kind.PRIVILEGED, Kind.NEWINSTANCE,
+        Kind.REFL_INVOKE, Kind.REFL_CONSTR_NEWINSTANCE,
+        Kind.REFL_CLASS_NEWINSTANCE };
+
+    private final ByteBuffer buffer;
+    private final boolean fieldBased;
+    private final String[] strings;
+    private final byte[] typeTag;
+    private final int[] typeName;
+    private final int[] typeDims;
+    private final Type[] types;
+    private final int[] fieldKey;
+    private final int[] allocKey;
+    private final int[] allocType;
+    private final int[] varKey;
+    private final int[] varType;
+    private final int[] varRep;
+    private final int[] frefBase;
+    private final int[] frefField;
+    private final int[] adfAlloc;
+    private final int[] adfField;
+    private final int[] edgeStart = new int[4];
+    private final int[] edgeCount = new int[4];
+    private final int[] varSet;
+    private final int[] adfSet;
+    private final int dataStart;
+    private final int callStart;
+    private final int callCount;
+
+    private final Map<String, Integer> keyToVar = new HashMap<String, Integer>();
+    private final Map<String, Integer> keyToField = new HashMap<String, Integer>();
+    private final Map<Long, Integer> allocDotField = new HashMap<Long, Integer>();
+    private final Map<Local, Integer> localToVar = new IdentityHashMap<Local, Integer>();
+    /** The methods with locals in the snapshot whose Local objects are
+     * not yet in localToVar. */
+    private final Set<String> unindexedMethods = new HashSet<String>();
+
+    private PAGSnapshot( ByteBuffer buffer ) {
+        this.buffer = buffer;
+        ByteBuffer b = buffer.duplicate();
+        if( b.getInt() != MAGIC || b.getInt() != VERSION ) {
+            throw new RuntimeException( "Not a PAG snapshot" );
+        }
+        fieldBased = b.getInt() != 0;
+
+        strings = new String[b.getInt()];
+        for( int i = 0; i < strings.length; i++ ) {
+            byte[] bytes = new byte[b.getInt()];
+            b.get( bytes );
+            strings[i] = utf8( bytes );
+        }
+
+        int n = b.getInt();
+        typeTag = new byte[n];
+        typeName = new int[n];
+        typeDims = new int[n];
+        types = new Type[n];
+        for( int i = 0; i < n; i++ ) {
+            typeTag[i] = b.get();
+            typeName[i] = b.getInt();
+            typeDims[i] = b.getInt();
+        }
+
+        fieldKey = new int[b.getInt()];
+        for( int i = 0; i < fieldKey.length; i++ ) {
+            fieldKey[i] = b.getInt();
+            keyToField.put( strings[fieldKey[i]], new Integer( i ) );
+        }
+
+        n = b.getInt();
+        allocKey = new int[n];
+        allocType = new int[n];
+        for( int i = 0; i < n; i++ ) {
+            allocKey[i] = b.getInt();
+            allocType[i] = b.getInt();
+        }
+
+        n = b.getInt();
+        varKey = new int[n];
+        varType = new int[n];
+        varRep = new int[n];
+        for( int i = 0; i < n; i++ ) {
+            varKey[i] = b.getInt();
+            varType[i] = b.getInt();
+            varRep[i] = b.getInt();
+            String key = string( varKey[i] );
+            if( key == null ) continue;
+            keyToVar.put( key, new Integer( i ) );
+            if( key.charAt( 0 ) == 'L' ) {
+                unindexedMethods.add( key.substring( 1, key.lastIndexOf( ' ' ) ) );
+            }
+        }
+
+        n = b.getInt();
+        frefBase = new int[n];
+        frefField = new int[n];
+        for( int i = 0; i < n; i++ ) {
+            frefBase[i] = b.getInt();
+            frefField[i] = b.getInt();
+        }
+
+        n = b.getInt();
+        adfAlloc = new int[n];
+        adfField = new int[n];
+        for( int i = 0; i < n; i++ ) {
+            adfAlloc[i] = b.getInt();
+            adfField[i] = b.getInt();
+            allocDotField.put( new Long( pair( adfAlloc[i], adfField[i] ) ),
+                    new Integer( i ) );
+        }
+
+        for( int kind = 0; kind < 4; kind++ ) {
+            edgeCount[kind] = b.getInt();
+            edgeStart[kind] = b.position();
+            b.position( b.position() + 8*edgeCount[kind] );
+        }
+
+        varSet = new int[varKey.length];
+        for( int i = 0; i < varSet.length; i++ ) varSet[i] = b.getInt();
+        adfSet = new int[adfAlloc.length];
+        for( int i = 0; i < adfSet.length; i++ ) adfSet[i] = b.getInt();
+
+        n = b.getInt();
+        dataStart = b.position();
+        b.position( dataStart + n );
+
+        callCount = b.getInt();
+        callStart = b.position();
+    }
+
+    private String string( int i ) {
+        return i < 0 ? null : strings[i];
+    }
+
+    private int varIndex( String key ) {
+        Integer ret = keyToVar.get( key );
+        return ret == null ? -1 : ret.intValue();
+    }
+
+    /** Returns the index of the variable node of local l, finding the
+     * locals of the methods whose bodies have become active if needed. */
+    private synchronized int localIndex( Local l ) {
+        Integer ret = localToVar.get( l );
+        if( ret == null && !unindexedMethods.isEmpty() ) {
+            for( Iterator<String> sigIt = unindexedMethods.iterator(); sigIt.hasNext(); ) {
+                final String sig = sigIt.next();
+                if( !Scene.v().containsMethod( sig ) ) continue;
+                SootMethod m = Scene.v().getMethod( sig );
+                if( !m.hasActiveBody() ) continue;
+                for (Local local : m.getActiveBody().getLocals()) {
+                    localToVar.put( local, new Integer(
+                                varIndex( localKey( sig, local ) ) ) );
+                }
+                sigIt.remove();
+            }
+            ret = localToVar.get( l );
+        }
+        return ret == null ? -1 : ret.intValue();
+    }
+
+    private PointsToSet varSet( int var ) {
+        if( var < 0 ) return EmptyPointsToSet.v();
+        return set( decode( varSet[var] ) );
+    }
+
+    /** Returns the union of the points-to sets of field of the objects
+     * in s. */
+    private PointsToSet fieldSet( PointsToSet s, String field ) {
+        if( fieldBased ) return varSet( varIndex( "F"+field ) );
+        if( s.isEmpty() ) return EmptyPointsToSet.v();
+        if( !(s instanceof SnapshotPointsToSet)
+                || ((SnapshotPointsToSet) s).snapshot() != this ) {
+            throw new RuntimeException( "Not a points-to set of this snapshot" );
+        }
+        Integer f = keyToField.get( field );
+        if( f == null ) return EmptyPointsToSet.v();
+        BitSet ret = new BitSet();
+        for (int a : ((SnapshotPointsToSet) s).allocs) {
+            Integer adf = allocDotField.get( new Long( pair( a, f.intValue() ) ) );
+            if( adf == null ) continue;
+            for (int b : decode( adfSet[adf.intValue()] )) ret.set( b );
+        }
+        int[] allocs = new int[ret.cardinality()];
+        int i = 0;
+        for( int a = ret.nextSetBit( 0 ); a >= 0; a = ret.nextSetBit( a+1 ) ) {
+            allocs[i++] = a;
+        }
+        return set( allocs );
+    }
+
+    private PointsToSet set( int[] allocs ) {
+        if( allocs.length == 0 ) return EmptyPointsToSet.v();
+        return new SnapshotPointsToSet( allocs );
+    }
+
+    private int[] decode( int offset ) {
+        if( offset < 0 ) return EMPTY;
+        ByteBuffer b = buffer.duplicate();
+        b.position( dataStart + offset );
+        int[] ret = new int[readVarInt( b )];
+        int a = 0;
+        for( int i = 0; i < ret.length; i++ ) {
+            a += readVarInt( b );
+            ret[i] = a;
+        }
+        return ret;
+    }
+
+    /** Adds the allocation nodes of the encoded set at offset to p2set,
+     * skipping those that do not match a node. */
+    private boolean add( PointsToSetInternal p2set, AllocNode[] allocs, int offset ) {
+        boolean ret = false;
+        for (int a : decode( offset )) {
+            if( allocs[a] != null && p2set.add( allocs[a] ) ) ret = true;
+        }
+        return ret;
+    }
+
+    private void addCallEdges( CallGraph cg ) {
+        Map<SootMethod, Unit[]> methodToUnits = new HashMap<SootMethod, Unit[]>();
+        ByteBuffer b = buffer.duplicate();
+        b.position( callStart );
+        for( int i = 0; i < callCount; i++ ) {
+            String src = strings[b.getInt()];
+            int unit = b.getInt();
+            String tgt = strings[b.getInt()];
+            String kind = strings[b.getInt()];
+            if( !Scene.v().containsMethod( src ) || !Scene.v().containsMethod( tgt ) ) {
+                continue;
+            }
+            SootMethod srcMethod = Scene.v().getMethod( src );
+            Unit srcUnit = null;
+            if( unit >= 0 ) {
+                Unit[] units = methodToUnits.get( srcMethod );
+                if( units == null ) {
+                    units = srcMethod.retrieveActiveBody().getUnits().toArray( new Unit[0] );
+                    methodToUnits.put( srcMethod, units );
+                }
+                if( unit >= units.length ) continue;
+                srcUnit = units[unit];
+            }
+            cg.addEdge( new Edge( srcMethod, srcUnit,
+                        Scene.v().getMethod( tgt ), kind( kind ) ) );
+        }
+    }
+
+    private Type type( int i ) {
+        if( i < 0 ) return null;
+        if( types[i] == null ) {
+            String name = strings[typeName[i]];
+            switch( typeTag[i] ) {
+                case REF_TYPE:
+                    types[i] = RefType.v( name );
+                    break;
+                case ARRAY_TYPE:
+                    types[i] = ArrayType.v( baseType( name ), typeDims[i] );
+                    break;
+                case ANY_SUB_TYPE:
+                    types[i] = AnySubType.v( RefType.v( name ) );
+                    break;
+                default:
+                    types[i] = baseType( name );
+            }
+        }
+        return types[i];
+    }
+
+    private static Type baseType( String name ) {
+        if( name.equals( "boolean" ) ) return BooleanType.v();
+        if( name.equals( "byte" ) ) return ByteType.v();
+        if( name.equals( "char" ) ) return CharType.v();
+        if( name.equals( "short" ) ) return ShortType.v();
+        if( name.equals( "int" ) ) return IntType.v();
+        if( name.equals( "long" ) ) return LongType.v();
+        if( name.equals( "float" ) ) return FloatType.v();
+        if( name.equals( "double" ) ) return DoubleType.v();
+        if( name.equals( NullType.v().toString() ) ) return NullType.v();
+        return RefType.v( name );
+    }
+
+    private static Kind kind( String name ) {
+        for (Kind kind : KINDS) {
+            if( kind.name().equals( name ) ) return kind;
+        }
+        throw new RuntimeException( "Unknown call edge kind "+name );
+    }
+
+    private static SparkField field( String key ) {
+        if( key.equals( ARRAY_ELEMENT ) ) return ArrayElement.v();
+        if( Scene.v().containsField( key ) ) return Scene.v().getField( key );
+        return null;
+    }
+
+    private static long pair( int a, int b ) {
+        return ( ((long) a) << 32 ) | ( b & 0xffffffffL );
+    }
+
+    private static int readVarInt( ByteBuffer b ) {
+        int ret = 0;
+        for( int shift = 0; ; shift += 7 ) {
+            byte x = b.get();
+            ret |= ( x & 0x7f ) << shift;
+            if( x >= 0 ) return ret;
+        }
+    }
+
+    private static String utf8( byte[] bytes ) {
+        try {
+            return new String( bytes, "UTF-8" );
+        } catch( IOException e ) {
+            throw new RuntimeException( e );
+        }
+    }
+
+    /** Returns the nodes of a numberer in the order of their numbers. */
+    private static <T> List<T> nodes( ArrayNumberer numberer ) {
+        List<T> ret = new ArrayList<T>( numberer.size() );
+        for( Iterator it = numberer.iterator(); it.hasNext(); ) {
+            ret.add( (T) it.next() );
+        }
+        return ret;
+    }
+
+    private static String localKey( String method, Local l ) {
+        return "L"+method+" "+l.getName();
+    }
+
+    private static String fieldKey( SparkField f ) {
+        if( f instanceof SootField ) return ((SootField) f).getSignature();
+        if( f instanceof ArrayElement ) return ARRAY_ELEMENT;
+        return f.toString();
+    }
+
+    /** Returns the keys of the allocation nodes, or null for those which
+     * have none. The allocation sites of a method are all created when
+     * its body is added to the PAG, in the order of its statements, so
+     * their ranks are the same in all runs. */
+    static String[] allocKeys( List<AllocNode> nodes ) {
+        String[] ret = new String[nodes.size()];
+        Map<SootMethod, int[]> counts = new HashMap<SootMethod, int[]>();
+        for( int i = 0; i < ret.length; i++ ) {
+            AllocNode n = nodes.get( i );
+            Object e = n.getNewExpr();
+            if( n instanceof StringConstantNode ) {
+                ret[i] = "S"+((StringConstantNode) n).getString();
+            } else if( n instanceof ClassConstantNode ) {
+                ret[i] = "C"+((ClassConstantNode) n).getClassConstant().getValue();
+            } else if( e instanceof String || e instanceof Type ) {
+                ret[i] = "N"+e;
+            } else if( e instanceof Expr && n.getMethod() != null ) {
+                int[] count = counts.get( n.getMethod() );
+                if( count == null ) counts.put( n.getMethod(), count = new int[1] );
+                ret[i] = "A"+n.getMethod().getSignature()+" "+(count[0]++);
+            }
+        }
+        return ret;
+    }
+
+    /** Returns the keys of the variable nodes, or null for those which
+     * have none. */
+    private static String[] varKeys( List<VarNode> nodes ) {
+        String[] ret = new String[nodes.size()];
+        Map<SootMethod, String> signatures = new HashMap<SootMethod, String>();
+        for( int i = 0; i < ret.length; i++ ) {
+            VarNode n = nodes.get( i );
+            Object v = n.getVariable();
+            if( n instanceof ContextVarNode ) {
+                continue;
+            } else if( n instanceof LocalVarNode ) {
+                SootMethod m = ((LocalVarNode) n).getMethod();
+                if( v instanceof Local && m != null ) {
+                    String sig = signatures.get( m );
+                    if( sig == null ) signatures.put( m, sig = m.getSignature() );
+                    ret[i] = localKey( sig, (Local) v );
+                }
+            } else if( v instanceof SparkField ) {
+                ret[i] = "F"+fieldKey( (SparkField) v );
+            } else if( v instanceof String ) {
+                ret[i] = "G"+v;
+            }
+        }
+        return ret;
+    }
+
+    /** Lays out a snapshot of a PAG in memory, then writes it. */
+    private static class Writer {
+        Writer( PAG pag ) { this.pag = pag; }
+
+        void write( CallGraph cg, File file ) throws IOException {
+            List<AllocNode> allocNodes = nodes( pag.getAllocNodeNumberer() );
+            String[] keys = allocKeys( allocNodes );
+            int[] allocIndex = new int[pag.getAllocNodeNumberer().size()+1];
+            for( int i = 0; i < keys.length; i++ ) {
+                AllocNode n = allocNodes.get( i );
+                allocIndex[n.getNumber()] = i;
+                allocs.out.writeInt( keys[i] == null ? -1 : string( keys[i] ) );
+                allocs.out.writeInt( type( n.getType() ) );
+                allocs.count++;
+            }
+
+            List<VarNode> varNodes = nodes( pag.getVarNodeNumberer() );
+            keys = varKeys( varNodes );
+            varIndex = new int[pag.getVarNodeNumberer().size()+1];
+            for( int i = 0; i < keys.length; i++ ) {
+                varIndex[varNodes.get( i ).getNumber()] = i;
+            }
+            int[] varOffset = new int[keys.length];
+            for( int i = 0; i < keys.length; i++ ) {
+                VarNode n = varNodes.get( i );
+                VarNode rep = (VarNode) n.getReplacement();
+                vars.out.writeInt( keys[i] == null ? -1 : string( keys[i] ) );
+                vars.out.writeInt( type( n.getType() ) );
+                vars.out.writeInt( var( rep ) );
+                vars.count++;
+                if( rep == n ) varOffset[i] = set( n.getP2Set(), allocIndex );
+            }
+            for( int i = 0; i < keys.length; i++ ) {
+                varOffset[i] = varOffset[var( varNodes.get( i ).getReplacement() )];
+            }
+
+            List<FieldRefNode> frefNodes = nodes( pag.getFieldRefNodeNumberer() );
+            frefIndex = new int[pag.getFieldRefNodeNumberer().size()+1];
+            for( int i = 0; i < frefNodes.size(); i++ ) {
+                FieldRefNode n = frefNodes.get( i );
+                frefIndex[n.getNumber()] = i;
+                frefs.out.writeInt( var( n.getBase() ) );
+                frefs.out.writeInt( field( n.getField() ) );
+                frefs.count++;
+            }
+
+            List<AllocDotField> adfNodes = nodes( pag.getAllocDotFieldNodeNumberer() );
+            int[] adfOffset = new int[adfNodes.size()];
+            for( int i = 0; i < adfOffset.length; i++ ) {
+                AllocDotField n = adfNodes.get( i );
+                adfs.out.writeInt( allocIndex[n.getBase().getNumber()] );
+                adfs.out.writeInt( field( n.getField() ) );
+                adfs.count++;
+                adfOffset[i] = set( n.getP2Set(), allocIndex );
+            }
+
+            for (Object object : pag.allocSources()) {
+                final AllocNode n = (AllocNode) object;
+                if( n.getReplacement() != n ) continue;
+                for (Node tgt : pag.allocLookup( n )) {
+                    edge( ALLOC_EDGES, allocIndex[n.getNumber()], var( tgt ) );
+                }
+            }
+            for (Object object : pag.simpleSources()) {
+                final VarNode n = (VarNode) object;
+                if( n.getReplacement() != n ) continue;
+                for (Node tgt : pag.simpleLookup( n )) {
+                    edge( SIMPLE_EDGES, var( n ), var( tgt ) );
+                }
+            }
+            for (Object object : pag.loadSources()) {
+                final FieldRefNode n = (FieldRefNode) object;
+                for (Node tgt : pag.loadLookup( n )) {
+                    edge( LOAD_EDGES, frefIndex[n.getNumber()], var( tgt ) );
+                }
+            }
+            for (Object object : pag.storeSources()) {
+                final VarNode n = (VarNode) object;
+                if( n.getReplacement() != n ) continue;
+                for (Node tgt : pag.storeLookup( n )) {
+                    edge( STORE_EDGES, var( n ), frefIndex[tgt.getNumber()] );
+                }
+            }
+
+            Map<SootMethod, Map<Unit, Integer>> unitIndex =
+                new HashMap<SootMethod, Map<Unit, Integer>>();
+            for( Iterator<MethodOrMethodContext> mIt = cg.sourceMethods(); mIt.hasNext(); ) {
+                final SootMethod m = mIt.next().method();
+                for( Iterator<Edge> eIt = cg.edgesOutOf( m ); eIt.hasNext(); ) {
+                    final Edge e = eIt.next();
+                    calls.out.writeInt( string( e.src().getSignature() ) );
+                    calls.out.writeInt( unit( unitIndex, e.src(), e.srcUnit() ) );
+                    calls.out.writeInt( string( e.tgt().getSignature() ) );
+                    calls.out.writeInt( string( e.kind().name() ) );
+                    calls.count++;
+                }
+            }
+
+            DataOutputStream out = new DataOutputStream( new BufferedOutputStream(
+                        new FileOutputStream( file ) ) );
+            try {
+                out.writeInt( MAGIC );
+                out.writeInt( VERSION );
+                out.writeInt( pag.getOpts().field_based() || pag.getOpts().vta() ? 1 : 0 );
+                out.writeInt( stringList.size() );
+                for (String s : stringList) {
+                    byte[] bytes = s.getBytes( "UTF-8" );
+                    out.writeInt( bytes.length );
+                    out.write( bytes );
+                }
+                types.writeTo( out );
+                fields.writeTo( out );
+                allocs.writeTo( out );
+                vars.writeTo( out );
+                frefs.writeTo( out );
+                adfs.writeTo( out );
+                for (Section section : edges) section.writeTo( out );
+                for (int offset : varOffset) out.writeInt( offset );
+                for (int offset : adfOffset) out.writeInt( offset );
+                out.writeInt( data.size() );
+                data.writeTo( out );
+                calls.writeTo( out );
+            } finally {
+                out.close();
+            }
+        }
+
+        private final PAG pag;
+        private int[] varIndex;
+        private int[] frefIndex;
+        private final Map<String, Integer> stringIndex = new HashMap<String, Integer>();
+        private final List<String> stringList = new ArrayList<String>();
+        private final Map<Type, Integer> typeIndex = new HashMap<Type, Integer>();
+        private final Map<String, Integer> fieldIndex = new HashMap<String, Integer>();
+        private final Section types = new Section();
+        private final Section fields = new Section();
+        private final Section allocs = new Section();
+        private final Section vars = new Section();
+        private final Section frefs = new Section();
+        private final Section adfs = new Section();
+        private final Section calls = new Section();
+        private final Section[] edges = { new Section(), new Section(),
+            new Section(), new Section() };
+        private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+        private int var( Node n ) {
+            return varIndex[n.getNumber()];
+        }
+
+        private void edge( int kind, int src, int tgt ) throws IOException {
+            edges[kind].out.writeInt( src );
+            edges[kind].out.writeInt( tgt );
+            edges[kind].count++;
+        }
+
+        private int string( String s ) {
+            Integer ret = stringIndex.get( s );
+            if( ret == null ) {
+                stringIndex.put( s, ret = new Integer( stringList.size() ) );
+                stringList.add( s );
+            }
+            return ret.intValue();
+        }
+
+        private int type( Type t ) throws IOException {
+            if( t == null ) return -1;
+            Integer ret = typeIndex.get( t );
+            if( ret == null ) {
+                typeIndex.put( t, ret = new Integer( types.count++ ) );
+                if( t instanceof RefType ) {
+                    types.out.writeByte( REF_TYPE );
+                    types.out.writeInt( string( ((RefType) t).getClassName() ) );
+                    types.out.writeInt( 0 );
+                } else if( t instanceof ArrayType ) {
+                    types.out.writeByte( ARRAY_TYPE );
+                    types.out.writeInt( string( ((ArrayType) t).baseType.toString() ) );
+                    types.out.writeInt( ((ArrayType) t).numDimensions );
+                } else if( t instanceof AnySubType ) {
+                    types.out.writeByte( ANY_SUB_TYPE );
+                    types.out.writeInt( string( ((AnySubType) t).getBase().getClassName() ) );
+                    types.out.writeInt( 0 );
+                } else {
+                    types.out.writeByte( OTHER_TYPE );
+                    types.out.writeInt( string( t.toString() ) );
+                    types.out.writeInt( 0 );
+                }
+            }
+            return ret.intValue();
+        }
+
+        private int field( SparkField f ) throws IOException {
+            String key = fieldKey( f );
+            Integer ret = fieldIndex.get( key );
+            if( ret == null ) {
+                fieldIndex.put( key, ret = new Integer( fields.count++ ) );
+                fields.out.writeInt( string( key ) );
+            }
+            return ret.intValue();
+        }
+
+        /** Encodes the allocation nodes of p2set into data, and returns
+         * the offset of the encoded set, or -1 if it is empty. */
+        private int set( PointsToSetInternal p2set, final int[] allocIndex ) {
+            if( p2set == null || p2set.isEmpty() ) return -1;
+            final int[] allocs = new int[p2set.size()];
+            final int[] n = new int[1];
+            p2set.forall( new P2SetVisitor() {
+            public final void visit( Node node ) {
+                allocs[n[0]++] = allocIndex[node.getNumber()];
+            }} );
+            Arrays.sort( allocs, 0, n[0] );
+            int ret = data.size();
+            writeVarInt( n[0] );
+            int last = 0;
+            for( int i = 0; i < n[0]; i++ ) {
+                writeVarInt( allocs[i] - last );
+                last = allocs[i];
+            }
+            return ret;
+        }
+
+        private void writeVarInt( int i ) {
+            while( ( i & ~0x7f ) != 0 ) {
+                data.write( ( i & 0x7f ) | 0x80 );
+                i >>>= 7;
+            }
+            data.write( i );
+        }
+
+        private int unit( Map<SootMethod, Map<Unit, Integer>> unitIndex,
+                SootMethod m, Unit u ) {
+            if( u == null || !m.hasActiveBody() ) return -1;
+            Map<Unit, Integer> index = unitIndex.get( m );
+            if( index == null ) {
+                index = new HashMap<Unit, Integer>();
+                int i = 0;
+                for (Unit unit : m.getActiveBody().getUnits()) {
+                    index.put( unit, new Integer( i++ ) );
+                }
+                unitIndex.put( m, index );
+            }
+            Integer ret = index.get( u );
+            return ret == null ? -1 : ret.intValue();
+        }
+    }
+
+    /** A table of the snapshot, with the number of its entries. */
+    private static class Section {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream( bytes );
+        int count;
+
+        void writeTo( DataOutputStream file ) throws IOException {
+            out.flush();
+            file.writeInt( count );
+            bytes.writeTo( file );
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.pag;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import soot.EntryPoints;
+import soot.G;
+import soot.Local;
+import soot.Scene;
+import soot.SootMethod;
+
+/** Builds the MethodPAGs of a list of methods on several threads, and
+ * adds them to the PAG, for a call graph computed beforehand.
+ * <p>
+ * The worker threads make the nodes of their methods in the shared PAG,
+ * whose methods making nodes are synchronized, but the nodes they make
+ * only get temporary, negative numbers, and the edges they would add to
+ * the PAG directly are recorded along with their method. Then, on the
+ * calling thread, the methods are added to the PAG one by one in the
+ * order of the list: the nodes that each method used are numbered in
+ * the order in which it used them, its recorded edges are added, and
+ * then its MethodPAG is. The nodes are thus numbered, and the edges
+ * added, as when building and adding the MethodPAGs one by one, whatever
+ * the number of threads or the scheduling.
+ * <p>
+ * Native methods, and methods whose MethodPAG already exists, are built
+ * on the calling thread, but in the same way, before the worker threads
+ * start.
+ */
+public final class ParallelPAGBuilder
+{
+    public ParallelPAGBuilder( PAG pag, int numThreads ) {
+        this.pag = pag;
+        this.numThreads = numThreads;
+    }
+
+    /** Builds the MethodPAGs of methods, and adds them to the PAG with no
+     * context, in the order of the list. */
+    public void build( List<SootMethod> methods ) {
+        int n = methods.size();
+        mpags = new MethodPAG[n];
+        batches = new Batch[n];
+        List<Integer> parallel = new ArrayList<Integer>();
+        // Shared structures made lazily while building MethodPAGs.
+        EntryPoints.v().implicit();
+        pag.parallelBuilder = this;
+        try {
+            for( int i = 0; i < n; i++ ) {
+                SootMethod m = methods.get( i );
+                if( m.isNative() || G.v().MethodPAG_methodToPag.containsKey( m ) ) {
+                    build( i, m );
+                } else {
+                    if( m.isConcrete() && !m.isPhantom() ) {
+                        // Constructing a body may change the Scene, and
+                        // numbering locals on the workers would number
+                        // them in an order that depends on scheduling.
+                        for( Local l : m.retrieveActiveBody().getLocals() ) {
+                            if( l.getNumber() == 0 ) Scene.v().getLocalNumberer().add( l );
+                        }
+                    }
+                    parallel.add( new Integer( i ) );
+                }
+            }
+            buildAll( methods, parallel );
+        } finally {
+            pag.parallelBuilder = null;
+        }
+        for( int i = 0; i < n; i++ ) {
+            SootMethod m = methods.get( i );
+            Batch b = batches[i];
+            for( Node node : b.nodes ) {
+                if( node.getNumber() < 0 ) pag.finishNode( node );
+            }
+            for( int j = 0; j < b.edges.size(); j += 2 ) {
+                pag.addEdge( b.edges.get( j ), b.edges.get( j+1 ) );
+            }
+            for( VarNode base : b.dereferences ) pag.addDereference( base );
+            if( !G.v().MethodPAG_methodToPag.containsKey( m ) ) {
+                G.v().MethodPAG_methodToPag.put( m, mpags[i] );
+            }
+            mpags[i].addToPAG( null );
+            mpags[i] = null;
+            batches[i] = null;
+        }
+        pag.rehashNodeKeys();
+    }
+
+    /* End of public methods. */
+
+    /** Gives the new node n a temporary number, and returns true, if it
+     * is made by a method being built by this builder. */
+    boolean deferNumbering( Node n ) {
+        if( current.get() == null ) return false;
+        n.setNumber( temporaryNumber.decrementAndGet() );
+        return true;
+    }
+    /** Records that the method being built used node n, if n does not
+     * have its number yet. */
+    void used( Node n ) {
+        if( n.getNumber() >= 0 ) return;
+        Batch b = current.get();
+        if( b != null ) b.nodes.add( n );
+    }
+    /** Records the edge from from to to, and returns true, if it is added
+     * by a method being built by this builder. */
+    boolean deferEdge( Node from, Node to ) {
+        Batch b = current.get();
+        if( b == null ) return false;
+        b.edges.add( from );
+        b.edges.add( to );
+        return true;
+    }
+    /** Records the dereference of base, and returns true, if it is made by
+     * a method being built by this builder. */
+    boolean deferDereference( VarNode base ) {
+        Batch b = current.get();
+        if( b == null ) return false;
+        b.dereferences.add( base );
+        return true;
+    }
+
+    /* End of package methods. */
+
+    /** What building a method did to the PAG, to be redone when it is
+     * added to it. */
+    private static final class Batch {
+        final List<Node> nodes = new ArrayList<Node>();
+        final List<Node> edges = new ArrayList<Node>();
+        final List<VarNode> dereferences = new ArrayList<VarNode>();
+    }
+
+    /** The fewest methods worth handing to a worker thread. */
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    /** Builds the MethodPAGs of the methods at the given indices. */
+    private void buildAll( final List<SootMethod> methods, List<Integer> indices ) {
+        int chunks = numThreads * 4;
+        int chunkSize = Math.max( MIN_CHUNK_SIZE, ( indices.size() + chunks - 1 ) / chunks );
+        if( numThreads <= 1 || indices.size() <= chunkSize ) {
+            for( Integer i : indices ) build( i.intValue(), methods.get( i.intValue() ) );
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool( numThreads );
+        try {
+            List<Future<Object>> tasks = new ArrayList<Future<Object>>();
+            for( int start = 0; start < indices.size(); start += chunkSize ) {
+                final List<Integer> chunk = indices.subList( start,
+                        Math.min( start + chunkSize, indices.size() ) );
+                tasks.add( executor.submit( new Callable<Object>() {
+                    public Object call() {
+                        for( Integer i : chunk ) build( i.intValue(), methods.get( i.intValue() ) );
+                        return null;
+                    }
+                } ) );
+            }
+            for( Future<Object> task : tasks ) {
+                try {
+                    task.get();
+                } catch( ExecutionException e ) {
+                    Throwable cause = e.getCause();
+                    if( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+                    if( cause instanceof Error ) throw (Error) cause;
+                    throw new RuntimeException( cause );
+                } catch( InterruptedException e ) {
+                    throw new RuntimeException( "Interrupted while waiting for worker threads", e );
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /** Builds the MethodPAG of m, the i-th method, recording what it does
+     * to the PAG. */
+    private void build( int i, SootMethod m ) {
+        Batch b = new Batch();
+        current.set( b );
+        try {
+            MethodPAG mpag = G.v().MethodPAG_methodToPag.get( m );
+            if( mpag == null ) mpag = new MethodPAG( pag, m );
+            mpag.build();
+            mpags[i] = mpag;
+            batches[i] = b;
+        } finally {
+            current.set( null );
+        }
+    }
+
+    private final PAG pag;
+    private final int numThreads;
+    private MethodPAG[] mpags;
+    private Batch[] batches;
+    private final ThreadLocal<Batch> current = new ThreadLocal<Batch>();
+    private final AtomicInteger temporaryNumber = new AtomicInteger();
+}
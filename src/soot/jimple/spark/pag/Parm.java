@@ -36,7 +36,7 @@ public class Parm implements SparkField {
         method = m;
         Scene.v().getFieldNumberer().add(this);
     }
-    public static Parm v( SootMethod m, int index ) {
+    public static synchronized Parm v( SootMethod m, int index ) {
         Pair p = new Pair( m, new Integer(index) );
         Parm ret = (Parm) G.v().Parm_pairToElement.get( p );
         if( ret == null ) {
@@ -106,8 +106,7 @@ public abstract class VarNode extends ValNode implements Comparable {
 	    throw new RuntimeException( "Attempt to create VarNode of type "+t );
 	}
 	this.variable = variable;
-        pag.getVarNodeNumberer().add(this);
-        setFinishingNumber( ++pag.maxFinishNumber );
+        pag.numberNode( this );
     }
     /** Registers a frn as having this node as its base. */
     void addField( FieldRefNode frn, SparkField field ) {
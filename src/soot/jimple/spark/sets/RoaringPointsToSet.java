@@ -0,0 +1,403 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.sets;
+import soot.Type;
+import soot.jimple.spark.internal.TypeManager;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.util.BitVector;
+
+/** Implementation of points-to set as a compressed bitmap, in the style
+ * of Roaring bitmaps. The numbers of the nodes are split by their high
+ * 16 bits into containers. A container holding few numbers is a sorted
+ * array of their low 16 bits, and one holding many is a bitmap; a
+ * container becomes a bitmap once the array would take more space than
+ * a bitmap over the numbers of all allocation nodes it covers.
+ * Element 0 of each container holds the number of elements in it.
+ */
+public final class RoaringPointsToSet extends PointsToSetInternal {
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITMAP_WORDS = 1024;
+    private static final char[] NO_KEYS = new char[0];
+    private static final Object[] NO_CONTAINERS = new Object[0];
+    private static final char[] EMPTY_ARRAY = new char[1];
+
+    public RoaringPointsToSet( Type type, PAG pag ) {
+        super( type );
+        this.pag = pag;
+    }
+    /** Returns true if this set contains no run-time objects. */
+    public final boolean isEmpty() {
+        return size == 0;
+    }
+    public final int size() {
+        return size;
+    }
+
+    /** Adds contents of other into this set, returns true if this set
+     * changed. */
+    public final boolean addAll( PointsToSetInternal other,
+            PointsToSetInternal exclude ) {
+        if( other != null && !(other instanceof RoaringPointsToSet) )
+            return super.addAll( other, exclude );
+        if( exclude != null && !(exclude instanceof RoaringPointsToSet) )
+            return super.addAll( other, exclude );
+        return nativeAddAll( (RoaringPointsToSet) other, (RoaringPointsToSet) exclude );
+    }
+    /** Calls v's visit method on all nodes in this set. */
+    public final boolean forall( P2SetVisitor v ) {
+        for( int i = 0; i < count; i++ ) {
+            int base = keys[i] << 16;
+            Object c = containers[i];
+            if( c instanceof long[] ) {
+                long[] b = (long[]) c;
+                for( int j = 1; j < b.length; j++ ) {
+                    for( long w = b[j]; w != 0L; w &= w - 1 ) {
+                        visit( v, base | ( j - 1 ) << 6 | Long.numberOfTrailingZeros( w ) );
+                    }
+                }
+            } else {
+                char[] a = (char[]) c;
+                for( int j = 1; j <= a[0]; j++ ) {
+                    visit( v, base | a[j] );
+                }
+            }
+        }
+        return v.getReturnValue();
+    }
+    /** Adds n to this set, returns true if n was not already in this set. */
+    public final boolean add( Node n ) {
+        if( pag.getTypeManager().castNeverFails( n.getType(), type ) ) {
+            return fastAdd( n.getNumber() );
+        }
+        return false;
+    }
+    /** Returns true iff the set contains n. */
+    public final boolean contains( Node n ) {
+        int number = n.getNumber();
+        int i = find( (char) ( number >>> 16 ) );
+        if( i < 0 ) return false;
+        return containsLow( containers[i], number & 0xFFFF );
+    }
+    public static P2SetFactory getFactory() {
+        return new P2SetFactory() {
+            public PointsToSetInternal newSet( Type type, PAG pag ) {
+                return new RoaringPointsToSet( type, pag );
+            }
+        };
+    }
+
+    /* End of public methods. */
+    /* End of package methods. */
+
+    private void visit( P2SetVisitor v, int number ) {
+        v.visit( (Node) pag.getAllocNodeNumberer().get( number ) );
+    }
+
+    private boolean nativeAddAll( RoaringPointsToSet other, RoaringPointsToSet exclude ) {
+        BitVector mask = null;
+        TypeManager typeManager = pag.getTypeManager();
+        if( !typeManager.castNeverFails( other.getType(), this.getType() ) ) {
+            mask = typeManager.get( this.getType() );
+        }
+        boolean ret = false;
+        int e = 0;
+        for( int o = 0; o < other.count; o++ ) {
+            char key = other.keys[o];
+            Object ec = null;
+            if( exclude != null ) {
+                while( e < exclude.count && exclude.keys[e] < key ) e++;
+                if( e < exclude.count && exclude.keys[e] == key ) {
+                    ec = exclude.containers[e];
+                }
+            }
+            ret = addContainer( key, other.containers[o], ec, mask ) | ret;
+        }
+        return ret;
+    }
+
+    /** Adds the elements of container oc with the given key, except those
+     * not in mask or in container ec, to this set. */
+    private boolean addContainer( char key, Object oc, Object ec, BitVector mask ) {
+        int i = find( key );
+        Object mc = i >= 0 ? containers[i] : EMPTY_ARRAY;
+        int mcard = cardinality( mc );
+        int base = key << 16;
+        if( oc instanceof long[] ) {
+            long[] ob = (long[]) oc;
+            long[] mb;
+            if( mc instanceof long[] ) {
+                mb = grow( (long[]) mc, ob.length );
+            } else {
+                mb = toBitmap( (char[]) mc, Math.max( ob.length - 1, bitmapWords( base ) ) );
+            }
+            int added = 0;
+            for( int j = 1; j < ob.length; j++ ) {
+                long w = ob[j] & ~mb[j];
+                if( w == 0L ) continue;
+                if( mask != null ) w &= mask.getWord( ( base >>> 6 ) + j - 1 );
+                if( ec != null ) w &= ~word( ec, j - 1, w );
+                mb[j] |= w;
+                added += Long.bitCount( w );
+            }
+            if( added == 0 ) return false;
+            mcard += added;
+            mb[0] = mcard;
+            if( mcard <= arrayMax( base ) ) {
+                store( i, key, toArray( mb, mcard ) );
+            } else {
+                store( i, key, mb );
+            }
+            size += added;
+            return true;
+        }
+        char[] oa = (char[]) oc;
+        char[] fresh = null;
+        int added = 0;
+        for( int j = 1; j <= oa[0]; j++ ) {
+            int low = oa[j];
+            if( mask != null && !mask.get( base | low ) ) continue;
+            if( ec != null && containsLow( ec, low ) ) continue;
+            if( containsLow( mc, low ) ) continue;
+            if( fresh == null ) fresh = new char[ oa[0] - j + 1 ];
+            fresh[ added++ ] = (char) low;
+        }
+        if( added == 0 ) return false;
+        if( mc instanceof long[] || mcard + added > arrayMax( base ) ) {
+            long[] mb;
+            if( mc instanceof long[] ) {
+                mb = grow( (long[]) mc, ( fresh[ added - 1 ] >>> 6 ) + 2 );
+            } else {
+                mb = toBitmap( (char[]) mc, Math.max( ( fresh[ added - 1 ] >>> 6 ) + 1,
+                            bitmapWords( base ) ) );
+            }
+            for( int j = 0; j < added; j++ ) {
+                mb[ ( fresh[j] >>> 6 ) + 1 ] |= 1L << fresh[j];
+            }
+            mb[0] = mcard + added;
+            store( i, key, mb );
+        } else {
+            store( i, key, merge( (char[]) mc, fresh, added ) );
+        }
+        size += added;
+        return true;
+    }
+
+    private boolean fastAdd( int number ) {
+        char key = (char) ( number >>> 16 );
+        int low = number & 0xFFFF;
+        int i = find( key );
+        if( i < 0 ) {
+            char[] a = new char[4];
+            a[0] = 1;
+            a[1] = (char) low;
+            store( i, key, a );
+            size++;
+            return true;
+        }
+        Object c = containers[i];
+        if( c instanceof long[] ) {
+            if( containsLow( c, low ) ) return false;
+            long[] b = grow( (long[]) c, ( low >>> 6 ) + 2 );
+            b[ ( low >>> 6 ) + 1 ] |= 1L << low;
+            b[0]++;
+            containers[i] = b;
+        } else {
+            char[] a = (char[]) c;
+            int card = a[0];
+            int j = search( a, low );
+            if( j > 0 ) return false;
+            j = -j;
+            int base = key << 16;
+            if( card + 1 > arrayMax( base ) ) {
+                long[] b = toBitmap( a, Math.max( ( low >>> 6 ) + 1, bitmapWords( base ) ) );
+                b[ ( low >>> 6 ) + 1 ] |= 1L << low;
+                b[0]++;
+                containers[i] = b;
+            } else {
+                if( card + 1 == a.length ) {
+                    char[] newA = new char[ Math.min( ARRAY_MAX, card * 2 ) + 1 ];
+                    System.arraycopy( a, 0, newA, 0, card + 1 );
+                    containers[i] = a = newA;
+                }
+                System.arraycopy( a, j, a, j + 1, card + 1 - j );
+                a[j] = (char) low;
+                a[0]++;
+            }
+        }
+        size++;
+        return true;
+    }
+
+    /** Returns the number of words of a bitmap container covering the
+     * numbers of the allocation nodes from base on. */
+    private int bitmapWords( int base ) {
+        int span = pag.getAllocNodeNumberer().size() - base;
+        if( span < 0 ) return 1;
+        return Math.min( BITMAP_WORDS, ( span >>> 6 ) + 1 );
+    }
+
+    /** Returns the largest number of elements an array container starting
+     * at base may hold before it takes more space than a bitmap. */
+    private int arrayMax( int base ) {
+        return 4 * bitmapWords( base );
+    }
+
+    /** Replaces the container at index i by c, or inserts it with the given
+     * key if i is negative, as returned by find. */
+    private void store( int i, char key, Object c ) {
+        if( i >= 0 ) {
+            containers[i] = c;
+            return;
+        }
+        i = -i - 1;
+        if( count == keys.length ) {
+            int length = count == 0 ? 1 : count * 2;
+            char[] newKeys = new char[length];
+            Object[] newContainers = new Object[length];
+            System.arraycopy( keys, 0, newKeys, 0, count );
+            System.arraycopy( containers, 0, newContainers, 0, count );
+            keys = newKeys;
+            containers = newContainers;
+        }
+        System.arraycopy( keys, i, keys, i + 1, count - i );
+        System.arraycopy( containers, i, containers, i + 1, count - i );
+        keys[i] = key;
+        containers[i] = c;
+        count++;
+    }
+
+    /** Returns the index of the container with the given key, or
+     * -(insertion point)-1 if there is none. */
+    private int find( char key ) {
+        int left = 0;
+        int right = count - 1;
+        while( left <= right ) {
+            int mid = ( left + right ) >>> 1;
+            char midKey = keys[mid];
+            if( midKey < key ) left = mid + 1;
+            else if( midKey > key ) right = mid - 1;
+            else return mid;
+        }
+        return -left - 1;
+    }
+
+    /** Returns the index of low in the array container a, or
+     * -(insertion point) if it is not there. */
+    private static int search( char[] a, int low ) {
+        int left = 1;
+        int right = a[0];
+        while( left <= right ) {
+            int mid = ( left + right ) >>> 1;
+            int midLow = a[mid];
+            if( midLow < low ) left = mid + 1;
+            else if( midLow > low ) right = mid - 1;
+            else return mid;
+        }
+        return -left;
+    }
+
+    private static int cardinality( Object c ) {
+        if( c instanceof long[] ) return (int) ((long[]) c)[0];
+        return ((char[]) c)[0];
+    }
+
+    private static boolean containsLow( Object c, int low ) {
+        if( c instanceof long[] ) {
+            long[] b = (long[]) c;
+            int j = ( low >>> 6 ) + 1;
+            return j < b.length && ( b[j] & 1L << low ) != 0L;
+        }
+        return search( (char[]) c, low ) > 0;
+    }
+
+    /** Returns those of the bits of word j of container c that are set
+     * in bits. */
+    private static long word( Object c, int j, long bits ) {
+        if( c instanceof long[] ) {
+            long[] b = (long[]) c;
+            return j + 1 < b.length ? b[ j + 1 ] & bits : 0L;
+        }
+        long ret = 0L;
+        for( long r = bits; r != 0L; r &= r - 1 ) {
+            int low = j << 6 | Long.numberOfTrailingZeros( r );
+            if( search( (char[]) c, low ) > 0 ) ret |= 1L << low;
+        }
+        return ret;
+    }
+
+    /** Returns b, or a copy of it, with at least length elements. */
+    private static long[] grow( long[] b, int length ) {
+        if( b.length >= length ) return b;
+        long[] ret = new long[length];
+        System.arraycopy( b, 0, ret, 0, b.length );
+        return ret;
+    }
+
+    private static long[] toBitmap( char[] a, int words ) {
+        int card = a[0];
+        if( card > 0 ) words = Math.max( words, ( a[card] >>> 6 ) + 1 );
+        long[] b = new long[ words + 1 ];
+        for( int j = 1; j <= card; j++ ) {
+            b[ ( a[j] >>> 6 ) + 1 ] |= 1L << a[j];
+        }
+        b[0] = card;
+        return b;
+    }
+
+    private static char[] toArray( long[] b, int card ) {
+        char[] a = new char[ card + 1 ];
+        a[0] = (char) card;
+        int k = 1;
+        for( int j = 1; j < b.length; j++ ) {
+            for( long w = b[j]; w != 0L; w &= w - 1 ) {
+                a[ k++ ] = (char) ( ( j - 1 ) << 6 | Long.numberOfTrailingZeros( w ) );
+            }
+        }
+        return a;
+    }
+
+    /** Merges the first added elements of fresh, none of which are in the
+     * array container a, into a, reusing a if it is large enough. */
+    private static char[] merge( char[] a, char[] fresh, int added ) {
+        int card = a[0];
+        int total = card + added;
+        char[] ret = a;
+        if( total + 1 > a.length ) {
+            ret = new char[ Math.min( ARRAY_MAX, Math.max( total, card * 2 ) ) + 1 ];
+        }
+        int i = card;
+        int j = added - 1;
+        int k = total;
+        while( j >= 0 ) {
+            if( i >= 1 && a[i] > fresh[j] ) ret[ k-- ] = a[ i-- ];
+            else ret[ k-- ] = fresh[ j-- ];
+        }
+        if( ret != a ) System.arraycopy( a, 1, ret, 1, i );
+        ret[0] = (char) total;
+        return ret;
+    }
+
+    private char[] keys = NO_KEYS;
+    private Object[] containers = NO_CONTAINERS;
+    private int count = 0;
+    private int size = 0;
+    private PAG pag;
+}
@@ -0,0 +1,237 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.solver;
+import soot.jimple.spark.pag.*;
+import soot.jimple.spark.sets.*;
+import soot.*;
+import soot.options.SparkOptions;
+import soot.toolkits.scalar.Pair;
+import soot.util.queue.*;
+import java.util.*;
+
+/** Brings the points-to sets and the on-the-fly call graph of a
+ * propagated PAG up to date after the bodies of some methods have
+ * changed. The edges the old bodies added are removed from the graph,
+ * the points-to sets of all nodes that may have received objects along
+ * them are cleared, and these sets are then propagated again from their
+ * remaining predecessors and from the edges of the new bodies. The
+ * LocalVarNodes of the old bodies that the new bodies no longer use are
+ * removed from the PAG, with their points-to sets.
+ * Call edges found from the points-to sets of other methods are kept,
+ * as are methods that were reachable only through them, so the result
+ * may be less precise than a new analysis, but not unsound.
+ */
+public class IncrementalUpdater {
+    public IncrementalUpdater( PAG pag ) { this.pag = pag; }
+
+    /** Updates the PAG for the current active bodies of the methods in
+     * changed. */
+    public void update( Collection<SootMethod> changed ) {
+        SparkOptions opts = pag.getOpts();
+        OnFlyCallGraph ofcg = pag.getOnFlyCallGraph();
+        if( ofcg == null ) throw new RuntimeException(
+                "Incremental update needs the on-the-fly call graph, which "+
+                "Spark does not keep with on-fly-cg:false or cg compact:true" );
+        if( opts.simplify_offline() || opts.simplify_sccs()
+                || opts.lazy_cycle_detection() ) throw new RuntimeException(
+                "Incremental update does not support merging of nodes" );
+        boolean verbose = opts.verbose();
+        QueueReader addedEdges = pag.edgeReader();
+
+        List<LocalVarNode> oldNodes = localVarNodesOf( changed );
+        Set<Node> targets = new HashSet<Node>();
+        List<SootMethod> reachable = new ArrayList<SootMethod>();
+        for (SootMethod m : changed) {
+            MethodPAG mpag = MethodPAG.v( pag, m );
+            mpag.removeFromPAG( targets );
+            MethodPAG.discard( m );
+            for( Iterator<VarNode> vnIt = pag.getDereferences().iterator(); vnIt.hasNext(); ) {
+                VarNode vn = vnIt.next();
+                if( vn instanceof LocalVarNode
+                && ((LocalVarNode) vn).getMethod() == m ) vnIt.remove();
+            }
+            ofcg.methodChanged( m, targets );
+            if( ofcg.reachableMethods().contains( m ) ) reachable.add( m );
+        }
+
+        Set<Node> affected = affectedBy( targets );
+        if( verbose ) {
+            G.v().out.println( "[Spark] Clearing the points-to sets of "+
+                    affected.size()+" nodes" );
+        }
+        for (Node n : affected) n.discardP2Set();
+
+        for (SootMethod m : reachable) {
+            MethodPAG mpag = MethodPAG.v( pag, m );
+            mpag.build();
+            mpag.addToPAG( null );
+        }
+        ofcg.build();
+        int removed = removeUnused( oldNodes, reachable );
+        if( verbose ) {
+            G.v().out.println( "[Spark] Removed "+removed+
+                    " nodes of the old bodies" );
+        }
+
+        Set<VarNode> seeds = new HashSet<VarNode>();
+        while(addedEdges.hasNext()) {
+            addSeed( (Node) addedEdges.next(), seeds );
+            addedEdges.next();
+        }
+        for (Node n : affected) {
+            if( !(n instanceof VarNode) ) continue;
+            for (Node element : pag.simpleInvLookup( (VarNode) n )) {
+                addSeed( element, seeds );
+            }
+            for (Node element : pag.loadInvLookup( (VarNode) n )) {
+                addSeed( element, seeds );
+            }
+        }
+        seeds.removeAll( affected );
+        new PropWorklist( pag ).propagate( seeds );
+    }
+
+    /* End of public methods. */
+    /* End of package methods. */
+
+    /** Returns the LocalVarNodes of the methods in changed. */
+    private List<LocalVarNode> localVarNodesOf( Collection<SootMethod> changed ) {
+        Set<SootMethod> methods = new HashSet<SootMethod>( changed );
+        List<LocalVarNode> ret = new ArrayList<LocalVarNode>();
+        for( Iterator vnIt = pag.getVarNodeNumberer().iterator(); vnIt.hasNext(); ) {
+            final Object vn = vnIt.next();
+            if( vn instanceof LocalVarNode
+            && methods.contains( ((LocalVarNode) vn).getMethod() ) ) {
+                ret.add( (LocalVarNode) vn );
+            }
+        }
+        return ret;
+    }
+
+    /** Removes from the PAG the nodes in oldNodes that the new bodies of
+     * the reachable methods do not use, keeping the parameter, this and
+     * return nodes, which the call edges of other methods may still
+     * reach. Returns the number of nodes removed. */
+    private int removeUnused( List<LocalVarNode> oldNodes,
+            List<SootMethod> reachable ) {
+        Set<Node> used = new HashSet<Node>();
+        for (SootMethod m : reachable) {
+            MethodPAG.v( pag, m ).collectNodes( used );
+        }
+        int ret = 0;
+        for (LocalVarNode vn : oldNodes) {
+            if( used.contains( vn ) ) continue;
+            Object value = vn.getVariable();
+            if( value instanceof Pair
+            && ((Pair) value).getO1() == vn.getMethod() ) continue;
+            if( value instanceof Local && vn.getMethod().hasActiveBody()
+            && vn.getMethod().getActiveBody().getLocals().contains( value ) ) continue;
+            pag.removeLocalVarNode( vn );
+            ret++;
+        }
+        return ret;
+    }
+
+    /** Marks node, which is the source of an edge, to have its points-to
+     * set propagated again in full. */
+    private void addSeed( Node node, Set<VarNode> seeds ) {
+        if( node instanceof FieldRefNode ) {
+            seeds.add( ((FieldRefNode) node).getBase() );
+        } else if( node instanceof VarNode ) {
+            seeds.add( (VarNode) node );
+        }
+    }
+
+    /** Returns the nodes whose points-to sets may contain objects that
+     * came to them through the nodes in targets, including those. */
+    private Set<Node> affectedBy( Set<Node> targets ) {
+        final Set<Node> ret = new HashSet<Node>();
+        final LinkedList<Node> worklist = new LinkedList<Node>();
+        for (Node n : targets) {
+            if( n instanceof FieldRefNode ) {
+                addFieldTargets( (FieldRefNode) n, ret, worklist );
+            } else if( ret.add( n ) ) {
+                worklist.add( n );
+            }
+        }
+        while( !worklist.isEmpty() ) {
+            Node n = worklist.removeFirst();
+            if( n instanceof AllocDotField ) {
+                AllocDotField adf = (AllocDotField) n;
+                List<FieldRefNode> loads = loadsOf( adf.getField() );
+                for (FieldRefNode fr : loads) {
+                    if( !fr.getBase().getP2Set().contains( adf.getBase() ) ) continue;
+                    for (Node element : pag.loadLookup( fr )) {
+                        if( ret.add( element ) ) worklist.add( element );
+                    }
+                }
+                continue;
+            }
+            final VarNode vn = (VarNode) n;
+            for (Node element : pag.simpleLookup( vn )) {
+                if( ret.add( element ) ) worklist.add( element );
+            }
+            for (Node element : pag.storeLookup( vn )) {
+                addFieldTargets( (FieldRefNode) element, ret, worklist );
+            }
+            for (FieldRefNode fr : vn.getAllFieldRefs()) {
+                for (Node element : pag.loadLookup( fr )) {
+                    if( ret.add( element ) ) worklist.add( element );
+                }
+                if( pag.storeInvLookup( fr ).length > 0 ) {
+                    addFieldTargets( fr, ret, worklist );
+                }
+            }
+        }
+        return ret;
+    }
+
+    /** Adds the AllocDotFields that stores into fr may write to. */
+    private void addFieldTargets( FieldRefNode fr, final Set<Node> ret,
+            final LinkedList<Node> worklist ) {
+        final SparkField field = fr.getField();
+        fr.getBase().getP2Set().forall( new P2SetVisitor() {
+        public final void visit( Node n ) {
+            AllocDotField adf = ((AllocNode) n).dot( field );
+            if( adf != null && ret.add( adf ) ) worklist.add( adf );
+        }} );
+    }
+
+    /** Returns the field reference nodes with load edges for field. */
+    private List<FieldRefNode> loadsOf( SparkField field ) {
+        if( fieldToLoads == null ) {
+            fieldToLoads = new HashMap<SparkField, List<FieldRefNode>>();
+            for( Iterator frIt = pag.loadSourcesIterator(); frIt.hasNext(); ) {
+                final FieldRefNode fr = (FieldRefNode) frIt.next();
+                List<FieldRefNode> loads = fieldToLoads.get( fr.getField() );
+                if( loads == null ) {
+                    fieldToLoads.put( fr.getField(), loads = new ArrayList<FieldRefNode>() );
+                }
+                loads.add( fr );
+            }
+        }
+        List<FieldRefNode> ret = fieldToLoads.get( field );
+        if( ret == null ) return Collections.emptyList();
+        return ret;
+    }
+
+    private final PAG pag;
+    private Map<SparkField, List<FieldRefNode>> fieldToLoads;
+}
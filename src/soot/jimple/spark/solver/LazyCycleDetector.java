@@ -0,0 +1,191 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.solver;
+import soot.jimple.spark.pag.*;
+import soot.jimple.spark.sets.*;
+import soot.jimple.spark.internal.TypeManager;
+import soot.*;
+import java.util.*;
+
+/** Collapses cycles of simple edges between VarNodes while points-to
+ * sets are being propagated, using lazy cycle detection (Hardekopf and
+ * Lin, PLDI 2007): when propagating along an edge adds nothing to its
+ * target, and both ends of the edge then have equal points-to sets,
+ * the edge is likely to be on a cycle, so the nodes reachable from its
+ * target are searched for strongly-connected components, which are
+ * merged. Each edge is searched from at most once.
+ *
+ * Only cycles of edges which never filter the objects flowing along
+ * them by type are collapsed, so that the merged node has exactly the
+ * points-to set of each of the nodes it replaces. With type filtering,
+ * this means the nodes of a cycle have the same declared type; with
+ * ignore-types, any cycle is collapsed.
+ */
+public class LazyCycleDetector {
+    public LazyCycleDetector( PAG pag ) {
+        this.pag = pag;
+        this.typeManager = pag.getTypeManager();
+    }
+
+    /** Notes that propagating from src along the simple edge to tgt
+     * added nothing to the points-to set of tgt, so that the nodes
+     * reachable from tgt are searched on the next call to
+     * collapseCycles() if src and tgt have equal points-to sets. */
+    public void unchangedEdge( VarNode src, VarNode tgt ) {
+        if( src == tgt || !unfiltered( src, tgt ) ) return;
+        Long edge = new Long( ( (long) src.getNumber() << 32 ) | tgt.getNumber() );
+        if( checkedEdges.contains( edge ) ) return;
+        if( !sameSets( src.getP2Set(), tgt.getP2Set() ) ) return;
+        checkedEdges.add( edge );
+        candidates.add( tgt );
+    }
+
+    /** Merges the nodes of the strongly-connected components reachable
+     * from the targets of the edges given to unchangedEdge() since the
+     * last call. Merged nodes are removed from workList, and the nodes
+     * they were merged into are added to it. */
+    public void collapseCycles( Set<VarNode> workList ) {
+        for( int i = 0; i < candidates.size(); i++ ) {
+            VarNode root = (VarNode) candidates.get( i ).getReplacement();
+            for( List<VarNode> scc : findSCCs( root ) ) {
+                VarNode rep = scc.get( 0 );
+                Type type = rep.makeP2Set().getType();
+                for( int j = 1; j < scc.size(); j++ ) {
+                    VarNode v = scc.get( j );
+                    workList.remove( v );
+                    // The set of v, which is to be merged into that of
+                    // rep, must have the same type.
+                    PointsToSetInternal set = v.makeP2Set();
+                    if( type == null ? set.getType() != null : !type.equals( set.getType() ) ) {
+                        set.setType( type );
+                    }
+                    rep.mergeWith( v );
+                    // Move the edges of the field references of v to
+                    // those of rep now, rather than while a map of edges
+                    // is being iterated over.
+                    for( FieldRefNode fr : v.getAllFieldRefs() ) {
+                        fr.getReplacement();
+                    }
+                    numCollapsed++;
+                }
+                workList.add( rep );
+            }
+        }
+        candidates.clear();
+    }
+
+    /** Returns the number of nodes that were merged into others. */
+    public int numCollapsed() { return numCollapsed; }
+
+    /* End of public methods. */
+    /* End of package methods. */
+
+    /** Returns the strongly-connected components with more than one node
+     * among the nodes reachable from root along edges which do not filter
+     * by type, using Tarjan's algorithm without recursion. */
+    private List<List<VarNode>> findSCCs( VarNode root ) {
+        List<List<VarNode>> ret = new ArrayList<List<VarNode>>();
+        Map<VarNode, Integer> order = new HashMap<VarNode, Integer>();
+        List<VarNode> nodes = new ArrayList<VarNode>();
+        int[] low = new int[16];
+        BitSet onStack = new BitSet();
+        List<Integer> stack = new ArrayList<Integer>();
+        List<Frame> frames = new ArrayList<Frame>();
+
+        order.put( root, new Integer( 0 ) );
+        nodes.add( root );
+        onStack.set( 0 );
+        stack.add( new Integer( 0 ) );
+        frames.add( new Frame( 0, pag.simpleLookup( root ) ) );
+        while( !frames.isEmpty() ) {
+            Frame f = frames.get( frames.size() - 1 );
+            if( f.pos < f.succs.length ) {
+                VarNode v = nodes.get( f.node );
+                VarNode w = (VarNode) f.succs[f.pos++];
+                if( w == v || !unfiltered( v, w ) ) continue;
+                Integer j = order.get( w );
+                if( j == null ) {
+                    int k = nodes.size();
+                    order.put( w, new Integer( k ) );
+                    nodes.add( w );
+                    if( k >= low.length ) {
+                        int[] newLow = new int[low.length * 2];
+                        System.arraycopy( low, 0, newLow, 0, low.length );
+                        low = newLow;
+                    }
+                    low[k] = k;
+                    onStack.set( k );
+                    stack.add( new Integer( k ) );
+                    frames.add( new Frame( k, pag.simpleLookup( w ) ) );
+                } else if( onStack.get( j.intValue() ) ) {
+                    low[f.node] = Math.min( low[f.node], j.intValue() );
+                }
+                continue;
+            }
+            frames.remove( frames.size() - 1 );
+            if( !frames.isEmpty() ) {
+                int parent = frames.get( frames.size() - 1 ).node;
+                low[parent] = Math.min( low[parent], low[f.node] );
+            }
+            if( low[f.node] != f.node ) continue;
+            List<VarNode> scc = new ArrayList<VarNode>();
+            int k;
+            do {
+                k = stack.remove( stack.size() - 1 ).intValue();
+                onStack.clear( k );
+                scc.add( nodes.get( k ) );
+            } while( k != f.node );
+            if( scc.size() > 1 ) ret.add( scc );
+        }
+        return ret;
+    }
+
+    private static class Frame {
+        final int node;
+        final Node[] succs;
+        int pos = 0;
+        Frame( int node, Node[] succs ) {
+            this.node = node;
+            this.succs = succs;
+        }
+    }
+
+    /** Returns true if all the objects in the points-to set of src are
+     * propagated along the edge to tgt. */
+    private boolean unfiltered( VarNode src, VarNode tgt ) {
+        return typeManager.castNeverFails( src.getType(), tgt.getType() );
+    }
+
+    private static boolean sameSets( PointsToSetInternal a, final PointsToSetInternal b ) {
+        if( a == b ) return true;
+        if( a.size() != b.size() ) return false;
+        return !a.forall( new P2SetVisitor() {
+            public final void visit( Node n ) {
+                if( !b.contains( n ) ) returnValue = true;
+            }
+        } );
+    }
+
+    protected PAG pag;
+    protected TypeManager typeManager;
+    protected int numCollapsed = 0;
+    protected final Set<Long> checkedEdges = new HashSet<Long>();
+    protected final List<VarNode> candidates = new ArrayList<VarNode>();
+}
@@ -22,6 +22,7 @@ import soot.jimple.spark.sets.*;
 import soot.jimple.spark.pag.*;
 import soot.jimple.toolkits.callgraph.*;
 import soot.*;
+import java.util.*;
 
 import soot.util.queue.*;
 
@@ -78,12 +79,23 @@ public class OnFlyCallGraph {
     public OnFlyCallGraphBuilder ofcgb() { return ofcgb; }
 
     public void updatedNode( VarNode vn ) {
+        PointsToSetInternal p2set = vn.getP2Set().getNewSet();
+        updatedVariable( vn, p2set );
+        List<VarNode> merged = mergedNodes.get( vn );
+        if( merged != null ) {
+            for (VarNode m : merged) updatedVariable( m, p2set );
+        }
+    }
+
+    /** Passes the new objects p2set of the node vn, or of the node vn
+     * was merged into, to the call sites whose receiver is the variable
+     * of vn. */
+    private void updatedVariable( VarNode vn, PointsToSetInternal p2set ) {
         Object r = vn.getVariable();
         if( !(r instanceof Local) ) return;
         final Local receiver = (Local) r;
         final Context context = vn.context();
 
-        PointsToSetInternal p2set = vn.getP2Set().getNewSet();
         if( ofcgb.wantTypes( receiver ) ) {
             p2set.forall( new P2SetVisitor() {
             public final void visit( Node n ) { 
@@ -103,14 +115,39 @@ public class OnFlyCallGraph {
         }
     }
 
-    /** Node uses this to notify PAG that n2 has been merged into n1. */
+    /** Removes the call edges out of m, and the PAG edges added for them,
+     * adding the nodes those edges led to to targets. The call sites of
+     * the current body of m are added on the next build. */
+    public void methodChanged( SootMethod m, Collection<Node> targets ) {
+        List<Edge> edges = new ArrayList<Edge>();
+        for( Iterator<Edge> eIt = callGraph.edgesOutOf( m ); eIt.hasNext(); ) {
+            edges.add( eIt.next() );
+        }
+        for (Edge e : edges) {
+            pag.removeCallTarget( e, targets );
+            callGraph.removeEdge( e );
+        }
+        ofcgb.methodChanged( m );
+    }
+
+    /** Node uses this to notify PAG that n2 has been merged into n1.
+     * The new objects of n1 are then also passed to the call sites
+     * whose receiver is the variable of n2. */
     public void mergedWith( Node n1, Node n2 ) {
+        if( !( n2 instanceof VarNode ) ) return;
+        List<VarNode> merged = mergedNodes.get( n1 );
+        if( merged == null ) mergedNodes.put( (VarNode) n1, merged = new ArrayList<VarNode>() );
+        merged.add( (VarNode) n2 );
+        List<VarNode> mergedIntoN2 = mergedNodes.remove( n2 );
+        if( mergedIntoN2 != null ) merged.addAll( mergedIntoN2 );
     }
 
     /* End of public methods. */
     /* End of package methods. */
 
     private PAG pag;
+    /** The nodes merged into each node, when there are any. */
+    private final Map<VarNode, List<VarNode>> mergedNodes = new HashMap<VarNode, List<VarNode>>();
 }
 
 
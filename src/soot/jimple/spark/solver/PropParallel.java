@@ -0,0 +1,375 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.spark.solver;
+import soot.jimple.spark.internal.TypeManager;
+import soot.jimple.spark.pag.*;
+import soot.jimple.spark.sets.*;
+import soot.options.Options;
+import soot.options.SparkOptions;
+import soot.*;
+import soot.util.IdentityHashSet;
+import soot.util.queue.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Propagates points-to sets along pointer assignment graph using a worklist,
+ * like PropWorklist, but processes the worklist in rounds. In each round,
+ * the nodes of the worklist are first handled one at a time, in order, for
+ * everything that may change the PAG: the on-the-fly call graph, stores and
+ * field references. Their new points-to sets are then flushed, and
+ * propagated along simple and load edges on -num-threads threads, each
+ * target points-to set being updated under a lock on its node. As the
+ * targets of these edges are VarNodes, whose new sets are not read until
+ * the next round, the workers never read a set that is being changed.
+ */
+
+public final class PropParallel extends Propagator {
+    protected Set<VarNode> varNodeWorkList = new TreeSet<VarNode>();
+
+    public PropParallel( PAG pag ) { this.pag = pag; }
+    /** Actually does the propagation. */
+    public final void propagate() {
+        ofcg = pag.getOnFlyCallGraph();
+        new TopoSorter( pag, false ).sort();
+	for (Object object : pag.allocSources()) {
+	    handleAllocNode( (AllocNode) object );
+	}
+
+        int numThreads = Options.v().num_threads();
+        if( numThreads > 1 && !setsAreThreadSafe() ) {
+            G.v().out.println( "Warning: the parallel propagator needs the double set "+
+                    "implementation without shared sets; using a single thread." );
+            numThreads = 1;
+        }
+        if( numThreads > 1 ) executor = Executors.newFixedThreadPool( numThreads );
+        try {
+            propagate( numThreads );
+        } finally {
+            if( executor != null ) executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private void propagate( int numThreads ) {
+        boolean verbose = pag.getOpts().verbose();
+	do {
+            if( verbose ) {
+                G.v().out.println( "Worklist has "+varNodeWorkList.size()+
+                        " nodes." );
+            }
+            while( !varNodeWorkList.isEmpty() ) {
+                Set<VarNode> round = varNodeWorkList;
+                varNodeWorkList = new TreeSet<VarNode>();
+                List<Flush> flushes = new ArrayList<Flush>();
+                for (VarNode src : round) {
+                    Flush flush = handleVarNode( src );
+                    if( flush != null ) flushes.add( flush );
+                }
+                propagateFlushes( flushes, numThreads );
+            }
+            if( verbose ) {
+                G.v().out.println( "Now handling field references" );
+            }
+            for (Object object : pag.storeSources()) {
+                final VarNode src = (VarNode) object;
+                Node[] targets = pag.storeLookup( src );
+                for (Node element0 : targets) {
+                    final FieldRefNode target = (FieldRefNode) element0;
+                    target.getBase().makeP2Set().forall( new P2SetVisitor() {
+                    public final void visit( Node n ) {
+                            AllocDotField nDotF = pag.makeAllocDotField(
+                                (AllocNode) n, target.getField() );
+                            nDotF.makeP2Set().addAll( src.getP2Set(), null );
+                        }
+                    } );
+                }
+            }
+            HashSet<Object[]> edgesToPropagate = new HashSet<Object[]>();
+	    for (Object object : pag.loadSources()) {
+                handleFieldRefNode( (FieldRefNode) object, edgesToPropagate );
+	    }
+	        IdentityHashSet<PointsToSetInternal> nodesToFlush = new IdentityHashSet<PointsToSetInternal>();
+            for (Object[] pair : edgesToPropagate) {
+                PointsToSetInternal nDotF = (PointsToSetInternal) pair[0];
+		PointsToSetInternal newP2Set = nDotF.getNewSet();
+                VarNode loadTarget = (VarNode) pair[1];
+                if( loadTarget.makeP2Set().addAll( newP2Set, null ) ) {
+                    varNodeWorkList.add( loadTarget );
+                }
+                nodesToFlush.add( nDotF );
+            }
+            for (PointsToSetInternal nDotF : nodesToFlush) {
+                nDotF.flushNew();
+            }
+	} while( !varNodeWorkList.isEmpty() );
+    }
+
+    /* End of public methods. */
+    /* End of package methods. */
+
+    /** The new points-to set of a node, flushed from it, and where it, and
+     * the points-to sets of some AllocDotFields, remain to be propagated. */
+    private static final class Flush {
+        final PointsToSetInternal newP2Set;
+        final Node[] simpleTargets;
+        final List<Node[]> loads;
+        Flush( PointsToSetInternal newP2Set, Node[] simpleTargets, List<Node[]> loads ) {
+            this.newP2Set = newP2Set;
+            this.simpleTargets = simpleTargets;
+            this.loads = loads;
+        }
+    }
+
+    /** Returns true if points-to sets can be updated from several threads
+     * under a lock on their own node, which holds if getNewSet() returns a
+     * set that flushNew() detaches, and sets do not share structure. */
+    private boolean setsAreThreadSafe() {
+        SparkOptions opts = pag.getOpts();
+        return opts.set_impl() == SparkOptions.set_impl_double
+            && opts.double_set_old() != SparkOptions.double_set_old_sharedlist
+            && opts.double_set_old() != SparkOptions.double_set_old_heintze
+            && opts.double_set_new() != SparkOptions.double_set_new_sharedlist
+            && opts.double_set_new() != SparkOptions.double_set_new_heintze;
+    }
+
+    /** The fewest flushed nodes worth handing to a worker thread. */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    /** Propagates the flushed points-to sets along simple and load edges,
+     * adding the nodes whose points-to sets changed to the worklist. */
+    private void propagateFlushes( List<Flush> flushes, int numThreads ) {
+        int chunks = numThreads * 4;
+        int chunkSize = Math.max( MIN_CHUNK_SIZE, ( flushes.size() + chunks - 1 ) / chunks );
+        if( executor == null || flushes.size() <= chunkSize ) {
+            varNodeWorkList.addAll( propagateFlushes( flushes ) );
+            return;
+        }
+        // Bring the type masks up to date, so that the workers only read them.
+        TypeManager typeManager = pag.getTypeManager();
+        if( typeManager.getFastHierarchy() != null )
+            typeManager.get( RefType.v( "java.lang.Object" ) );
+
+        List<Future<List<VarNode>>> tasks = new ArrayList<Future<List<VarNode>>>();
+        for( int start = 0; start < flushes.size(); start += chunkSize ) {
+            final List<Flush> chunk = flushes.subList( start,
+                    Math.min( start + chunkSize, flushes.size() ) );
+            tasks.add( executor.submit( new Callable<List<VarNode>>() {
+                public List<VarNode> call() {
+                    return propagateFlushes( chunk );
+                }
+            } ) );
+        }
+        for( Future<List<VarNode>> task : tasks ) {
+            try {
+                varNodeWorkList.addAll( task.get() );
+            } catch( ExecutionException e ) {
+                Throwable cause = e.getCause();
+                if( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+                if( cause instanceof Error ) throw (Error) cause;
+                throw new RuntimeException( cause );
+            } catch( InterruptedException e ) {
+                throw new RuntimeException( "Interrupted while waiting for worker threads", e );
+            }
+        }
+    }
+
+    private static List<VarNode> propagateFlushes( List<Flush> flushes ) {
+        List<VarNode> changed = new ArrayList<VarNode>();
+        for (Flush flush : flushes) {
+            for (Node element : flush.simpleTargets) {
+                synchronized( element ) {
+                    if( element.makeP2Set().addAll( flush.newP2Set, null ) ) {
+                        changed.add( (VarNode) element );
+                    }
+                }
+            }
+            for (Node[] p : flush.loads) {
+                AllocDotField nDotF = (AllocDotField) p[0];
+                VarNode loadTarget = (VarNode) p[1];
+                synchronized( loadTarget ) {
+                    if( loadTarget.makeP2Set().addAll( nDotF.getP2Set(), null ) ) {
+                        changed.add( loadTarget );
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /** Propagates new points-to information of node src to all its
+     * successors. */
+    protected final boolean handleAllocNode( AllocNode src ) {
+	boolean ret = false;
+	Node[] targets = pag.allocLookup( src );
+	for (Node element : targets) {
+	    if( element.makeP2Set().add( src ) ) {
+                varNodeWorkList.add( (VarNode) element );
+                ret = true;
+            }
+	}
+	return ret;
+    }
+    /** Propagates new points-to information of node src along all edges
+     * but simple and load edges, and returns its flushed new points-to
+     * set with the simple and load edges along which it remains to be
+     * propagated; returns null if there is nothing left to propagate. */
+    protected final Flush handleVarNode( final VarNode src ) {
+        boolean flush = true;
+
+        if( src.getReplacement() != src ) throw new RuntimeException(
+                "Got bad node "+src+" with rep "+src.getReplacement() );
+
+	final PointsToSetInternal newP2Set = src.getP2Set().getNewSet();
+	if( newP2Set.isEmpty() ) return null;
+
+        if( ofcg != null ) {
+            QueueReader addedEdges = pag.edgeReader();
+            ofcg.updatedNode( src );
+            ofcg.build();
+
+            while(addedEdges.hasNext()) {
+                Node addedSrc = (Node) addedEdges.next();
+                Node addedTgt = (Node) addedEdges.next();
+                if( addedSrc instanceof VarNode ) {
+                    if( addedTgt instanceof VarNode ) {
+                        VarNode edgeSrc = (VarNode) addedSrc.getReplacement();
+                        VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
+
+                        if( edgeTgt.makeP2Set().addAll( edgeSrc.getP2Set(), null ) ) {
+                            varNodeWorkList.add( edgeTgt );
+                            if(edgeTgt == src) flush = false;
+                        }
+                    }
+                } else if( addedSrc instanceof AllocNode ) {
+                    AllocNode edgeSrc = (AllocNode) addedSrc;
+                    VarNode edgeTgt = (VarNode) addedTgt.getReplacement();
+                    if( edgeTgt.makeP2Set().add( edgeSrc ) ) {
+                        varNodeWorkList.add( edgeTgt );
+                        if(edgeTgt == src) flush = false;
+                    }
+                }
+            }
+        }
+
+        Node[] storeTargets = pag.storeLookup( src );
+        for (Node element : storeTargets) {
+            final FieldRefNode fr = (FieldRefNode) element;
+            final SparkField f = fr.getField();
+            fr.getBase().getP2Set().forall( new P2SetVisitor() {
+            public final void visit( Node n ) {
+                    AllocDotField nDotF = pag.makeAllocDotField(
+                        (AllocNode) n, f );
+                    nDotF.makeP2Set().addAll( newP2Set, null );
+		}
+	    } );
+        }
+
+        final HashSet<Node[]> storesToPropagate = new HashSet<Node[]>();
+        final HashSet<Node[]> loadsToPropagate = new HashSet<Node[]>();
+	Collection fieldRefs = src.getAllFieldRefs();
+	for( Iterator frIt = fieldRefs.iterator(); frIt.hasNext(); ) {
+	    final FieldRefNode fr = (FieldRefNode) frIt.next();
+	    final SparkField field = fr.getField();
+	    final Node[] storeSources = pag.storeInvLookup( fr );
+            if( storeSources.length > 0 ) {
+                newP2Set.forall( new P2SetVisitor() {
+                public final void visit( Node n ) {
+                        AllocDotField nDotF = pag.makeAllocDotField(
+                            (AllocNode) n, field );
+                        for (Node element : storeSources) {
+                            Node[] pair = { element,
+                                nDotF.getReplacement() };
+                            storesToPropagate.add( pair );
+                        }
+                    }
+                } );
+            }
+
+	    final Node[] loadTargets = pag.loadLookup( fr );
+            if( loadTargets.length > 0 ) {
+                newP2Set.forall( new P2SetVisitor() {
+                public final void visit( Node n ) {
+                        AllocDotField nDotF = pag.makeAllocDotField(
+                            (AllocNode) n, field );
+                        if( nDotF != null ) {
+                            for (Node element : loadTargets) {
+                                Node[] pair = { nDotF.getReplacement(),
+                                    element };
+                                loadsToPropagate.add( pair );
+                            }
+                        }
+                    }
+                } );
+            }
+	}
+        for (Node[] p : storesToPropagate) {
+            VarNode storeSource = (VarNode) p[0];
+            AllocDotField nDotF = (AllocDotField) p[1];
+            nDotF.makeP2Set().addAll( storeSource.getP2Set(), null );
+        }
+
+        Node[] simpleTargets = pag.simpleLookup( src );
+        List<Node[]> loads = new ArrayList<Node[]>( loadsToPropagate );
+        if( !flush ) {
+            // src got new points-to information while being handled, so
+            // it stays on the worklist with its new set unflushed, and is
+            // handled again in the next round.
+            varNodeWorkList.addAll( propagateFlushes( Collections.singletonList(
+                            new Flush( newP2Set, simpleTargets, loads ) ) ) );
+            return null;
+        }
+        src.getP2Set().flushNew();
+        return new Flush( newP2Set, simpleTargets, loads );
+    }
+
+    /** Propagates new points-to information of node src to all its
+     * successors. */
+    protected final void handleFieldRefNode( FieldRefNode src,
+            final HashSet<Object[]> edgesToPropagate ) {
+	final Node[] loadTargets = pag.loadLookup( src );
+	if( loadTargets.length == 0 ) return;
+        final SparkField field = src.getField();
+
+	src.getBase().getP2Set().forall( new P2SetVisitor() {
+
+	public final void visit( Node n ) {
+                AllocDotField nDotF = pag.makeAllocDotField(
+                    (AllocNode) n, field );
+                if( nDotF != null ) {
+                    PointsToSetInternal p2Set = nDotF.getP2Set();
+                    if( !p2Set.getNewSet().isEmpty() ) {
+                        for (Node element : loadTargets) {
+                            Object[] pair = { p2Set, element };
+                            edgesToPropagate.add( pair );
+                        }
+                    }
+                }
+	    }
+	} );
+    }
+
+    protected PAG pag;
+    protected OnFlyCallGraph ofcg;
+    private ExecutorService executor;
+}
@@ -35,8 +35,20 @@ public final class PropWorklist extends Propagator {
     public PropWorklist( PAG pag ) { this.pag = pag; }
     /** Actually does the propagation. */
     public final void propagate() {
+        propagate( Collections.<VarNode>emptyList() );
+    }
+    /** Propagates again, after edges have been added to or removed from
+     * the graph, treating the whole points-to sets of nodes as new. */
+    public final void propagate( Collection<VarNode> nodes ) {
         ofcg = pag.getOnFlyCallGraph();
+        if( pag.getOpts().lazy_cycle_detection() && cycles == null ) {
+            cycles = new LazyCycleDetector( pag );
+        }
         new TopoSorter( pag, false ).sort();
+        for (VarNode node : nodes) {
+            node.getP2Set().unFlushNew();
+            varNodeWorkList.add( node );
+        }
 	for (Object object : pag.allocSources()) {
 	    handleAllocNode( (AllocNode) object );
 	}
@@ -51,6 +63,7 @@ public final class PropWorklist extends Propagator {
                 VarNode src = varNodeWorkList.iterator().next();
                 varNodeWorkList.remove( src );
                 handleVarNode( src );
+                if( cycles != null ) cycles.collapseCycles( varNodeWorkList );
             }
             if( verbose ) {
                 G.v().out.println( "Now handling field references" );
@@ -87,6 +100,9 @@ public final class PropWorklist extends Propagator {
                 nDotF.flushNew();
             }
 	} while( !varNodeWorkList.isEmpty() );
+        if( verbose && cycles != null ) {
+            G.v().out.println( ""+cycles.numCollapsed()+" nodes were collapsed." );
+        }
     }
 
     /* End of public methods. */
@@ -153,6 +169,8 @@ public final class PropWorklist extends Propagator {
                 varNodeWorkList.add( (VarNode) element );
                 if(element == src) flush = false;
                 ret = true;
+            } else if( cycles != null ) {
+                cycles.unchangedEdge( src, (VarNode) element );
             }
 	}
 
@@ -257,6 +275,7 @@ public final class PropWorklist extends Propagator {
     
     protected PAG pag;
     protected OnFlyCallGraph ofcg;
+    protected LazyCycleDetector cycles;
 }
 
 
@@ -43,7 +43,7 @@ public class DominatorsTagger extends BodyTransformer
     {
 
        
-        MHGDominatorsFinder analysis = new MHGDominatorsFinder(new ExceptionalUnitGraph(b));
+        MHGDominatorsFinder analysis = b.getAnalysisCache().getDominatorsFinder();
         Iterator it = b.getUnits().iterator();
         while (it.hasNext()){
             Stmt s = (Stmt)it.next();
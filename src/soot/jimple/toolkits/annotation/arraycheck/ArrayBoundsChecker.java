@@ -39,16 +39,12 @@ public class ArrayBoundsChecker extends BodyTransformer
     public ArrayBoundsChecker( Singletons.Global g ) {}
     public static ArrayBoundsChecker v() { return G.v().soot_jimple_toolkits_annotation_arraycheck_ArrayBoundsChecker(); }
 
-    protected boolean takeClassField = false;
-    protected boolean takeFieldRef = false;
-    protected boolean takeArrayRef = false;
-    protected boolean takeCSE = false;
-    protected boolean takeRectArray = false;
-    protected boolean addColorTags = false;
-    
     protected void internalTransform(Body body, String phaseName, Map opts)
     {
         ABCOptions options = new ABCOptions( opts );
+        // Kept in locals, not fields, as the bodies of several methods
+        // may be transformed at once with -num-threads.
+        boolean takeClassField, takeFieldRef, takeArrayRef, takeCSE, takeRectArray;
         if (options.with_all())
         {
             takeClassField = true;
@@ -66,7 +62,7 @@ public class ArrayBoundsChecker extends BodyTransformer
             takeRectArray = options.with_rectarray();
         }
 
-        addColorTags = options.add_color_tags();
+        boolean addColorTags = options.add_color_tags();
 
         {
             SootMethod m = body.getMethod();
@@ -155,21 +151,24 @@ public class ArrayBoundsChecker extends BodyTransformer
                                 aref.getIndexBox().addTag(new ColorTag(45, 255, 84, false, "ArrayCheckTag"));
                             }
                             SootClass bodyClass = body.getMethod().getDeclaringClass();
-                            Iterator keysIt = bodyClass.getTags().iterator();
-                            boolean keysAdded = false;
-                            while (keysIt.hasNext()){
-                                Object next = keysIt.next();
-                                if (next instanceof KeyTag){
-                                    if (((KeyTag)next).analysisType().equals("ArrayCheckTag")){
-                                        keysAdded = true;
+                            // the methods of a class may be tagged at once with -num-threads
+                            synchronized( bodyClass ) {
+                                Iterator keysIt = bodyClass.getTags().iterator();
+                                boolean keysAdded = false;
+                                while (keysIt.hasNext()){
+                                    Object next = keysIt.next();
+                                    if (next instanceof KeyTag){
+                                        if (((KeyTag)next).analysisType().equals("ArrayCheckTag")){
+                                            keysAdded = true;
+                                        }
                                     }
                                 }
-                            }
-                            if (!keysAdded){
-                                bodyClass.addTag(new KeyTag(255, 0, 0, "ArrayBounds: Unsafe Lower and Unsafe Upper", "ArrayCheckTag"));
-                                bodyClass.addTag(new KeyTag(255, 248, 35, "ArrayBounds: Unsafe Lower and Safe Upper", "ArrayCheckTag"));
-                                bodyClass.addTag(new KeyTag(255, 163, 0, "ArrayBounds: Safe Lower and Unsafe Upper", "ArrayCheckTag"));
-                                bodyClass.addTag(new KeyTag(45, 255, 84, "ArrayBounds: Safe Lower and Safe Upper", "ArrayCheckTag"));
+                                if (!keysAdded){
+                                    bodyClass.addTag(new KeyTag(255, 0, 0, "ArrayBounds: Unsafe Lower and Unsafe Upper", "ArrayCheckTag"));
+                                    bodyClass.addTag(new KeyTag(255, 248, 35, "ArrayBounds: Unsafe Lower and Safe Upper", "ArrayCheckTag"));
+                                    bodyClass.addTag(new KeyTag(255, 163, 0, "ArrayBounds: Safe Lower and Unsafe Upper", "ArrayCheckTag"));
+                                    bodyClass.addTag(new KeyTag(45, 255, 84, "ArrayBounds: Safe Lower and Safe Upper", "ArrayCheckTag"));
+                                }
                             }
                         }
 
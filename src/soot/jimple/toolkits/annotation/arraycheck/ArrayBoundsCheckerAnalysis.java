@@ -256,7 +256,7 @@ class ArrayBoundsCheckerAnalysis
         if (Options.v().debug())
             G.v().out.println("Building PseudoTopological order list on "+start);
 
-        LinkedList allUnits = (LinkedList)SlowPseudoTopologicalOrderer.v().newList(this.graph,false);
+        LinkedList allUnits = (LinkedList)new SlowPseudoTopologicalOrderer().newList(this.graph,false);
                         
         BoundedPriorityList changedUnits = 
             new BoundedPriorityList(allUnits);            
@@ -31,14 +31,21 @@ public class CallGraphTagger extends BodyTransformer {
     public static CallGraphTagger v() { return G.v().soot_jimple_toolkits_annotation_callgraph_CallGraphTagger(); }
     
     private MethodToContexts methodToContexts;
+    /** Makes the map from methods to contexts when it is first needed;
+     * synchronized, as the bodies of several methods may be tagged at once
+     * with -num-threads. */
+    private synchronized MethodToContexts methodToContexts() {
+        if( methodToContexts == null ) {
+            methodToContexts = new MethodToContexts( Scene.v().getReachableMethods().listener() );
+        }
+        return methodToContexts;
+    }
     protected void internalTransform(
             Body b, String phaseName, Map options)
     {
         
         CallGraph cg = Scene.v().getCallGraph();
-        if( methodToContexts == null ) {
-            methodToContexts = new MethodToContexts( Scene.v().getReachableMethods().listener() );
-        }
+        MethodToContexts methodToContexts = methodToContexts();
     
         Iterator stmtIt = b.getUnits().iterator();
 
@@ -52,8 +52,8 @@ public class LoopFinder extends BodyTransformer {
     
     protected void internalTransform (Body b, String phaseName, Map options){
     
-        g = new ExceptionalUnitGraph(b);
-        MHGDominatorsFinder a = new MHGDominatorsFinder(g);
+        g = b.getAnalysisCache().getExceptionalUnitGraph();
+        MHGDominatorsFinder a = b.getAnalysisCache().getDominatorsFinder();
         
         loops = new HashMap<Stmt, List<Stmt>>();
         
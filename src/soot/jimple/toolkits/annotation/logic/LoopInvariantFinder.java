@@ -30,8 +30,6 @@ import soot.tagkit.*;
 
 public class LoopInvariantFinder extends BodyTransformer {
 
-    private ArrayList constants; 
-
     public LoopInvariantFinder(Singletons.Global g){}
     public static LoopInvariantFinder v() { return G.v().soot_jimple_toolkits_annotation_logic_LoopInvariantFinder();}
 
@@ -48,7 +46,7 @@ public class LoopInvariantFinder extends BodyTransformer {
         lf.internalTransform(b, phaseName, options);
 
         Collection<Loop> loops = lf.loops();
-        constants = new ArrayList();
+        ArrayList constants = new ArrayList();
         
         // no loop invariants if no loops
         if (loops.isEmpty()) return;
@@ -63,12 +61,12 @@ public class LoopInvariantFinder extends BodyTransformer {
                 Stmt tStmt = bIt.next();
                 //System.out.println("will test stmt: "+tStmt+" for loop header: "+header);
                 //System.out.println("will test with loop stmts: "+loopStmts);
-                handleLoopBodyStmt(tStmt, nset, loopStmts);
+                handleLoopBodyStmt(tStmt, nset, loopStmts, constants);
             }
         }
     }
 
-    private void handleLoopBodyStmt(Stmt s, NaiveSideEffectTester nset, Collection<Stmt> loopStmts){
+    private void handleLoopBodyStmt(Stmt s, NaiveSideEffectTester nset, Collection<Stmt> loopStmts, ArrayList constants){
         // need to do some checks for arrays - when there is an multi-dim array
         // --> for defs there is a get of one of the dims that claims to be 
         // loop invariant
@@ -121,7 +119,7 @@ public class LoopInvariantFinder extends BodyTransformer {
             while (loopStmtsIt.hasNext()){
                 Stmt next = (Stmt)loopStmtsIt.next();
                 if (nset.unitCanWriteTo(next, v)){
-                    if (!isConstant(next)){
+                    if (!isConstant(next, constants)){
                         G.v().out.println("result = false unit can be written to by: "+next);
                         result = false;
                         break uses;
@@ -157,7 +155,7 @@ public class LoopInvariantFinder extends BodyTransformer {
                 Stmt next = (Stmt)loopStmtsIt.next();
                 if (next.equals(s)) continue;
                 if (nset.unitCanWriteTo(next, v)){
-                    if (!isConstant(next)){
+                    if (!isConstant(next, constants)){
                         G.v().out.println("result false: unit can be written to by: "+next);
                         result = false;
                         break defs;
@@ -180,7 +178,7 @@ public class LoopInvariantFinder extends BodyTransformer {
         }
     }
     
-    private boolean isConstant(Stmt s){
+    private boolean isConstant(Stmt s, ArrayList constants){
         if (s instanceof DefinitionStmt){
             DefinitionStmt ds = (DefinitionStmt)s;
             if (constants.contains(ds.getLeftOp())){
@@ -58,20 +58,23 @@ public class NullPointerColorer extends BodyTransformer {
 			}
 		}
 
-        Iterator keysIt = b.getMethod().getDeclaringClass().getTags().iterator();
-        boolean keysAdded = false;
-        while (keysIt.hasNext()){
-            Object next = keysIt.next();
-            if (next instanceof KeyTag){
-                if (((KeyTag)next).analysisType().equals("NullCheckTag")){
-                    keysAdded = true;  
+        // the methods of a class may be tagged at once with -num-threads
+        synchronized( b.getMethod().getDeclaringClass() ) {
+            Iterator keysIt = b.getMethod().getDeclaringClass().getTags().iterator();
+            boolean keysAdded = false;
+            while (keysIt.hasNext()){
+                Object next = keysIt.next();
+                if (next instanceof KeyTag){
+                    if (((KeyTag)next).analysisType().equals("NullCheckTag")){
+                        keysAdded = true;  
+                    }
                 }
             }
-        }
-        if (!keysAdded){
-            b.getMethod().getDeclaringClass().addTag(new KeyTag(ColorTag.RED, "Nullness: Null", "NullCheckTag"));
-            b.getMethod().getDeclaringClass().addTag(new KeyTag(ColorTag.GREEN, "Nullness: Not Null", "NullCheckTag"));
-            b.getMethod().getDeclaringClass().addTag(new KeyTag(ColorTag.BLUE, "Nullness: Nullness Unknown", "NullCheckTag"));
+            if (!keysAdded){
+                b.getMethod().getDeclaringClass().addTag(new KeyTag(ColorTag.RED, "Nullness: Null", "NullCheckTag"));
+                b.getMethod().getDeclaringClass().addTag(new KeyTag(ColorTag.GREEN, "Nullness: Not Null", "NullCheckTag"));
+                b.getMethod().getDeclaringClass().addTag(new KeyTag(ColorTag.BLUE, "Nullness: Nullness Unknown", "NullCheckTag"));
+            }
         }
 	}
 	
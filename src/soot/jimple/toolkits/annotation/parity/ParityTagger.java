@@ -107,21 +107,24 @@ public class ParityTagger extends BodyTransformer
         }
 
         // add key to class
-        Iterator keyIt = b.getMethod().getDeclaringClass().getTags().iterator();
-        boolean keysAdded = false;
-        while (keyIt.hasNext()){
-            Object next = keyIt.next();
-            if (next instanceof KeyTag){
-                if (((KeyTag)next).analysisType().equals("Parity Analysis")){
-                    keysAdded = true;
+        // the methods of a class may be tagged at once with -num-threads
+        synchronized( b.getMethod().getDeclaringClass() ) {
+            Iterator keyIt = b.getMethod().getDeclaringClass().getTags().iterator();
+            boolean keysAdded = false;
+            while (keyIt.hasNext()){
+                Object next = keyIt.next();
+                if (next instanceof KeyTag){
+                    if (((KeyTag)next).analysisType().equals("Parity Analysis")){
+                        keysAdded = true;
+                    }
                 }
             }
-        }
-        if (!keysAdded){
-            b.getMethod().getDeclaringClass().addTag(new KeyTag(255,0,0, "Parity: Top", "Parity Analysis"));
-            b.getMethod().getDeclaringClass().addTag(new KeyTag(45,255,84, "Parity: Bottom", "Parity Analysis"));
-            b.getMethod().getDeclaringClass().addTag(new KeyTag(255,248,35, "Parity: Even", "Parity Analysis"));
-            b.getMethod().getDeclaringClass().addTag(new KeyTag(174,210,255, "Parity: Odd", "Parity Analysis"));
+            if (!keysAdded){
+                b.getMethod().getDeclaringClass().addTag(new KeyTag(255,0,0, "Parity: Top", "Parity Analysis"));
+                b.getMethod().getDeclaringClass().addTag(new KeyTag(45,255,84, "Parity: Bottom", "Parity Analysis"));
+                b.getMethod().getDeclaringClass().addTag(new KeyTag(255,248,35, "Parity: Even", "Parity Analysis"));
+                b.getMethod().getDeclaringClass().addTag(new KeyTag(174,210,255, "Parity: Odd", "Parity Analysis"));
+            }
         }
     }
 
@@ -166,15 +166,15 @@ public class PurityGraph
      * Caching: this semm to actually improve both speed and memory 
      * consumption!
      */
-    private static final Map<PurityNode, PurityNode> nodeCache =  new HashMap<PurityNode, PurityNode>();
-    private static final Map<PurityEdge, PurityEdge> edgeCache =  new HashMap<PurityEdge, PurityEdge>();
     private static PurityNode cacheNode(PurityNode p)
     {
+	Map<PurityNode, PurityNode> nodeCache = G.v().PurityGraph_nodeCache;
 	if (!nodeCache.containsKey(p)) nodeCache.put(p,p);
 	return nodeCache.get(p);
     }
     private static PurityEdge cacheEdge(PurityEdge e)
     {
+	Map<PurityEdge, PurityEdge> edgeCache = G.v().PurityGraph_edgeCache;
 	if (!edgeCache.containsKey(e)) edgeCache.put(e,e);
 	return edgeCache.get(e);
     }
@@ -1221,22 +1221,18 @@ public class PurityGraph
     }
 
 
-    /** Simple statistics on maximal graph sizes.*/
-
-    static private int maxInsideNodes = 0;
-    static private int maxLoadNodes = 0;
-    static private int maxInsideEdges = 0;
-    static private int maxOutsideEdges = 0;
-    static private int maxMutated = 0;
+    /** Simple statistics on maximal graph sizes, kept in G: 
+     * inside nodes, load nodes, inside edges, outside edges and mutated fields.*/
 
     void dumpStat()
     {
+	int[] max = G.v().PurityGraph_maxStat;
 	G.v().out.println("Stat: "+
-			  maxInsideNodes+" inNodes, "+
-			  maxLoadNodes+" loadNodes, "+
-			  maxInsideEdges+" inEdges, "+
-			  maxOutsideEdges+" outEdges, "+
-			  maxMutated+" mutated.");
+			  max[0]+" inNodes, "+
+			  max[1]+" loadNodes, "+
+			  max[2]+" inEdges, "+
+			  max[3]+" outEdges, "+
+			  max[4]+" mutated.");
     }
 
     void updateStat()
@@ -1264,17 +1260,11 @@ public class PurityGraph
 	it = mutated.keySet().iterator();
 	while (it.hasNext()) mutatedFields += mutated.get(it.next()).size();
 
+	int[] max = G.v().PurityGraph_maxStat;
+	int[] stat = { insideNodes, loadNodes, insideEdges, outsideEdges, mutatedFields };
 	boolean changed = false;
-	if (insideNodes>maxInsideNodes) 
-	    { maxInsideNodes=insideNodes; changed=true; }
-	if (loadNodes>maxLoadNodes)
-	    { maxLoadNodes=loadNodes; changed=true; }
-	if (insideEdges>maxInsideEdges)
-	    { maxInsideEdges=insideEdges; changed=true; }
-	if ( outsideEdges>maxOutsideEdges)
-	    { maxOutsideEdges=outsideEdges; changed=true; }
-	if (mutatedFields>maxMutated)
-	    { maxMutated=mutatedFields; changed=true; }
+	for (int i=0;i<stat.length;i++)
+	    if (stat[i]>max[i]) { max[i]=stat[i]; changed=true; }
 	if (changed) dumpStat();
     }
 }
@@ -39,19 +39,17 @@ public class PurityMethodNode implements PurityNode
     /** Method that created the node */
     private SootMethod id;
 
-    /** gives a unique id, for pretty-printing purposes */
-    private static final Map<SootMethod, Integer> nMap = new HashMap<SootMethod, Integer>();
-    private static int n = 0;
-
     PurityMethodNode(SootMethod id)
     { 
 	this.id = id;
-	if (!nMap.containsKey(id)) { nMap.put(id,new Integer(n)); n++; }
+	/* gives a unique id, for pretty-printing purposes */
+	Map<SootMethod, Integer> nMap = G.v().PurityMethodNode_nMap;
+	if (!nMap.containsKey(id)) nMap.put(id,new Integer(nMap.size()));
     }
 
     public String toString() 
     { 
-	return "M_"+nMap.get(id);
+	return "M_"+G.v().PurityMethodNode_nMap.get(id);
 	//return ""+id;
     }
 
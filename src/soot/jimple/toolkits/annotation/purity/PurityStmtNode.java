@@ -26,6 +26,7 @@
  */
 
 package soot.jimple.toolkits.annotation.purity;
+import soot.*;
 import soot.jimple.*;
 
 import java.util.*;
@@ -45,19 +46,18 @@ public class PurityStmtNode implements PurityNode
     /** true if an inside node, false if an load node */
     private boolean inside;
 
-    /** gives a unique id, for pretty-printing purposes */
-    private static final Map<Stmt, Integer> nMap = new HashMap<Stmt, Integer>();
-    private static int n = 0;
-
     PurityStmtNode(Stmt id, boolean inside)
     { 
 	this.id = id; this.inside = inside;
-	if (!nMap.containsKey(id)) { nMap.put(id,new Integer(n)); n++; }
+	/* gives a unique id, for pretty-printing purposes */
+	Map<Stmt, Integer> nMap = G.v().PurityStmtNode_nMap;
+	if (!nMap.containsKey(id)) nMap.put(id,new Integer(nMap.size()));
     }
 
     public String toString() 
     { 
-	if (inside) return "I_"+nMap.get(id); else return "L_"+nMap.get(id);
+	Integer n = G.v().PurityStmtNode_nMap.get(id);
+	if (inside) return "I_"+n; else return "L_"+n;
 	//if (inside) return "I_"+id; else return "L_"+id; 
     }
 
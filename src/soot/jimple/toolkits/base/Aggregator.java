@@ -111,9 +111,9 @@ public class Aggregator extends BodyTransformer
       boolean hadAggregation = false;
       Chain units = body.getUnits();
       
-      graph = new ExceptionalUnitGraph(body);
-      localDefs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
-      localUses = new SimpleLocalUses(graph, localDefs);
+      graph = body.getAnalysisCache().getExceptionalUnitGraph();
+      localDefs = body.getAnalysisCache().getLocalDefs();
+      localUses = body.getAnalysisCache().getLocalUses();
           
       stmtIt = (new PseudoTopologicalOrderer()).newList(graph,false).iterator();
       
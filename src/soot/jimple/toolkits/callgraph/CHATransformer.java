@@ -39,8 +39,13 @@ public class CHATransformer extends SceneTransformer
     protected void internalTransform(String phaseName, Map opts)
     {
         CHAOptions options = new CHAOptions( opts );
-        CallGraphBuilder cg = new CallGraphBuilder( DumbPointerAnalysis.v() );
-        cg.build();
+        int numThreads = Scene.v().getNumThreads();
+        if( numThreads > 1 ) {
+            new ParallelCHABuilder( numThreads ).build();
+        } else {
+            CallGraphBuilder cg = new CallGraphBuilder( DumbPointerAnalysis.v() );
+            cg.build();
+        }
         if( options.verbose() ) {
             G.v().out.println( "Number of reachable methods: "
                     +Scene.v().getReachableMethods().size() );
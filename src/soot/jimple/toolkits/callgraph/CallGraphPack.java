@@ -21,7 +21,10 @@ package soot.jimple.toolkits.callgraph;
 
 import soot.*;
 
+import java.io.File;
 import java.util.*;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.PAGSnapshot;
 import soot.options.CGOptions;
 
 /** A radio pack implementation for the call graph pack that calls the
@@ -59,5 +62,27 @@ public class CallGraphPack extends RadioScenePack
                 }
             }
         }
+
+        // Written here rather than by Spark, so that the snapshot holds the
+        // call graph after trim-clinit, as returned by Scene.getCallGraph().
+        if( Scene.v().getPointsToAnalysis() instanceof PAG ) {
+            PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+            if( pag.getOpts().dump_snapshot() ) {
+                PAGSnapshot.write( pag, Scene.v().getCallGraph(),
+                        new File( SourceLocator.v().getOutputDir(), "pag.snapshot" ) );
+            }
+        }
+
+        if( options.compact() ) {
+            boolean hadReachableMethods = Scene.v().hasReachableMethods();
+            Scene.v().setCallGraph( new CompactCallGraph( Scene.v().getCallGraph() ) );
+            // Find the reachable methods again over the compact graph, since
+            // the old ones refer to the old graph and would keep it alive.
+            if( hadReachableMethods ) Scene.v().getReachableMethods();
+            // Let the edges of the on-the-fly call graph of Spark be freed.
+            if( Scene.v().getPointsToAnalysis() instanceof PAG ) {
+                ((PAG) Scene.v().getPointsToAnalysis()).setOnFlyCallGraph( null );
+            }
+        }
     }
 }
@@ -0,0 +1,334 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.callgraph;
+import soot.*;
+import soot.util.queue.*;
+import java.util.*;
+
+/** A call graph that can no longer be changed, which keeps its edges in
+ * arrays of numbers instead of Edge objects. The methods and call sites
+ * of the edges are numbered; the edges are kept in order of their source
+ * methods, with the numbers of their call sites, targets and kinds, and
+ * the edges of each call site and of each target method are found
+ * through arrays of edge numbers. Edge objects are made only when the
+ * edges are read, so two reads of the same edge give equal but distinct
+ * objects.
+ */
+public final class CompactCallGraph extends CallGraph
+{
+    private final MethodOrMethodContext[] methods;
+    private final Unit[] units;
+    private final Kind[] kinds;
+    /** The edges out of method number m are the edges numbered from
+     * srcStart[m] up to srcStart[m+1]. */
+    private final int[] srcStart;
+    /** The number of the call site of each edge, or -1 if it has none. */
+    private final int[] edgeUnit;
+    private final int[] edgeTgt;
+    private final byte[] edgeKind;
+    /** The numbers of the edges out of call site number u are
+     * unitEdges[unitStart[u]] up to unitEdges[unitStart[u+1]-1]. */
+    private final int[] unitStart;
+    private final int[] unitEdges;
+    /** The numbers of the edges into method number m are
+     * tgtEdges[tgtStart[m]] up to tgtEdges[tgtStart[m+1]-1]. */
+    private final int[] tgtStart;
+    private final int[] tgtEdges;
+    private final NumberTable methodNumbers;
+    private final NumberTable unitNumbers;
+
+    /** Makes a compact copy of the edges now in cg. */
+    public CompactCallGraph( CallGraph cg ) {
+        Map<MethodOrMethodContext, Integer> methodToNumber =
+            new HashMap<MethodOrMethodContext, Integer>();
+        Map<Unit, Integer> unitToNumber = new HashMap<Unit, Integer>();
+        List<MethodOrMethodContext> methodList = new ArrayList<MethodOrMethodContext>();
+        List<Unit> unitList = new ArrayList<Unit>();
+        List<MethodOrMethodContext> sources = new ArrayList<MethodOrMethodContext>();
+        for( Iterator<MethodOrMethodContext> mIt = cg.sourceMethods(); mIt.hasNext(); ) {
+            final MethodOrMethodContext m = mIt.next();
+            if( m != null ) sources.add( m );
+        }
+        for (MethodOrMethodContext m : sources) number( m, methodToNumber, methodList );
+
+        // The kinds are numbered here rather than by the Scene's
+        // kindNumberer, which does not number the reflection kinds, and is
+        // empty in a Scene made after G.reset(), since the kinds keep the
+        // numbers the first Scene gave them.
+        Map<Kind, Integer> kindToNumber = new HashMap<Kind, Integer>();
+        List<Kind> kindList = new ArrayList<Kind>();
+
+        int edgeCount = 0;
+        for (MethodOrMethodContext m : sources) {
+            for( Iterator<Edge> eIt = cg.edgesOutOf( m ); eIt.hasNext(); ) {
+                eIt.next();
+                edgeCount++;
+            }
+        }
+        edgeUnit = new int[edgeCount];
+        edgeTgt = new int[edgeCount];
+        edgeKind = new byte[edgeCount];
+        int edge = 0;
+        int[] starts = new int[ sources.size() ];
+        for (MethodOrMethodContext m : sources) {
+            starts[ methodToNumber.get( m ).intValue() ] = edge;
+            for( Iterator<Edge> eIt = cg.edgesOutOf( m ); eIt.hasNext(); ) {
+                final Edge e = eIt.next();
+                Unit u = e.srcUnit();
+                if( u == null ) {
+                    edgeUnit[edge] = -1;
+                } else {
+                    Integer n = unitToNumber.get( u );
+                    if( n == null ) {
+                        n = new Integer( unitList.size() );
+                        unitToNumber.put( u, n );
+                        unitList.add( u );
+                    }
+                    edgeUnit[edge] = n.intValue();
+                }
+                edgeTgt[edge] = number( e.getTgt(), methodToNumber, methodList );
+                Integer k = kindToNumber.get( e.kind() );
+                if( k == null ) {
+                    k = new Integer( kindList.size() );
+                    kindToNumber.put( e.kind(), k );
+                    kindList.add( e.kind() );
+                }
+                edgeKind[edge] = k.byteValue();
+                edge++;
+            }
+        }
+        methods = methodList.toArray( new MethodOrMethodContext[ methodList.size() ] );
+        units = unitList.toArray( new Unit[ unitList.size() ] );
+        kinds = kindList.toArray( new Kind[ kindList.size() ] );
+
+        // The sources were numbered first; the other methods have no edges
+        // out of them.
+        srcStart = new int[ methods.length + 1 ];
+        System.arraycopy( starts, 0, srcStart, 0, sources.size() );
+        for( int m = sources.size(); m <= methods.length; m++ ) {
+            srcStart[m] = edgeCount;
+        }
+
+        unitStart = new int[ units.length + 1 ];
+        unitEdges = invert( edgeUnit, unitStart );
+        tgtStart = new int[ methods.length + 1 ];
+        tgtEdges = invert( edgeTgt, tgtStart );
+        methodNumbers = new NumberTable( methodToNumber );
+        unitNumbers = new NumberTable( unitToNumber );
+    }
+
+    /** Returns the number of m, numbering it if it has none yet. */
+    private static int number( MethodOrMethodContext m,
+            Map<MethodOrMethodContext, Integer> methodToNumber,
+            List<MethodOrMethodContext> methodList ) {
+        Integer n = methodToNumber.get( m );
+        if( n == null ) {
+            n = new Integer( methodList.size() );
+            methodToNumber.put( m, n );
+            methodList.add( m );
+        }
+        return n.intValue();
+    }
+
+    /** Groups the edges by the numbers in keys, which are -1 or less than
+     * starts.length - 1, filling in starts and returning the edge numbers
+     * in order of their keys. */
+    private static int[] invert( int[] keys, int[] starts ) {
+        int count = 0;
+        for (int key : keys) {
+            if( key < 0 ) continue;
+            starts[key+1]++;
+            count++;
+        }
+        for( int i = 1; i < starts.length; i++ ) starts[i] += starts[i-1];
+        int[] ret = new int[count];
+        int[] next = new int[ starts.length - 1 ];
+        System.arraycopy( starts, 0, next, 0, next.length );
+        for( int edge = 0; edge < keys.length; edge++ ) {
+            int key = keys[edge];
+            if( key < 0 ) continue;
+            ret[ next[key]++ ] = edge;
+        }
+        return ret;
+    }
+
+    /** Returns the number of the source method of edge. */
+    private int sourceOf( int edge ) {
+        int lo = 0;
+        int hi = methods.length - 1;
+        while( lo < hi ) {
+            int mid = ( lo + hi + 1 ) >>> 1;
+            if( srcStart[mid] <= edge ) lo = mid; else hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private Edge edge( int src, int edge ) {
+        int u = edgeUnit[edge];
+        return new Edge( methods[src], u < 0 ? null : units[u],
+                methods[ edgeTgt[edge] ], kinds[ edgeKind[edge] ] );
+    }
+
+    /** An open addressing hash table from objects to their numbers, which
+     * takes less memory than a HashMap of Integers. */
+    private static final class NumberTable {
+        private final Object[] keys;
+        private final int[] numbers;
+        NumberTable( Map<? extends Object, Integer> map ) {
+            int capacity = Integer.highestOneBit( map.size() * 2 + 1 ) * 2;
+            keys = new Object[capacity];
+            numbers = new int[capacity];
+            for (Map.Entry<? extends Object, Integer> e : map.entrySet()) {
+                int i = slot( e.getKey() );
+                keys[i] = e.getKey();
+                numbers[i] = e.getValue().intValue();
+            }
+        }
+        /** Returns the slot of key, or the empty slot where it belongs. */
+        private int slot( Object key ) {
+            int mask = keys.length - 1;
+            int i = ( key.hashCode() * 0x9E3779B9 ) >>> 7 & mask;
+            while( keys[i] != null && !keys[i].equals( key ) ) i = ( i + 1 ) & mask;
+            return i;
+        }
+        /** Returns the number of key, or -1 if it has none. */
+        int get( Object key ) {
+            int i = slot( key );
+            return keys[i] == null ? -1 : numbers[i];
+        }
+    }
+
+    /** Throws UnsupportedOperationException, since the graph cannot be
+     * changed. */
+    public boolean addEdge( Edge e ) {
+        throw new UnsupportedOperationException(
+                "CompactCallGraph cannot be changed; run without cg compact:true" );
+    }
+    /** Throws UnsupportedOperationException, since the graph cannot be
+     * changed. */
+    public boolean removeEdge( Edge e ) {
+        throw new UnsupportedOperationException(
+                "CompactCallGraph cannot be changed; run without cg compact:true" );
+    }
+
+    public boolean isEntryMethod( SootMethod method ) {
+        int m = methodNumbers.get( method );
+        return m < 0 || tgtStart[m] == tgtStart[m+1];
+    }
+
+    public Edge findEdge( Unit u, SootMethod callee ) {
+        for( Iterator<Edge> eIt = edgesOutOf( u ); eIt.hasNext(); ) {
+            final Edge e = eIt.next();
+            if( e.tgt() == callee ) return e;
+        }
+        return null;
+    }
+
+    public Iterator<MethodOrMethodContext> sourceMethods() {
+        return new Iterator<MethodOrMethodContext>() {
+            private int m = advance( 0 );
+            private int advance( int m ) {
+                while( m < methods.length && srcStart[m] == srcStart[m+1] ) m++;
+                return m;
+            }
+            public boolean hasNext() { return m < methods.length; }
+            public MethodOrMethodContext next() {
+                if( !hasNext() ) throw new NoSuchElementException();
+                MethodOrMethodContext ret = methods[m];
+                m = advance( m + 1 );
+                return ret;
+            }
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public Iterator<Edge> edgesOutOf( Unit u ) {
+        if( u == null ) throw new RuntimeException();
+        int n = unitNumbers.get( u );
+        if( n < 0 ) return Collections.<Edge>emptyList().iterator();
+        return new EdgeIterator( unitEdges, unitStart[n], unitStart[n+1], -1 );
+    }
+
+    public Iterator<Edge> edgesOutOf( MethodOrMethodContext m ) {
+        if( m == null ) throw new RuntimeException();
+        int n = methodNumbers.get( m );
+        if( n < 0 ) return Collections.<Edge>emptyList().iterator();
+        return new EdgeIterator( null, srcStart[n], srcStart[n+1], n );
+    }
+
+    public Iterator<Edge> edgesInto( MethodOrMethodContext m ) {
+        if( m == null ) throw new RuntimeException();
+        int n = methodNumbers.get( m );
+        if( n < 0 ) return Collections.<Edge>emptyList().iterator();
+        return new EdgeIterator( tgtEdges, tgtStart[n], tgtStart[n+1], -1 );
+    }
+
+    /** Iterates over the edges numbered edges[from] up to edges[to-1], or
+     * from up to to-1 if edges is null, whose source method is src, or
+     * must be looked up if src is -1. */
+    private class EdgeIterator implements Iterator<Edge> {
+        private final int[] edges;
+        private int next;
+        private final int to;
+        private final int src;
+        EdgeIterator( int[] edges, int from, int to, int src ) {
+            this.edges = edges;
+            this.next = from;
+            this.to = to;
+            this.src = src;
+        }
+        public boolean hasNext() { return next < to; }
+        public Edge next() {
+            if( next >= to ) throw new NoSuchElementException();
+            int edge = edges == null ? next : edges[next];
+            next++;
+            return edge( src < 0 ? sourceOf( edge ) : src, edge );
+        }
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** Returns a QueueReader object containing all edges. Since the graph
+     * cannot be changed, no edges are added to it later. This makes
+     * Edge objects for all edges at once. Unlike the listener of a
+     * CallGraph, it does not hold edges removed before the graph was
+     * compacted. */
+    public QueueReader<Edge> listener() {
+        ChunkedQueue<Edge> edges = new ChunkedQueue<Edge>();
+        QueueReader<Edge> ret = edges.reader();
+        for( int m = 0; m < methods.length; m++ ) {
+            for( int edge = srcStart[m]; edge < srcStart[m+1]; edge++ ) {
+                edges.add( edge( m, edge ) );
+            }
+        }
+        return ret;
+    }
+    /** Returns a QueueReader object that will never contain any edges,
+     * since the graph cannot be changed. */
+    public QueueReader<Edge> newListener() {
+        return new ChunkedQueue<Edge>().reader();
+    }
+    public int size() {
+        return edgeTgt.length;
+    }
+}
@@ -427,6 +427,27 @@ public final class OnFlyCallGraphBuilder
             processNewMethodContext( momc );
         }
     }
+    /** Forgets the call sites found in the old body of m and, if m has
+     * been processed, processes its current body. The call edges out of
+     * m must have been removed from the call graph. */
+    public void methodChanged( SootMethod m ) {
+        List<Local> receivers = (List<Local>) methodToReceivers.get(m);
+        if( receivers != null ) {
+            for (Local receiver : receivers) receiverToSites.put(receiver, null);
+            methodToReceivers.put(m, null);
+        }
+        List<Local> stringConstants = (List<Local>) methodToStringConstants.get(m);
+        if( stringConstants != null ) {
+            for (Local constant : stringConstants) stringConstToSites.put(constant, null);
+            methodToStringConstants.put(m, null);
+        }
+        List<Edge> edges = new ArrayList<Edge>();
+        for( Iterator<Edge> eIt = cicg.edgesOutOf(m); eIt.hasNext(); ) edges.add(eIt.next());
+        for (Edge e : edges) cicg.removeEdge(e);
+        if( !analyzedMethods.contains( m ) ) return;
+        processNewMethod( m );
+        processNewMethodContext( m );
+    }
     public boolean wantTypes( Local receiver ) {
         return receiverToSites.get(receiver) != null;
     }
@@ -0,0 +1,410 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.callgraph;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.toolkits.pointer.DumbPointerAnalysis;
+import soot.jimple.toolkits.pointer.FullObjectSet;
+import soot.options.CGOptions;
+import soot.toolkits.exceptions.ThrowableSet;
+import soot.util.NumberedString;
+import soot.util.queue.*;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Builds the call graph that CallGraphBuilder builds with the
+ * DumbPointerAnalysis, on several threads. The methods are processed in
+ * rounds: the methods that became reachable in the previous round are
+ * scanned on the worker threads, which find their implicit calls and
+ * resolve their virtual calls. The edges are then added to the call graph
+ * on the calling thread, method by method, in the order in which the
+ * methods became reachable, so the call graph does not depend on the
+ * number of threads or on how the work was scheduled. The bodies of the
+ * methods are retrieved on the calling thread too, as are the calls whose
+ * handling resolves method references or changes the Scene, that is
+ * static and special invokes and reflective calls.
+ * <p>
+ * The call graph is the same for any number of threads, but it may have
+ * a few edges that CallGraphBuilder's does not. VirtualCalls.v() leaves
+ * out the methods of an abstract receiver type the first time it resolves
+ * a call on some subtype of it, and includes them from then on; they are
+ * always included here. With phantom refs, methods are added to phantom
+ * classes as bodies are built, and the virtual calls resolved before and
+ * after that may differ; bodies are retrieved in a different order here.
+ */
+public final class ParallelCHABuilder
+{
+    private final int numThreads;
+    private final CGOptions options = new CGOptions( PhaseOptions.v().getPhaseOptions("cg") );
+    private final PointsToAnalysis pa = DumbPointerAnalysis.v();
+    private CallGraph cg;
+    private ExecutorService executor;
+
+    public ParallelCHABuilder( int numThreads ) {
+        this.numThreads = numThreads;
+    }
+
+    /** Builds the call graph, and makes it the call graph of the Scene. */
+    public void build() {
+        cg = new CallGraph();
+        Scene.v().setCallGraph( cg );
+        ReachableMethods reachables = Scene.v().getReachableMethods();
+        if( !options.verbose() ) {
+            G.v().out.println( "[Call Graph] For information on where the call graph may be incomplete, use the verbose option to the cg phase." );
+        }
+        // Create the shared structures up front, rather than having the
+        // workers race to create them lazily.
+        Scene.v().getOrMakeFastHierarchy();
+        ThrowableSet.Manager.v();
+        FullObjectSet.v();
+
+        if( numThreads > 1 ) executor = Executors.newFixedThreadPool( numThreads );
+        try {
+            Set<SootMethod> analyzedMethods = new HashSet<SootMethod>();
+            QueueReader<MethodOrMethodContext> worklist = reachables.listener();
+            while( true ) {
+                reachables.update();
+                List<SootMethod> round = new ArrayList<SootMethod>();
+                while( worklist.hasNext() ) {
+                    SootMethod m = worklist.next().method();
+                    if( analyzedMethods.add( m ) ) round.add( m );
+                }
+                if( round.isEmpty() ) break;
+                // Constructing a body may resolve classes and add phantom
+                // methods to them, so it is done here rather than on the
+                // workers, which read the classes.
+                for (SootMethod m : round) {
+                    if( !m.isNative() && !m.isPhantom() ) m.retrieveActiveBody();
+                }
+                List<List<Object>> calls = scan( round );
+                for( int i = 0; i < round.size(); i++ ) {
+                    addCalls( round.get( i ), calls.get( i ) );
+                }
+            }
+        } finally {
+            if( executor != null ) executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /* End of public methods. */
+    /* End of package methods. */
+
+    /** The fewest methods worth handing to a worker thread. */
+    private static final int MIN_CHUNK_SIZE = 16;
+
+    /** Scans the methods, returning the calls of each, in order. */
+    private List<List<Object>> scan( List<SootMethod> methods ) {
+        int chunks = numThreads * 4;
+        int chunkSize = Math.max( MIN_CHUNK_SIZE, ( methods.size() + chunks - 1 ) / chunks );
+        if( executor == null || methods.size() <= chunkSize ) {
+            return scanAll( methods );
+        }
+        List<Future<List<List<Object>>>> tasks = new ArrayList<Future<List<List<Object>>>>();
+        for( int start = 0; start < methods.size(); start += chunkSize ) {
+            final List<SootMethod> chunk = methods.subList( start,
+                    Math.min( start + chunkSize, methods.size() ) );
+            tasks.add( executor.submit( new Callable<List<List<Object>>>() {
+                public List<List<Object>> call() {
+                    return scanAll( chunk );
+                }
+            } ) );
+        }
+        List<List<Object>> ret = new ArrayList<List<Object>>( methods.size() );
+        for( Future<List<List<Object>>> task : tasks ) {
+            try {
+                ret.addAll( task.get() );
+            } catch( ExecutionException e ) {
+                Throwable cause = e.getCause();
+                if( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+                if( cause instanceof Error ) throw (Error) cause;
+                throw new RuntimeException( cause );
+            } catch( InterruptedException e ) {
+                throw new RuntimeException( "Interrupted while waiting for worker threads", e );
+            }
+        }
+        return ret;
+    }
+
+    /** Scans the methods with a VirtualCalls of their own. Its caches do
+     * not outlive the round, during which no methods are added to the
+     * classes, so the targets found do not depend on the chunks. */
+    private List<List<Object>> scanAll( List<SootMethod> methods ) {
+        VirtualCalls vc = new VirtualCalls();
+        List<List<Object>> ret = new ArrayList<List<Object>>( methods.size() );
+        for (SootMethod m : methods) ret.add( scan( m, vc ) );
+        return ret;
+    }
+
+    /** Returns the calls out of m, as Edges, and as the Stmts whose calls
+     * have to be found on the calling thread. */
+    private List<Object> scan( SootMethod m, VirtualCalls vc ) {
+        List<Object> ret = new ArrayList<Object>();
+        if( m.isNative() || m.isPhantom() ) return ret;
+        Body b = m.getActiveBody();
+        if( m.getSubSignature().indexOf( "<init>" ) >= 0 ) {
+            SootClass scl = m.getDeclaringClass();
+            if( scl.declaresMethod( sigFinalize ) ) {
+                ret.add( new Edge( m, null, scl.getMethod( sigFinalize ), Kind.FINALIZE ) );
+            }
+        }
+        for( Iterator sIt = b.getUnits().iterator(); sIt.hasNext(); ) {
+            final Stmt s = (Stmt) sIt.next();
+            if( s.containsInvokeExpr() ) {
+                InvokeExpr ie = s.getInvokeExpr();
+                if( ie instanceof StaticInvokeExpr ) {
+                    addClinits( m, s, ie.getMethodRef().declaringClass(), ret );
+                }
+            }
+            if( s.containsFieldRef() ) {
+                FieldRef fr = s.getFieldRef();
+                if( fr instanceof StaticFieldRef ) {
+                    addClinits( m, s, fr.getFieldRef().declaringClass(), ret );
+                }
+            }
+            if( s instanceof AssignStmt ) {
+                Value rhs = ((AssignStmt)s).getRightOp();
+                if( rhs instanceof NewExpr ) {
+                    addClinits( m, s, ((NewExpr) rhs).getBaseType().getSootClass(), ret );
+                } else if( rhs instanceof NewArrayExpr || rhs instanceof NewMultiArrayExpr ) {
+                    Type t = rhs.getType();
+                    if( t instanceof ArrayType ) t = ((ArrayType)t).baseType;
+                    if( t instanceof RefType ) {
+                        addClinits( m, s, ((RefType) t).getSootClass(), ret );
+                    }
+                }
+            }
+        }
+        for( Iterator sIt = b.getUnits().iterator(); sIt.hasNext(); ) {
+            final Stmt s = (Stmt) sIt.next();
+            if( !s.containsInvokeExpr() ) continue;
+            InvokeExpr ie = s.getInvokeExpr();
+            if( ie instanceof StaticInvokeExpr || ie instanceof SpecialInvokeExpr
+                    || isReflective( ie ) ) {
+                ret.add( s );
+            }
+            if( ie instanceof InstanceInvokeExpr ) {
+                InstanceInvokeExpr iie = (InstanceInvokeExpr) ie;
+                Local receiver = (Local) iie.getBase();
+                NumberedString subSig = iie.getMethodRef().getSubSignature();
+                if( !( iie instanceof SpecialInvokeExpr ) ) {
+                    addVirtualEdges( m, s, receiver, subSig, Edge.ieToKind( iie ), vc, ret );
+                }
+                if( subSig == sigStart ) {
+                    addVirtualEdges( m, s, receiver, sigRun, Kind.THREAD, vc, ret );
+                }
+            }
+        }
+        return ret;
+    }
+
+    private void addClinits( SootMethod m, Stmt s, SootClass cl, List<Object> ret ) {
+        for (SootMethod clinit : EntryPoints.v().clinitsOf( cl )) {
+            ret.add( new Edge( m, s, clinit, Kind.CLINIT ) );
+        }
+    }
+
+    /** Adds the edges from the call site s in m to the methods it may
+     * call on the objects that receiver may point to. */
+    private void addVirtualEdges( SootMethod m, Stmt s, Local receiver,
+            NumberedString subSig, Kind kind, VirtualCalls vc, List<Object> ret ) {
+        FastHierarchy fh = Scene.v().getOrMakeFastHierarchy();
+        ChunkedQueue<SootMethod> targetsQueue = new ChunkedQueue<SootMethod>();
+        QueueReader<SootMethod> targets = targetsQueue.reader();
+        for( Iterator typeIt = pa.reachingObjects( receiver ).possibleTypes().iterator(); typeIt.hasNext(); ) {
+            final Type type = (Type) typeIt.next();
+            if( kind == Kind.THREAD && !fh.canStoreType( type, clRunnable ) ) continue;
+            // Whether vc would resolve the call on the base type itself
+            // depends on the calls it resolved before, so do it here.
+            if( type instanceof AnySubType ) {
+                vc.resolve( ((AnySubType) type).getBase(), receiver.getType(),
+                        subSig, m, targetsQueue );
+            }
+            vc.resolve( type, receiver.getType(), subSig, m, targetsQueue );
+            while( targets.hasNext() ) {
+                ret.add( new Edge( m, s, targets.next(), kind ) );
+            }
+        }
+    }
+
+    private boolean isReflective( InvokeExpr ie ) {
+        SootMethodRef ref = ie.getMethodRef();
+        if( ref.getSubSignature() == sigForName ) return true;
+        String sig = ref.getSignature();
+        return sig.equals( "<java.lang.reflect.Method: java.lang.Object invoke(java.lang.Object,java.lang.Object[])>" )
+            || sig.equals( "<java.lang.Class: java.lang.Object newInstance()>" )
+            || sig.equals( "<java.lang.reflect.Constructor: java.lang.Object newInstance(java.lang.Object[])>" );
+    }
+
+    /** Adds the calls of m found by scan to the call graph. */
+    private void addCalls( SootMethod m, List<Object> calls ) {
+        for (Object call : calls) {
+            if( call instanceof Edge ) cg.addEdge( (Edge) call );
+            else addCalls( m, (Stmt) call );
+        }
+    }
+
+    /** Adds the edges of the call at s in m that scan left to the calling
+     * thread, as OnFlyCallGraphBuilder and its DefaultReflectionModel
+     * do. */
+    private void addCalls( SootMethod m, Stmt s ) {
+        InvokeExpr ie = s.getInvokeExpr();
+        String sig = ie.getMethodRef().getSignature();
+        if( sig.equals( "<java.lang.reflect.Method: java.lang.Object invoke(java.lang.Object,java.lang.Object[])>" ) ) {
+            if( options.verbose() && warnedAlready.add( m ) ) {
+                G.v().out.println( "Warning: call to "+
+                        "java.lang.reflect.Method: invoke() from "+m+
+                        "; graph will be incomplete!" );
+            }
+        }
+        if( sig.equals( "<java.lang.Class: java.lang.Object newInstance()>" ) ) {
+            if( options.safe_newinstance() ) {
+                for (SootMethod tgt : EntryPoints.v().inits()) {
+                    addEdge( m, s, tgt, Kind.NEWINSTANCE );
+                }
+            } else {
+                for (SootClass cls : Scene.v().dynamicClasses()) {
+                    if( cls.declaresMethod( sigInit ) ) {
+                        addEdge( m, s, cls.getMethod( sigInit ), Kind.NEWINSTANCE );
+                    }
+                }
+                if( options.verbose() ) {
+                    G.v().out.println( "Warning: Method "+m+
+                            " is reachable, and calls Class.newInstance;"+
+                            " graph will be incomplete!"+
+                            " Use safe-newinstance option for a conservative result." );
+                }
+            }
+        }
+        if( sig.equals( "<java.lang.reflect.Constructor: java.lang.Object newInstance(java.lang.Object[])>" ) ) {
+            if( options.safe_newinstance() ) {
+                for (SootMethod tgt : EntryPoints.v().allInits()) {
+                    addEdge( m, s, tgt, Kind.NEWINSTANCE );
+                }
+            } else {
+                for (SootClass cls : Scene.v().dynamicClasses()) {
+                    for (SootMethod init : cls.getMethods()) {
+                        if( init.getName().equals( "<init>" ) ) {
+                            addEdge( m, s, init, Kind.NEWINSTANCE );
+                        }
+                    }
+                }
+                if( options.verbose() ) {
+                    G.v().out.println( "Warning: Method "+m+
+                            " is reachable, and calls Constructor.newInstance;"+
+                            " graph will be incomplete!"+
+                            " Use safe-newinstance option for a conservative result." );
+                }
+            }
+        }
+        if( ie.getMethodRef().getSubSignature() == sigForName ) {
+            classForName( m, s );
+        }
+
+        if( ie instanceof StaticInvokeExpr ) {
+            SootMethod tgt = ie.getMethod();
+            addEdge( m, s, tgt, Kind.STATIC );
+            if( tgt.getSignature().equals( "<java.security.AccessController: java.lang.Object doPrivileged(java.security.PrivilegedAction)>" )
+                    || tgt.getSignature().equals( "<java.security.AccessController: java.lang.Object doPrivileged(java.security.PrivilegedExceptionAction)>" )
+                    || tgt.getSignature().equals( "<java.security.AccessController: java.lang.Object doPrivileged(java.security.PrivilegedAction,java.security.AccessControlContext)>" )
+                    || tgt.getSignature().equals( "<java.security.AccessController: java.lang.Object doPrivileged(java.security.PrivilegedExceptionAction,java.security.AccessControlContext)>" ) ) {
+                List<Object> edges = new ArrayList<Object>();
+                addVirtualEdges( m, s, (Local) ie.getArg( 0 ), sigObjRun,
+                        Kind.PRIVILEGED, VirtualCalls.v(), edges );
+                addCalls( m, edges );
+            }
+        } else if( ie instanceof SpecialInvokeExpr ) {
+            SpecialInvokeExpr sie = (SpecialInvokeExpr) ie;
+            SootMethod tgt = VirtualCalls.v().resolveSpecial( sie,
+                    sie.getMethodRef().getSubSignature(), m );
+            // The target is null if it is in a phantom class.
+            if( tgt != null ) addEdge( m, s, tgt, Kind.SPECIAL );
+        }
+    }
+
+    private void classForName( SootMethod m, Stmt s ) {
+        Value className = s.getInvokeExpr().getArg( 0 );
+        if( className instanceof StringConstant ) {
+            constantForName( ((StringConstant) className).value, m, s );
+        } else if( options.safe_forname() ) {
+            for (SootMethod tgt : EntryPoints.v().clinits()) {
+                addEdge( m, s, tgt, Kind.CLINIT );
+            }
+        } else {
+            for (SootClass cls : Scene.v().dynamicClasses()) {
+                for (SootMethod clinit : EntryPoints.v().clinitsOf( cls )) {
+                    addEdge( m, s, clinit, Kind.CLINIT );
+                }
+            }
+            if( options.verbose() ) {
+                G.v().out.println( "Warning: Method "+m+
+                        " is reachable, and calls Class.forName on a"+
+                        " non-constant String; graph will be incomplete!"+
+                        " Use safe-forname option for a conservative result." );
+            }
+        }
+    }
+
+    private void constantForName( String cls, SootMethod m, Stmt s ) {
+        if( cls.length() > 0 && cls.charAt(0) == '[' ) {
+            if( cls.length() > 1 && cls.charAt(1) == 'L' && cls.charAt(cls.length()-1) == ';' ) {
+                constantForName( cls.substring(2,cls.length()-1), m, s );
+            }
+        } else if( !Scene.v().containsClass( cls ) ) {
+            if( options.verbose() ) {
+                G.v().out.println( "Warning: Class "+cls+" is"+
+                        " a dynamic class, and you did not specify"+
+                        " it as such; graph will be incomplete!" );
+            }
+        } else {
+            SootClass sootcls = Scene.v().getSootClass( cls );
+            if( !sootcls.isApplicationClass() ) {
+                sootcls.setLibraryClass();
+            }
+            for (SootMethod clinit : EntryPoints.v().clinitsOf( sootcls )) {
+                addEdge( m, s, clinit, Kind.CLINIT );
+            }
+        }
+    }
+
+    private void addEdge( SootMethod src, Stmt stmt, SootMethod tgt, Kind kind ) {
+        cg.addEdge( new Edge( src, stmt, tgt, kind ) );
+    }
+
+    private final Set<SootMethod> warnedAlready = new HashSet<SootMethod>();
+
+    private final NumberedString sigFinalize = Scene.v().getSubSigNumberer().
+        findOrAdd( "void finalize()" );
+    private final NumberedString sigInit = Scene.v().getSubSigNumberer().
+        findOrAdd( "void <init>()" );
+    private final NumberedString sigStart = Scene.v().getSubSigNumberer().
+        findOrAdd( "void start()" );
+    private final NumberedString sigRun = Scene.v().getSubSigNumberer().
+        findOrAdd( "void run()" );
+    private final NumberedString sigObjRun = Scene.v().getSubSigNumberer().
+        findOrAdd( "java.lang.Object run()" );
+    private final NumberedString sigForName = Scene.v().getSubSigNumberer().
+        findOrAdd( "java.lang.Class forName(java.lang.String)" );
+    private final RefType clRunnable = RefType.v("java.lang.Runnable");
+}
@@ -31,6 +31,9 @@ public final class VirtualCalls
 { 
     public VirtualCalls( Singletons.Global g ) {}
     public static VirtualCalls v() { return G.v().soot_jimple_toolkits_callgraph_VirtualCalls(); }
+    /** Makes a VirtualCalls with caches of its own, for resolving calls
+     * on a thread other than the one using v(). */
+    public VirtualCalls() {}
 
     private final LargeNumberedMap typeToVtbl =
         new LargeNumberedMap( Scene.v().getTypeNumberer() );
@@ -0,0 +1,47 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import java.util.*;
+
+/** The reverse of an interprocedural control flow graph, in which the
+ * executions of methods start at their exit points, and calls return to
+ * the predecessors of the call site. Solving an IFDS problem on it
+ * gives a backward analysis.
+ */
+public class BackwardsInterproceduralCFG<N,M> implements InterproceduralCFG<N,M>
+{
+    private final InterproceduralCFG<N,M> delegate;
+
+    public BackwardsInterproceduralCFG( InterproceduralCFG<N,M> delegate ) {
+        this.delegate = delegate;
+    }
+
+    public M getMethodOf( N n ) { return delegate.getMethodOf( n ); }
+    public List<N> getSuccsOf( N n ) { return delegate.getPredsOf( n ); }
+    public List<N> getPredsOf( N n ) { return delegate.getSuccsOf( n ); }
+    public Collection<M> getCalleesOfCallAt( N n ) { return delegate.getCalleesOfCallAt( n ); }
+    public Collection<N> getCallersOf( M m ) { return delegate.getCallersOf( m ); }
+    public Collection<N> getStartPointsOf( M m ) { return delegate.getExitPointsOf( m ); }
+    public Collection<N> getExitPointsOf( M m ) { return delegate.getStartPointsOf( m ); }
+    public List<N> getReturnSitesOfCallAt( N n ) { return delegate.getPredsOf( n ); }
+    public boolean isCallStmt( N n ) { return delegate.isCallStmt( n ); }
+    public boolean isExitStmt( N n ) { return delegate.isStartPoint( n ); }
+    public boolean isStartPoint( N n ) { return delegate.isExitStmt( n ); }
+}
@@ -0,0 +1,62 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import soot.*;
+import java.util.*;
+
+/** A base class for IFDS problems on Jimple. The initial seeds are the
+ * start points of the entry points of the Scene.
+ */
+public abstract class DefaultJimpleIFDSTabulationProblem<D> implements IFDSTabulationProblem<Unit,D,SootMethod>
+{
+    private final InterproceduralCFG<Unit,SootMethod> icfg;
+    private FlowFunctions<Unit,D,SootMethod> flowFunctions;
+    private D zeroValue;
+
+    public DefaultJimpleIFDSTabulationProblem( InterproceduralCFG<Unit,SootMethod> icfg ) {
+        this.icfg = icfg;
+    }
+
+    protected abstract FlowFunctions<Unit,D,SootMethod> createFlowFunctions();
+
+    protected abstract D createZeroValue();
+
+    public final synchronized FlowFunctions<Unit,D,SootMethod> flowFunctions() {
+        if( flowFunctions == null ) flowFunctions = createFlowFunctions();
+        return flowFunctions;
+    }
+
+    public final synchronized D zeroValue() {
+        if( zeroValue == null ) zeroValue = createZeroValue();
+        return zeroValue;
+    }
+
+    public InterproceduralCFG<Unit,SootMethod> interproceduralCFG() {
+        return icfg;
+    }
+
+    public Set<Unit> initialSeeds() {
+        Set<Unit> ret = new LinkedHashSet<Unit>();
+        for( SootMethod m : Scene.v().getEntryPoints() ) {
+            if( m.hasActiveBody() ) ret.addAll( icfg.getStartPointsOf( m ) );
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,32 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import java.util.*;
+
+/** The flow function of an IFDS problem for one edge of the
+ * interprocedural control flow graph. It maps a fact holding before the
+ * edge to the facts holding after it.
+ */
+public interface FlowFunction<D>
+{
+    /** Returns the facts that hold after the edge if source holds before
+     * it. */
+    public Set<D> computeTargets( D source );
+}
@@ -0,0 +1,48 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+
+/** Gives the flow functions of an IFDS problem for the edges of the
+ * interprocedural control flow graph. The IFDSSolver always propagates
+ * the zero value along every edge it reaches, whatever the flow functions
+ * return for it. The solver may call these methods and the flow functions
+ * they return from several threads at once.
+ */
+public interface FlowFunctions<N,D,M>
+{
+    /** Returns the flow function from curr to its successor succ, where
+     * curr is not a call. */
+    public FlowFunction<D> getNormalFlowFunction( N curr, N succ );
+
+    /** Returns the flow function from the call site callStmt to the start
+     * points of the callee destinationMethod. It maps the facts of the
+     * caller to facts of the callee. */
+    public FlowFunction<D> getCallFlowFunction( N callStmt, M destinationMethod );
+
+    /** Returns the flow function from the exit point exitStmt of the
+     * callee calleeMethod to the return site returnSite of callSite. It
+     * maps the facts of the callee to facts of the caller. */
+    public FlowFunction<D> getReturnFlowFunction( N callSite, M calleeMethod, N exitStmt, N returnSite );
+
+    /** Returns the flow function from callSite to its return site
+     * returnSite, which carries the facts of the caller that are not
+     * passed to the callees. */
+    public FlowFunction<D> getCallToReturnFlowFunction( N callSite, N returnSite );
+}
@@ -0,0 +1,276 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import soot.*;
+import soot.toolkits.scalar.Pair;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Solves an IFDS problem with the tabulation algorithm of Reps, Horwitz
+ * and Sagiv, extended as in "Practical Extensions to the IFDS Algorithm"
+ * by Naeem, Lhotak and Rodriguez so that the callees are only analysed
+ * for the facts that reach their calls.
+ * <p>
+ * With more than one thread, each new path edge is processed by a task
+ * of a thread pool, so path edges are processed concurrently. The path
+ * edges, the end summaries of the methods and the call sites that reach
+ * them are kept in tables that can be updated from several threads; the
+ * end summaries and incoming call sites of each method and start fact
+ * are updated under a common lock, so that a call that reaches a method
+ * while the method returns sees the return, or the return sees the call.
+ * The results do not depend on the number of threads.
+ */
+public class IFDSSolver<N,D,M>
+{
+    private final FlowFunctions<N,D,M> flowFunctions;
+    private final InterproceduralCFG<N,M> icfg;
+    private final Set<N> initialSeeds;
+    private final D zeroValue;
+    private final int numThreads;
+
+    private final JumpFunctions<N,D> jumpFn = new JumpFunctions<N,D>();
+    private final ConcurrentHashMap<Pair<M,D>,Summary> summaries =
+        new ConcurrentHashMap<Pair<M,D>,Summary>();
+
+    private ExecutorService executor;
+    private final LinkedList<PathEdge> worklist = new LinkedList<PathEdge>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong propagationCount = new AtomicLong();
+    private volatile Throwable failure;
+
+    /** Creates a solver that uses -num-threads threads. */
+    public IFDSSolver( IFDSTabulationProblem<N,D,M> problem ) {
+        this( problem, soot.options.Options.v().num_threads() );
+    }
+
+    public IFDSSolver( IFDSTabulationProblem<N,D,M> problem, int numThreads ) {
+        this.flowFunctions = problem.flowFunctions();
+        this.icfg = problem.interproceduralCFG();
+        this.initialSeeds = problem.initialSeeds();
+        this.zeroValue = problem.zeroValue();
+        this.numThreads = numThreads;
+    }
+
+    /** Computes the facts that hold at each node. */
+    public void solve() {
+        if( numThreads > 1 ) executor = Executors.newFixedThreadPool( numThreads );
+        try {
+            for( N seed : initialSeeds ) propagate( zeroValue, seed, zeroValue );
+            if( executor == null ) {
+                while( !worklist.isEmpty() ) process( worklist.removeFirst() );
+            } else {
+                synchronized( pending ) {
+                    while( pending.get() > 0 ) pending.wait();
+                }
+            }
+        } catch( InterruptedException e ) {
+            throw new RuntimeException( e );
+        } finally {
+            if( executor != null ) executor.shutdownNow();
+            executor = null;
+        }
+        if( failure != null ) throw new RuntimeException( "IFDS solver failed", failure );
+    }
+
+    /** Returns the facts that hold before the node n, except the zero
+     * value. */
+    public Set<D> ifdsResultsAt( N n ) {
+        Set<D> ret = jumpFn.factsAt( n );
+        ret.remove( zeroValue );
+        return ret;
+    }
+
+    /** Returns the number of path edges found. */
+    public long getPropagationCount() {
+        return propagationCount.get();
+    }
+
+    /** The incoming call sites and end summaries of a method for a fact
+     * at its start points. */
+    private class Summary {
+        /** Maps the call sites to the facts before them from which the
+         * start fact was reached. */
+        final Map<N,Set<D>> incoming = new HashMap<N,Set<D>>( 4 );
+        /** Maps the exit points to the facts reached there. */
+        final Map<N,Set<D>> endSummary = new HashMap<N,Set<D>>( 4 );
+    }
+
+    private final class PathEdge implements Runnable {
+        final D d1;
+        final N target;
+        final D d2;
+        PathEdge( D d1, N target, D d2 ) {
+            this.d1 = d1; this.target = target; this.d2 = d2;
+        }
+        public void run() {
+            try {
+                if( failure == null ) process( this );
+            } catch( Throwable t ) {
+                failure = t;
+            } finally {
+                if( pending.decrementAndGet() == 0 ) {
+                    synchronized( pending ) {
+                        pending.notifyAll();
+                    }
+                }
+            }
+        }
+    }
+
+    private Summary summary( M m, D d1 ) {
+        Pair<M,D> key = new Pair<M,D>( m, d1 );
+        Summary ret = summaries.get( key );
+        if( ret == null ) {
+            ret = new Summary();
+            Summary old = summaries.putIfAbsent( key, ret );
+            if( old != null ) ret = old;
+        }
+        return ret;
+    }
+
+    private static <N,D> boolean addTo( Map<N,Set<D>> map, N n, D d ) {
+        Set<D> set = map.get( n );
+        if( set == null ) map.put( n, set = new HashSet<D>( 4 ) );
+        return set.add( d );
+    }
+
+    private static <N,D> Map<N,Set<D>> copyOf( Map<N,Set<D>> map ) {
+        Map<N,Set<D>> ret = new HashMap<N,Set<D>>( map.size() * 2 + 1 );
+        for( Map.Entry<N,Set<D>> e : map.entrySet() ) {
+            ret.put( e.getKey(), new HashSet<D>( e.getValue() ) );
+        }
+        return ret;
+    }
+
+    /** Applies the flow function f to the fact d; the zero value always
+     * flows on. */
+    private Set<D> computeTargets( FlowFunction<D> f, D d ) {
+        Set<D> ret = f.computeTargets( d );
+        if( d == zeroValue && !ret.contains( zeroValue ) ) {
+            ret = new HashSet<D>( ret );
+            ret.add( zeroValue );
+        }
+        return ret;
+    }
+
+    private void propagate( D d1, N target, D d2 ) {
+        if( !jumpFn.addFunction( d1, target, d2 ) ) return;
+        propagationCount.incrementAndGet();
+        PathEdge edge = new PathEdge( d1, target, d2 );
+        if( executor == null ) {
+            worklist.add( edge );
+        } else {
+            pending.incrementAndGet();
+            executor.execute( edge );
+        }
+    }
+
+    private void process( PathEdge edge ) {
+        if( icfg.isCallStmt( edge.target ) ) {
+            processCall( edge );
+        } else {
+            if( icfg.isExitStmt( edge.target ) ) processExit( edge );
+            processNormalFlow( edge );
+        }
+    }
+
+    /** Passes the fact d2 at the call site n into each callee, applies the
+     * end summaries already found for the callee, and passes d2 on to the
+     * return sites. */
+    private void processCall( PathEdge edge ) {
+        N n = edge.target;
+        List<N> returnSites = icfg.getReturnSitesOfCallAt( n );
+        for( M callee : icfg.getCalleesOfCallAt( n ) ) {
+            FlowFunction<D> callFlow = flowFunctions.getCallFlowFunction( n, callee );
+            for( D d3 : computeTargets( callFlow, edge.d2 ) ) {
+                for( N sP : icfg.getStartPointsOf( callee ) ) {
+                    propagate( d3, sP, d3 );
+                }
+                Map<N,Set<D>> endSummary;
+                Summary summary = summary( callee, d3 );
+                synchronized( summary ) {
+                    addTo( summary.incoming, n, edge.d2 );
+                    endSummary = copyOf( summary.endSummary );
+                }
+                for( Map.Entry<N,Set<D>> e : endSummary.entrySet() ) {
+                    N eP = e.getKey();
+                    for( N retSite : returnSites ) {
+                        FlowFunction<D> retFlow =
+                            flowFunctions.getReturnFlowFunction( n, callee, eP, retSite );
+                        for( D d4 : e.getValue() ) {
+                            for( D d5 : computeTargets( retFlow, d4 ) ) {
+                                propagate( edge.d1, retSite, d5 );
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        for( N retSite : returnSites ) {
+            FlowFunction<D> callToReturnFlow =
+                flowFunctions.getCallToReturnFlowFunction( n, retSite );
+            for( D d3 : computeTargets( callToReturnFlow, edge.d2 ) ) {
+                propagate( edge.d1, retSite, d3 );
+            }
+        }
+    }
+
+    /** Records the end summary from d1 to d2 at the exit point n, and
+     * passes d2 back to the return sites of the calls that reached d1. */
+    private void processExit( PathEdge edge ) {
+        N n = edge.target;
+        M m = icfg.getMethodOf( n );
+        Map<N,Set<D>> incoming;
+        Summary summary = summary( m, edge.d1 );
+        synchronized( summary ) {
+            if( !addTo( summary.endSummary, n, edge.d2 ) ) return;
+            incoming = copyOf( summary.incoming );
+        }
+        for( Map.Entry<N,Set<D>> e : incoming.entrySet() ) {
+            N c = e.getKey();
+            for( N retSite : icfg.getReturnSitesOfCallAt( c ) ) {
+                FlowFunction<D> retFlow =
+                    flowFunctions.getReturnFlowFunction( c, m, n, retSite );
+                Set<D> targets = computeTargets( retFlow, edge.d2 );
+                for( D d4 : e.getValue() ) {
+                    for( D d3 : jumpFn.sourcesOf( c, d4 ) ) {
+                        for( D d5 : targets ) {
+                            propagate( d3, retSite, d5 );
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void processNormalFlow( PathEdge edge ) {
+        N n = edge.target;
+        for( N succ : icfg.getSuccsOf( n ) ) {
+            FlowFunction<D> flow = flowFunctions.getNormalFlowFunction( n, succ );
+            for( D d3 : computeTargets( flow, edge.d2 ) ) {
+                propagate( edge.d1, succ, d3 );
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import java.util.*;
+
+/** An interprocedural, finite, distributive subset problem, to be solved
+ * by the IFDSSolver.
+ * @param <N> the type of the nodes of the interprocedural control flow graph
+ * @param <D> the type of the dataflow facts
+ * @param <M> the type of the methods
+ */
+public interface IFDSTabulationProblem<N,D,M>
+{
+    public FlowFunctions<N,D,M> flowFunctions();
+
+    public InterproceduralCFG<N,M> interproceduralCFG();
+
+    /** Returns the nodes at which the zero value holds initially. */
+    public Set<N> initialSeeds();
+
+    /** Returns the zero value, the fact that holds on every path reaching
+     * the initial seeds. */
+    public D zeroValue();
+}
@@ -0,0 +1,61 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import java.util.*;
+
+/** An interprocedural control flow graph, whose nodes are the statements
+ * of all methods, connected within a method by its control flow graph and
+ * across methods by the calls. It can be traversed in both directions.
+ * @param <N> the type of the nodes
+ * @param <M> the type of the methods
+ */
+public interface InterproceduralCFG<N,M>
+{
+    /** Returns the method containing the node n. */
+    public M getMethodOf( N n );
+
+    /** Returns the successors of n within its method. */
+    public List<N> getSuccsOf( N n );
+
+    /** Returns the predecessors of n within its method. */
+    public List<N> getPredsOf( N n );
+
+    /** Returns the methods that may be called at the call site n. */
+    public Collection<M> getCalleesOfCallAt( N n );
+
+    /** Returns the call sites that may call the method m. */
+    public Collection<N> getCallersOf( M m );
+
+    /** Returns the nodes at which the execution of m starts. */
+    public Collection<N> getStartPointsOf( M m );
+
+    /** Returns the nodes at which the execution of m ends. */
+    public Collection<N> getExitPointsOf( M m );
+
+    /** Returns the nodes to which the execution continues after the
+     * call at n returns. */
+    public List<N> getReturnSitesOfCallAt( N n );
+
+    public boolean isCallStmt( N n );
+
+    public boolean isExitStmt( N n );
+
+    public boolean isStartPoint( N n );
+}
@@ -0,0 +1,146 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.toolkits.callgraph.*;
+import soot.toolkits.graph.*;
+import soot.util.queue.*;
+import java.util.*;
+
+/** The interprocedural control flow graph of the reachable methods that
+ * have an active body, built from the call graph and from a
+ * CompactExceptionalUnitGraph for each method. Calls to methods without an
+ * active body have no callees in it. All of it is built by the
+ * constructor, so it can be read from several threads at once.
+ */
+public class JimpleBasedInterproceduralCFG implements InterproceduralCFG<Unit,SootMethod>
+{
+    private final List<SootMethod> methods = new ArrayList<SootMethod>();
+    private final Map<SootMethod,UnitGraph> methodToGraph = new HashMap<SootMethod,UnitGraph>();
+    private final Map<Unit,SootMethod> unitToOwner = new HashMap<Unit,SootMethod>();
+    private final Map<Unit,List<SootMethod>> callSiteToCallees = new HashMap<Unit,List<SootMethod>>();
+    private final Map<SootMethod,List<Unit>> methodToCallers = new HashMap<SootMethod,List<Unit>>();
+
+    /** Builds the graph of the methods reachable in the call graph of the
+     * Scene. */
+    public JimpleBasedInterproceduralCFG() {
+        this( Scene.v().getCallGraph(), Scene.v().getReachableMethods() );
+    }
+
+    public JimpleBasedInterproceduralCFG( CallGraph cg, ReachableMethods rm ) {
+        for( QueueReader<MethodOrMethodContext> mIt = rm.listener(); mIt.hasNext(); ) {
+            SootMethod m = mIt.next().method();
+            if( !m.hasActiveBody() || methodToGraph.containsKey( m ) ) continue;
+            UnitGraph graph = new CompactExceptionalUnitGraph( m.getActiveBody() );
+            methodToGraph.put( m, graph );
+            methods.add( m );
+            for( Iterator uIt = graph.iterator(); uIt.hasNext(); ) {
+                unitToOwner.put( (Unit) uIt.next(), m );
+            }
+        }
+        for( SootMethod m : methods ) {
+            for( Iterator uIt = methodToGraph.get( m ).iterator(); uIt.hasNext(); ) {
+                Unit u = (Unit) uIt.next();
+                if( ((Stmt) u).containsInvokeExpr() ) addCallSite( cg, u );
+            }
+        }
+    }
+
+    private void addCallSite( CallGraph cg, Unit u ) {
+        List<SootMethod> callees = new ArrayList<SootMethod>();
+        for( Iterator<Edge> edges = cg.edgesOutOf( u ); edges.hasNext(); ) {
+            SootMethod tgt = edges.next().tgt();
+            if( !methodToGraph.containsKey( tgt ) || callees.contains( tgt ) ) continue;
+            callees.add( tgt );
+            List<Unit> callers = methodToCallers.get( tgt );
+            if( callers == null ) methodToCallers.put( tgt, callers = new ArrayList<Unit>() );
+            callers.add( u );
+        }
+        callSiteToCallees.put( u, callees );
+    }
+
+    /** Returns the control flow graph of the method m, or null if m is not
+     * in this graph. */
+    public UnitGraph getOrCreateUnitGraph( SootMethod m ) {
+        return methodToGraph.get( m );
+    }
+
+    /** Returns the methods in this graph. */
+    public List<SootMethod> getMethods() {
+        return Collections.unmodifiableList( methods );
+    }
+
+    public SootMethod getMethodOf( Unit n ) {
+        return unitToOwner.get( n );
+    }
+
+    private UnitGraph graphOf( Unit n ) {
+        return methodToGraph.get( unitToOwner.get( n ) );
+    }
+
+    public List<Unit> getSuccsOf( Unit n ) {
+        return graphOf( n ).getSuccsOf( n );
+    }
+
+    public List<Unit> getPredsOf( Unit n ) {
+        return graphOf( n ).getPredsOf( n );
+    }
+
+    public Collection<SootMethod> getCalleesOfCallAt( Unit n ) {
+        List<SootMethod> ret = callSiteToCallees.get( n );
+        if( ret == null ) return Collections.emptyList();
+        return ret;
+    }
+
+    public Collection<Unit> getCallersOf( SootMethod m ) {
+        List<Unit> ret = methodToCallers.get( m );
+        if( ret == null ) return Collections.emptyList();
+        return ret;
+    }
+
+    public Collection<Unit> getStartPointsOf( SootMethod m ) {
+        UnitGraph graph = methodToGraph.get( m );
+        if( graph == null ) return Collections.emptyList();
+        return graph.getHeads();
+    }
+
+    public Collection<Unit> getExitPointsOf( SootMethod m ) {
+        UnitGraph graph = methodToGraph.get( m );
+        if( graph == null ) return Collections.emptyList();
+        return graph.getTails();
+    }
+
+    public List<Unit> getReturnSitesOfCallAt( Unit n ) {
+        return getSuccsOf( n );
+    }
+
+    public boolean isCallStmt( Unit n ) {
+        return callSiteToCallees.containsKey( n );
+    }
+
+    public boolean isExitStmt( Unit n ) {
+        return getSuccsOf( n ).isEmpty();
+    }
+
+    public boolean isStartPoint( Unit n ) {
+        return graphOf( n ).getHeads().contains( n );
+    }
+}
@@ -0,0 +1,72 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/** The path edges found by the IFDSSolver. A path edge from the fact d1
+ * at the start of a method to the fact d2 at the node n of the method is
+ * stored as d1 in the sources of d2 at n. Only the outer map, from nodes,
+ * is concurrent; the facts at a node are kept in plain hash tables, which
+ * are locked while they are read or written. Most nodes only have a few
+ * facts, each reached from few sources, so this uses much less memory
+ * than nested concurrent maps.
+ */
+final class JumpFunctions<N,D>
+{
+    private final ConcurrentHashMap<N,Map<D,Set<D>>> nodeToFacts =
+        new ConcurrentHashMap<N,Map<D,Set<D>>>();
+
+    /** Records the path edge from d1 to d2 at n. Returns true if it is
+     * new. */
+    public boolean addFunction( D d1, N n, D d2 ) {
+        Map<D,Set<D>> facts = nodeToFacts.get( n );
+        if( facts == null ) {
+            facts = new HashMap<D,Set<D>>( 4 );
+            Map<D,Set<D>> old = nodeToFacts.putIfAbsent( n, facts );
+            if( old != null ) facts = old;
+        }
+        synchronized( facts ) {
+            Set<D> sources = facts.get( d2 );
+            if( sources == null ) facts.put( d2, sources = new HashSet<D>( 4 ) );
+            return sources.add( d1 );
+        }
+    }
+
+    /** Returns a copy of the sources of the path edges to d2 at n. */
+    public List<D> sourcesOf( N n, D d2 ) {
+        Map<D,Set<D>> facts = nodeToFacts.get( n );
+        if( facts == null ) return Collections.emptyList();
+        synchronized( facts ) {
+            Set<D> sources = facts.get( d2 );
+            if( sources == null ) return Collections.emptyList();
+            return new ArrayList<D>( sources );
+        }
+    }
+
+    /** Returns a copy of the facts reached at n. */
+    public Set<D> factsAt( N n ) {
+        Map<D,Set<D>> facts = nodeToFacts.get( n );
+        if( facts == null ) return Collections.emptySet();
+        synchronized( facts ) {
+            return new HashSet<D>( facts.keySet() );
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide.exampleproblems;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.internal.JimpleLocal;
+import soot.jimple.toolkits.ide.*;
+import soot.toolkits.scalar.Pair;
+import java.util.*;
+
+/** Interprocedural reaching definitions. A fact is a pair of a local and
+ * a definition whose value the local may hold. Definitions reach into
+ * callees through the parameters, and back to the caller through the
+ * return value.
+ */
+public class IFDSReachingDefinitions extends DefaultJimpleIFDSTabulationProblem<Pair<Local,DefinitionStmt>>
+{
+    public IFDSReachingDefinitions( InterproceduralCFG<Unit,SootMethod> icfg ) {
+        super( icfg );
+    }
+
+    protected Pair<Local,DefinitionStmt> createZeroValue() {
+        return new Pair<Local,DefinitionStmt>( new JimpleLocal( "<<zero>>", NullType.v() ), null );
+    }
+
+    private static Set<Pair<Local,DefinitionStmt>> kill( Local l, Pair<Local,DefinitionStmt> source ) {
+        if( source.getO1() == l ) return Collections.emptySet();
+        return Collections.singleton( source );
+    }
+
+    protected FlowFunctions<Unit,Pair<Local,DefinitionStmt>,SootMethod> createFlowFunctions() {
+        return new FlowFunctions<Unit,Pair<Local,DefinitionStmt>,SootMethod>() {
+            public FlowFunction<Pair<Local,DefinitionStmt>> getNormalFlowFunction( Unit curr, Unit succ ) {
+                if( !(curr instanceof DefinitionStmt) ) return Identity.v();
+                // the call flow function defines this and the parameters
+                if( curr instanceof IdentityStmt
+                        && !(((IdentityStmt) curr).getRightOp() instanceof CaughtExceptionRef) ) {
+                    return Identity.v();
+                }
+                final DefinitionStmt def = (DefinitionStmt) curr;
+                if( !(def.getLeftOp() instanceof Local) ) return Identity.v();
+                final Local l = (Local) def.getLeftOp();
+                return new FlowFunction<Pair<Local,DefinitionStmt>>() {
+                    public Set<Pair<Local,DefinitionStmt>> computeTargets( Pair<Local,DefinitionStmt> source ) {
+                        if( source == zeroValue() ) {
+                            return Collections.singleton( new Pair<Local,DefinitionStmt>( l, def ) );
+                        }
+                        return kill( l, source );
+                    }
+                };
+            }
+
+            public FlowFunction<Pair<Local,DefinitionStmt>> getCallFlowFunction( Unit callStmt, SootMethod destinationMethod ) {
+                final InvokeExpr ie = ((Stmt) callStmt).getInvokeExpr();
+                final Body body = destinationMethod.getActiveBody();
+                // implicit calls, such as those of static initializers,
+                // do not pass the arguments of the call site
+                final int paramCount =
+                    Math.min( ie.getArgCount(), destinationMethod.getParameterCount() );
+                return new FlowFunction<Pair<Local,DefinitionStmt>>() {
+                    public Set<Pair<Local,DefinitionStmt>> computeTargets( Pair<Local,DefinitionStmt> source ) {
+                        Set<Pair<Local,DefinitionStmt>> ret = new HashSet<Pair<Local,DefinitionStmt>>();
+                        for( int i = 0; i < paramCount; i++ ) {
+                            if( ie.getArg( i ) == source.getO1() ) {
+                                ret.add( new Pair<Local,DefinitionStmt>(
+                                            body.getParameterLocal( i ), source.getO2() ) );
+                            }
+                        }
+                        return ret;
+                    }
+                };
+            }
+
+            public FlowFunction<Pair<Local,DefinitionStmt>> getReturnFlowFunction( final Unit callSite, SootMethod calleeMethod, Unit exitStmt, Unit returnSite ) {
+                if( !(callSite instanceof DefinitionStmt) || !(exitStmt instanceof ReturnStmt) ) {
+                    return KillAll.v();
+                }
+                final Value lhs = ((DefinitionStmt) callSite).getLeftOp();
+                final Value op = ((ReturnStmt) exitStmt).getOp();
+                return new FlowFunction<Pair<Local,DefinitionStmt>>() {
+                    public Set<Pair<Local,DefinitionStmt>> computeTargets( Pair<Local,DefinitionStmt> source ) {
+                        if( op != source.getO1() || !(lhs instanceof Local) ) return Collections.emptySet();
+                        return Collections.singleton(
+                            new Pair<Local,DefinitionStmt>( (Local) lhs, source.getO2() ) );
+                    }
+                };
+            }
+
+            public FlowFunction<Pair<Local,DefinitionStmt>> getCallToReturnFlowFunction( Unit callSite, Unit returnSite ) {
+                if( !(callSite instanceof DefinitionStmt)
+                        || !(((DefinitionStmt) callSite).getLeftOp() instanceof Local) ) {
+                    return Identity.v();
+                }
+                final DefinitionStmt def = (DefinitionStmt) callSite;
+                final Local l = (Local) def.getLeftOp();
+                final boolean hasCallees =
+                    !interproceduralCFG().getCalleesOfCallAt( callSite ).isEmpty();
+                return new FlowFunction<Pair<Local,DefinitionStmt>>() {
+                    public Set<Pair<Local,DefinitionStmt>> computeTargets( Pair<Local,DefinitionStmt> source ) {
+                        // without callees, the call itself defines the result
+                        if( source == zeroValue() ) {
+                            if( hasCallees ) return Collections.emptySet();
+                            return Collections.singleton( new Pair<Local,DefinitionStmt>( l, def ) );
+                        }
+                        return kill( l, source );
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,166 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide.exampleproblems;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.toolkits.ide.*;
+import soot.jimple.toolkits.infoflow.AbstractDataSource;
+import java.util.*;
+
+/** Interprocedural taint analysis of locals. The results of calls to the
+ * source methods are tainted, the taint flows through assignments, into
+ * callees through the arguments and back through return values, and the
+ * calls to the sink methods with a tainted argument are reported. The
+ * result of a call to a method that is not analysed is tainted if its
+ * receiver or one of its arguments is. Taint is not tracked through
+ * fields or arrays. The zero value is an AbstractDataSource, as in the
+ * infoflow analyses.
+ */
+public class IFDSTaintAnalysis extends DefaultJimpleIFDSTabulationProblem<Value>
+{
+    private final Set<SootMethod> sources;
+    private final Set<SootMethod> sinks;
+    private final Map<Unit,Set<Value>> leaks = new HashMap<Unit,Set<Value>>();
+
+    public IFDSTaintAnalysis( InterproceduralCFG<Unit,SootMethod> icfg,
+            Collection<SootMethod> sources, Collection<SootMethod> sinks ) {
+        super( icfg );
+        this.sources = new HashSet<SootMethod>( sources );
+        this.sinks = new HashSet<SootMethod>( sinks );
+    }
+
+    protected Value createZeroValue() {
+        return new AbstractDataSource( "<<zero>>" );
+    }
+
+    /** Returns the calls to sink methods found to have tainted arguments,
+     * with those arguments. */
+    public synchronized Map<Unit,Set<Value>> getLeaks() {
+        Map<Unit,Set<Value>> ret = new HashMap<Unit,Set<Value>>();
+        for( Map.Entry<Unit,Set<Value>> e : leaks.entrySet() ) {
+            ret.put( e.getKey(), new HashSet<Value>( e.getValue() ) );
+        }
+        return ret;
+    }
+
+    private synchronized void addLeak( Unit sinkCall, Value arg ) {
+        Set<Value> args = leaks.get( sinkCall );
+        if( args == null ) leaks.put( sinkCall, args = new HashSet<Value>() );
+        args.add( arg );
+    }
+
+    /** Returns true if the value of v is computed from the local l. */
+    private static boolean uses( Value v, Value l ) {
+        if( v == l ) return true;
+        for( Iterator it = v.getUseBoxes().iterator(); it.hasNext(); ) {
+            if( ((ValueBox) it.next()).getValue() == l ) return true;
+        }
+        return false;
+    }
+
+    protected FlowFunctions<Unit,Value,SootMethod> createFlowFunctions() {
+        return new FlowFunctions<Unit,Value,SootMethod>() {
+            public FlowFunction<Value> getNormalFlowFunction( Unit curr, Unit succ ) {
+                if( !(curr instanceof DefinitionStmt) ) return Identity.v();
+                // the call flow function defines this and the parameters
+                if( curr instanceof IdentityStmt
+                        && !(((IdentityStmt) curr).getRightOp() instanceof CaughtExceptionRef) ) {
+                    return Identity.v();
+                }
+                final DefinitionStmt def = (DefinitionStmt) curr;
+                if( !(def.getLeftOp() instanceof Local) ) return Identity.v();
+                final Value lhs = def.getLeftOp();
+                return new FlowFunction<Value>() {
+                    public Set<Value> computeTargets( Value source ) {
+                        if( source != zeroValue() && uses( def.getRightOp(), source ) ) {
+                            Set<Value> ret = new LinkedHashSet<Value>();
+                            ret.add( source );
+                            ret.add( lhs );
+                            return ret;
+                        }
+                        if( source == lhs ) return Collections.emptySet();
+                        return Collections.singleton( source );
+                    }
+                };
+            }
+
+            public FlowFunction<Value> getCallFlowFunction( Unit callStmt, SootMethod destinationMethod ) {
+                final InvokeExpr ie = ((Stmt) callStmt).getInvokeExpr();
+                final Body body = destinationMethod.getActiveBody();
+                // implicit calls, such as those of static initializers,
+                // do not pass the arguments of the call site
+                final int paramCount =
+                    Math.min( ie.getArgCount(), destinationMethod.getParameterCount() );
+                return new FlowFunction<Value>() {
+                    public Set<Value> computeTargets( Value source ) {
+                        Set<Value> ret = new LinkedHashSet<Value>();
+                        if( ie instanceof InstanceInvokeExpr
+                                && ((InstanceInvokeExpr) ie).getBase() == source
+                                && !body.getMethod().isStatic() ) {
+                            ret.add( body.getThisLocal() );
+                        }
+                        for( int i = 0; i < paramCount; i++ ) {
+                            if( ie.getArg( i ) == source ) ret.add( body.getParameterLocal( i ) );
+                        }
+                        return ret;
+                    }
+                };
+            }
+
+            public FlowFunction<Value> getReturnFlowFunction( Unit callSite, SootMethod calleeMethod, Unit exitStmt, Unit returnSite ) {
+                if( !(callSite instanceof DefinitionStmt) || !(exitStmt instanceof ReturnStmt) ) {
+                    return KillAll.v();
+                }
+                final Value lhs = ((DefinitionStmt) callSite).getLeftOp();
+                final Value op = ((ReturnStmt) exitStmt).getOp();
+                return new FlowFunction<Value>() {
+                    public Set<Value> computeTargets( Value source ) {
+                        if( op != source || !(lhs instanceof Local) ) return Collections.emptySet();
+                        return Collections.singleton( lhs );
+                    }
+                };
+            }
+
+            public FlowFunction<Value> getCallToReturnFlowFunction( final Unit callSite, Unit returnSite ) {
+                final InvokeExpr ie = ((Stmt) callSite).getInvokeExpr();
+                final SootMethod callee = ie.getMethod();
+                final Value lhs = callSite instanceof DefinitionStmt
+                    && ((DefinitionStmt) callSite).getLeftOp() instanceof Local
+                    ? ((DefinitionStmt) callSite).getLeftOp() : null;
+                final boolean analysed =
+                    !interproceduralCFG().getCalleesOfCallAt( callSite ).isEmpty();
+                return new FlowFunction<Value>() {
+                    public Set<Value> computeTargets( Value source ) {
+                        Set<Value> ret = new LinkedHashSet<Value>();
+                        if( source == zeroValue() ) {
+                            if( lhs != null && sources.contains( callee ) ) ret.add( lhs );
+                            return ret;
+                        }
+                        boolean passed = uses( ie, source );
+                        if( passed && sinks.contains( callee ) ) addLeak( callSite, source );
+                        if( source != lhs ) ret.add( source );
+                        if( passed && !analysed && lhs != null ) ret.add( lhs );
+                        return ret;
+                    }
+                };
+            }
+        };
+    }
+}
@@ -0,0 +1,143 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.jimple.toolkits.ide.exampleproblems;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.internal.JimpleLocal;
+import soot.jimple.toolkits.ide.*;
+import java.util.*;
+
+/** Interprocedural uninitialized variables. A fact is a local that may be
+ * read before it is assigned a value, or that may hold a value computed
+ * from such a local. Uninitialized arguments make the parameters of the
+ * callee uninitialized, and an uninitialized return value makes the
+ * result of the call uninitialized.
+ */
+public class IFDSUninitializedVariables extends DefaultJimpleIFDSTabulationProblem<Local>
+{
+    public IFDSUninitializedVariables( InterproceduralCFG<Unit,SootMethod> icfg ) {
+        super( icfg );
+    }
+
+    protected Local createZeroValue() {
+        return new JimpleLocal( "<<zero>>", NullType.v() );
+    }
+
+    /** Returns true if the value of v is computed from the local l. */
+    private static boolean uses( Value v, Local l ) {
+        if( v == l ) return true;
+        for( Iterator it = v.getUseBoxes().iterator(); it.hasNext(); ) {
+            if( ((ValueBox) it.next()).getValue() == l ) return true;
+        }
+        return false;
+    }
+
+    /** Returns the locals that are uninitialized at the start of body, all
+     * but the parameters and this. */
+    private static Set<Local> uninitializedAtStart( Body body ) {
+        Set<Local> ret = new LinkedHashSet<Local>( body.getLocals() );
+        for( Iterator it = body.getUnits().iterator(); it.hasNext(); ) {
+            Unit u = (Unit) it.next();
+            if( u instanceof IdentityStmt ) ret.remove( ((IdentityStmt) u).getLeftOp() );
+        }
+        return ret;
+    }
+
+    protected FlowFunctions<Unit,Local,SootMethod> createFlowFunctions() {
+        return new FlowFunctions<Unit,Local,SootMethod>() {
+            public FlowFunction<Local> getNormalFlowFunction( Unit curr, Unit succ ) {
+                final FlowFunction<Local> assign = assignFlowFunction( curr );
+                if( !interproceduralCFG().isStartPoint( curr ) ) return assign;
+
+                final Body body = interproceduralCFG().getMethodOf( curr ).getActiveBody();
+                return new FlowFunction<Local>() {
+                    public Set<Local> computeTargets( Local source ) {
+                        if( source != zeroValue() ) return assign.computeTargets( source );
+                        Set<Local> ret = new LinkedHashSet<Local>();
+                        for( Local l : uninitializedAtStart( body ) ) ret.addAll( assign.computeTargets( l ) );
+                        return ret;
+                    }
+                };
+            }
+
+            private FlowFunction<Local> assignFlowFunction( Unit curr ) {
+                if( !(curr instanceof DefinitionStmt) || curr instanceof IdentityStmt ) return Identity.v();
+                final DefinitionStmt def = (DefinitionStmt) curr;
+                if( !(def.getLeftOp() instanceof Local) ) return Identity.v();
+                final Local lhs = (Local) def.getLeftOp();
+                return new FlowFunction<Local>() {
+                    public Set<Local> computeTargets( Local source ) {
+                        if( uses( def.getRightOp(), source ) ) {
+                            Set<Local> ret = new LinkedHashSet<Local>();
+                            ret.add( source );
+                            ret.add( lhs );
+                            return ret;
+                        }
+                        if( source == lhs ) return Collections.emptySet();
+                        return Collections.singleton( source );
+                    }
+                };
+            }
+
+            public FlowFunction<Local> getCallFlowFunction( Unit callStmt, SootMethod destinationMethod ) {
+                final InvokeExpr ie = ((Stmt) callStmt).getInvokeExpr();
+                final Body body = destinationMethod.getActiveBody();
+                // implicit calls, such as those of static initializers,
+                // do not pass the arguments of the call site
+                final int paramCount =
+                    Math.min( ie.getArgCount(), destinationMethod.getParameterCount() );
+                return new FlowFunction<Local>() {
+                    public Set<Local> computeTargets( Local source ) {
+                        Set<Local> ret = new LinkedHashSet<Local>();
+                        for( int i = 0; i < paramCount; i++ ) {
+                            if( ie.getArg( i ) == source ) ret.add( body.getParameterLocal( i ) );
+                        }
+                        return ret;
+                    }
+                };
+            }
+
+            public FlowFunction<Local> getReturnFlowFunction( Unit callSite, SootMethod calleeMethod, Unit exitStmt, Unit returnSite ) {
+                if( !(callSite instanceof DefinitionStmt) || !(exitStmt instanceof ReturnStmt) ) {
+                    return KillAll.v();
+                }
+                final Value lhs = ((DefinitionStmt) callSite).getLeftOp();
+                final Value op = ((ReturnStmt) exitStmt).getOp();
+                return new FlowFunction<Local>() {
+                    public Set<Local> computeTargets( Local source ) {
+                        if( op != source || !(lhs instanceof Local) ) return Collections.emptySet();
+                        return Collections.singleton( (Local) lhs );
+                    }
+                };
+            }
+
+            public FlowFunction<Local> getCallToReturnFlowFunction( Unit callSite, Unit returnSite ) {
+                if( !(callSite instanceof DefinitionStmt) ) return Identity.v();
+                final Value lhs = ((DefinitionStmt) callSite).getLeftOp();
+                return new FlowFunction<Local>() {
+                    public Set<Local> computeTargets( Local source ) {
+                        if( source == lhs ) return Collections.emptySet();
+                        return Collections.singleton( source );
+                    }
+                };
+            }
+        };
+    }
+}
@@ -52,10 +52,10 @@ public class ConstantPropagatorAndFolder extends BodyTransformer
             G.v().out.println("[" + stmtBody.getMethod().getName() +
                                "] Propagating and folding constants...");
 
-        ExceptionalUnitGraph unitGraph = new ExceptionalUnitGraph(stmtBody);
+        ExceptionalUnitGraph unitGraph = stmtBody.getAnalysisCache().getExceptionalUnitGraph();
         LocalDefs localDefs;
         
-        localDefs = new SmartLocalDefs(unitGraph, new SimpleLiveLocals(unitGraph));
+        localDefs = stmtBody.getAnalysisCache().getLocalDefs();
 
         // Perform a constant/local propagation pass.
         Iterator stmtIt = (new PseudoTopologicalOrderer()).newList(unitGraph,false).iterator();
@@ -98,11 +98,11 @@ public class CopyPropagator extends BodyTransformer
         
 //            ((JimpleBody) stmtBody).printDebugTo(new java.io.PrintWriter(G.v().out, true));
             
-        ExceptionalUnitGraph graph = new ExceptionalUnitGraph(stmtBody);
+        ExceptionalUnitGraph graph = stmtBody.getAnalysisCache().getExceptionalUnitGraph();
 
         LocalDefs localDefs;
         
-        localDefs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
+        localDefs = stmtBody.getAnalysisCache().getLocalDefs();
 
         // Perform a local propagation pass.
         {
@@ -153,9 +153,8 @@ public class DeadAssignmentEliminator extends BodyTransformer
             }
         }
 
-        ExceptionalUnitGraph graph = new ExceptionalUnitGraph(b);
-        LocalDefs defs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
-        LocalUses uses = new SimpleLocalUses(graph, defs);
+        LocalDefs defs = b.getAnalysisCache().getLocalDefs();
+        LocalUses uses = b.getAnalysisCache().getLocalUses();
         
         // Add all the statements which are used to compute values
         // for the essential statements, recursively
@@ -41,122 +41,130 @@ public class UnconditionalBranchFolder extends BodyTransformer
     public static UnconditionalBranchFolder v() { return G.v().soot_jimple_toolkits_scalar_UnconditionalBranchFolder(); }
 
     static final int JUMPOPT_TYPES = 6;
-    int numFound[], numFixed[];
 
-    HashMap<Stmt, Stmt> stmtMap;
-    
     protected void internalTransform(Body b, String phaseName, Map options) 
     {
-        StmtBody body = (StmtBody)b;
+        new Instance().internalTransform(b, phaseName, options);
+    }
 
-        if (Options.v().verbose()) 
-            G.v().out.println("[" + body.getMethod().getName() + "] Folding unconditional branches...");
+    class Instance {
+        int numFound[], numFixed[];
 
+        HashMap<Stmt, Stmt> stmtMap;
 
-        // allocate counters once only
-        if (numFound == null) {
-            numFound = new int[JUMPOPT_TYPES+1];
-            numFixed = new int[JUMPOPT_TYPES+1];
-        }
+        protected void internalTransform(Body b, String phaseName, Map options) 
+        {
+            StmtBody body = (StmtBody)b;
 
-        for (int i = 0; i <= JUMPOPT_TYPES; i++) {
-            numFound[i] = 0;
-            numFixed[i] = 0;
-        }
+            if (Options.v().verbose()) 
+                G.v().out.println("[" + body.getMethod().getName() + "] Folding unconditional branches...");
 
-        Chain units = body.getUnits();
-        stmtMap = new HashMap<Stmt, Stmt>();
 
-        // find goto and if-goto statements
-        Iterator stmtIt = units.iterator();
-        Stmt stmt, target, newTarget;
-        while (stmtIt.hasNext()) {
-            stmt = (Stmt)stmtIt.next();
-            if (stmt instanceof GotoStmt) {
+            // allocate counters once only
+            if (numFound == null) {
+                numFound = new int[JUMPOPT_TYPES+1];
+                numFixed = new int[JUMPOPT_TYPES+1];
+            }
 
-                target = (Stmt)((GotoStmt)stmt).getTarget();
+            for (int i = 0; i <= JUMPOPT_TYPES; i++) {
+                numFound[i] = 0;
+                numFixed[i] = 0;
+            }
 
-                if (stmtIt.hasNext()) {
-                    // check for goto -> next statement
-                    if (units.getSuccOf(stmt) == target)
-                    {
-                        stmtIt.remove();
-                        updateCounters(6, true);
+            Chain units = body.getUnits();
+            stmtMap = new HashMap<Stmt, Stmt>();
+
+            // find goto and if-goto statements
+            Iterator stmtIt = units.iterator();
+            Stmt stmt, target, newTarget;
+            while (stmtIt.hasNext()) {
+                stmt = (Stmt)stmtIt.next();
+                if (stmt instanceof GotoStmt) {
+
+                    target = (Stmt)((GotoStmt)stmt).getTarget();
+
+                    if (stmtIt.hasNext()) {
+                        // check for goto -> next statement
+                        if (units.getSuccOf(stmt) == target)
+                        {
+                            stmtIt.remove();
+                            updateCounters(6, true);
+                        }
                     }
-                }
 
-                if (target instanceof GotoStmt) {
-                    newTarget = getFinalTarget(target);
-                    if (newTarget == null)
-                        newTarget = stmt;
-                    ((GotoStmt)stmt).setTarget(newTarget);
-                    updateCounters(1, true);
-                }
-                else if (target instanceof IfStmt) {
-                    updateCounters(3, false);
-                }
-            }
-            else if (stmt instanceof IfStmt) {
-                target = ((IfStmt)stmt).getTarget();
-
-                if (target instanceof GotoStmt) {
-                    newTarget = getFinalTarget(target);
-                    if (newTarget == null)
-                        newTarget = stmt;
-                    ((IfStmt)stmt).setTarget(newTarget);
-                    updateCounters(2, true);
+                    if (target instanceof GotoStmt) {
+                        newTarget = getFinalTarget(target);
+                        if (newTarget == null)
+                            newTarget = stmt;
+                        ((GotoStmt)stmt).setTarget(newTarget);
+                        updateCounters(1, true);
+                    }
+                    else if (target instanceof IfStmt) {
+                        updateCounters(3, false);
+                    }
                 }
-                else if (target instanceof IfStmt) {
-                    updateCounters(4, false);
+                else if (stmt instanceof IfStmt) {
+                    target = ((IfStmt)stmt).getTarget();
+
+                    if (target instanceof GotoStmt) {
+                        newTarget = getFinalTarget(target);
+                        if (newTarget == null)
+                            newTarget = stmt;
+                        ((IfStmt)stmt).setTarget(newTarget);
+                        updateCounters(2, true);
+                    }
+                    else if (target instanceof IfStmt) {
+                        updateCounters(4, false);
+                    }
                 }
             }
-        }
-        if (Options.v().verbose()) 
-            G.v().out.println("[" + body.getMethod().getName() + "]     " + numFixed[0] + " of " + 
-                                numFound[0] + " branches folded.");
+            if (Options.v().verbose()) 
+                G.v().out.println("[" + body.getMethod().getName() + "]     " + numFixed[0] + " of " + 
+                                    numFound[0] + " branches folded.");
              
                                
-    } // optimizeJumps
+        } // optimizeJumps
 
-    private void updateCounters(int type, boolean fixed) {
+        private void updateCounters(int type, boolean fixed) {
 
-        if ((type < 0) || (type > JUMPOPT_TYPES))
-            return;
+            if ((type < 0) || (type > JUMPOPT_TYPES))
+                return;
 
-        numFound[0]++;
-        numFound[type]++;
-        if (fixed) {
-            numFixed[0]++;
-            numFixed[type]++;
+            numFound[0]++;
+            numFound[type]++;
+            if (fixed) {
+                numFixed[0]++;
+                numFixed[type]++;
+            }
         }
-    }
         
-    private Stmt getFinalTarget(Stmt stmt) {
-        Stmt finalTarget=null, target;
+        private Stmt getFinalTarget(Stmt stmt) {
+            Stmt finalTarget=null, target;
         
-        // if not a goto, this is the final target
-        if (!(stmt instanceof GotoStmt))
-            return stmt;
-
-        // first map this statement to itself, so we can detect cycles
-        stmtMap.put(stmt, stmt);
-
-        target = (Stmt)((GotoStmt)stmt).getTarget();
-
-        // check if target is in statement map
-        if (stmtMap.containsKey(target)) {
-            // see if it maps to itself
-            finalTarget = stmtMap.get(target);
-            if (finalTarget == target)
-                // this is part of a cycle
-                finalTarget = null;
-        }
-        else
-            finalTarget = getFinalTarget(target);
+            // if not a goto, this is the final target
+            if (!(stmt instanceof GotoStmt))
+                return stmt;
+
+            // first map this statement to itself, so we can detect cycles
+            stmtMap.put(stmt, stmt);
+
+            target = (Stmt)((GotoStmt)stmt).getTarget();
+
+            // check if target is in statement map
+            if (stmtMap.containsKey(target)) {
+                // see if it maps to itself
+                finalTarget = stmtMap.get(target);
+                if (finalTarget == target)
+                    // this is part of a cycle
+                    finalTarget = null;
+            }
+            else
+                finalTarget = getFinalTarget(target);
             
-        stmtMap.put(stmt, finalTarget);
-        return finalTarget;
-    } // getFinalTarget
+            stmtMap.put(stmt, finalTarget);
+            return finalTarget;
+        } // getFinalTarget
+    }
 
 } // JumpOptimizer
     
@@ -61,7 +61,7 @@ public class UnreachableCodeEliminator extends BodyTransformer
             numPruned = 0;
 
             if (PhaseOptions.getBoolean(options, "remove-unreachable-traps")) {
-                stmtGraph = new ExceptionalUnitGraph(body);
+                stmtGraph = body.getAnalysisCache().getExceptionalUnitGraph();
             } else {
                 // Force a conservative ExceptionalUnitGraph() which
                 // necessarily includes an edge from every trapped Unit to
@@ -10,13 +10,12 @@ import soot.jimple.toolkits.infoflow.*;
 
 public class LockAllocationBodyTransformer extends BodyTransformer
 {
-    private static final LockAllocationBodyTransformer instance = new LockAllocationBodyTransformer();
-    private LockAllocationBodyTransformer() {}
+    public LockAllocationBodyTransformer(Singletons.Global g) {}
 
-    public static LockAllocationBodyTransformer v() { return instance; }
+    public static LockAllocationBodyTransformer v() { return G.v().soot_jimple_toolkits_thread_synchronization_LockAllocationBodyTransformer(); }
     
-    private static boolean addedGlobalLockDefs = false;
-	private static int throwableNum = 0; // doesn't matter if not reinitialized to 0
+    private boolean addedGlobalLockDefs = false;
+	private int throwableNum = 0; // doesn't matter if not reinitialized to 0
     
     protected void internalTransform(Body b, String phase, Map opts)
     {
@@ -467,7 +466,7 @@ public class LockAllocationBodyTransformer extends BodyTransformer
 		}
 	}
 	
-	static int baseLocalNum = 0;
+	int baseLocalNum = 0;
 	
 	public InstanceFieldRef reconstruct(Body b, PatchingChain<Unit> units, InstanceFieldRef lock, Stmt insertBefore, boolean redirect)
 	{
@@ -512,9 +511,9 @@ public class LockAllocationBodyTransformer extends BodyTransformer
 		return newLock;
 	}
 	
-	static int lockNumber = 0;
-	static Map<EquivalentValue, StaticFieldRef> lockEqValToLock = new HashMap<EquivalentValue, StaticFieldRef>();
-	static public Value getLockFor(EquivalentValue lockEqVal)
+	int lockNumber = 0;
+	Map<EquivalentValue, StaticFieldRef> lockEqValToLock = new HashMap<EquivalentValue, StaticFieldRef>();
+	public Value getLockFor(EquivalentValue lockEqVal)
 	{
 		Value lock = lockEqVal.getValue();
 		
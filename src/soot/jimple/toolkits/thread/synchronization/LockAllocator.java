@@ -16,6 +16,13 @@ import soot.jimple.spark.sets.*;
 import soot.toolkits.scalar.*;
 import soot.toolkits.graph.*;
 
+/** The wjtp.tn phase.
+ *
+ * It is not safe to run in several G's at the same time: the ids of
+ * critical sections and static locks, the lock groups of
+ * LockableReferenceAnalysis and the counters of the infoflow and mhp
+ * analyses it uses are static.
+ */
 public class LockAllocator extends SceneTransformer
 {
     public LockAllocator(Singletons.Global g){}
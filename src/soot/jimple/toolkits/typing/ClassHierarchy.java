@@ -86,7 +86,7 @@ public class ClassHierarchy
   }
 
   /** Get the class hierarchy for the given scene. **/
-  public static ClassHierarchy classHierarchy(Scene scene)
+  public static synchronized ClassHierarchy classHierarchy(Scene scene)
   {
     if(scene == null)
       {
@@ -97,9 +97,13 @@ public class TypeAssigner extends BodyTransformer {
 		} else {
 			if (opt.use_older_type_assigner())
 				TypeResolver.resolve((JimpleBody) b, Scene.v());
-			else
-				(new soot.jimple.toolkits.typing.fast.TypeResolver(
-						(JimpleBody) b)).inferTypes();
+			else {
+				soot.jimple.toolkits.typing.fast.TypeResolver tr = new soot.jimple.toolkits.typing.fast.TypeResolver(
+						(JimpleBody) b);
+				tr.inferTypes();
+				if (opt.report_timing())
+					reportTiming(b, tr);
+			}
 		}
 
 		Date finish = new Date();
@@ -115,6 +119,20 @@ public class TypeAssigner extends BodyTransformer {
 			throw new RuntimeException("type inference failed!");
 	}
 
+	/*
+	 * Prints the counters of the type resolver as a semicolon-delimited
+	 * line whose first field is 'tr', in the format given in the
+	 * description of the report-timing option.
+	 */
+	private void reportTiming(Body b,
+			soot.jimple.toolkits.typing.fast.TypeResolver tr) {
+		G.v().out.println("tr;" + b.getMethod() + ";" + b.getUnits().size()
+				+ ";" + b.getLocalCount() + ";" + (tr.getTime() / 1000000)
+				+ ";" + tr.getTypingCount() + ";" + tr.getStepCount() + ";"
+				+ tr.getPromotionCount() + ";" + tr.getLcaQueryCount() + ";"
+				+ tr.getLcaHitCount());
+	}
+
 	private void compareTypeAssigners(Body b, boolean useOlderTypeAssigner) {
 		JimpleBody jb = (JimpleBody) b, oldJb, newJb;
 		int size = jb.getUnits().size();
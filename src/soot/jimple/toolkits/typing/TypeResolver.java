@@ -167,7 +167,9 @@ public class TypeResolver
     }
   }
 
-  public static void resolve(JimpleBody stmtBody, Scene scene) {
+  /** Assigns types to the locals of stmtBody. Bodies are typed one at a
+   * time, as they all share the lazily extended ClassHierarchy. */
+  public static synchronized void resolve(JimpleBody stmtBody, Scene scene) {
 		if (DEBUG) {
 			G.v().out.println(stmtBody.getMethod());
 		}
@@ -965,7 +967,7 @@ public class TypeResolver
 
   private void split_new()
   {
-    ExceptionalUnitGraph graph = new ExceptionalUnitGraph(stmtBody);
+    ExceptionalUnitGraph graph = stmtBody.getAnalysisCache().getExceptionalUnitGraph();
     SimpleLocalDefs defs = new SimpleLocalDefs(graph);
     // SimpleLocalUses uses = new SimpleLocalUses(graph, defs);
     PatchingChain units = stmtBody.getUnits();
@@ -997,8 +997,7 @@ public class TypeResolverBV
 
   private void split_new()
   {
-    ExceptionalUnitGraph graph = new ExceptionalUnitGraph(stmtBody);
-    LocalDefs defs = new SmartLocalDefs(graph, new SimpleLiveLocals(graph));
+    LocalDefs defs = stmtBody.getAnalysisCache().getLocalDefs();
     PatchingChain units = stmtBody.getUnits();
     Stmt[] stmts = new Stmt[units.size()];
 
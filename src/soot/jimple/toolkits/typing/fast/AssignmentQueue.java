@@ -0,0 +1,92 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ * 
+ * All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+package soot.jimple.toolkits.typing.fast;
+
+import java.util.*;
+import soot.jimple.*;
+
+/**
+ * The queue of assignments the type resolver has yet to evaluate for a
+ * typing. It behaves as a QueuedSet which starts with all the assignments
+ * of the body in order, except that those not in the given set are
+ * skipped: the caller knows that evaluating them would not change the
+ * typing. An assignment added before the queue reaches its place in the
+ * initial order is evaluated at that place, and one added after is put at
+ * the end, just as QueuedSet would do.
+ */
+class AssignmentQueue
+{
+	private List<DefinitionStmt> assignments;
+	private Map<DefinitionStmt, Integer> positions;
+	
+	/* The assignments still to be evaluated at their place in the initial
+	order, and the first place not yet passed. */
+	private BitSet initial;
+	private int next;
+	
+	private QueuedSet<DefinitionStmt> requeued;
+	
+	public AssignmentQueue(List<DefinitionStmt> assignments,
+		Map<DefinitionStmt, Integer> positions, BitSet initial)
+	{
+		this.assignments = assignments;
+		this.positions = positions;
+		this.initial = initial;
+		this.next = 0;
+		this.requeued = new QueuedSet<DefinitionStmt>();
+	}
+	
+	public AssignmentQueue(AssignmentQueue q)
+	{
+		this.assignments = q.assignments;
+		this.positions = q.positions;
+		this.initial = (BitSet)q.initial.clone();
+		this.next = q.next;
+		this.requeued = new QueuedSet<DefinitionStmt>(q.requeued);
+	}
+	
+	public boolean isEmpty()
+	{
+		return this.initial.nextSetBit(this.next) < 0
+			&& this.requeued.isEmpty();
+	}
+	
+	public DefinitionStmt removeFirst()
+	{
+		int i = this.initial.nextSetBit(this.next);
+		if ( i < 0 )
+			return this.requeued.removeFirst();
+		this.next = i + 1;
+		return this.assignments.get(i);
+	}
+	
+	public void addLast(List<DefinitionStmt> ss)
+	{
+		for ( DefinitionStmt s : ss )
+		{
+			int i = this.positions.get(s);
+			if ( i >= this.next )
+				this.initial.set(i);
+			else
+				this.requeued.addLast(s);
+		}
+	}
+}
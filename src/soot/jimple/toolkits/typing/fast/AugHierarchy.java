@@ -28,11 +28,21 @@ import soot.*;
  */
 public class AugHierarchy implements IHierarchy
 {	
+	private LcaCache cache = new LcaCache();
+	
 	public Collection<Type> lcas(Type a, Type b)
 	{
-		return lcas_(a, b);
+		// Only the ancestors of two reference types are costly to compute
+		if ( !LcaCache.isCached(a, b) )
+			return lcas_(a, b);
+		Collection<Type> r = this.cache.get(a, b);
+		if ( r == null )
+			r = this.cache.put(a, b, lcas_(a, b));
+		return r;
 	}
 	
+	LcaCache getLcaCache() { return this.cache; }
+	
 	public static Collection<Type> lcas_(Type a, Type b)
 	{
 		if ( TypeResolver.typesEqual(a, b) )
@@ -138,4 +148,4 @@ public class AugHierarchy implements IHierarchy
 			return false;
 		else return BytecodeHierarchy.ancestor_(ancestor, child);
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
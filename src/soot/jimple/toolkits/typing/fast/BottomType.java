@@ -27,13 +27,12 @@ import soot.*;
  */
 public class BottomType extends Type
 {
-	private static BottomType instance;
-	static { instance = new BottomType(); }
+	public BottomType(Singletons.Global g) { }
 	
-	public static BottomType v() { return instance; }
-	
-	private BottomType() { }
+	public static BottomType v() {
+		return G.v().soot_jimple_toolkits_typing_fast_BottomType();
+	}
 	
 	public String toString() { return "bottom_type"; }
 	public boolean equals(Object t) { return this == t; }
-}
\ No newline at end of file
+}
\ No newline at end of file
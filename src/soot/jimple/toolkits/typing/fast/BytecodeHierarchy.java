@@ -87,11 +87,21 @@ public class BytecodeHierarchy implements IHierarchy
 		return r;
 	}
 	
+	private LcaCache cache = new LcaCache();
+	
 	public Collection<Type> lcas(Type a, Type b)
 	{
-		return lcas_(a, b);
+		// Only the ancestors of two reference types are costly to compute
+		if ( !LcaCache.isCached(a, b) )
+			return lcas_(a, b);
+		Collection<Type> r = this.cache.get(a, b);
+		if ( r == null )
+			r = this.cache.put(a, b, lcas_(a, b));
+		return r;
 	}
 	
+	LcaCache getLcaCache() { return this.cache; }
+	
 	public static Collection<Type> lcas_(Type a, Type b)
 	{
 		if ( TypeResolver.typesEqual(a, b) )
@@ -254,4 +264,4 @@ public class BytecodeHierarchy implements IHierarchy
 		}
 		return r;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
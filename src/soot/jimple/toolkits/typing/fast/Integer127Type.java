@@ -27,12 +27,11 @@ import soot.*;
  */
 public class Integer127Type extends PrimType implements IntegerType
 {
-	private static Integer127Type instance;
-	static { instance = new Integer127Type(); }
+	public Integer127Type(Singletons.Global g) { }
 	
-	public static Integer127Type v() { return instance; }
-	
-	private Integer127Type() { }
+	public static Integer127Type v() {
+		return G.v().soot_jimple_toolkits_typing_fast_Integer127Type();
+	}
 	
 	public String toString() { return "[0..127]"; }
 	public boolean equals(Object t) { return this == t; }
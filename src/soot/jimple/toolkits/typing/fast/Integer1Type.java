@@ -27,12 +27,11 @@ import soot.*;
  */
 public class Integer1Type extends PrimType implements IntegerType
 {
-	private static Integer1Type instance;
-	static { instance = new Integer1Type(); }
+	public Integer1Type(Singletons.Global g) { }
 	
-	public static Integer1Type v() { return instance; }
-	
-	private Integer1Type() { }
+	public static Integer1Type v() {
+		return G.v().soot_jimple_toolkits_typing_fast_Integer1Type();
+	}
 	
 	public String toString() { return "[0..1]"; }
 	public boolean equals(Object t) { return this == t; }
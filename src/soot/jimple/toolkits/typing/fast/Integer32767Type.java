@@ -27,12 +27,11 @@ import soot.*;
  */
 public class Integer32767Type extends PrimType implements IntegerType
 {
-	private static Integer32767Type instance;
-	static { instance = new Integer32767Type(); }
+	public Integer32767Type(Singletons.Global g) { }
 	
-	public static Integer32767Type v() { return instance; }
-	
-	private Integer32767Type() { }
+	public static Integer32767Type v() {
+		return G.v().soot_jimple_toolkits_typing_fast_Integer32767Type();
+	}
 	
 	public String toString() { return "[0..32767]"; }
 	public boolean equals(Object t) { return this == t; }
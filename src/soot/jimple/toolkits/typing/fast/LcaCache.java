@@ -0,0 +1,93 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ * 
+ * All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+package soot.jimple.toolkits.typing.fast;
+
+import java.util.*;
+import soot.*;
+
+/**
+ * Remembers the least common ancestors computed by a hierarchy for each
+ * pair of types, since the type resolver asks for the same pairs again
+ * for every assignment and every candidate typing. The hierarchy must not
+ * change while the cache is in use.
+ */
+class LcaCache
+{
+	private static class TypePair
+	{
+		private final Type a, b;
+		private final int hashCode;
+		
+		public TypePair(Type a, Type b)
+		{
+			this.a = a;
+			this.b = b;
+			this.hashCode = a.hashCode() * 31 + b.hashCode();
+		}
+		
+		public int hashCode() { return this.hashCode; }
+		
+		public boolean equals(Object o)
+		{
+			if ( !(o instanceof TypePair) )
+				return false;
+			TypePair p = (TypePair)o;
+			return TypeResolver.typesEqual(this.a, p.a)
+				&& TypeResolver.typesEqual(this.b, p.b);
+		}
+	}
+	
+	private HashMap<TypePair, Collection<Type>> lcas
+		= new HashMap<TypePair, Collection<Type>>();
+	
+	private int queries, hits;
+	
+	/* Whether the least common ancestors of a and b are worth caching,
+	which they are when a and b are different reference or array types. */
+	public static boolean isCached(Type a, Type b)
+	{
+		return (a instanceof RefType || a instanceof ArrayType)
+			&& (b instanceof RefType || b instanceof ArrayType)
+			&& a != b;
+	}
+	
+	/* Returns the cached least common ancestors of a and b, or null if
+	they have not been computed yet. */
+	public Collection<Type> get(Type a, Type b)
+	{
+		this.queries++;
+		Collection<Type> r = this.lcas.get(new TypePair(a, b));
+		if ( r != null )
+			this.hits++;
+		return r;
+	}
+	
+	public Collection<Type> put(Type a, Type b, Collection<Type> lcas)
+	{
+		lcas = Collections.unmodifiableCollection(lcas);
+		this.lcas.put(new TypePair(a, b), lcas);
+		return lcas;
+	}
+	
+	public int getQueryCount() { return this.queries; }
+	
+	public int getHitCount() { return this.hits; }
+}
@@ -47,13 +47,41 @@ public class TypeResolver
 	private JimpleBody jb;
 	
 	private List<DefinitionStmt> assignments;
+	private HashMap<DefinitionStmt, Integer> positions;
 	private HashMap<Local, List<DefinitionStmt>> depends;
 	
+	/* When not null, applyAssignmentConstraints() and the type promotion
+	visitor add to it each local whose type they change, and
+	applyAssignmentConstraints() sets branched if it tried more than one
+	typing. */
+	private List<Local> changes;
+	private boolean branched;
+	
+	/* When set, typePromotion() looks at the whole body in every round, as
+	it does once the constraints have branched; tests compare the rounds
+	which only look at the changes against this. */
+	boolean fullPasses;
+	
+	/* The statements of the body, and the positions of the assignments and
+	statements using each local, while typePromotion() runs. */
+	private List<Stmt> stmts;
+	private HashMap<Local, List<Integer>> assignmentUses, stmtUses;
+	
+	/* The hierarchies are kept for the whole method, so that all the passes
+	share their caches of least common ancestors. */
+	private AugHierarchy ah = new AugHierarchy();
+	private BytecodeHierarchy bh = new BytecodeHierarchy();
+	
+	/* Counters for finding the methods which are expensive to type. */
+	private long time;
+	private int typings, steps, promotions;
+	
 	public TypeResolver(JimpleBody jb)
 	{
 		this.jb = jb;
 		
-		this.assignments = new LinkedList<DefinitionStmt>();
+		this.assignments = new ArrayList<DefinitionStmt>();
+		this.positions = new HashMap<DefinitionStmt, Integer>();
 		this.depends = new HashMap<Local, List<DefinitionStmt>>();
 		for ( Local v : this.jb.getLocals() )
 			this.addLocal(v);
@@ -72,6 +100,7 @@ public class TypeResolver
 		Value lhs = ds.getLeftOp(), rhs = ds.getRightOp();
 		if ( lhs instanceof Local || lhs instanceof ArrayRef)
 		{
+			this.positions.put(ds, this.assignments.size());
 			this.assignments.add(ds);
 			if ( rhs instanceof Local )
 				this.addDepend((Local)rhs, ds);
@@ -107,9 +136,9 @@ public class TypeResolver
 	
 	public void inferTypes()
 	{
+		long start = System.nanoTime();
 		AugEvalFunction ef = new AugEvalFunction(this.jb);
-		AugHierarchy ah = new AugHierarchy();
-		BytecodeHierarchy bh = new BytecodeHierarchy();
+		BytecodeHierarchy bh = this.bh;
 		Collection<Typing> sigma = this.applyAssignmentConstraints(
 			new Typing(this.jb.getLocals()), ef, bh);
 		int[] castCount = new int[1];
@@ -141,6 +170,33 @@ public class TypeResolver
 		else
 			for ( Local v : this.jb.getLocals() )
 				v.setType(tg.get(v));
+		this.time = System.nanoTime() - start;
+	}
+	
+	/** Returns the time taken by inferTypes(), in nanoseconds. */
+	public long getTime() { return this.time; }
+	
+	/** Returns the number of typings inferTypes() has tried. */
+	public int getTypingCount() { return this.typings; }
+	
+	/** Returns the number of assignments inferTypes() has evaluated. */
+	public int getStepCount() { return this.steps; }
+	
+	/** Returns the number of locals whose integer types were promoted. */
+	public int getPromotionCount() { return this.promotions; }
+	
+	/** Returns the number of least common ancestors looked up. */
+	public int getLcaQueryCount()
+	{
+		return this.ah.getLcaCache().getQueryCount()
+			+ this.bh.getLcaCache().getQueryCount();
+	}
+	
+	/** Returns the number of least common ancestors found in the caches. */
+	public int getLcaHitCount()
+	{
+		return this.ah.getLcaCache().getHitCount()
+			+ this.bh.getLcaCache().getHitCount();
 	}
 	
 	private class CastInsertionUseVisitor implements IUseVisitor
@@ -285,6 +341,9 @@ public class TypeResolver
 					{
 						this.tg.set(v, t_);
 						this.typingChanged = true;
+						TypeResolver.this.promotions++;
+						if ( changes != null )
+							changes.add(v);
 					}
 				}
 			}
@@ -295,46 +354,190 @@ public class TypeResolver
 		public boolean finish() { return this.typingChanged || this.fail; }
 	}
 	
+	/* Each round promotes the type of one local, then evaluates the
+	assignments and checks the uses again until no more promotion is found.
+	Only the assignments and statements which use a local whose type has
+	changed since they were last looked at can change anything, so after
+	the first round only these are looked at again, in the order the whole
+	body would have been. This keeps the cost of a round in proportion to
+	the uses of the locals it changes rather than to the size of the body. */
 	private Typing typePromotion(Typing tg)
 	{
 		AugEvalFunction ef = new AugEvalFunction(this.jb);
-		AugHierarchy h = new AugHierarchy();
+		AugHierarchy h = this.ah;
 		UseChecker uc = new UseChecker(this.jb);
-		TypePromotionUseVisitor uv = new TypePromotionUseVisitor(jb, tg);
-		do
-		{
-			Collection<Typing> sigma
-				= this.applyAssignmentConstraints(tg, ef, h);
-			if ( sigma.isEmpty() )
-				return null;
-			tg = sigma.iterator().next();			
-			uv.typingChanged = false;
-			uc.check(tg, uv);
-			if ( uv.fail )
-				return null;
-		} while ( uv.typingChanged );
 		
-		for ( Local v : this.jb.getLocals() )
+		this.stmts = new ArrayList<Stmt>(this.jb.getUnits().size());
+		for ( Unit u : this.jb.getUnits() )
+			this.stmts.add((Stmt)u);
+		this.assignmentUses = null;
+		this.stmtUses = null;
+		
+		/* The assignments to evaluate and the statements to check again,
+		and the position from which all statements are to be checked. */
+		BitSet toEval = new BitSet(), toCheck = new BitSet();
+		toEval.set(0, this.assignments.size());
+		int unchecked = 0;
+		
+		this.changes = new ArrayList<Local>();
+		this.branched = false;
+		try
 		{
-			Type t = tg.get(v);
-			if ( t instanceof Integer1Type )
+			while ( true )
 			{
-				tg.set(v, BooleanType.v());
-				return this.typePromotion(tg);
-			}
-			else if ( t instanceof Integer127Type )
-			{
-				tg.set(v, ByteType.v());
-				return this.typePromotion(tg);
+				TypePromotionUseVisitor uv
+					= new TypePromotionUseVisitor(jb, tg);
+				while ( true )
+				{
+					if ( this.fullPasses )
+					{
+						toEval.set(0, this.assignments.size());
+						unchecked = 0;
+					}
+					Collection<Typing> sigma = this.applyAssignmentConstraints(
+						tg, ef, h, toEval);
+					if ( sigma.isEmpty() )
+						return null;
+					tg = sigma.iterator().next();
+					if ( this.branched )
+					{
+						/* The changes recorded may not be those of tg, so
+						look at everything again. */
+						toEval.set(0, this.assignments.size());
+						unchecked = 0;
+					}
+					else
+						toEval.clear();
+					if ( unchecked > 0 )
+						this.markChanges(toEval, toCheck);
+					
+					uv.typingChanged = false;
+					CheckIterator i = new CheckIterator(this.stmts, toCheck,
+						unchecked);
+					uc.check(tg, uv, i);
+					if ( uv.fail )
+						return null;
+					if ( !uv.typingChanged )
+						break;
+					unchecked = Math.max(unchecked, i.last + 1);
+					this.markChanges(toEval, toCheck);
+				}
+				
+				Local promoted = null;
+				for ( Local v : this.jb.getLocals() )
+				{
+					Type t = tg.get(v);
+					if ( t instanceof Integer1Type )
+						tg.set(promoted = v, BooleanType.v());
+					else if ( t instanceof Integer127Type )
+						tg.set(promoted = v, ByteType.v());
+					else if ( t instanceof Integer32767Type )
+						tg.set(promoted = v, ShortType.v());
+					if ( promoted != null )
+						break;
+				}
+				if ( promoted == null )
+					return tg;
+				this.promotions++;
+				this.changes.add(promoted);
+				unchecked = this.stmts.size();
+				this.markChanges(toEval, toCheck);
 			}
-			else if ( t instanceof Integer32767Type )
+		}
+		finally
+		{
+			this.changes = null;
+			this.stmts = null;
+			this.assignmentUses = null;
+			this.stmtUses = null;
+		}
+	}
+	
+	/* Marks the assignments and the statements which use the locals
+	changed since the last call. */
+	private void markChanges(BitSet toEval, BitSet toCheck)
+	{
+		if ( this.stmtUses == null )
+		{
+			this.assignmentUses = uses(this.assignments);
+			this.stmtUses = uses(this.stmts);
+		}
+		for ( Local v : this.changes )
+		{
+			markUses(toEval, this.assignmentUses.get(v));
+			markUses(toCheck, this.stmtUses.get(v));
+		}
+		this.changes.clear();
+	}
+	
+	/* Returns the positions in us of the units using each local. */
+	private static HashMap<Local, List<Integer>> uses(List<? extends Unit> us)
+	{
+		HashMap<Local, List<Integer>> r = new HashMap<Local, List<Integer>>();
+		for ( int i = 0; i < us.size(); i++ )
+			for ( Iterator j = us.get(i).getUseAndDefBoxes().iterator();
+				j.hasNext(); )
 			{
-				tg.set(v, ShortType.v());
-				return this.typePromotion(tg);
+				Value v = ((ValueBox)j.next()).getValue();
+				if ( v instanceof Local )
+				{
+					List<Integer> ps = r.get(v);
+					if ( ps == null )
+					{
+						ps = new ArrayList<Integer>();
+						r.put((Local)v, ps);
+					}
+					ps.add(i);
+				}
 			}
+		return r;
+	}
+	
+	private static void markUses(BitSet marks, List<Integer> positions)
+	{
+		if ( positions != null )
+			for ( int p : positions )
+				marks.set(p);
+	}
+	
+	/* Iterates over the marked statements before a position and all the
+	statements from there on, unmarking them as it goes, and remembers
+	the position of the last statement returned. */
+	private static class CheckIterator implements Iterator<Unit>
+	{
+		private List<Stmt> stmts;
+		private BitSet marks;
+		private int from, next;
+		public int last;
+		
+		public CheckIterator(List<Stmt> stmts, BitSet marks, int from)
+		{
+			this.stmts = stmts;
+			this.marks = marks;
+			this.from = from;
+			this.next = this.nextPosition(0);
+			this.last = -1;
+		}
+		
+		private int nextPosition(int i)
+		{
+			if ( i >= this.from )
+				return i;
+			int m = this.marks.nextSetBit(i);
+			return m >= 0 && m < this.from ? m : this.from;
 		}
 		
-		return tg;
+		public boolean hasNext() { return this.next < this.stmts.size(); }
+		
+		public Unit next()
+		{
+			this.last = this.next;
+			this.marks.clear(this.last);
+			this.next = this.nextPosition(this.last + 1);
+			return this.stmts.get(this.last);
+		}
+		
+		public void remove() { throw new UnsupportedOperationException(); }
 	}
 	
 	private int insertCasts(Typing tg, IHierarchy h, boolean countOnly)
@@ -369,15 +572,26 @@ public class TypeResolver
 	
 	private Collection<Typing> applyAssignmentConstraints(Typing tg,
 		IEvalFunction ef, IHierarchy h)
+	{
+		BitSet all = new BitSet();
+		all.set(0, this.assignments.size());
+		return this.applyAssignmentConstraints(tg, ef, h, all);
+	}
+	
+	/* Evaluates the assignments in order as if they had all been queued,
+	but skipping those which are not in the given set. */
+	private Collection<Typing> applyAssignmentConstraints(Typing tg,
+		IEvalFunction ef, IHierarchy h, BitSet initial)
 	{
 		LinkedList<Typing> sigma = new LinkedList<Typing>(),
 			r = new LinkedList<Typing>();
-		HashMap<Typing, QueuedSet<DefinitionStmt>> worklists
-			= new HashMap<Typing, QueuedSet<DefinitionStmt>>();
+		HashMap<Typing, AssignmentQueue> worklists
+			= new HashMap<Typing, AssignmentQueue>();
 			
 		sigma.add(tg);
-		QueuedSet<DefinitionStmt> wl = new QueuedSet<DefinitionStmt>(
-			this.assignments);
+		this.typings++;
+		AssignmentQueue wl = new AssignmentQueue(this.assignments,
+			this.positions, (BitSet)initial.clone());
 		worklists.put(tg, wl);
 		
 		while ( !sigma.isEmpty() )
@@ -393,6 +607,7 @@ public class TypeResolver
 			else
 			{
 				DefinitionStmt stmt = wl.removeFirst();
+				this.steps++;
 				Value lhs = stmt.getLeftOp(), rhs = stmt.getRightOp();
 				
 				Local v;
@@ -428,7 +643,7 @@ public class TypeResolver
 						if ( ! typesEqual(t, told) )
 						{
 							Typing tg_;
-							QueuedSet<DefinitionStmt> wl_;
+							AssignmentQueue wl_;
 							if ( eval.size() == 1 && lcas.size() == 1 )
 							{
 								tg_ = tg;
@@ -437,12 +652,16 @@ public class TypeResolver
 							else
 							{
 								tg_ = new Typing(tg);
-								wl_ = new QueuedSet<DefinitionStmt>(wl);
+								this.typings++;
+								wl_ = new AssignmentQueue(wl);
+								this.branched = true;
 								sigma.add(tg_);
 								worklists.put(tg_, wl_);
 							}
 							tg_.set(v, t);
 							wl_.addLast(this.depends.get(v));
+							if ( this.changes != null )
+								this.changes.add(v);
 						}
 				}//end for
 			}
@@ -469,7 +688,7 @@ public class TypeResolver
 	version 2.2.5. */
 	private void split_new()
 	{
-		ExceptionalUnitGraph graph = new ExceptionalUnitGraph(this.jb);
+		ExceptionalUnitGraph graph = this.jb.getAnalysisCache().getExceptionalUnitGraph();
 		SimpleLocalDefs defs = new SimpleLocalDefs(graph);
 		// SimpleLocalUses uses = new SimpleLocalUses(graph, defs);
 		PatchingChain<Unit> units = this.jb.getUnits();
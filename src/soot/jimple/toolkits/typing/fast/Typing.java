@@ -24,33 +24,93 @@ import java.util.*;
 import soot.*;
 
 /**
+ * Assigns a type to each local of a body. A copy of a typing shares the
+ * types of the original until either of them is changed, so trying out
+ * a candidate typing does not copy the types of all the locals until it
+ * is needed.
+ * 
  * @author Ben Bellamy
  */
 public class Typing
 {
-	private HashMap<Local, Type> map;
+	/* The position of each local in types, shared by a typing and all its
+	copies. Locals are only ever added to it. */
+	private HashMap<Local, Integer> index;
+	
+	private Type[] types;
+	
+	/* Whether types may be shared with another typing, in which case it
+	has to be copied before it is changed. */
+	private boolean shared;
 	
 	public Typing(Collection<Local> vs)
 	{
-		this.map = new HashMap<Local, Type>();
+		this.index = new HashMap<Local, Integer>();
+		this.types = new Type[vs.size()];
 		for ( Local v : vs )
-			this.map.put(v, BottomType.v());
+		{
+			this.types[this.index.size()] = BottomType.v();
+			this.index.put(v, this.index.size());
+		}
 	}
 	
 	public Typing(Typing tg)
 	{
-		this.map = new HashMap<Local, Type>(tg.map);
+		this.index = tg.index;
+		this.types = tg.types;
+		this.shared = true;
+		tg.shared = true;
 	}
 	
-	public Type get(Local v) { return this.map.get(v); }
+	public Type get(Local v)
+	{
+		Integer i = this.index.get(v);
+		if ( i == null || i >= this.types.length )
+			return null;
+		return this.types[i];
+	}
+	
+	public Type set(Local v, Type t)
+	{
+		Integer i = this.index.get(v);
+		if ( i == null )
+		{
+			i = this.index.size();
+			this.index.put(v, i);
+		}
+		if ( i >= this.types.length )
+		{
+			Type[] ts = new Type[this.index.size()];
+			System.arraycopy(this.types, 0, ts, 0, this.types.length);
+			this.types = ts;
+			this.shared = false;
+		}
+		else if ( this.shared )
+		{
+			this.types = this.types.clone();
+			this.shared = false;
+		}
+		Type r = this.types[i];
+		this.types[i] = t;
+		return r;
+	}
 	
-	public Type set(Local v, Type t) { return this.map.put(v, t); }
+	/* The locals which have a type in this typing. */
+	private Collection<Local> locals()
+	{
+		ArrayList<Local> r = new ArrayList<Local>(this.index.size());
+		for ( Map.Entry<Local, Integer> e : this.index.entrySet() )
+			if ( e.getValue() < this.types.length
+				&& this.types[e.getValue()] != null )
+				r.add(e.getKey());
+		return r;
+	}
 	
 	public String toString()
 	{
 		StringBuffer sb = new StringBuffer();
 		sb.append('{');
-		for ( Local v : this.map.keySet() )
+		for ( Local v : this.locals() )
 		{
 			sb.append(v);
 			sb.append(':');
@@ -81,7 +141,7 @@ public class Typing
 	public static int compare(Typing a, Typing b, IHierarchy h)
 	{
 		int r = 0;
-		for ( Local v : a.map.keySet() )
+		for ( Local v : a.locals() )
 		{
 			Type ta = a.get(v), tb = b.get(v);
 			
@@ -102,4 +162,4 @@ public class Typing
 		}
 		return r;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -43,6 +43,12 @@ public class UseChecker extends AbstractStmtSwitch
 	}
 	
 	public void check(Typing tg, IUseVisitor uv)
+	{
+		this.check(tg, uv, this.jb.getUnits().snapshotIterator());
+	}
+	
+	/* Checks the uses in the statements given by the iterator only. */
+	public void check(Typing tg, IUseVisitor uv, Iterator<Unit> stmts)
 	{
 		try {
 			this.tg = tg;	
@@ -53,8 +59,7 @@ public class UseChecker extends AbstractStmtSwitch
 			System.exit(1);
 		}
 		
-		for ( Iterator<Unit> i = this.jb.getUnits().snapshotIterator();
-			i.hasNext(); )
+		for ( Iterator<Unit> i = stmts; i.hasNext(); )
 		{
 			if ( uv.finish() )
 				return;
@@ -285,4 +290,4 @@ public class UseChecker extends AbstractStmtSwitch
 		throw new RuntimeException(
 			"Unhandled stgtement type: " + stmt.getClass());
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -47,7 +47,7 @@ public class PhiNodeManager
     public PhiNodeManager(ShimpleBody body)
     {
         this.body = body;
-        sf = G.v().shimpleFactory;
+        sf = G.v().shimpleFactory();
     }
 
     public void update()
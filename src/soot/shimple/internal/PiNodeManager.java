@@ -68,7 +68,7 @@ public class PiNodeManager
     {
         this.body = body;
         this.trimmed = trimmed;
-        sf = G.v().shimpleFactory;
+        sf = G.v().shimpleFactory();
     }
 
     public void update()
@@ -78,7 +78,7 @@ public class ShimpleBodyBuilder
     public ShimpleBodyBuilder(ShimpleBody body)
     {
         this.body = body;
-        sf = G.v().shimpleFactory;
+        sf = G.v().shimpleFactory();
         sf.setBody(body);
         sf.clearCache();
         phi = new PhiNodeManager(body);
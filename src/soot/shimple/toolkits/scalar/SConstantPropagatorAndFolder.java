@@ -51,21 +51,20 @@ public class SConstantPropagatorAndFolder extends BodyTransformer
     public static SConstantPropagatorAndFolder v()
     { return G.v().soot_shimple_toolkits_scalar_SConstantPropagatorAndFolder(); }
 
-    protected ShimpleBody sb;
-    protected boolean debug;
-    
     protected void internalTransform(Body b, String phaseName, Map options)
     {
         if(!(b instanceof ShimpleBody))
             throw new RuntimeException("SConstantPropagatorAndFolder requires a ShimpleBody.");
         
-        this.sb = (ShimpleBody) b;
+        // Kept in locals, not fields, as the bodies of several methods
+        // may be transformed at once with -num-threads.
+        ShimpleBody sb = (ShimpleBody) b;
 
         if(!sb.isSSA())
             throw new RuntimeException("ShimpleBody is not in proper SSA form as required by SConstantPropagatorAndFolder.  You may need to rebuild it or use ConstantPropagatorAndFolder instead.");
 
         boolean pruneCFG = PhaseOptions.getBoolean(options, "prune-cfg");
-        debug = Options.v().debug();
+        boolean debug = Options.v().debug();
         debug |= sb.getOptions().debug();
         
         if (Options.v().verbose())
@@ -73,12 +72,33 @@ public class SConstantPropagatorAndFolder extends BodyTransformer
                               "] Propagating and folding constants (SSA)...");
 
         // *** FIXME: What happens when Shimple is built with another UnitGraph?
-        SCPFAnalysis scpf = new SCPFAnalysis(new ExceptionalUnitGraph(sb));
+        if(PhaseOptions.getBoolean(options, "sparse")){
+            SparseSCPFAnalysis scpf = new SparseSCPFAnalysis(new ExceptionalUnitGraph(sb));
+            applyResults(sb, scpf.getResults(), scpf.getDeadStmts(),
+                         scpf.getStmtsToReplace(), pruneCFG, debug);
+        }
+        else{
+            SCPFAnalysis scpf = new SCPFAnalysis(new ExceptionalUnitGraph(sb));
+            applyResults(sb, scpf.getResults(), scpf.getDeadStmts(),
+                         scpf.getStmtsToReplace(), pruneCFG, debug);
+        }
+    }
 
-        propagateResults(scpf.getResults());
+    /**
+     * Propagates the constants found by the analysis in sb and, if
+     * pruneCFG is set, removes and replaces the branches it found to be
+     * dead.
+     **/
+    protected void applyResults(ShimpleBody sb,
+                                Map<Local, Constant> localToConstant,
+                                List<IfStmt> deadStmts,
+                                Map<Stmt, GotoStmt> stmtsToReplace,
+                                boolean pruneCFG, boolean debug)
+    {
+        propagateResults(sb, localToConstant, debug);
         if(pruneCFG){
-            removeStmts(scpf.getDeadStmts());
-            replaceStmts(scpf.getStmtsToReplace());
+            removeStmts(sb, deadStmts);
+            replaceStmts(sb, stmtsToReplace);
         }
     }
 
@@ -87,7 +107,9 @@ public class SConstantPropagatorAndFolder extends BodyTransformer
      * locals given a mapping.  Notice that we use the Shimple
      * implementation of LocalDefs and LocalUses.
      **/
-    protected void propagateResults(Map<Local, Constant> localToConstant)
+    protected void propagateResults(ShimpleBody sb,
+                                    Map<Local, Constant> localToConstant,
+                                    boolean debug)
     {
         Chain units = sb.getUnits();
         Chain locals = sb.getLocals();
@@ -141,7 +163,7 @@ public class SConstantPropagatorAndFolder extends BodyTransformer
     /**
      * Removes the given list of fall through IfStmts from the body.
      **/
-    protected void removeStmts(List<IfStmt> deadStmts)
+    protected void removeStmts(ShimpleBody sb, List<IfStmt> deadStmts)
     {
         Chain units = sb.getUnits();
         Iterator<IfStmt> deadIt = deadStmts.iterator();
@@ -156,7 +178,7 @@ public class SConstantPropagatorAndFolder extends BodyTransformer
      * Replaces conditional branches by unconditional branches as
      * given by the mapping.
      **/
-    protected void replaceStmts(Map<Stmt, GotoStmt> stmtsToReplace)
+    protected void replaceStmts(ShimpleBody sb, Map<Stmt, GotoStmt> stmtsToReplace)
     {
         Chain units = sb.getUnits();
         Iterator<Stmt> stmtsIt = stmtsToReplace.keySet().iterator();
@@ -590,3 +612,205 @@ class SCPFAnalysis extends ForwardBranchedFlowAnalysis
         return true;
     }
 }
+
+/**
+ * A sparse version of SCPFAnalysis that finds the same constants and
+ * branches.  Rather than flowing sets of assumptions along every edge
+ * of the control flow graph, it keeps one assumption per Local and
+ * propagates changes along the def-use chains, while only following
+ * the branches that may be taken.
+ *
+ * @see SparseSSAAnalysis
+ **/
+class SparseSCPFAnalysis extends SparseSSAAnalysis<Constant>
+{
+    /**
+     * A map from conditional branches to their possible replacement 
+     * unit, an unconditional branch.
+     **/
+    protected Map<Stmt, GotoStmt> stmtToReplacement;
+
+    /**
+     * A list of IfStmts that always fall through.
+     **/
+    protected List<IfStmt> deadStmts;
+
+    public SparseSCPFAnalysis(UnitGraph graph)
+    {
+        super(graph);
+        stmtToReplacement = new HashMap<Stmt, GotoStmt>();
+        deadStmts = new ArrayList<IfStmt>();
+
+        // SEvaluator expects an assumption for every local
+        Iterator localsIt = sb.getLocals().iterator();
+        while(localsIt.hasNext())
+            localToValue.put((Local) localsIt.next(), TopConstant.v());
+
+        doAnalysis();
+        findBranches();
+    }
+
+    /**
+     * Returns the mapping of the locals to their assumed constant
+     * value (which may be Top or Bottom).
+     **/
+    public Map<Local, Constant> getResults()
+    {
+        return localToValue;
+    }
+
+    /**
+     * Returns the list of fall through IfStmts.
+     **/
+    public List<IfStmt> getDeadStmts()
+    {
+        return deadStmts;
+    }
+
+    /**
+     * Returns a Map from conditional branches to the unconditional branches
+     * that can replace them.
+     **/
+    public Map<Stmt, GotoStmt> getStmtsToReplace()
+    {
+        return stmtToReplacement;
+    }
+
+    protected Constant topValue()
+    {
+        return TopConstant.v();
+    }
+
+    /**
+     * Two different constants meet at Bottom.
+     **/
+    protected Constant meet(Constant c1, Constant c2)
+    {
+        if(c1 instanceof TopConstant)
+            return c2;
+        if(c2 instanceof TopConstant || c1.equals(c2))
+            return c1;
+        return BottomConstant.v();
+    }
+
+    protected Constant evaluate(Value v, Unit u)
+    {
+        return SEvaluator.getFuzzyConstantValueOf(v, localToValue);
+    }
+
+    /**
+     * Only follows the branches that a conditional branch may take
+     * given the current assumptions.
+     **/
+    protected List<Unit> getExecutableSuccsOf(Unit u)
+    {
+        List<Unit> succs = new ArrayList<Unit>();
+        Unit fall = sb.getUnits().getSuccOf(u);
+
+        if(u instanceof IfStmt){
+            IfStmt ifStmt = (IfStmt) u;
+            Constant constant = 
+                SEvaluator.getFuzzyConstantValueOf(ifStmt.getCondition(), localToValue);
+
+            if(constant instanceof BottomConstant){
+                succs.add(fall);
+                succs.add(ifStmt.getTarget());
+            }
+            else if(constant.equals(IntConstant.v(1)))
+                succs.add(ifStmt.getTarget());
+            else if(constant.equals(IntConstant.v(0)))
+                succs.add(fall);
+
+            return succs;
+        }
+
+        if(u instanceof TableSwitchStmt || u instanceof LookupSwitchStmt){
+            UnitBox branchBox = getSwitchTarget((Stmt) u);
+            if(branchBox != null){
+                succs.add(branchBox.getUnit());
+                return succs;
+            }
+
+            Constant keyC = SEvaluator.getFuzzyConstantValueOf(switchKey((Stmt) u), localToValue);
+            if(keyC instanceof TopConstant)
+                return succs;
+        }
+
+        // conservative control flow estimates
+        if(u.fallsThrough() && fall != null)
+            succs.add(fall);
+        if(u.branches()){
+            Iterator boxesIt = u.getUnitBoxes().iterator();
+            while(boxesIt.hasNext())
+                succs.add(((UnitBox) boxesIt.next()).getUnit());
+        }
+
+        return succs;
+    }
+
+    private Value switchKey(Stmt s)
+    {
+        if(s instanceof TableSwitchStmt)
+            return ((TableSwitchStmt) s).getKey();
+        return ((LookupSwitchStmt) s).getKey();
+    }
+
+    /**
+     * Returns the box of the only target the switch can branch to, or
+     * null if it may branch to several or none.
+     **/
+    private UnitBox getSwitchTarget(Stmt s)
+    {
+        Constant keyC =
+            SEvaluator.getFuzzyConstantValueOf(switchKey(s), localToValue);
+
+        if(!(keyC instanceof IntConstant))
+            return null;
+
+        if(s instanceof TableSwitchStmt){
+            TableSwitchStmt table = (TableSwitchStmt) s;
+            int index = ((IntConstant) keyC).value - table.getLowIndex();
+
+            if(index < 0 || index > table.getHighIndex() - table.getLowIndex())
+                return table.getDefaultTargetBox();
+            return table.getTargetBox(index);
+        }
+
+        LookupSwitchStmt lookup = (LookupSwitchStmt) s;
+        int index = lookup.getLookupValues().indexOf(keyC);
+
+        if(index == -1)
+            return lookup.getDefaultTargetBox();
+        return lookup.getTargetBox(index);
+    }
+
+    /**
+     * Finds the executable conditional branches that always go the
+     * same way.
+     **/
+    private void findBranches()
+    {
+        Iterator unitsIt = sb.getUnits().iterator();
+        while(unitsIt.hasNext()){
+            Stmt s = (Stmt) unitsIt.next();
+            if(!isExecutable(s))
+                continue;
+
+            if(s instanceof IfStmt){
+                IfStmt ifStmt = (IfStmt) s;
+                Constant constant = 
+                    SEvaluator.getFuzzyConstantValueOf(ifStmt.getCondition(), localToValue);
+
+                if(constant.equals(IntConstant.v(1)))
+                    stmtToReplacement.put(ifStmt, Jimple.v().newGotoStmt(ifStmt.getTargetBox()));
+                else if(constant.equals(IntConstant.v(0)))
+                    deadStmts.add(ifStmt);
+            }
+            else if(s instanceof TableSwitchStmt || s instanceof LookupSwitchStmt){
+                UnitBox branchBox = getSwitchTarget(s);
+                if(branchBox != null)
+                    stmtToReplacement.put(s, Jimple.v().newGotoStmt(branchBox));
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.shimple.toolkits.scalar;
+
+import soot.*;
+import soot.jimple.*;
+import soot.shimple.*;
+import soot.toolkits.graph.*;
+
+/**
+ * A sparse nullness analysis on Shimple, which finds the Locals that
+ * are always null or never null.  It applies the rules of
+ * soot.jimple.toolkits.annotation.nullcheck.NullnessAnalysis to the
+ * definitions of the Locals: new objects, <tt>this</tt>, string and
+ * class constants are not null, copies and casts keep the nullness
+ * of their operand, and Phi nodes merge the nullness of their
+ * arguments.
+ *
+ * <p> In extended SSA form (see the <tt>extended</tt> Shimple
+ * option), the Pi nodes after a comparison of a Local with
+ * <tt>null</tt> tell the analysis what the Local is on each branch.
+ * Unlike NullnessAnalysis, this analysis does not learn that a Local
+ * is not null after it has been dereferenced, since the Local keeps
+ * its name after the dereference.
+ *
+ * @see soot.jimple.toolkits.annotation.nullcheck.NullnessAnalysis
+ * @see SparseSSAAnalysis
+ **/
+public class SNullnessAnalysis extends SparseSSAAnalysis<Integer>
+{
+    /** The definition of the Local has not been reached. **/
+    protected final static Integer TOP = new Integer(0);
+
+    /** The Local is always null. **/
+    protected final static Integer NULL = new Integer(1);
+
+    /** The Local is never null. **/
+    protected final static Integer NON_NULL = new Integer(2);
+
+    /** The Local may or may not be null. **/
+    protected final static Integer BOTTOM = new Integer(3);
+
+    public SNullnessAnalysis(UnitGraph graph)
+    {
+        super(graph);
+        doAnalysis();
+    }
+
+    /**
+     * Returns true if the analysis could determine that i is always
+     * null wherever it is used.
+     **/
+    public boolean isAlwaysNull(Immediate i)
+    {
+        if(i instanceof Local)
+            return getValue((Local) i).equals(NULL);
+        return i == NullConstant.v();
+    }
+
+    /**
+     * Returns true if the analysis could determine that i is never
+     * null wherever it is used.
+     **/
+    public boolean isAlwaysNonNull(Immediate i)
+    {
+        if(i instanceof Local)
+            return getValue((Local) i).equals(NON_NULL);
+        return i instanceof StringConstant || i instanceof ClassConstant;
+    }
+
+    /**
+     * This can be overwritten by subclasses to mark a certain value
+     * as constantly non-null.
+     * @param v any value
+     * @return true if it is known that this value (e.g. a method
+     * return value) is never null
+     **/
+    protected boolean isAlwaysNonNull(Value v)
+    {
+        return false;
+    }
+
+    protected Integer topValue()
+    {
+        return TOP;
+    }
+
+    protected Integer meet(Integer v1, Integer v2)
+    {
+        if(v1.equals(TOP))
+            return v2;
+        if(v2.equals(TOP) || v1.equals(v2))
+            return v1;
+        return BOTTOM;
+    }
+
+    protected Integer evaluate(Value v, Unit u)
+    {
+        // unbox casted value
+        if(v instanceof CastExpr)
+            v = ((CastExpr) v).getOp();
+
+        if(isAlwaysNonNull(v)
+           || v instanceof NewExpr || v instanceof NewArrayExpr
+           || v instanceof NewMultiArrayExpr || v instanceof ThisRef
+           || v instanceof StringConstant || v instanceof ClassConstant)
+            return NON_NULL;
+
+        if(v == NullConstant.v())
+            return NULL;
+
+        if(v instanceof Local || v instanceof PhiExpr)
+            return valueOf(v, u);
+
+        if(v instanceof PiExpr)
+            return evaluatePi((PiExpr) v, u);
+
+        return BOTTOM;
+    }
+
+    /**
+     * A Pi node after <tt>if x == null</tt> or <tt>if x != null</tt>
+     * knows whether x is null on its branch.
+     **/
+    private Integer evaluatePi(PiExpr pi, Unit u)
+    {
+        Integer value = valueOf(pi.getValue(), u);
+        if(value.equals(TOP))
+            return TOP;
+
+        Unit condStmt = pi.getCondStmt();
+        if(!(condStmt instanceof IfStmt) || !(pi.getTargetKey() instanceof Boolean))
+            return value;
+
+        Value condition = ((IfStmt) condStmt).getCondition();
+        if(!(condition instanceof EqExpr || condition instanceof NeExpr))
+            return value;
+
+        BinopExpr binop = (BinopExpr) condition;
+        Value tested = null;
+        if(binop.getOp1() == NullConstant.v())
+            tested = binop.getOp2();
+        else if(binop.getOp2() == NullConstant.v())
+            tested = binop.getOp1();
+
+        if(tested == null || !tested.equals(pi.getValue()))
+            return value;
+
+        // the branch is taken if the condition holds
+        boolean isNull = ((Boolean) pi.getTargetKey()).booleanValue();
+        if(condition instanceof NeExpr)
+            isNull = !isNull;
+        return isNull ? NULL : NON_NULL;
+    }
+}
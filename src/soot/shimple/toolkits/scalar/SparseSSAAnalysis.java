@@ -0,0 +1,222 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.shimple.toolkits.scalar;
+
+import soot.*;
+import soot.jimple.*;
+import soot.shimple.*;
+import soot.toolkits.graph.*;
+import soot.toolkits.scalar.*;
+import java.util.*;
+
+/**
+ * A framework for sparse dataflow analyses on Shimple.  Instead of
+ * keeping a flow set at every unit of the control flow graph, as
+ * FlowAnalysis does, a sparse analysis keeps a single value per
+ * Local, which is valid wherever the Local is used thanks to the SSA
+ * property.  Values are propagated along the def-use chains given by
+ * ShimpleLocalUses, and Phi nodes merge the values of their
+ * arguments.
+ *
+ * <p> As in the algorithm of Wegman and Zadeck, units are only
+ * evaluated once they are known to be executable.  The entry points
+ * of the graph and the trap handlers are executable, and so are the
+ * successors returned by getExecutableSuccsOf for an executable
+ * unit; subclasses can override it to take the values of the Locals
+ * used by a branch into account.  Every Local starts out as Top, the
+ * value of a Local whose definition has not been reached, which is
+ * the identity of meet.
+ *
+ * @see SConstantPropagatorAndFolder
+ * @see <a
+ * href="http://portal.acm.org/citation.cfm?id=103136">Constant
+ * Propagation with Conditional Branches</a>
+ **/
+public abstract class SparseSSAAnalysis<V>
+{
+    protected UnitGraph graph;
+    protected ShimpleBody sb;
+
+    /**
+     * A mapping of the Locals to their current value.
+     **/
+    protected Map<Local, V> localToValue;
+
+    /**
+     * The units found to be executable.
+     **/
+    protected Set<Unit> executable;
+
+    protected ShimpleLocalUses localUses;
+
+    public SparseSSAAnalysis(UnitGraph graph)
+    {
+        if(!(graph.getBody() instanceof ShimpleBody))
+            throw new RuntimeException("SparseSSAAnalysis requires a ShimpleBody.");
+
+        this.graph = graph;
+        this.sb = (ShimpleBody) graph.getBody();
+
+        if(!sb.isSSA())
+            throw new RuntimeException("ShimpleBody is not in proper SSA form as required by SparseSSAAnalysis.  You may need to rebuild it.");
+
+        localToValue = new HashMap<Local, V>(sb.getLocalCount() * 2 + 1, 0.7f);
+        executable = new HashSet<Unit>(graph.size() * 2 + 1, 0.7f);
+    }
+
+    /**
+     * Returns Top, the value of Locals whose definition has not been
+     * found to be executable.
+     **/
+    protected abstract V topValue();
+
+    /**
+     * Returns the meet of the two values.  Top is its identity.
+     **/
+    protected abstract V meet(V v1, V v2);
+
+    /**
+     * Returns the value of the expression v given the current values
+     * of the Locals, see getValue(Local).  Never called on Locals or
+     * Phi expressions, which valueOf handles.
+     **/
+    protected abstract V evaluate(Value v, Unit u);
+
+    /**
+     * Returns the successors of the executable unit u that are
+     * executable given the current values of the Locals.  By
+     * default, these are all the successors in the graph.
+     **/
+    protected List<Unit> getExecutableSuccsOf(Unit u)
+    {
+        return graph.getSuccsOf(u);
+    }
+
+    /**
+     * Returns the current value of the given Local.
+     **/
+    public V getValue(Local local)
+    {
+        V value = localToValue.get(local);
+        if(value == null)
+            return topValue();
+        return value;
+    }
+
+    /**
+     * Returns true if u was found to be executable.
+     **/
+    public boolean isExecutable(Unit u)
+    {
+        return executable.contains(u);
+    }
+
+    /**
+     * Returns the value of v, where v is the right hand side of a
+     * definition of a Local at u.  The value of a Phi expression is
+     * the meet of the values of its arguments.
+     **/
+    protected V valueOf(Value v, Unit u)
+    {
+        if(v instanceof Local)
+            return getValue((Local) v);
+
+        if(v instanceof PhiExpr){
+            V value = topValue();
+            Iterator<Value> argsIt = ((PhiExpr) v).getValues().iterator();
+            while(argsIt.hasNext())
+                value = meet(value, valueOf(argsIt.next(), u));
+            return value;
+        }
+
+        return evaluate(v, u);
+    }
+
+    /**
+     * Carries out the analysis.  Typically called from the
+     * constructor of a concrete analysis.
+     **/
+    protected void doAnalysis()
+    {
+        localUses = new ShimpleLocalUses(sb);
+
+        LinkedList<Unit> unitWorklist = new LinkedList<Unit>();
+        LinkedList<Local> localWorklist = new LinkedList<Local>();
+
+        Iterator<Unit> headsIt = graph.getHeads().iterator();
+        while(headsIt.hasNext()){
+            Unit head = headsIt.next();
+            if(executable.add(head))
+                unitWorklist.add(head);
+        }
+
+        // as in SCPFAnalysis, treat trap handlers as entry points
+        Iterator trapsIt = sb.getTraps().iterator();
+        while(trapsIt.hasNext()){
+            Unit handler = ((Trap) trapsIt.next()).getHandlerUnit();
+            if(executable.add(handler))
+                unitWorklist.add(handler);
+        }
+
+        while(!unitWorklist.isEmpty() || !localWorklist.isEmpty()){
+            while(!unitWorklist.isEmpty())
+                visit(unitWorklist.removeFirst(), unitWorklist, localWorklist);
+
+            // revisit the executable uses of Locals whose value changed
+            while(!localWorklist.isEmpty()){
+                Local local = localWorklist.removeFirst();
+                Iterator usesIt = localUses.getUsesOf(local).iterator();
+                while(usesIt.hasNext()){
+                    Unit use = ((UnitValueBoxPair) usesIt.next()).getUnit();
+                    if(executable.contains(use))
+                        visit(use, unitWorklist, localWorklist);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the executable unit u, updating the value of the Local
+     * it defines and marking its executable successors.
+     **/
+    private void visit(Unit u, List<Unit> unitWorklist, List<Local> localWorklist)
+    {
+        if(u instanceof DefinitionStmt){
+            DefinitionStmt dStmt = (DefinitionStmt) u;
+            Value left = dStmt.getLeftOp();
+            if(left instanceof Local){
+                Local local = (Local) left;
+                V current = getValue(local);
+                V value = meet(current, valueOf(dStmt.getRightOp(), u));
+                if(!value.equals(current)){
+                    localToValue.put(local, value);
+                    localWorklist.add(local);
+                }
+            }
+        }
+
+        Iterator<Unit> succsIt = getExecutableSuccsOf(u).iterator();
+        while(succsIt.hasNext()){
+            Unit succ = succsIt.next();
+            if(executable.add(succ))
+                unitWorklist.add(succ);
+        }
+    }
+}
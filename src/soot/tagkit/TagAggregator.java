@@ -42,7 +42,9 @@ public abstract class TagAggregator extends BodyTransformer {
     /** Return name of the resulting aggregated tag. */
     public abstract String aggregatedName();
 
-    protected void internalTransform(Body b, String phaseName, Map options)
+    // synchronized since tags and units are shared by all the bodies
+    // being transformed, which may happen on several threads at once.
+    protected synchronized void internalTransform(Body b, String phaseName, Map options)
     {
         BafBody body = (BafBody) b;
        
@@ -23,6 +23,8 @@ import soot.*;
 import soot.options.Options;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * <p>A class for representing the set of exceptions that an
@@ -77,11 +79,18 @@ import java.util.*;
  * <code>RefLikeType</code> objects it contains, though, because we trust
  * {@link Scene} to enforce the existence of only one 
  * <code>RefLikeType</code> instance with a given name.</p>
+ *
+ * <p><code>ThrowableSet</code>s may be used from several threads at
+ * once. They are interned by the numbers of their types, and each
+ * set memoizes the results of its <code>add()</code>,
+ * <code>catchableAs()</code> and <code>whichCatchableAs()</code>
+ * operations, which assumes that the class hierarchy does not change
+ * while the sets are in use.</p>
  */
 
 public final class ThrowableSet {
 
-    private static final boolean INSTRUMENTING = true;
+    private static final boolean INSTRUMENTING = false;
 
     /**
      * Singleton class for fields and initializers common to all
@@ -92,10 +101,13 @@ public final class ThrowableSet {
     public static class Manager {
 
 	/**
-	 * Map from {@link Integer}s representing set size to all
-	 * <code>ThrowableSet</code>s of that size.
+	 * Map from the type numbers of the included and excluded
+	 * exception types of each <code>ThrowableSet</code> to the set,
+	 * so that there is only one <code>ThrowableSet</code> with given
+	 * contents.
 	 */
-	private final Map<Integer, List> sizeToSets = new HashMap<Integer, List>();
+	private final ConcurrentMap<Key, ThrowableSet> sets 
+	    = new ConcurrentHashMap<Key, ThrowableSet>();
 
 	/**
 	 * <code>ThrowableSet</code> containing no exception classes.
@@ -306,26 +318,68 @@ public final class ThrowableSet {
 	    if (exclude == null) {
 		exclude = Collections.EMPTY_SET;
 	    }
-	    int size = include.size() + exclude.size();
-	    Integer sizeKey = new Integer(size);
+	    Key key = new Key(typeNumbers(include), typeNumbers(exclude));
+	    ThrowableSet result = sets.get(key);
+	    if (result == null) {
+		ThrowableSet newSet = new ThrowableSet(include, exclude);
+		result = sets.putIfAbsent(key, newSet);
+		if (result == null) {
+		    if (INSTRUMENTING) {
+			registeredSets++;
+		    }
+		    result = newSet;
+		}
+	    }
+	    return result;
+	}
+
+
+	/**
+	 * Returns the numbers of the types in <code>types</code>, in
+	 * increasing order. Since {@link Scene} makes only one instance
+	 * of each {@link RefLikeType}, two sets of types are equal if
+	 * and only if they have the same numbers.
+	 */
+	private static int[] typeNumbers(Set types) {
+	    int[] result = new int[types.size()];
+	    int i = 0;
+	    for (Iterator it = types.iterator(); it.hasNext(); ) {
+		result[i++] = ((Type) it.next()).getNumber();
+	    }
+	    Arrays.sort(result);
+	    return result;
+	}
 
-	    List<ThrowableSet> sizeList = sizeToSets.get(sizeKey);
-	    if (sizeList == null) {
-		sizeList = new LinkedList<ThrowableSet>();
-		sizeToSets.put(sizeKey, sizeList);
+
+	/**
+	 * The contents of a <code>ThrowableSet</code>, given by the
+	 * numbers of its included and excluded types.
+	 */
+	private static class Key {
+	    private final int[] included;
+	    private final int[] excluded;
+	    private final int hashCode;
+
+	    Key(int[] included, int[] excluded) {
+		this.included = included;
+		this.excluded = excluded;
+		this.hashCode = 31 * Arrays.hashCode(included) 
+		    + Arrays.hashCode(excluded);
 	    }
-	    for (ThrowableSet set : sizeList) {
-		if (set.exceptionsIncluded.equals(include) 
-		    && set.exceptionsExcluded.equals(exclude)) {
-		    return set;
+
+	    public boolean equals(Object o) {
+		if (! (o instanceof Key)) {
+		    return false;
 		}
+		Key k = (Key) o;
+		return hashCode == k.hashCode
+		    && Arrays.equals(included, k.included)
+		    && Arrays.equals(excluded, k.excluded);
 	    }
-	    if (INSTRUMENTING) {
-		registeredSets++;
+
+	    public int hashCode() {
+		return hashCode;
 	    }
-	    ThrowableSet result = new ThrowableSet(include, exclude);
-	    sizeList.add(result);
-	    return result;
 	}
 
 
@@ -337,11 +391,8 @@ public final class ThrowableSet {
 	 * @return a string listing the counts.
 	 */
 	public String reportInstrumentation() {
-	    int setCount = 0;
-	    for (List sizeList : sizeToSets.values()) {
-		setCount += sizeList.size();
-	    }
-	    if (setCount != registeredSets) {
+	    int setCount = sets.size();
+	    if (INSTRUMENTING && setCount != registeredSets) {
 		throw new IllegalStateException("ThrowableSet.reportInstrumentation() assertion failure: registeredSets != list count");
 	    }
 	    StringBuffer buf = new StringBuffer("registeredSets: ")
@@ -386,10 +437,22 @@ public final class ThrowableSet {
 
 	/**
 	 * A package-private method to provide unit tests with access
-	 * to the collection of ThrowableSets.   
+	 * to the collection of ThrowableSets, as a map from the size of
+	 * the sets to the sets of that size.
 	 */
 	Map<Integer, List> getSizeToSets() {
-	    return Manager.v().sizeToSets;
+	    Map<Integer, List> result = new HashMap<Integer, List>();
+	    for (ThrowableSet set : Manager.v().sets.values()) {
+		Integer size = new Integer(set.exceptionsIncluded.size() 
+					   + set.exceptionsExcluded.size());
+		List sizeList = result.get(size);
+		if (sizeList == null) {
+		    sizeList = new LinkedList<ThrowableSet>();
+		    result.put(size, sizeList);
+		}
+		sizeList.add(set);
+	    }
+	    return result;
 	}
     }
 
@@ -428,13 +491,44 @@ public final class ThrowableSet {
      * {@link RefLikeType}, then v is the set that results from adding
      * k to <code>this</code>.
      */
-    private Map<Object,ThrowableSet> memoizedAdds;
+    private volatile ConcurrentMap<Object,ThrowableSet> memoizedAdds;
+
+    /**
+     * Maps the {@link RefType}s passed to {@link
+     * #catchableAs(RefType)} to its result.
+     */
+    private volatile ConcurrentMap<RefType,Boolean> memoizedCatchableAs;
+
+    /**
+     * Maps the {@link RefType}s passed to {@link
+     * #whichCatchableAs(RefType)} to its result.
+     */
+    private volatile ConcurrentMap<RefType,Pair> memoizedWhichCatchableAs;
 
     private ThrowableSet getMemoizedAdds(Object key) {
-	if (memoizedAdds == null) {
-	    memoizedAdds = new HashMap();
+	Map<Object,ThrowableSet> memo = memoizedAdds;
+	if (memo == null) {
+	    return null;
+	}
+	return memo.get(key);
+    }
+
+
+    /**
+     * Records the result of adding <code>key</code> to this set, so
+     * that {@link #getMemoizedAdds(Object)} can find it later.
+     */
+    private void memoizeAdd(Object key, ThrowableSet result) {
+	ConcurrentMap<Object,ThrowableSet> memo = memoizedAdds;
+	if (memo == null) {
+	    synchronized (this) {
+		if (memoizedAdds == null) {
+		    memoizedAdds = new ConcurrentHashMap<Object,ThrowableSet>();
+		}
+		memo = memoizedAdds;
+	    }
 	}
-	return memoizedAdds.get(key);
+	memo.put(key, result);
     }
 
 
@@ -548,7 +642,7 @@ public final class ThrowableSet {
 			// is not an AnySubType.
 			RefType incumbentBase = ((AnySubType) incumbent).getBase();
 			if (hierarchy.canStoreType(e, incumbentBase)) {
-			    memoizedAdds.put(e, this);
+			    memoizeAdd(e, this);
 			    return this;
 			}
 		    } else if (! (incumbent instanceof RefType)) {
@@ -562,7 +656,7 @@ public final class ThrowableSet {
 		resultSet.add(e);
 		result = Manager.v().registerSetIfNew(resultSet, 
 						      this.exceptionsExcluded);
-		memoizedAdds.put(e, result);
+		memoizeAdd(e, result);
 		return result;
 	    }
 	}
@@ -705,7 +799,7 @@ public final class ThrowableSet {
 		} else {
 		    result = this;
 		}
-		memoizedAdds.put(e, result);
+		memoizeAdd(e, result);
 		return result;
 	    }
 	}
@@ -742,7 +836,7 @@ public final class ThrowableSet {
 		Manager.v().addsExclusionWithoutSearch++;
 	    }
 	    result = this.add(s.exceptionsIncluded);
-	    memoizedAdds.put(s, result);
+	    memoizeAdd(s, result);
 	} else if (INSTRUMENTING) {
 	    Manager.v().addsInclusionFromMemo++;
 	    Manager.v().addsExclusionWithoutSearch++;
@@ -863,7 +957,25 @@ public final class ThrowableSet {
 	if (INSTRUMENTING) {
 	    Manager.v().catchableAsQueries++;
 	}
+	ConcurrentMap<RefType,Boolean> memo = memoizedCatchableAs;
+	if (memo == null) {
+	    synchronized (this) {
+		if (memoizedCatchableAs == null) {
+		    memoizedCatchableAs = new ConcurrentHashMap<RefType,Boolean>();
+		}
+		memo = memoizedCatchableAs;
+	    }
+	}
+	Boolean result = memo.get(catcher);
+	if (result == null) {
+	    result = Boolean.valueOf(computeCatchableAs(catcher));
+	    memo.put(catcher, result);
+	}
+	return result.booleanValue();
+    }
+
 
+    private boolean computeCatchableAs(RefType catcher) {
 	FastHierarchy h = Scene.v().getOrMakeFastHierarchy();
 
 	if (exceptionsExcluded.size() > 0) {
@@ -935,7 +1047,25 @@ public final class ThrowableSet {
 	if (INSTRUMENTING) {
 	    Manager.v().removesOfAnySubType++;
 	}
+	ConcurrentMap<RefType,Pair> memo = memoizedWhichCatchableAs;
+	if (memo == null) {
+	    synchronized (this) {
+		if (memoizedWhichCatchableAs == null) {
+		    memoizedWhichCatchableAs = new ConcurrentHashMap<RefType,Pair>();
+		}
+		memo = memoizedWhichCatchableAs;
+	    }
+	}
+	Pair result = memo.get(catcher);
+	if (result == null) {
+	    result = computeWhichCatchableAs(catcher);
+	    memo.put(catcher, result);
+	}
+	return result;
+    }
+
 
+    private Pair computeWhichCatchableAs(RefType catcher) {
 	FastHierarchy h = Scene.v().getOrMakeFastHierarchy();
 	Set caughtIncluded = null;
 	Set caughtExcluded = null;
@@ -0,0 +1,443 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.toolkits.graph;
+
+import soot.*;
+import soot.util.*;
+import java.util.*;
+
+import soot.options.Options;
+import soot.toolkits.exceptions.ThrowAnalysis;
+
+
+/**
+ *  <p>An {@link ExceptionalUnitGraph} which stores its edges in
+ *  arrays of <code>int</code>s rather than in maps from {@link Unit}s
+ *  to lists of <code>Unit</code>s.</p>
+ *
+ *  <p>The units of the {@link Body} are numbered once, in the order
+ *  of the unit chain, when the graph is built. The unexceptional, the
+ *  exceptional and all the successors and predecessors are each kept
+ *  in compressed sparse row form: the numbers of the successors of
+ *  the unit numbered <code>i</code> are stored in one array from
+ *  <code>offsets[i]</code> to <code>offsets[i+1]</code>.  The lists
+ *  returned by {@link #getSuccsOf(Unit)} and the like are
+ *  unmodifiable views of these arrays.  The graph therefore uses a
+ *  few arrays in all instead of a map entry and a list for every
+ *  unit, which matters for methods with many units and for clients
+ *  that keep many graphs, such as interprocedural control flow
+ *  graphs.</p>
+ *
+ *  <p>The graph has the same nodes, heads, tails and edges, in the
+ *  same order, as the <code>ExceptionalUnitGraph</code> built with
+ *  the same parameters. Like it, it does not change when the
+ *  <code>Body</code> changes.</p>
+ */
+public class CompactExceptionalUnitGraph extends ExceptionalUnitGraph
+{
+    /** The units of the body, in the order of the unit chain. */
+    protected Unit[] units;
+
+    /** Open addressing table from units to their number. */
+    private Unit[] indexKeys;
+    private int[] indexValues;
+
+    private int[] unexceptionalSuccOffsets, unexceptionalSuccs;
+    private int[] unexceptionalPredOffsets, unexceptionalPreds;
+    private int[] exceptionalSuccOffsets, exceptionalSuccs;
+    private int[] exceptionalPredOffsets, exceptionalPreds;
+    private int[] succOffsets, succs;
+    private int[] predOffsets, preds;
+
+    /**
+     *  Constructs the graph for a given Body instance, using the
+     *  <code>ThrowAnalysis</code> and <code>omitExceptingUnitEdges</code>
+     *  value that are passed as parameters.
+     *
+     *  @see ExceptionalUnitGraph#ExceptionalUnitGraph(Body, ThrowAnalysis, boolean)
+     */
+    public CompactExceptionalUnitGraph(Body body, ThrowAnalysis throwAnalysis,
+                                       boolean omitExceptingUnitEdges) {
+        super(body, false);
+        initialize(throwAnalysis, omitExceptingUnitEdges);
+    }
+
+
+    /**
+     *  Constructs the graph from a given Body instance using the
+     *  passed {@link ThrowAnalysis} and a default value, provided by
+     *  the {@link Options} class, for the
+     *  <code>omitExceptingUnitEdges</code> parameter.
+     */
+    public CompactExceptionalUnitGraph(Body body, ThrowAnalysis throwAnalysis) {
+        this(body, throwAnalysis, Options.v().omit_excepting_unit_edges());
+    }
+
+
+    /**
+     *  Constructs the graph from a given Body instance, using the
+     *  {@link Scene}'s default {@link ThrowAnalysis} and a default
+     *  value, provided by the {@link Options} class, for the
+     *  <code>omitExceptingUnitEdges</code> parameter.
+     */
+    public CompactExceptionalUnitGraph(Body body) {
+        this(body, Scene.v().getDefaultThrowAnalysis(),
+             Options.v().omit_excepting_unit_edges());
+    }
+
+
+    protected void initialize(ThrowAnalysis throwAnalysis,
+                              boolean omitExceptingUnitEdges) {
+        if(Options.v().time())
+            Timers.v().graphTimer.start();
+
+        this.throwAnalysis = throwAnalysis;
+        numberUnits();
+        buildUnexceptionalEdges();
+
+        Set<Unit> trapUnitsThatAreHeads = Collections.emptySet();
+        if (body.getTraps().size() == 0) {
+            unitToExceptionDests = Collections.emptyMap();
+            exceptionalSuccOffsets = exceptionalPredOffsets = new int[units.length + 1];
+            exceptionalSuccs = exceptionalPreds = new int[0];
+            succOffsets = unexceptionalSuccOffsets;
+            succs = unexceptionalSuccs;
+            predOffsets = unexceptionalPredOffsets;
+            preds = unexceptionalPreds;
+        } else {
+            // The exceptional edges are only found for the trapped
+            // units, so they are first collected in maps.
+            unitToExceptionDests = buildExceptionDests(throwAnalysis);
+            unitToExceptionalSuccs =
+                new HashMap<Unit,List<Unit>>(unitToExceptionDests.size() * 2 + 1, 0.7f);
+            unitToExceptionalPreds =
+                new HashMap<Unit,List<Unit>>(body.getTraps().size() * 2 + 1, 0.7f);
+            trapUnitsThatAreHeads = buildExceptionalEdges(throwAnalysis,
+                                                          unitToExceptionDests,
+                                                          unitToExceptionalSuccs,
+                                                          unitToExceptionalPreds,
+                                                          omitExceptingUnitEdges);
+            exceptionalSuccOffsets = new int[units.length + 1];
+            exceptionalSuccs = toArrays(unitToExceptionalSuccs, exceptionalSuccOffsets);
+            exceptionalPredOffsets = new int[units.length + 1];
+            exceptionalPreds = toArrays(unitToExceptionalPreds, exceptionalPredOffsets);
+            unitToExceptionalSuccs = null;
+            unitToExceptionalPreds = null;
+
+            succOffsets = new int[units.length + 1];
+            succs = combine(unexceptionalSuccOffsets, unexceptionalSuccs,
+                            exceptionalSuccOffsets, exceptionalSuccs, succOffsets);
+            predOffsets = new int[units.length + 1];
+            preds = combine(unexceptionalPredOffsets, unexceptionalPreds,
+                            exceptionalPredOffsets, exceptionalPreds, predOffsets);
+        }
+
+        buildHeadsAndTails(trapUnitsThatAreHeads);
+
+        if(Options.v().time())
+            Timers.v().graphTimer.end();
+
+        soot.util.PhaseDumper.v().dumpGraph(this);
+    }
+
+
+    /** Numbers the units in the order of the unit chain. */
+    private void numberUnits() {
+        int size = unitChain.size();
+        units = new Unit[size];
+        int capacity = 4;
+        while (capacity < size * 2)
+            capacity <<= 1;
+        indexKeys = new Unit[capacity];
+        indexValues = new int[capacity];
+
+        int i = 0;
+        for (Iterator<Unit> unitIt = unitChain.iterator(); unitIt.hasNext(); ) {
+            Unit u = unitIt.next();
+            units[i] = u;
+            int slot = slot(u);
+            indexKeys[slot] = u;
+            indexValues[slot] = i;
+            i++;
+        }
+    }
+
+
+    /** Returns the slot of u in the index, or the free slot where it belongs. */
+    private int slot(Unit u) {
+        int mask = indexKeys.length - 1;
+        int slot = System.identityHashCode(u) & mask;
+        while (indexKeys[slot] != null && indexKeys[slot] != u)
+            slot = (slot + 1) & mask;
+        return slot;
+    }
+
+
+    /**
+     *  Returns the number of u in this graph, which is its position in
+     *  the unit chain when the graph was built.
+     *
+     *  @throws RuntimeException if u is not in this graph.
+     */
+    public int getNumber(Unit u) {
+        int slot = slot(u);
+        if (indexKeys[slot] == null)
+            throw new RuntimeException("Invalid unit " + u);
+        return indexValues[slot];
+    }
+
+
+    /** Returns the unit numbered i in this graph. */
+    public Unit getUnit(int i) {
+        return units[i];
+    }
+
+
+    /**
+     *  Computes the edges corresponding to unexceptional control flow,
+     *  in the same order as {@link UnitGraph#buildUnexceptionalEdges(Map, Map)}.
+     */
+    private void buildUnexceptionalEdges() {
+        int n = units.length;
+        unexceptionalSuccOffsets = new int[n + 1];
+        int[] targets = new int[n + 1];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            Unit u = units[i];
+            unexceptionalSuccOffsets[i] = count;
+            if (u.fallsThrough() && i + 1 < n)
+                targets = add(targets, count++, i + 1);
+            if (u.branches()) {
+                for (Iterator<UnitBox> targetIt = u.getUnitBoxes().iterator();
+                     targetIt.hasNext(); ) {
+                    int target = getNumber(targetIt.next().getUnit());
+                    // screen for duplicates, as UnitGraph does
+                    boolean present = false;
+                    for (int j = unexceptionalSuccOffsets[i]; j < count && !present; j++)
+                        present = targets[j] == target;
+                    if (!present)
+                        targets = add(targets, count++, target);
+                }
+            }
+        }
+        unexceptionalSuccOffsets[n] = count;
+        unexceptionalSuccs = trim(targets, count);
+
+        unexceptionalPredOffsets = new int[n + 1];
+        unexceptionalPreds = transpose(unexceptionalSuccOffsets, unexceptionalSuccs,
+                                       unexceptionalPredOffsets);
+    }
+
+
+    private static int[] add(int[] array, int index, int value) {
+        if (index == array.length)
+            array = trim(array, array.length * 2);
+        array[index] = value;
+        return array;
+    }
+
+
+    private static int[] trim(int[] array, int length) {
+        int[] result = new int[length];
+        System.arraycopy(array, 0, result, 0,
+                         Math.min(length, array.length));
+        return result;
+    }
+
+
+    /**
+     *  Returns the edges of the given graph reversed, filling in
+     *  reverseOffsets. The sources of the edges into a node are in the
+     *  order of their numbers.
+     */
+    private static int[] transpose(int[] offsets, int[] targets, int[] reverseOffsets) {
+        int n = reverseOffsets.length - 1;
+        int[] counts = new int[n + 1];
+        for (int j = 0; j < offsets[n]; j++)
+            counts[targets[j] + 1]++;
+        for (int i = 0; i < n; i++)
+            counts[i + 1] += counts[i];
+        System.arraycopy(counts, 0, reverseOffsets, 0, n + 1);
+        int[] sources = new int[offsets[n]];
+        for (int i = 0; i < n; i++)
+            for (int j = offsets[i]; j < offsets[i + 1]; j++)
+                sources[counts[targets[j]]++] = i;
+        return sources;
+    }
+
+
+    /** Copies the lists in map into an array, filling in offsets. */
+    private int[] toArrays(Map<Unit,List<Unit>> map, int[] offsets) {
+        int count = 0;
+        for (List<Unit> list : map.values())
+            count += list.size();
+        int[] result = new int[count];
+        count = 0;
+        for (int i = 0; i < units.length; i++) {
+            offsets[i] = count;
+            List<Unit> list = map.get(units[i]);
+            if (list != null)
+                for (Iterator<Unit> it = list.iterator(); it.hasNext(); )
+                    result[count++] = getNumber(it.next());
+        }
+        offsets[units.length] = count;
+        return result;
+    }
+
+
+    /**
+     *  Returns the union of the lists of the two graphs, filling in
+     *  offsets, in the same order as {@link
+     *  UnitGraph#combineMapValues(Map, Map)}: the longer list first,
+     *  followed by the elements of the other one which it lacks.
+     */
+    private static int[] combine(int[] offsetsA, int[] a, int[] offsetsB, int[] b,
+                                 int[] offsets) {
+        int n = offsets.length - 1;
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            offsets[i] = count;
+            int[] first = a, second = b;
+            int firstStart = offsetsA[i], firstEnd = offsetsA[i + 1];
+            int secondStart = offsetsB[i], secondEnd = offsetsB[i + 1];
+            if (firstEnd - firstStart < secondEnd - secondStart) {
+                first = b; second = a;
+                firstStart = offsetsB[i]; firstEnd = offsetsB[i + 1];
+                secondStart = offsetsA[i]; secondEnd = offsetsA[i + 1];
+            }
+            for (int j = firstStart; j < firstEnd; j++)
+                result[count++] = first[j];
+            for (int j = secondStart; j < secondEnd; j++) {
+                boolean present = false;
+                for (int k = offsets[i]; k < count && !present; k++)
+                    present = result[k] == second[j];
+                if (!present)
+                    result[count++] = second[j];
+            }
+        }
+        offsets[n] = count;
+        return count == result.length ? result : trim(result, count);
+    }
+
+
+    /**
+     *  Defines the heads and tails of the graph, as {@link
+     *  ExceptionalUnitGraph} does.
+     */
+    private void buildHeadsAndTails(Set<Unit> additionalHeads) {
+        List<Unit> headList = new ArrayList<Unit>(additionalHeads.size() + 1);
+        headList.addAll(additionalHeads);
+        Unit entryPoint = unitChain.getFirst();
+        if (! headList.contains(entryPoint)) {
+            headList.add(entryPoint);
+        }
+
+        List<Unit> tailList = new ArrayList<Unit>();
+        for (int i = 0; i < units.length; i++) {
+            Unit u = units[i];
+            if (u instanceof soot.jimple.ReturnStmt ||
+                u instanceof soot.jimple.ReturnVoidStmt ||
+                u instanceof soot.baf.ReturnInst ||
+                u instanceof soot.baf.ReturnVoidInst) {
+                tailList.add(u);
+            } else if (u instanceof soot.jimple.ThrowStmt ||
+                       u instanceof soot.baf.ThrowInst) {
+                for (Iterator<ExceptionDest> destIt = getExceptionDests(u).iterator();
+                     destIt.hasNext(); ) {
+                    if (destIt.next().getTrap() == null) {
+                        tailList.add(u);
+                        break;
+                    }
+                }
+            }
+        }
+        tails = Collections.unmodifiableList(tailList);
+        heads = Collections.unmodifiableList(headList);
+    }
+
+
+    /** An unmodifiable view of a range of an array of unit numbers. */
+    private class UnitList extends AbstractList<Unit> implements RandomAccess {
+        private final int[] array;
+        private final int start, end;
+
+        UnitList(int[] array, int start, int end) {
+            this.array = array;
+            this.start = start;
+            this.end = end;
+        }
+
+        public Unit get(int index) {
+            if (index < 0 || index >= end - start)
+                throw new IndexOutOfBoundsException("Index: " + index
+                                                    + ", Size: " + (end - start));
+            return units[array[start + index]];
+        }
+
+        public int size() {
+            return end - start;
+        }
+    }
+
+
+    private List<Unit> list(int[] offsets, int[] array, Unit u) {
+        int i = getNumber(u);
+        if (offsets[i] == offsets[i + 1])
+            return Collections.emptyList();
+        return new UnitList(array, offsets[i], offsets[i + 1]);
+    }
+
+
+    public List<Unit> getPredsOf(Unit u) {
+        return list(predOffsets, preds, u);
+    }
+
+
+    public List<Unit> getSuccsOf(Unit u) {
+        return list(succOffsets, succs, u);
+    }
+
+
+    public List<Unit> getUnexceptionalPredsOf(Unit u) {
+        return list(unexceptionalPredOffsets, unexceptionalPreds, u);
+    }
+
+
+    public List<Unit> getUnexceptionalSuccsOf(Unit u) {
+        return list(unexceptionalSuccOffsets, unexceptionalSuccs, u);
+    }
+
+
+    public List<Unit> getExceptionalPredsOf(Unit u) {
+        // While the graph is built, the exceptional edges are in maps.
+        if (exceptionalPreds == null)
+            return super.getExceptionalPredsOf(u);
+        return list(exceptionalPredOffsets, exceptionalPreds, u);
+    }
+
+
+    public List<Unit> getExceptionalSuccsOf(Unit u) {
+        if (exceptionalSuccs == null)
+            return super.getExceptionalSuccsOf(u);
+        return list(exceptionalSuccOffsets, exceptionalSuccs, u);
+    }
+
+}
@@ -78,11 +78,8 @@ public class ArrayPackedSet extends AbstractBoundedFlowSet
     {
         int count = 0;
 
-        for (int word : bits) {
-            for(int j = 0; j < 32; j++)
-                if((word & (1 << j)) != 0)
-                    count++;
-        }
+        for (int word : bits)
+            count += Integer.bitCount(word);
 
         return count;
     }
@@ -26,17 +26,17 @@
 
 package soot.toolkits.scalar;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeSet;
 
 import soot.options.Options;
 import soot.toolkits.graph.DirectedGraph;
-import soot.toolkits.graph.PseudoTopologicalOrderer;
 import soot.toolkits.graph.interaction.FlowInfo;
 import soot.toolkits.graph.interaction.InteractionHandler;
 
@@ -60,139 +60,117 @@ public abstract class BackwardFlowAnalysis<N,A> extends FlowAnalysis<N,A>
         return false;
     }
 
+    @SuppressWarnings("unchecked")
     protected void doAnalysis()
     {
-        final Map<N, Integer> numbers = new HashMap<N, Integer>();
         List<N> orderedUnits = constructOrderer().newList(graph,true);
-        int i = 1;
-        for( Iterator<N> uIt = orderedUnits.iterator(); uIt.hasNext(); ) {
-            final N u = uIt.next();
-            numbers.put(u, new Integer(i));
-            i++;
-        }
-
-        Collection<N> changedUnits = constructWorklist(numbers);
 
+        // Number the nodes in the order of the orderer once, and keep
+        // the flow objects and the numbers of the successors of each
+        // node in arrays indexed by these numbers.
+        int numNodes = orderedUnits.size();
+        List<N> units = new ArrayList<N>(orderedUnits);
+        Map<N, Integer> numbers = new HashMap<N, Integer>(numNodes * 2 + 1, 0.7f);
+        for (int i = 0; i < numNodes; i++)
+            numbers.put(units.get(i), new Integer(i));
+
+        A[] beforeFlows = (A[]) new Object[numNodes];
+        A[] afterFlows = (A[]) new Object[numNodes];
+        int[][] preds = new int[numNodes][];
+        int[][] succs = new int[numNodes][];
+        boolean[] isTail = new boolean[numNodes];
 
         // Set initial Flows and nodes to visit.
-        {
-            Iterator<N> it = graph.iterator();
-
-            while(it.hasNext())
-            {
-                N s = it.next();
-
-                changedUnits.add(s);
-
-                unitToBeforeFlow.put(s, newInitialFlow());
-                unitToAfterFlow.put(s, newInitialFlow());
-            }
+        for (int i = 0; i < numNodes; i++) {
+            N s = units.get(i);
+            preds[i] = numbersOf(graph.getPredsOf(s), numbers);
+            succs[i] = numbersOf(graph.getSuccsOf(s), numbers);
+            beforeFlows[i] = newInitialFlow();
+            afterFlows[i] = newInitialFlow();
         }
 
-        List<N> tails = graph.getTails();
-        
         // Feng Qian: March 07, 2002
         // init entry points
-        {
-            Iterator<N> it = tails.iterator();
-            
-            while (it.hasNext()) {
-                N s = it.next();
-                // this is a backward flow analysis
-                unitToAfterFlow.put(s, entryInitialFlow());
-            }
+        for (N s : graph.getTails()) {
+            int i = numbers.get(s).intValue();
+            isTail[i] = true;
+            // this is a backward flow analysis
+            afterFlows[i] = entryInitialFlow();
         }
 
-        // Perform fixed point flow analysis
-        {
-            A previousBeforeFlow = newInitialFlow();
-
-            while(!changedUnits.isEmpty())
-            {
-                A beforeFlow;
-                A afterFlow;
-
-                //get the first object
-                N s = changedUnits.iterator().next();
-                changedUnits.remove(s);
-                boolean isTail = tails.contains(s);
-
-                copy(unitToBeforeFlow.get(s), previousBeforeFlow);
-
-                // Compute and store afterFlow
-                {
-                    List<N> succs = graph.getSuccsOf(s);
-
-                    afterFlow =  unitToAfterFlow.get(s);
-
-                    if(succs.size() == 1)
-                        copy(unitToBeforeFlow.get(succs.get(0)), afterFlow);
-                    else if(succs.size() != 0)
-                    {
-                        Iterator<N> succIt = succs.iterator();
-
-                        copy(unitToBeforeFlow.get(succIt.next()), afterFlow);
+        // The maps hold the same flow objects, which are updated in place.
+        for (int i = 0; i < numNodes; i++) {
+            unitToBeforeFlow.put(units.get(i), beforeFlows[i]);
+            unitToAfterFlow.put(units.get(i), afterFlows[i]);
+        }
 
-                        while(succIt.hasNext())
-                        {
-                            A otherBranchFlow = unitToBeforeFlow.get(succIt.next());
-                            mergeInto(s, afterFlow, otherBranchFlow);
-                        }
+        // Perform fixed point flow analysis, always visiting the changed
+        // node that comes first in the order.
+        BitSet changedUnits = new BitSet(numNodes);
+        changedUnits.set(0, numNodes);
+        for (int i = changedUnits.nextSetBit(0); i >= 0; i = changedUnits.nextSetBit(0))
+        {
+            changedUnits.clear(i);
+            N s = units.get(i);
+
+            // Compute and store afterFlow
+            A afterFlow = afterFlows[i];
+            int[] succNums = succs[i];
+            if (succNums.length == 1)
+                copy(beforeFlows[succNums[0]], afterFlow);
+            else if (succNums.length != 0) {
+                copy(beforeFlows[succNums[0]], afterFlow);
+                for (int p = 1; p < succNums.length; p++)
+                    mergeInto(s, afterFlow, beforeFlows[succNums[p]]);
+                if (isTail[i])
+                    mergeInto(s, afterFlow, entryInitialFlow());
+            }
 
-                        if(isTail && succs.size() != 0)
-                            mergeInto(s, afterFlow, entryInitialFlow());
-                    }
+            // Compute beforeFlow and store it.
+            A beforeFlow = beforeFlows[i];
+            if (Options.v().interactive_mode()){
+                A savedFlow = newInitialFlow();
+                if (filterUnitToAfterFlow != null){
+                    savedFlow = filterUnitToAfterFlow.get(s);
+                    copy(filterUnitToAfterFlow.get(s), savedFlow);
                 }
-
-                // Compute beforeFlow and store it.
-                {
-                    beforeFlow = unitToBeforeFlow.get(s);
-                    if (Options.v().interactive_mode()){
-                        A savedFlow = newInitialFlow();
-                        if (filterUnitToAfterFlow != null){
-                            savedFlow = filterUnitToAfterFlow.get(s);
-                            copy(filterUnitToAfterFlow.get(s), savedFlow);
-                        }
-                        else {
-                            copy(afterFlow, savedFlow);
-                        }
-                        FlowInfo fi = new FlowInfo(savedFlow, s, false);
-                        if (InteractionHandler.v().getStopUnitList() != null && InteractionHandler.v().getStopUnitList().contains(s)){
-                            InteractionHandler.v().handleStopAtNodeEvent(s);
-                        }
-                        InteractionHandler.v().handleAfterAnalysisEvent(fi);
-                    }
-                    flowThrough(afterFlow, s, beforeFlow);
-                    if (Options.v().interactive_mode()){
-                        A bSavedFlow = newInitialFlow();
-                        if (filterUnitToBeforeFlow != null){
-                            bSavedFlow = filterUnitToBeforeFlow.get(s);
-                            copy(filterUnitToBeforeFlow.get(s), bSavedFlow);
-                        }
-                        else {
-                            copy(beforeFlow, bSavedFlow);
-                        }
-                        FlowInfo fi = new FlowInfo(bSavedFlow, s, true);
-                        InteractionHandler.v().handleBeforeAnalysisEvent(fi);
-                    }
+                else {
+                    copy(afterFlow, savedFlow);
+                }
+                FlowInfo fi = new FlowInfo(savedFlow, s, false);
+                if (InteractionHandler.v().getStopUnitList() != null && InteractionHandler.v().getStopUnitList().contains(s)){
+                    InteractionHandler.v().handleStopAtNodeEvent(s);
+                }
+                InteractionHandler.v().handleAfterAnalysisEvent(fi);
+            }
+            boolean changed = flowThroughChanged(afterFlow, s, beforeFlow);
+            if (Options.v().interactive_mode()){
+                A bSavedFlow = newInitialFlow();
+                if (filterUnitToBeforeFlow != null){
+                    bSavedFlow = filterUnitToBeforeFlow.get(s);
+                    copy(filterUnitToBeforeFlow.get(s), bSavedFlow);
+                }
+                else {
+                    copy(beforeFlow, bSavedFlow);
                 }
+                FlowInfo fi = new FlowInfo(bSavedFlow, s, true);
+                InteractionHandler.v().handleBeforeAnalysisEvent(fi);
+            }
 
-                // Update queue appropriately
-                    if(!beforeFlow.equals(previousBeforeFlow))
-                    {
-                        Iterator<N> predIt = graph.getPredsOf(s).iterator();
-
-                        while(predIt.hasNext())
-                        {
-                            N pred = predIt.next();
-                            
-                            changedUnits.add(pred);
-                        }
-                    }
+            // Update queue appropriately
+            if (changed) {
+                for (int pred : preds[i])
+                    changedUnits.set(pred);
             }
         }
     }
     
+	/**
+	 * No longer used: doAnalysis visits the nodes in the order given by
+	 * constructOrderer(), which is the extension point to change it.
+	 * @deprecated override {@link #constructOrderer()} instead
+	 */
+	@Deprecated
 	protected Collection<N> constructWorklist(final Map<N, Integer> numbers) {
 		return new TreeSet<N>( new Comparator<N>() {
             public int compare(N o1, N o2) {
@@ -0,0 +1,212 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.toolkits.scalar;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import soot.Body;
+import soot.Local;
+import soot.Scene;
+import soot.Trap;
+import soot.Unit;
+import soot.UnitBox;
+import soot.Value;
+import soot.ValueBox;
+import soot.jimple.CastExpr;
+import soot.jimple.InvokeExpr;
+import soot.options.Options;
+import soot.toolkits.graph.CompactExceptionalUnitGraph;
+import soot.toolkits.graph.DominatorTree;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.MHGDominatorsFinder;
+
+
+/**
+ *   Caches the control flow graph of a Body, its dominators, and the
+ *   local definitions and uses computed on it, so that the transformers
+ *   that run one after another on the Body can share them. The graph is
+ *   a CompactExceptionalUnitGraph built with the default throw analysis, and
+ *   the local definitions and uses are a SmartLocalDefs and a
+ *   SimpleLocalUses on it.
+ *
+ *   Before handing out a cached analysis, the cache checks that the
+ *   Body has not changed since the analysis was computed: that its
+ *   units, the values and targets in their boxes, and its traps are the
+ *   same objects in the same order, and that the locals have the same
+ *   types. If anything changed, all cached analyses are dropped and
+ *   computed again. Other changes inside a value that do not replace any
+ *   of its boxes' contents are not seen; call invalidate() after making
+ *   them.
+ *   The analyses are only softly referenced, so they do not keep memory
+ *   from the garbage collector.
+ *
+ *   @see Body#getAnalysisCache()
+ */
+public class BodyAnalysisCache
+{
+    private final Body body;
+    private SoftReference<Analyses> cached;
+
+    /** The analyses computed for one state of the Body. */
+    private static class Analyses
+    {
+        /** The units, box contents and traps of the Body, in order. */
+        Object[] state;
+        ExceptionalUnitGraph graph;
+        MHGDominatorsFinder<Unit> dominatorsFinder;
+        DominatorTree dominatorTree;
+        LocalDefs localDefs;
+        LocalUses localUses;
+    }
+
+    public BodyAnalysisCache(Body body)
+    {
+        this.body = body;
+    }
+
+    /** Returns the ExceptionalUnitGraph of the Body. */
+    public synchronized ExceptionalUnitGraph getExceptionalUnitGraph()
+    {
+        return graph(current());
+    }
+
+    /** Returns the dominators of the units in the ExceptionalUnitGraph. */
+    public synchronized MHGDominatorsFinder<Unit> getDominatorsFinder()
+    {
+        return dominatorsFinder(current());
+    }
+
+    /** Returns the dominator tree of the ExceptionalUnitGraph. */
+    public synchronized DominatorTree getDominatorTree()
+    {
+        Analyses a = current();
+        if (a.dominatorTree == null)
+            a.dominatorTree = new DominatorTree(dominatorsFinder(a));
+        return a.dominatorTree;
+    }
+
+    /** Returns the local definitions on the ExceptionalUnitGraph. */
+    public synchronized LocalDefs getLocalDefs()
+    {
+        return localDefs(current());
+    }
+
+    /** Returns the local uses on the ExceptionalUnitGraph. */
+    public synchronized LocalUses getLocalUses()
+    {
+        Analyses a = current();
+        if (a.localUses == null)
+            a.localUses = new SimpleLocalUses(graph(a), localDefs(a));
+        return a.localUses;
+    }
+
+    private ExceptionalUnitGraph graph(Analyses a)
+    {
+        if (a.graph == null)
+            a.graph = new CompactExceptionalUnitGraph(body);
+        return a.graph;
+    }
+
+    private MHGDominatorsFinder<Unit> dominatorsFinder(Analyses a)
+    {
+        if (a.dominatorsFinder == null)
+            a.dominatorsFinder = new MHGDominatorsFinder<Unit>(graph(a));
+        return a.dominatorsFinder;
+    }
+
+    private LocalDefs localDefs(Analyses a)
+    {
+        if (a.localDefs == null)
+            a.localDefs = new SmartLocalDefs(graph(a), new SimpleLiveLocals(graph(a)));
+        return a.localDefs;
+    }
+
+    /** Drops all cached analyses. */
+    public synchronized void invalidate()
+    {
+        cached = null;
+    }
+
+    /** Returns the analyses cached for the current state of the Body,
+     * dropping them first if the Body changed. */
+    private Analyses current()
+    {
+        List<Object> state = state();
+        Analyses a = cached == null ? null : cached.get();
+        if (a == null || !sameState(a.state, state)) {
+            a = new Analyses();
+            a.state = state.toArray();
+            cached = new SoftReference<Analyses>(a);
+        }
+        return a;
+    }
+
+    private static boolean sameState(Object[] old, List<Object> state)
+    {
+        if (old.length != state.size())
+            return false;
+        for (int i = 0; i < old.length; i++)
+            if (old[i] != state.get(i))
+                return false;
+        return true;
+    }
+
+    /** Lists the units of the Body with the contents of their boxes, the
+     * types of the locals, cast types and methods called among them, and
+     * the traps with their units and exception. */
+    private List<Object> state()
+    {
+        List<Object> state = new ArrayList<Object>(body.getUnits().size() * 4);
+        state.add(Scene.v().getDefaultThrowAnalysis());
+        state.add(Boolean.valueOf(Options.v().omit_excepting_unit_edges()));
+        Iterator unitsIt = body.getUnits().iterator();
+        while (unitsIt.hasNext()) {
+            Unit u = (Unit) unitsIt.next();
+            state.add(u);
+            Iterator boxesIt = u.getUseAndDefBoxes().iterator();
+            while (boxesIt.hasNext()) {
+                Value v = ((ValueBox) boxesIt.next()).getValue();
+                state.add(v);
+                // the exceptions a unit may throw depend on these
+                if (v instanceof Local)
+                    state.add(v.getType());
+                else if (v instanceof CastExpr)
+                    state.add(((CastExpr) v).getCastType());
+                else if (v instanceof InvokeExpr)
+                    state.add(((InvokeExpr) v).getMethodRef());
+            }
+            boxesIt = u.getUnitBoxes().iterator();
+            while (boxesIt.hasNext())
+                state.add(((UnitBox) boxesIt.next()).getUnit());
+        }
+        Iterator trapsIt = body.getTraps().iterator();
+        while (trapsIt.hasNext()) {
+            Trap t = (Trap) trapsIt.next();
+            state.add(t);
+            state.add(t.getBeginUnit());
+            state.add(t.getEndUnit());
+            state.add(t.getHandlerUnit());
+            state.add(t.getException());
+        }
+        return state;
+    }
+}
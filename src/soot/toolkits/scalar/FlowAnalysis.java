@@ -27,6 +27,7 @@
 package soot.toolkits.scalar;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import soot.toolkits.graph.DirectedGraph;
@@ -64,12 +65,45 @@ public abstract class FlowAnalysis<N,A> extends AbstractFlowAnalysis<N,A>
      * */
     protected abstract void flowThrough(A in, N d, A out);
 
+    /**
+     * Calls flowThrough(in, d, out) and returns whether <code>out</code>
+     * changed. The fixed point iteration uses this to decide whether the
+     * nodes depending on <code>d</code> must be visited again.
+     * The default implementation compares <code>out</code> with a copy of
+     * its previous value. Analyses whose flow function can tell whether
+     * it changed <code>out</code> may override it to save the copy. In
+     * particular, if the flow function is monotone and the flow sets only
+     * grow while the analysis iterates, <code>out</code> changed if and
+     * only if its size did.
+     */
+    protected boolean flowThroughChanged(A in, N d, A out)
+    {
+        if (previousFlow == null)
+            previousFlow = newInitialFlow();
+        copy(out, previousFlow);
+        flowThrough(in, d, out);
+        return !out.equals(previousFlow);
+    }
+
+    /** Holds the previous value of the result of flowThroughChanged. */
+    private A previousFlow;
+
     /** Accessor function returning value of OUT set for s. */
     public A getFlowAfter(N s)
     {
         return unitToAfterFlow.get(s);
     }
     
+    /** Returns the numbers that <code>numbers</code> gives the nodes. */
+    static <N> int[] numbersOf(List<N> nodes, Map<N, Integer> numbers)
+    {
+        int[] ret = new int[nodes.size()];
+        int i = 0;
+        for (N n : nodes)
+            ret[i++] = numbers.get(n).intValue();
+        return ret;
+    }
+
 	/**
 	 * Default implementation constructing a PseudoTopologicalOrderer. 
 	 * @return an Orderer to order the nodes for the fixed-point iteration 
@@ -52,144 +52,113 @@ public abstract class ForwardFlowAnalysis<N,A> extends FlowAnalysis<N,A>
         return true;
     }
 
+    @SuppressWarnings("unchecked")
     protected void doAnalysis()
     {
-        final Map<N, Integer> numbers = new HashMap<N, Integer>();
 //        Timers.v().orderComputation = new soot.Timer();
 //        Timers.v().orderComputation.start();
         List<N> orderedUnits = constructOrderer().newList(graph,false);
 //        Timers.v().orderComputation.end();
-        int i = 1;
-        for( Iterator<N> uIt = orderedUnits.iterator(); uIt.hasNext(); ) {
-            final N u = uIt.next();
-            numbers.put(u, new Integer(i));
-            i++;
-        }
-
-        Collection<N> changedUnits = constructWorklist(numbers);
 
-        List<N> heads = graph.getHeads();
-        int numNodes = graph.size();
+        // Number the nodes in the order of the orderer once, and keep
+        // the flow objects and the numbers of the predecessors of each
+        // node in arrays indexed by these numbers.
+        int numNodes = orderedUnits.size();
+        List<N> units = new ArrayList<N>(orderedUnits);
+        Map<N, Integer> numbers = new HashMap<N, Integer>(numNodes * 2 + 1, 0.7f);
+        for (int i = 0; i < numNodes; i++)
+            numbers.put(units.get(i), new Integer(i));
+
+        A[] beforeFlows = (A[]) new Object[numNodes];
+        A[] afterFlows = (A[]) new Object[numNodes];
+        int[][] preds = new int[numNodes][];
+        int[][] succs = new int[numNodes][];
+        boolean[] isHead = new boolean[numNodes];
         int numComputations = 0;
-        
-        // Set initial values and nodes to visit.
-        {
-            Iterator<N> it = graph.iterator();
-
-            while(it.hasNext())
-            {
-                N s = it.next();
-
-                changedUnits.add(s);
 
-                unitToBeforeFlow.put(s, newInitialFlow());
-                unitToAfterFlow.put(s, newInitialFlow());
-            }
+        // Set initial values and nodes to visit.
+        for (int i = 0; i < numNodes; i++) {
+            N s = units.get(i);
+            preds[i] = numbersOf(graph.getPredsOf(s), numbers);
+            succs[i] = numbersOf(graph.getSuccsOf(s), numbers);
+            beforeFlows[i] = newInitialFlow();
+            afterFlows[i] = newInitialFlow();
         }
 
         // Feng Qian: March 07, 2002
         // Set initial values for entry points
-        {
-            Iterator<N> it = heads.iterator();
-            
-            while (it.hasNext()) {
-                N s = it.next();
-                // this is a forward flow analysis
-                unitToBeforeFlow.put(s, entryInitialFlow());
-            }
+        for (N s : graph.getHeads()) {
+            int i = numbers.get(s).intValue();
+            isHead[i] = true;
+            // this is a forward flow analysis
+            beforeFlows[i] = entryInitialFlow();
         }
-        
-        // Perform fixed point flow analysis
+
+        // The maps hold the same flow objects, which are updated in place.
+        for (int i = 0; i < numNodes; i++) {
+            unitToBeforeFlow.put(units.get(i), beforeFlows[i]);
+            unitToAfterFlow.put(units.get(i), afterFlows[i]);
+        }
+
+        // Perform fixed point flow analysis, always visiting the changed
+        // node that comes first in the order.
+        BitSet changedUnits = new BitSet(numNodes);
+        changedUnits.set(0, numNodes);
+        for (int i = changedUnits.nextSetBit(0); i >= 0; i = changedUnits.nextSetBit(0))
         {
-            A previousAfterFlow = newInitialFlow();
-
-            while(!changedUnits.isEmpty())
-            {
-                A beforeFlow;
-                A afterFlow;
-
-                //get the first object
-                N s = changedUnits.iterator().next();
-                changedUnits.remove(s);
-                boolean isHead = heads.contains(s);
-
-                copy(unitToAfterFlow.get(s), previousAfterFlow);
-
-                // Compute and store beforeFlow
-                {
-                    List<N> preds = graph.getPredsOf(s);
-
-                    beforeFlow = unitToBeforeFlow.get(s);
-                    
-                    if(preds.size() == 1)
-                        copy(unitToAfterFlow.get(preds.get(0)), beforeFlow);
-                    else if(preds.size() != 0)
-                    {
-                        Iterator<N> predIt = preds.iterator();
-
-                        copy(unitToAfterFlow.get(predIt.next()), beforeFlow);
-
-                        while(predIt.hasNext())
-                        {
-                            A otherBranchFlow = unitToAfterFlow.get(predIt.next());
-                            mergeInto(s, beforeFlow, otherBranchFlow);
-                        }
-                    }
-
-                    if(isHead && preds.size() != 0)
-                    		mergeInto(s, beforeFlow, entryInitialFlow());
-                    	}
-                
-                {
-                    // Compute afterFlow and store it.
-                    afterFlow = unitToAfterFlow.get(s);
-                    if (Options.v().interactive_mode()){
-                        
-                        A savedInfo = newInitialFlow();
-                        if (filterUnitToBeforeFlow != null){
-                            savedInfo = filterUnitToBeforeFlow.get(s);
-                            copy(filterUnitToBeforeFlow.get(s), savedInfo);
-                        }
-                        else {
-                            copy(beforeFlow, savedInfo);
-                        }
-                        FlowInfo fi = new FlowInfo(savedInfo, s, true);
-                        if (InteractionHandler.v().getStopUnitList() != null && InteractionHandler.v().getStopUnitList().contains(s)){
-                            InteractionHandler.v().handleStopAtNodeEvent(s);
-                        }
-                        InteractionHandler.v().handleBeforeAnalysisEvent(fi);
-                    }
-                    flowThrough(beforeFlow, s, afterFlow);
-                    if (Options.v().interactive_mode()){
-                        A aSavedInfo = newInitialFlow();
-                        if (filterUnitToAfterFlow != null){
-                            aSavedInfo = filterUnitToAfterFlow.get(s);
-                            copy(filterUnitToAfterFlow.get(s), aSavedInfo);
-                        }
-                        else {
-                            copy(afterFlow, aSavedInfo);
-                        }
-                        FlowInfo fi = new FlowInfo(aSavedInfo, s, false);
-                        InteractionHandler.v().handleAfterAnalysisEvent(fi);
-                    }
-                    numComputations++;
-                }
+            changedUnits.clear(i);
+            N s = units.get(i);
+
+            // Compute and store beforeFlow
+            A beforeFlow = beforeFlows[i];
+            int[] predNums = preds[i];
+            if (predNums.length != 0) {
+                copy(afterFlows[predNums[0]], beforeFlow);
+                for (int p = 1; p < predNums.length; p++)
+                    mergeInto(s, beforeFlow, afterFlows[predNums[p]]);
+                if (isHead[i])
+                    mergeInto(s, beforeFlow, entryInitialFlow());
+            }
 
-                // Update queue appropriately
-                    if(!afterFlow.equals(previousAfterFlow))
-                    {
-                        Iterator<N> succIt = graph.getSuccsOf(s).iterator();
-
-                        while(succIt.hasNext())
-                        {
-                            N succ = succIt.next();
-                            
-                            changedUnits.add(succ);
-                        }
-                    }
+            // Compute afterFlow and store it.
+            A afterFlow = afterFlows[i];
+            if (Options.v().interactive_mode()){
+                A savedInfo = newInitialFlow();
+                if (filterUnitToBeforeFlow != null){
+                    savedInfo = filterUnitToBeforeFlow.get(s);
+                    copy(filterUnitToBeforeFlow.get(s), savedInfo);
+                }
+                else {
+                    copy(beforeFlow, savedInfo);
                 }
+                FlowInfo fi = new FlowInfo(savedInfo, s, true);
+                if (InteractionHandler.v().getStopUnitList() != null && InteractionHandler.v().getStopUnitList().contains(s)){
+                    InteractionHandler.v().handleStopAtNodeEvent(s);
+                }
+                InteractionHandler.v().handleBeforeAnalysisEvent(fi);
             }
-        
+            boolean changed = flowThroughChanged(beforeFlow, s, afterFlow);
+            if (Options.v().interactive_mode()){
+                A aSavedInfo = newInitialFlow();
+                if (filterUnitToAfterFlow != null){
+                    aSavedInfo = filterUnitToAfterFlow.get(s);
+                    copy(filterUnitToAfterFlow.get(s), aSavedInfo);
+                }
+                else {
+                    copy(afterFlow, aSavedInfo);
+                }
+                FlowInfo fi = new FlowInfo(aSavedInfo, s, false);
+                InteractionHandler.v().handleAfterAnalysisEvent(fi);
+            }
+            numComputations++;
+
+            // Update queue appropriately
+            if (changed) {
+                for (int succ : succs[i])
+                    changedUnits.set(succ);
+            }
+        }
+
         // G.v().out.println(graph.getBody().getMethod().getSignature() + " numNodes: " + numNodes + 
         //    " numComputations: " + numComputations + " avg: " + Main.truncatedOf((double) numComputations / numNodes, 2));
         
@@ -197,6 +166,12 @@ public abstract class ForwardFlowAnalysis<N,A> extends FlowAnalysis<N,A>
         Timers.v().totalFlowComputations += numComputations;
     }
     
+	/**
+	 * No longer used: doAnalysis visits the nodes in the order given by
+	 * constructOrderer(), which is the extension point to change it.
+	 * @deprecated override {@link #constructOrderer()} instead
+	 */
+	@Deprecated
 	protected Collection<N> constructWorklist(final Map<N, Integer> numbers) {
 		return new TreeSet<N>( new Comparator<N>() {
             public int compare(N o1, N o2) {
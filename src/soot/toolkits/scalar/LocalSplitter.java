@@ -58,10 +58,13 @@ import java.util.*;
  */
 public class LocalSplitter extends BodyTransformer
 {
+    /** The throw analysis to use, or null for the Scene's default one,
+     * which is looked up when transforming, so that making the singleton
+     * does not create the Scene before the options are set. */
     private final ThrowAnalysis throwAnalysis;
 
 	public LocalSplitter( Singletons.Global g ) {
-		throwAnalysis = Scene.v().getDefaultThrowAnalysis();
+		throwAnalysis = null;
 	}
 	
 	public LocalSplitter(ThrowAnalysis throwAnalysis) {
@@ -85,7 +88,9 @@ public class LocalSplitter extends BodyTransformer
 
         // Go through the definitions, building the webs
         {
-            ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body,throwAnalysis,true);
+            ExceptionalUnitGraph graph = new ExceptionalUnitGraph(body,
+                    throwAnalysis == null ? Scene.v().getDefaultThrowAnalysis() : throwAnalysis,
+                    true);
 
             LocalDefs localDefs;
             
@@ -210,6 +210,14 @@ class SimpleLiveLocalsAnalysis extends BackwardFlowAnalysis
             out.union(unitToGenerateSet.get(unit), out);
     }
 
+    protected boolean flowThroughChanged(Object inValue, Object unit, Object outValue)
+    {
+        FlowSet out = (FlowSet) outValue;
+        int oldSize = out.size();
+        flowThrough(inValue, unit, outValue);
+        return out.size() != oldSize;
+    }
+
     protected void merge(Object in1, Object in2, Object out)
     {
         FlowSet inSet1 = (FlowSet) in1,
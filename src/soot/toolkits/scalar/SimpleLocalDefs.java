@@ -454,6 +454,14 @@ class LocalDefsFlowAnalysis extends ForwardFlowAnalysis
         sourceSet.copy(destSet);
     }
 
+    protected boolean flowThroughChanged(Object inValue, Object d, Object outValue)
+    {
+        FlowSet out = (FlowSet) outValue;
+        int oldSize = out.size();
+        flowThrough(inValue, d, outValue);
+        return out.size() != oldSize;
+    }
+
     protected void merge(Object in1, Object in2, Object out)
     {
         FlowSet inSet1 = (FlowSet) in1,
@@ -143,6 +143,13 @@ public class SmartLocalDefs implements LocalDefs
             outSet.addAll(inSet2);
         }
 		
+        protected boolean flowThroughChanged(Object inValue, Object unit, Object outValue) {
+            HashSet out = (HashSet) outValue;
+            int oldSize = out.size();
+            flowThrough(inValue, unit, outValue);
+            return out.size() != oldSize;
+        }
+
         protected void flowThrough(Object inValue, Object unit, Object outValue) {
             Unit u = (Unit) unit;
             HashSet in = (HashSet) inValue;
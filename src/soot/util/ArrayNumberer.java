@@ -29,18 +29,34 @@ import java.util.*;
 public class ArrayNumberer<E> implements IterableNumberer<E> {
     Numberable[] numberToObj = new Numberable[1024];
     int lastNumber = 0;
+    /** The numberer of a shared library (see soot.SharedLibrary) that
+     * this one continues, or null; objects it numbered keep their
+     * numbers, and new objects are numbered after them. */
+    private final IterableNumberer<E> base;
+    private final int baseSize;
+
+    public ArrayNumberer() { this( null ); }
+
+    /** Makes a numberer which continues base; base must not number any
+     * more objects. */
+    public ArrayNumberer( IterableNumberer<E> base ) {
+        this.base = base;
+        this.baseSize = base == null ? 0 : base.size();
+        this.lastNumber = baseSize;
+    }
 
     public void add( E oo ) {
         Numberable o = (Numberable) oo;
         if( o.getNumber() != 0 ) return;
         
         ++lastNumber;
-        if( lastNumber >= numberToObj.length ) {
+        int index = lastNumber - baseSize;
+        if( index >= numberToObj.length ) {
             Numberable[] newnto = new Numberable[numberToObj.length*2];
             System.arraycopy(numberToObj, 0, newnto, 0, numberToObj.length);
             numberToObj = newnto;
         }
-        numberToObj[lastNumber] = o;
+        numberToObj[index] = o;
         o.setNumber( lastNumber );
     }
 
@@ -54,7 +70,8 @@ public class ArrayNumberer<E> implements IterableNumberer<E> {
 
 	public E get( long number ) {
         if( number == 0 ) return null;
-        E ret = (E) numberToObj[(int) number];
+        if( number <= baseSize ) return base.get( number );
+        E ret = (E) numberToObj[(int) (number - baseSize)];
         if( ret == null ) throw new RuntimeException( "no object with number "+number );
         return ret;
     }
@@ -66,13 +83,19 @@ public class ArrayNumberer<E> implements IterableNumberer<E> {
     }
 
     final class NumbererIterator implements Iterator<E> {
+        Iterator<E> baseIt = base == null ? null : base.iterator();
         int cur = 1;
         public final boolean hasNext() {
+            if( baseIt != null ) {
+                if( baseIt.hasNext() ) return true;
+                baseIt = null;
+            }
             return cur < numberToObj.length && numberToObj[cur] != null;
         }
 
 		public final E next() { 
             if( !hasNext() ) throw new NoSuchElementException();
+            if( baseIt != null ) return baseIt.next();
             return (E) numberToObj[cur++];
         }
         public final void remove() {
@@ -108,6 +108,12 @@ public class BitVector
         if( indexOf(bit) >= bits.length ) return false;
         return ( bits[indexOf(bit)] & mask(bit) ) != 0L;
     }
+    /** Returns bits index*64 to index*64+63, with the lowest-numbered bit
+     * in the least significant position. */
+    public long getWord( int index ) {
+        if( index >= bits.length ) return 0L;
+        return bits[index];
+    }
     public int hashCode() {
         long ret = 0;
         for (long element : bits) {
@@ -0,0 +1,152 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.util;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/** A numberer like ArrayNumberer which can be used by several threads at
+ * once. Looking up an object by its number takes no lock. Numbers are
+ * handed out by an atomic counter, and an object is given its number
+ * while holding one of a set of striped locks, so that two threads adding
+ * the same object do not give it two numbers. Numbers stay dense, as the
+ * bit sets and numbered maps built over the numberer require.
+ */
+
+public class ConcurrentArrayNumberer<E> implements IterableNumberer<E> {
+    private static final int CHUNK_BITS = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    /** The objects by number, in chunks which are never moved once
+     * created; only the array of chunks is copied when it grows. */
+    private volatile AtomicReferenceArray[] chunks =
+        new AtomicReferenceArray[] { new AtomicReferenceArray(CHUNK_SIZE) };
+    /** The last number handed out. */
+    private final AtomicInteger handedOut = new AtomicInteger();
+    /** The largest number such that the objects with this and all lower
+     * numbers are stored; this is what size() returns. */
+    private final AtomicInteger published = new AtomicInteger();
+    private final Object[] locks = new Object[64];
+    /** The numberer of a shared library that this one continues, or null,
+     * as in ArrayNumberer. */
+    private final IterableNumberer<E> base;
+    private final int baseSize;
+
+    public ConcurrentArrayNumberer() { this( null ); }
+
+    /** Makes a numberer which continues base; base must not number any
+     * more objects. */
+    public ConcurrentArrayNumberer( IterableNumberer<E> base ) {
+        for( int i = 0; i < locks.length; i++ ) locks[i] = new Object();
+        this.base = base;
+        this.baseSize = base == null ? 0 : base.size();
+        handedOut.set( baseSize );
+        published.set( baseSize );
+    }
+
+    public void add( E oo ) {
+        Numberable o = (Numberable) oo;
+        if( o.getNumber() != 0 ) return;
+        synchronized( locks[System.identityHashCode(o) & (locks.length-1)] ) {
+            if( o.getNumber() != 0 ) {
+                publish();
+                return;
+            }
+            int number = handedOut.incrementAndGet();
+            int index = number - baseSize;
+            chunk( index ).set( index & (CHUNK_SIZE-1), o );
+            o.setNumber( number );
+        }
+        publish();
+    }
+
+    /** Moves size() past the objects which have been stored. Every thread
+     * does this after storing its object, so whichever stores the object
+     * after the last one published moves size() past both. */
+    private void publish() {
+        while( true ) {
+            int n = published.get();
+            if( n >= handedOut.get() || slot( n+1 ) == null ) return;
+            published.compareAndSet( n, n+1 );
+        }
+    }
+
+    private AtomicReferenceArray chunk( int index ) {
+        int c = index >>> CHUNK_BITS;
+        AtomicReferenceArray[] cs = chunks;
+        if( c < cs.length ) return cs[c];
+        synchronized( this ) {
+            cs = chunks;
+            if( c >= cs.length ) {
+                AtomicReferenceArray[] newcs =
+                    new AtomicReferenceArray[Math.max( cs.length*2, c+1 )];
+                System.arraycopy( cs, 0, newcs, 0, cs.length );
+                for( int i = cs.length; i < newcs.length; i++ )
+                    newcs[i] = new AtomicReferenceArray( CHUNK_SIZE );
+                chunks = cs = newcs;
+            }
+            return cs[c];
+        }
+    }
+
+    private Object slot( long number ) {
+        long index = number - baseSize;
+        AtomicReferenceArray[] cs = chunks;
+        int c = (int) (index >>> CHUNK_BITS);
+        return c < cs.length ? cs[c].get( (int) index & (CHUNK_SIZE-1) ) : null;
+    }
+
+    public long get( E oo ) {
+        if( oo == null ) return 0;
+        Numberable o = (Numberable) oo;
+        int ret = o.getNumber();
+        if( ret == 0 ) throw new RuntimeException( "unnumbered: "+o );
+        return ret;
+    }
+
+    public E get( long number ) {
+        if( number == 0 ) return null;
+        if( number <= baseSize ) return base.get( number );
+        E ret = (E) slot( number );
+        if( ret == null ) throw new RuntimeException( "no object with number "+number );
+        return ret;
+    }
+
+    /** Returns the number of objects added, counting only those whose
+     * number and all lower numbers can already be looked up. */
+    public int size() { return published.get(); }
+
+    /** Iterates over the objects in the order of their numbers, up to
+     * size() at the time each step is taken. */
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            int cur = 1;
+            public boolean hasNext() {
+                return cur <= published.get();
+            }
+            public E next() {
+                if( !hasNext() ) throw new NoSuchElementException();
+                return get( cur++ );
+            }
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+}
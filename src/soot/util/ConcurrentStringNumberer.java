@@ -0,0 +1,75 @@
+/* Soot - a J*va Optimization Framework
+ * Copyright (C) 2026 Soot contributors
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the
+ * Free Software Foundation, Inc., 59 Temple Place - Suite 330,
+ * Boston, MA 02111-1307, USA.
+ */
+
+package soot.util;
+import java.util.*;
+import java.util.concurrent.*;
+
+/** A StringNumberer which can be used by several threads at once.
+ * Strings which have already been numbered are found without taking a
+ * lock; when two threads add the same new string, both get the
+ * NumberedString of the one which was put into the map first. It
+ * extends StringNumberer only so that it can be used where the Scene's
+ * subsignature numberer is; the strings are kept in a
+ * ConcurrentHashMap and numbered by a ConcurrentArrayNumberer, not in
+ * the inherited map and array.
+ */
+
+public class ConcurrentStringNumberer extends StringNumberer {
+    private final ConcurrentHashMap<String, NumberedString> concurrentStringToNumbered =
+        new ConcurrentHashMap<String, NumberedString>(1024);
+    private final ConcurrentArrayNumberer<NumberedString> numberer;
+    private final StringNumberer base;
+
+    public ConcurrentStringNumberer() { this( null ); }
+
+    /** Makes a numberer which continues base, as StringNumberer does. */
+    public ConcurrentStringNumberer( StringNumberer base ) {
+        this.base = base;
+        numberer = new ConcurrentArrayNumberer<NumberedString>( base );
+    }
+
+    public NumberedString find( String s ) {
+        return findOrAdd( s );
+    }
+    public NumberedString findOrAdd( String s ) {
+        NumberedString ret = lookup( s );
+        if( ret == null ) {
+            NumberedString ns = new NumberedString( s );
+            ret = concurrentStringToNumbered.putIfAbsent( s, ns );
+            if( ret == null ) ret = ns;
+        }
+        // a string put into the map by another thread may not have been
+        // numbered yet; adding it again is harmless
+        numberer.add( ret );
+        return ret;
+    }
+
+    public NumberedString lookup( String s ) {
+        NumberedString ret = concurrentStringToNumbered.get( s );
+        if( ret == null && base != null ) ret = base.lookup( s );
+        return ret;
+    }
+
+    public void add( NumberedString o ) { numberer.add( o ); }
+    public long get( NumberedString o ) { return numberer.get( o ); }
+    public NumberedString get( long number ) { return numberer.get( number ); }
+    public int size() { return numberer.size(); }
+    public Iterator<NumberedString> iterator() { return numberer.iterator(); }
+}
@@ -28,7 +28,7 @@ import java.util.*;
  */
 
 public final class LargeNumberedMap {
-    public LargeNumberedMap( ArrayNumberer universe ) {
+    public LargeNumberedMap( IterableNumberer universe ) {
         this.universe = universe;
         int newsize = universe.size();
         if( newsize < 8 ) newsize = 8;
@@ -72,5 +72,5 @@ public final class LargeNumberedMap {
     /* Private stuff. */
 
     private Object[] values;
-    private ArrayNumberer universe;
+    private IterableNumberer universe;
 }
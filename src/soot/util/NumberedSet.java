@@ -26,7 +26,7 @@ import java.util.*;
  */
 
 public final class NumberedSet {
-    public NumberedSet( ArrayNumberer universe ) {
+    public NumberedSet( IterableNumberer universe ) {
         this.universe = universe;
     }
     public boolean add( Numberable o ) {
@@ -152,6 +152,6 @@ public final class NumberedSet {
     private Numberable[] array = new Numberable[8];
     private BitVector bits;
     private int size = 0;
-    private ArrayNumberer universe;
+    private IterableNumberer universe;
 
 }
@@ -26,7 +26,7 @@ import java.util.*;
  */
 
 public final class SmallNumberedMap {
-    public SmallNumberedMap( ArrayNumberer universe ) {
+    public SmallNumberedMap( IterableNumberer universe ) {
         this.universe = universe;
     }
     /** Associates a value with a key. */
@@ -145,5 +145,5 @@ public final class SmallNumberedMap {
     private Numberable[] array = new Numberable[8];
     private Object[] values = new Object[8];
     private int size = 0;
-    private ArrayNumberer universe;
+    private IterableNumberer universe;
 }
@@ -27,21 +27,35 @@ import java.util.*;
 
 public class StringNumberer extends ArrayNumberer<NumberedString> {
     HashMap<String, NumberedString> stringToNumbered = new HashMap<String, NumberedString>(1024);
+    /** The numberer of a shared library that this one continues, or null:
+     * the strings it numbered are found there, and keep their numbers. */
+    private final StringNumberer base;
+
+    public StringNumberer() { this( null ); }
+
+    /** Makes a numberer which continues base; base must not number any
+     * more strings. */
+    public StringNumberer( StringNumberer base ) {
+        super( base );
+        this.base = base;
+    }
 
     public NumberedString find( String s ) {
+        return findOrAdd( s );
+    }
+    public NumberedString findOrAdd( String s ) {
         NumberedString ret = stringToNumbered.get( s );
+        if( ret == null && base != null ) ret = base.lookup( s );
         if( ret == null ) {
             stringToNumbered.put( s, ret = new NumberedString(s) );
             add( ret );
         }
         return ret;
     }
-    public NumberedString findOrAdd( String s ) {
+    /** Returns the NumberedString of s, or null if s has not been added. */
+    public NumberedString lookup( String s ) {
         NumberedString ret = stringToNumbered.get( s );
-        if( ret == null ) {
-            stringToNumbered.put( s, ret = new NumberedString(s) );
-            add( ret );
-        }
+        if( ret == null && base != null ) ret = base.lookup( s );
         return ret;
     }
 }
@@ -39,6 +39,14 @@ public class TagCollector {
 		return attributes.isEmpty() && keys.isEmpty();
 	}
 
+	/** Appends the attributes and keys gathered by <code>tc</code>
+	 * to the ones gathered by this collector, preserving their order.
+	 */
+	public void addAll(TagCollector tc) {
+		attributes.addAll(tc.attributes);
+		keys.addAll(tc.keys);
+	}
+
     /** Convenience function for <code>collectTags(sc, true)</code>. */
     public void collectTags(SootClass sc){ 
 		collectTags(sc, true); 
@@ -0,0 +1,206 @@
+package soot;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import junit.framework.TestCase;
+import soot.options.Options;
+
+/**
+ * Checks the -cache-dir class cache on library classes from the JUnit
+ * jar: that a second run finds the classes it stored and gets the same
+ * bodies, that only the bodies that were constructed are stored, and
+ * which changes invalidate an entry.
+ */
+public class ClassCacheTest extends TestCase {
+
+    private static final String LIBRARY = "junit.framework.Assert";
+    private static final String APPLICATION = "junit.runner.Version";
+
+    private File cacheDir;
+    private File appDir;
+
+    public ClassCacheTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws IOException {
+        cacheDir = tempDir("cache");
+        appDir = tempDir("app");
+        extract(APPLICATION, appDir);
+    }
+
+    protected void tearDown() {
+        G.reset();
+        delete(cacheDir);
+        delete(appDir);
+    }
+
+    public void testHit() {
+        Map<String, String> miss = run("void assertTrue(boolean)", "void fail()");
+        assertFalse(hit);
+        Map<String, String> hit1 = run("void assertTrue(boolean)", "void fail()");
+        assertTrue(hit);
+        assertEquals(miss, hit1);
+    }
+
+    public void testOnlyConstructedBodiesStored() throws IOException {
+        run("void fail()");
+        assertEquals(1, storedBodies());
+        // The entry lacks assertTrue, which is constructed from the class
+        // file and added to the entry.
+        Map<String, String> hit1 = run("void assertTrue(boolean)", "void fail()");
+        assertTrue(hit);
+        assertEquals(2, storedBodies());
+        assertEquals(plainRun("void assertTrue(boolean)", "void fail()"), hit1);
+        assertEquals(hit1, run("void assertTrue(boolean)", "void fail()"));
+        assertEquals(2, storedBodies());
+    }
+
+    public void testClassFileChanged() throws IOException {
+        File libDir = tempDir("lib");
+        try {
+            File classFile = extract(LIBRARY, libDir);
+            run(libDir, "void fail()");
+            run(libDir, "void fail()");
+            assertTrue(hit);
+            // Bytes after the end of the class are ignored by coffi, but
+            // change the hash of the class file.
+            FileOutputStream out = new FileOutputStream(classFile, true);
+            out.write(0);
+            out.close();
+            run(libDir, "void fail()");
+            assertFalse(hit);
+        } finally {
+            delete(libDir);
+        }
+    }
+
+    public void testJbOptionsChanged() {
+        run("void fail()");
+        jbOptions = "use-original-names:true";
+        run("void fail()");
+        assertFalse(hit);
+        run("void fail()");
+        assertTrue(hit);
+    }
+
+    /** Changing an application class must not invalidate the entries of
+     * the library classes. */
+    public void testApplicationClassChanged() throws IOException {
+        run("void fail()");
+        FileOutputStream out = new FileOutputStream(classFile(APPLICATION, appDir), true);
+        out.write(0);
+        out.close();
+        run("void fail()");
+        assertTrue(hit);
+    }
+
+    /** Whether the library class came from the cache in the last run. */
+    private boolean hit;
+    private String jbOptions = "use-original-names:false";
+
+    private Map<String, String> run(String... methods) {
+        return run(null, methods);
+    }
+
+    /** Resets Soot with the application class in appDir, and the library
+     * from libDir, if given, and the JUnit jar, caching to cacheDir.
+     * Constructs the bodies of the given methods of the library class,
+     * stores the cache, and returns the bodies by method. */
+    private Map<String, String> run(File libDir, String... methods) {
+        ClassFileProgram.reset(1);
+        String classPath = appDir.getPath() + File.pathSeparator
+            + (libDir == null ? "" : libDir.getPath() + File.pathSeparator)
+            + ClassFileProgram.jar();
+        Options.v().set_soot_classpath(classPath);
+        Options.v().set_process_dir(Collections.singletonList(appDir.getPath()));
+        Options.v().set_cache_dir(cacheDir.getPath());
+        PhaseOptions.v().setPhaseOption("jb", jbOptions);
+        Scene.v().loadNecessaryClasses();
+        Map<String, String> ret = bodies(methods);
+        ClassCache.v().store();
+        return ret;
+    }
+
+    /** Returns the bodies of the given methods of the library class,
+     * constructed without the cache. */
+    private Map<String, String> plainRun(String... methods) {
+        ClassFileProgram.reset(1);
+        Scene.v().loadNecessaryClasses();
+        return bodies(methods);
+    }
+
+    private Map<String, String> bodies(String... methods) {
+        SootClass c = Scene.v().forceResolve(LIBRARY, SootClass.BODIES);
+        hit = false;
+        Map<String, String> ret = new TreeMap<String, String>();
+        for (String m : methods) {
+            SootMethod method = c.getMethod(m);
+            if (!(method.getSource() instanceof soot.coffi.CoffiMethodSource))
+                hit = true;
+            ret.put(m, method.retrieveActiveBody().toString());
+        }
+        return ret;
+    }
+
+    /** Returns the number of bodies in the Jimple of the only entry. */
+    private int storedBodies() throws IOException {
+        List<File> jimple = new ArrayList<File>();
+        for (File dir : cacheDir.listFiles()) {
+            for (File f : dir.listFiles()) {
+                if (f.getName().endsWith(".jimple.gz")) jimple.add(f);
+            }
+        }
+        assertEquals(1, jimple.size());
+        BufferedReader in = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(new FileInputStream(jimple.get(0)))));
+        int ret = 0;
+        for (String line = in.readLine(); line != null; line = in.readLine()) {
+            // Declarations are indented by four spaces, statements by eight.
+            if (line.matches("    [^ {}].*")) ret++;
+        }
+        in.close();
+        return ret;
+    }
+
+    private static File classFile(String className, File dir) {
+        return new File(dir, className.replace('.', '/') + ".class");
+    }
+
+    /** Copies the class file of className from the JUnit jar to dir. */
+    private static File extract(String className, File dir) throws IOException {
+        File ret = classFile(className, dir);
+        ret.getParentFile().mkdirs();
+        ZipFile jar = new ZipFile(ClassFileProgram.jar());
+        try {
+            InputStream in = jar.getInputStream(
+                jar.getEntry(className.replace('.', '/') + ".class"));
+            OutputStream out = new FileOutputStream(ret);
+            byte[] buf = new byte[4096];
+            for (int n = in.read(buf); n > 0; n = in.read(buf))
+                out.write(buf, 0, n);
+            out.close();
+            in.close();
+        } finally {
+            jar.close();
+        }
+        return ret;
+    }
+
+    private static File tempDir(String prefix) throws IOException {
+        File ret = File.createTempFile(prefix, "");
+        ret.delete();
+        ret.mkdir();
+        return ret;
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        f.delete();
+    }
+}
@@ -0,0 +1,42 @@
+package soot;
+
+import java.io.File;
+import java.util.*;
+
+import soot.options.Options;
+
+/**
+ * Test scaffolding for tests that need real class files: the program is
+ * the JUnit jar the tests run with.  Its classes target Java 5, so coffi
+ * reads them, and the JDK classes they refer to are phantoms.
+ */
+public class ClassFileProgram {
+
+    /** Returns the path of the JUnit jar. */
+    public static String jar() {
+        try {
+            return new File(junit.framework.TestCase.class.getProtectionDomain()
+                            .getCodeSource().getLocation().toURI()).getPath();
+        } catch (java.net.URISyntaxException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Resets Soot for a Scene whose soot classpath is the JUnit jar. */
+    public static void reset(int numThreads) {
+        G.reset();
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(jar());
+        Options.v().set_num_threads(numThreads);
+        Options.v().set_output_format(Options.output_format_none);
+    }
+
+    /** Resets Soot, loads all classes of the JUnit jar as application
+     * classes, and constructs their bodies with the jb pack. */
+    public static void load(int numThreads) {
+        reset(numThreads);
+        Options.v().set_process_dir(Collections.singletonList(jar()));
+        Scene.v().loadNecessaryClasses();
+        PackManager.v().runPacks();
+    }
+}
@@ -0,0 +1,120 @@
+package soot;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that two soot.Main jobs, each with its own G, give the same
+ * output when they run at the same time on separate threads as when each
+ * of them runs alone.  The jobs are whole-program runs over the JUnit jar
+ * from different main classes, with the purity analysis, and their output
+ * is the Jimple of the application classes and the purity of each method.
+ */
+public class ConcurrentMainTest extends TestCase {
+
+    private static final String[] MAIN_CLASSES = {
+        "junit.textui.TestRunner", "org.junit.runner.JUnitCore" };
+
+    private File tmp;
+
+    public ConcurrentMainTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws IOException {
+        tmp = File.createTempFile("concurrent", "");
+        tmp.delete();
+        tmp.mkdir();
+    }
+
+    protected void tearDown() {
+        G.setThreadInstance(null);
+        delete(tmp);
+    }
+
+    public void testSameAsAlone() throws Exception {
+        final Map<String, Map<String, String>> concurrent =
+            Collections.synchronizedMap(new HashMap<String, Map<String, String>>());
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (final String mainClass : MAIN_CLASSES) {
+            Thread t = new Thread() {
+                public void run() {
+                    try {
+                        concurrent.put(mainClass, runMain(mainClass, "concurrent"));
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            };
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads)
+            t.join();
+        if (!failures.isEmpty())
+            throw new AssertionError(failures.get(0));
+
+        for (String mainClass : MAIN_CLASSES) {
+            Map<String, String> alone = runMain(mainClass, "alone");
+            assertTrue(alone.containsKey(mainClass + ".jimple"));
+            assertTrue(alone.get("purity").contains(" is pure"));
+            assertEquals(alone, concurrent.get(mainClass));
+        }
+        assertFalse(concurrent.get(MAIN_CLASSES[0]).equals(concurrent.get(MAIN_CLASSES[1])));
+    }
+
+    /** Runs soot.Main on mainClass in a new G, and returns its output: the
+     * Jimple files it wrote, by name, and under "purity" the sorted
+     * results the purity analysis printed. */
+    private Map<String, String> runMain(String mainClass, String run) throws IOException {
+        File dir = new File(tmp, run + "-" + mainClass);
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        G.setThreadInstance(new G());
+        try {
+            G.v().out = new PrintStream(printed, true);
+            String jar = ClassFileProgram.jar();
+            Main.v().run(new String[] {
+                "-cp", jar, "-allow-phantom-refs", "-w", "-main-class", mainClass,
+                "-p", "cg.cha", "enabled:true",
+                "-p", "wjap.purity", "enabled:true,print:true,dump-summaries:false",
+                "-f", "J", "-d", dir.getPath(), mainClass });
+        } finally {
+            G.setThreadInstance(null);
+        }
+
+        Map<String, String> output = new TreeMap<String, String>();
+        for (File f : dir.listFiles())
+            output.put(f.getName(), read(f));
+        List<String> purity = new ArrayList<String>();
+        for (String line : printed.toString().split("\n")) {
+            if (line.startsWith("  |"))
+                purity.add(line);
+        }
+        Collections.sort(purity);
+        output.put("purity", purity.toString());
+        return output;
+    }
+
+    private static String read(File f) throws IOException {
+        StringBuilder ret = new StringBuilder();
+        BufferedReader in = new BufferedReader(new FileReader(f));
+        try {
+            for (String line = in.readLine(); line != null; line = in.readLine())
+                ret.append(line).append('\n');
+        } finally {
+            in.close();
+        }
+        return ret.toString();
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        f.delete();
+    }
+}
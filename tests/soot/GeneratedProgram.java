@@ -0,0 +1,190 @@
+package soot;
+
+import java.io.File;
+import java.util.*;
+
+import soot.jimple.*;
+import soot.options.Options;
+
+/**
+ * Test scaffolding: builds a small random Jimple program in the Scene, so
+ * that tests of whole-program and body phases need no class files.
+ *
+ * The program has classes gen.C0 to gen.C(n-1); the superclass of gen.Ci
+ * is gen.C((i-1)/2), and that of gen.C0 is a phantom java.lang.Object,
+ * so the program has no library code and does not depend on the JDK.
+ * Each class has an instance field f and a static field s of type Object,
+ * and, for each j, an instance method mj and a static method sj taking and
+ * returning an Object.  Their bodies allocate objects, copy them between
+ * locals, through fields and through calls, and branch on null.  The main
+ * method, in gen.C0, allocates one object of each class and calls all its
+ * methods.  The same seed always gives the same program.
+ */
+public class GeneratedProgram {
+
+    /** A directory that does not exist, used as the soot classpath. */
+    private static final String EMPTY_CLASSPATH = new File(
+        System.getProperty("java.io.tmpdir"), "soot-no-such-dir").getPath();
+
+    /** Resets Soot for a Scene holding only the generated program: the
+     * basic classes are phantoms, since the soot classpath is a directory
+     * that does not exist.  (An empty soot classpath would fall back to
+     * the default one, and load the basic classes from the JDK.) */
+    public static void reset(int numThreads) {
+        G.reset();
+        Options.v().set_allow_phantom_refs(true);
+        Options.v().set_soot_classpath(EMPTY_CLASSPATH);
+        Options.v().set_prepend_classpath(false);
+        Options.v().set_num_threads(numThreads);
+        Options.v().set_output_format(Options.output_format_none);
+        Scene.v().loadBasicClasses();
+    }
+
+    /** Adds the program to the Scene as application classes, makes its
+     * main method the only entry point, and returns that method. */
+    public static SootMethod generate(int numClasses, int numMethods, long seed) {
+        return generate("gen", "java.lang.Object", numClasses, numMethods, seed);
+    }
+
+    /** Like generate(int, int, long), but the classes are pkg.C0 to
+     * pkg.C(n-1), and the superclass of pkg.C0 is the class named root. */
+    public static SootMethod generate(String pkg, String root, int numClasses, int numMethods, long seed) {
+        Random rand = new Random(seed);
+        RefType object = RefType.v("java.lang.Object");
+        SootClass[] classes = new SootClass[numClasses];
+        for (int i = 0; i < numClasses; i++) {
+            SootClass c = new SootClass(pkg + ".C" + i, Modifier.PUBLIC);
+            c.setSuperclass(i == 0 ? Scene.v().getSootClass(root)
+                                   : classes[(i - 1) / 2]);
+            Scene.v().addClass(c);
+            c.setApplicationClass();
+            c.addField(new SootField("f", object));
+            c.addField(new SootField("s", object, Modifier.STATIC));
+            classes[i] = c;
+        }
+        List<Type> params = Collections.<Type>singletonList(object);
+        for (SootClass c : classes) {
+            for (int j = 0; j < numMethods; j++) {
+                c.addMethod(new SootMethod("m" + j, params, object, Modifier.PUBLIC));
+                c.addMethod(new SootMethod("s" + j, params, object,
+                                           Modifier.PUBLIC | Modifier.STATIC));
+            }
+        }
+        for (SootClass c : classes) {
+            for (SootMethod m : c.getMethods())
+                m.setActiveBody(body(m, classes, numMethods, rand));
+        }
+
+        Jimple j = Jimple.v();
+        Type stringArray = ArrayType.v(RefType.v("java.lang.String"), 1);
+        SootMethod main = new SootMethod("main",
+            Collections.singletonList(stringArray), VoidType.v(),
+            Modifier.PUBLIC | Modifier.STATIC);
+        classes[0].addMethod(main);
+        JimpleBody b = j.newBody(main);
+        main.setActiveBody(b);
+        Local args = j.newLocal("args", stringArray);
+        b.getLocals().add(args);
+        b.getUnits().add(j.newIdentityStmt(args, j.newParameterRef(stringArray, 0)));
+        for (SootClass c : classes) {
+            Local o = j.newLocal("o" + b.getLocals().size(), c.getType());
+            b.getLocals().add(o);
+            b.getUnits().add(j.newAssignStmt(o, j.newNewExpr(c.getType())));
+            for (int k = 0; k < numMethods; k++) {
+                b.getUnits().add(j.newInvokeStmt(j.newStaticInvokeExpr(
+                    c.getMethodByName("s" + k).makeRef(), o)));
+                b.getUnits().add(j.newInvokeStmt(j.newVirtualInvokeExpr(
+                    o, c.getMethodByName("m" + k).makeRef(), o)));
+            }
+        }
+        b.getUnits().add(j.newReturnVoidStmt());
+
+        Scene.v().setMainClass(classes[0]);
+        Scene.v().setEntryPoints(Collections.singletonList(main));
+        return main;
+    }
+
+    /** Runs the cg pack with Spark on, with the given comma-separated
+     * cg.spark options, over the generated program. */
+    public static void runSpark(String sparkOptions) {
+        Options.v().set_whole_program(true);
+        PhaseOptions.v().setPhaseOption("cg.spark", "enabled:true");
+        for (String option : sparkOptions.split(","))
+            PhaseOptions.v().setPhaseOption("cg.spark", option);
+        PackManager.v().getPack("cg").apply();
+    }
+
+    private static Body body(SootMethod m, SootClass[] classes, int numMethods, Random rand) {
+        Jimple j = Jimple.v();
+        JimpleBody b = j.newBody(m);
+        RefType object = RefType.v("java.lang.Object");
+        Local[] locals = new Local[4];
+        for (int i = 0; i < locals.length; i++) {
+            locals[i] = j.newLocal("l" + i, object);
+            b.getLocals().add(locals[i]);
+        }
+        if (!m.isStatic()) {
+            RefType type = m.getDeclaringClass().getType();
+            Local thisLocal = j.newLocal("this", type);
+            b.getLocals().add(thisLocal);
+            b.getUnits().add(j.newIdentityStmt(thisLocal, j.newThisRef(type)));
+        }
+        b.getUnits().add(j.newIdentityStmt(locals[0], j.newParameterRef(object, 0)));
+        for (int i = 1; i < locals.length; i++) {
+            b.getUnits().add(j.newAssignStmt(locals[i],
+                j.newNewExpr(classes[rand.nextInt(classes.length)].getType())));
+        }
+
+        Stmt ret = j.newReturnStmt(locals[rand.nextInt(locals.length)]);
+        int numStmts = 4 + rand.nextInt(8);
+        for (int s = 0; s < numStmts; s++) {
+            Local to = locals[rand.nextInt(locals.length)];
+            Local from = locals[rand.nextInt(locals.length)];
+            SootClass c = classes[rand.nextInt(classes.length)];
+            SootFieldRef f = c.getFieldByName("f").makeRef();
+            SootFieldRef sf = c.getFieldByName("s").makeRef();
+            switch (rand.nextInt(9)) {
+            case 0:
+                b.getUnits().add(j.newAssignStmt(to, j.newNewExpr(c.getType())));
+                break;
+            case 1:
+                b.getUnits().add(j.newAssignStmt(to, from));
+                break;
+            case 2:
+                b.getUnits().add(j.newAssignStmt(
+                    j.newInstanceFieldRef(cast(b, from, c), f), to));
+                break;
+            case 3:
+                b.getUnits().add(j.newAssignStmt(
+                    to, j.newInstanceFieldRef(cast(b, from, c), f)));
+                break;
+            case 4:
+                b.getUnits().add(j.newAssignStmt(j.newStaticFieldRef(sf), from));
+                break;
+            case 5:
+                b.getUnits().add(j.newAssignStmt(to, j.newStaticFieldRef(sf)));
+                break;
+            case 6:
+                b.getUnits().add(j.newAssignStmt(to, j.newVirtualInvokeExpr(cast(b, from, c),
+                    c.getMethodByName("m" + rand.nextInt(numMethods)).makeRef(), to)));
+                break;
+            case 7:
+                b.getUnits().add(j.newAssignStmt(to, j.newStaticInvokeExpr(
+                    c.getMethodByName("s" + rand.nextInt(numMethods)).makeRef(), from)));
+                break;
+            default:
+                b.getUnits().add(j.newIfStmt(j.newEqExpr(from, NullConstant.v()), ret));
+            }
+        }
+        b.getUnits().add(ret);
+        return b;
+    }
+
+    /** Adds to b a new local of type c, assigned from a cast of from. */
+    private static Local cast(Body b, Local from, SootClass c) {
+        Local l = Jimple.v().newLocal("c" + b.getLocals().size(), c.getType());
+        b.getLocals().add(l);
+        b.getUnits().add(Jimple.v().newAssignStmt(l, Jimple.v().newCastExpr(from, c.getType())));
+        return l;
+    }
+}
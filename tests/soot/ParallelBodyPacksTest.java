@@ -0,0 +1,111 @@
+package soot;
+
+import java.io.*;
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.options.Options;
+
+/**
+ * Checks that applying the body packs on several threads gives the same
+ * bodies, and dumps the same graphs, as applying them on a single thread,
+ * on a generated program.
+ */
+public class ParallelBodyPacksTest extends TestCase {
+
+    public ParallelBodyPacksTest(String name) {
+        super(name);
+    }
+
+    public void testJimpleWithOptimizations() {
+        assertEquals(run(Options.output_format_jimple, 1),
+                     run(Options.output_format_jimple, 4));
+    }
+
+    public void testBaf() {
+        assertEquals(run(Options.output_format_baf, 1),
+                     run(Options.output_format_baf, 4));
+    }
+
+    public void testShimple() {
+        assertEquals(run(Options.output_format_shimple, 1),
+                     run(Options.output_format_shimple, 4));
+    }
+
+    public void testDumpedGraphs() throws IOException {
+        assertEquals(dumpGraphs(1), dumpGraphs(4));
+    }
+
+    /** Runs the body packs, with the jop and sop packs on, over a
+     * generated program and returns its bodies, printed, in order. */
+    private static List<String> run(int outputFormat, int numThreads) {
+        GeneratedProgram.reset(numThreads);
+        Options.v().set_output_format(outputFormat);
+        PhaseOptions.v().setPhaseOption("jop", "enabled:true");
+        PhaseOptions.v().setPhaseOption("sop", "enabled:true");
+        GeneratedProgram.generate(30, 5, 1);
+        assertEquals(numThreads, Scene.v().getNumThreads());
+
+        PackManager.v().runBodyPacks();
+
+        List<String> bodies = new ArrayList<String>();
+        for (SootClass c : Scene.v().getApplicationClasses()) {
+            for (SootMethod m : c.getMethods())
+                bodies.add(m.getActiveBody().toString());
+        }
+        G.reset();
+        return bodies;
+    }
+
+    /** Runs the body packs, with the jop pack on, over a generated program,
+     * dumping the graphs built in the jop pack, and returns the dumped
+     * files, by path, with their contents. */
+    private static Map<String, String> dumpGraphs(int numThreads) throws IOException {
+        File dir = File.createTempFile("dump", "");
+        dir.delete();
+        dir.mkdir();
+        try {
+            GeneratedProgram.reset(numThreads);
+            Options.v().set_output_dir(dir.getPath());
+            Options.v().set_dump_cfg(Collections.singletonList("jop"));
+            PhaseOptions.v().setPhaseOption("jop", "enabled:true");
+            GeneratedProgram.generate(30, 5, 1);
+
+            PackManager.v().runBodyPacks();
+            G.reset();
+
+            Map<String, String> files = new TreeMap<String, String>();
+            read(dir, "", files);
+            assertFalse(files.isEmpty());
+            return files;
+        } finally {
+            delete(dir);
+        }
+    }
+
+    private static void read(File f, String path, Map<String, String> files) throws IOException {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children)
+                read(child, path + "/" + child.getName(), files);
+            return;
+        }
+        StringBuilder contents = new StringBuilder();
+        BufferedReader in = new BufferedReader(new FileReader(f));
+        try {
+            for (String line = in.readLine(); line != null; line = in.readLine())
+                contents.append(line).append('\n');
+        } finally {
+            in.close();
+        }
+        files.put(path, contents.toString());
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        f.delete();
+    }
+}
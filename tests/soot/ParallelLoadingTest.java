@@ -0,0 +1,82 @@
+package soot;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.util.*;
+
+/**
+ * Checks that loading real class files and constructing their bodies on
+ * several threads gives the same classes and bodies as on one thread.
+ */
+public class ParallelLoadingTest extends TestCase {
+
+    public ParallelLoadingTest(String name) {
+        super(name);
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testSameClasses() {
+        assertEquals(classes(1), classes(4));
+    }
+
+    public void testSameBodies() {
+        assertEquals(bodies(1), bodies(4));
+    }
+
+    /** The numbers handed out while bodies are constructed on several
+     * threads depend on the order the threads reach the objects, but they
+     * must still be unique and dense. */
+    public void testDenseNumbers() {
+        ClassFileProgram.load(4);
+        Scene s = Scene.v();
+        checkDense(s.getClassNumberer());
+        checkDense(s.getMethodNumberer());
+        checkDense(s.getFieldNumberer());
+        checkDense(s.getTypeNumberer());
+        assertEquals(s.getClasses().size(), s.getClassNumberer().size());
+    }
+
+    private static void checkDense(IterableNumberer numberer) {
+        Set<Object> seen = new HashSet<Object>();
+        for (int i = 1; i <= numberer.size(); i++) {
+            Numberable o = (Numberable) numberer.get(i);
+            assertEquals(i, o.getNumber());
+            assertTrue(seen.add(o));
+        }
+    }
+
+    /** Returns the name, resolving level and phantom flag of every class
+     * in the Scene, and the numbers of its methods and fields, sorted. */
+    private static List<String> classes(int numThreads) {
+        ClassFileProgram.load(numThreads);
+        assertTrue(Scene.v().getApplicationClasses().size() > 100);
+        List<String> ret = new ArrayList<String>();
+        for (SootClass c : Scene.v().getClasses()) {
+            String members = c.resolvingLevel() < SootClass.SIGNATURES ? ""
+                : " " + c.getMethodCount() + " " + c.getFieldCount();
+            ret.add(c.getName() + " " + c.resolvingLevel() + " " + c.isPhantom()
+                    + members);
+        }
+        Collections.sort(ret);
+        return ret;
+    }
+
+    /** Returns the bodies of the application classes, printed, keyed by
+     * the signature of their method. */
+    private static Map<String, String> bodies(int numThreads) {
+        ClassFileProgram.load(numThreads);
+        Map<String, String> ret = new TreeMap<String, String>();
+        for (SootClass c : Scene.v().getApplicationClasses()) {
+            for (SootMethod m : c.getMethods()) {
+                if (m.isConcrete())
+                    ret.put(m.getSignature(), m.getActiveBody().toString());
+            }
+        }
+        assertTrue(ret.size() > 1000);
+        return ret;
+    }
+}
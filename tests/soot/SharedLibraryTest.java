@@ -0,0 +1,205 @@
+package soot;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.jimple.Jimple;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Checks that analyses whose G's share a library get the same results as
+ * an analysis which loads the library itself.  The library is a generated
+ * program in package lib; each application is another one in package app,
+ * whose classes extend lib.C3, and whose main method also passes one of
+ * its objects to lib.C0.callback, which calls m0 on it, so that library
+ * code calls application methods.
+ */
+public class SharedLibraryTest extends TestCase {
+
+    public SharedLibraryTest(String name) {
+        super(name);
+    }
+
+    public void testSameAsUnshared() throws Exception {
+        final SharedLibrary library = freezeLibrary();
+        final SootClass libC0 = findClass(library, "lib.C0");
+
+        final Map<Long, List<String>> shared = Collections.synchronizedMap(new HashMap<Long, List<String>>());
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (final long seed : new long[] { 11, 12 }) {
+            Thread t = new Thread() {
+                public void run() {
+                    try {
+                        G.setThreadInstance(new G(library));
+                        // one of them numbers new objects on several threads
+                        GeneratedProgram.reset(seed == 11 ? 1 : 2);
+                        assertSame(libC0, Scene.v().getSootClass("lib.C0"));
+                        assertSame(libC0.getType(), RefType.v("lib.C0"));
+                        shared.put(seed, analyze(seed));
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            };
+            threads.add(t);
+            t.start();
+        }
+        for (Thread t : threads)
+            t.join();
+        if (!failures.isEmpty())
+            throw new AssertionError(failures.get(0));
+
+        for (long seed : new long[] { 11, 12 }) {
+            G.setThreadInstance(new G());
+            try {
+                GeneratedProgram.reset(1);
+                generateLibrary();
+                List<String> unshared = analyze(seed);
+                assertTrue(unshared.size() > 100);
+                assertTrue(callsApplication(unshared));
+                assertEquals(unshared, shared.get(seed));
+            } finally {
+                G.setThreadInstance(null);
+            }
+        }
+    }
+
+    public void testSharedClassesDoNotChange() {
+        SharedLibrary library = freezeLibrary();
+        G.setThreadInstance(new G(library));
+        try {
+            GeneratedProgram.reset(1);
+            SootClass c = Scene.v().getSootClass("lib.C1");
+            assertTrue(library.contains(c));
+            try {
+                c.addMethod(new SootMethod("extra", Collections.<Type>emptyList(), VoidType.v()));
+                fail("added a method to a shared class");
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage().contains("shared library"));
+            }
+            try {
+                c.setApplicationClass();
+                fail("made a shared class an application class");
+            } catch (RuntimeException e) {
+                assertTrue(e.getMessage().contains("shared library"));
+            }
+            // the array types of a shared type made afterwards are not cached on it
+            Type t = Scene.v().getSootClass("lib.C2").getType();
+            ArrayType at = ArrayType.v(t, 3);
+            assertSame(at, ArrayType.v(t, 3));
+            assertNull(t.getArrayType());
+            assertFalse(library.contains(at));
+            assertFalse(library.contains(new SootClass("app.D")));
+            assertSame(library.intType, IntType.v());
+        } finally {
+            G.setThreadInstance(null);
+        }
+    }
+
+    /** Generates the library in a G of its own, and freezes it. */
+    private static SharedLibrary freezeLibrary() {
+        G.setThreadInstance(new G());
+        try {
+            GeneratedProgram.reset(1);
+            generateLibrary();
+            return SharedLibrary.freeze();
+        } finally {
+            G.setThreadInstance(null);
+        }
+    }
+
+    private static void generateLibrary() {
+        GeneratedProgram.generate("lib", "java.lang.Object", 8, 2, 7);
+        for (SootClass c : new ArrayList<SootClass>(Scene.v().getApplicationClasses()))
+            c.setLibraryClass();
+
+        Jimple j = Jimple.v();
+        RefType object = RefType.v("java.lang.Object");
+        RefType c3 = RefType.v("lib.C3");
+        SootMethod callback = new SootMethod("callback", Collections.<Type>singletonList(object),
+            object, Modifier.PUBLIC | Modifier.STATIC);
+        Scene.v().getSootClass("lib.C0").addMethod(callback);
+        Body b = j.newBody(callback);
+        callback.setActiveBody(b);
+        Local p = j.newLocal("p", object);
+        Local c = j.newLocal("c", c3);
+        Local r = j.newLocal("r", object);
+        b.getLocals().add(p);
+        b.getLocals().add(c);
+        b.getLocals().add(r);
+        b.getUnits().add(j.newIdentityStmt(p, j.newParameterRef(object, 0)));
+        b.getUnits().add(j.newAssignStmt(c, j.newCastExpr(p, c3)));
+        b.getUnits().add(j.newAssignStmt(r, j.newVirtualInvokeExpr(c,
+            c3.getSootClass().getMethodByName("m0").makeRef(), p)));
+        b.getUnits().add(j.newReturnStmt(r));
+    }
+
+    /** Returns true if one of the call edges goes from the library to the application. */
+    private static boolean callsApplication(List<String> result) {
+        for (String line : result) {
+            if (line.startsWith("<lib.") && line.contains(" -> <app."))
+                return true;
+        }
+        return false;
+    }
+
+    private static SootClass findClass(SharedLibrary library, String name) {
+        for (SootClass c : library.classes) {
+            if (c.getName().equals(name))
+                return c;
+        }
+        throw new AssertionError(name);
+    }
+
+    /** Adds the application to the Scene, runs Spark, and returns the
+     * points-to sets of the reference locals of the reachable methods and
+     * the edges of the call graph. */
+    private static List<String> analyze(long seed) {
+        SootMethod main = GeneratedProgram.generate("app", "lib.C3", 6, 2, seed);
+        Body b = main.getActiveBody();
+        Local o = null;
+        for (Local l : b.getLocals()) {
+            if (l.getType() == Scene.v().getSootClass("app.C1").getType())
+                o = l;
+        }
+        SootMethod callback = Scene.v().getSootClass("lib.C0").getMethodByName("callback");
+        b.getUnits().insertBefore(Jimple.v().newInvokeStmt(
+            Jimple.v().newStaticInvokeExpr(callback.makeRef(), o)), b.getUnits().getLast());
+        GeneratedProgram.runSpark("on-fly-cg:true");
+
+        List<String> result = new ArrayList<String>();
+        PointsToAnalysis pta = Scene.v().getPointsToAnalysis();
+        for (Iterator it = Scene.v().getReachableMethods().listener(); it.hasNext(); ) {
+            SootMethod m = ((MethodOrMethodContext) it.next()).method();
+            if (!m.hasActiveBody())
+                continue;
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (l.getType() instanceof RefLikeType)
+                    result.add(m + " " + l + " " + objects(pta.reachingObjects(l)));
+            }
+        }
+        for (Iterator<Edge> it = Scene.v().getCallGraph().listener(); it.hasNext(); ) {
+            Edge e = it.next();
+            result.add(e.src() + " -> " + e.tgt());
+        }
+        Collections.sort(result);
+        G.reset();
+        return result;
+    }
+
+    static Set<String> objects(PointsToSet pts) {
+        final Set<String> objects = new TreeSet<String>();
+        ((PointsToSetInternal) pts).forall(new P2SetVisitor() {
+            public void visit(Node n) {
+                AllocNode an = (AllocNode) n;
+                objects.add(an.getNewExpr() + " in " + an.getMethod());
+            }
+        });
+        return objects;
+    }
+}
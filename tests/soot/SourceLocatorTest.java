@@ -0,0 +1,174 @@
+package soot;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+import junit.framework.TestCase;
+import soot.options.Options;
+
+/**
+ * Checks how SourceLocator finds class files through its index of the
+ * archives on the soot classpath: which entry of the classpath a class
+ * is found in, and that the index follows changes to the classpath and
+ * to the archives.  The class files are not read, so they are empty.
+ */
+public class SourceLocatorTest extends TestCase {
+
+    private File tmp;
+    private File jar1, jar2, dir1, dir2;
+
+    public SourceLocatorTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws IOException {
+        G.reset();
+        tmp = File.createTempFile("locator", "");
+        tmp.delete();
+        tmp.mkdir();
+        jar1 = jar("jar1.jar", "a.A", "a.B");
+        jar2 = jar("jar2.jar", "a.B", "a.C");
+        dir1 = dir("dir1", "a.A", "a.D");
+        dir2 = dir("dir2", "a.B", "a.E");
+    }
+
+    protected void tearDown() {
+        G.reset();
+        delete(tmp);
+    }
+
+    public void testFirstArchiveWins() {
+        setClassPath(jar1, jar2);
+        assertEquals(jar1, where("a.A"));
+        assertEquals(jar1, where("a.B"));
+        assertEquals(jar2, where("a.C"));
+        assertNull(SourceLocator.v().getClassSource("a.Missing"));
+    }
+
+    public void testDirectoriesAndArchives() {
+        setClassPath(dir1, jar1, dir2, jar2);
+        assertEquals(dir1, where("a.A"));
+        assertEquals(jar1, where("a.B"));
+        assertEquals(jar2, where("a.C"));
+        assertEquals(dir1, where("a.D"));
+        assertEquals(dir2, where("a.E"));
+        setClassPath(jar1, dir1);
+        assertEquals(jar1, where("a.A"));
+        assertEquals(dir1, where("a.D"));
+    }
+
+    /** Directories are not indexed, so files added to them are found. */
+    public void testNewFileInDirectory() throws IOException {
+        setClassPath(dir2, jar2);
+        assertEquals(jar2, where("a.C"));
+        classFile(dir2, "a.C");
+        assertEquals(dir2, where("a.C"));
+        classFile(dir2, "a.F");
+        assertEquals(dir2, where("a.F"));
+    }
+
+    public void testClassPathChanged() {
+        setClassPath(jar1, jar2);
+        assertEquals(jar1, where("a.B"));
+        setClassPath(jar2, jar1);
+        assertEquals(jar2, where("a.B"));
+        setClassPath(jar1);
+        assertNull(SourceLocator.v().getClassSource("a.C"));
+    }
+
+    public void testClassesUnder() {
+        assertEquals(Arrays.asList("a.A", "a.B"), sorted(SourceLocator.v().getClassesUnder(jar1.getPath())));
+        assertEquals(Arrays.asList("a.A", "a.D"), sorted(SourceLocator.v().getClassesUnder(dir1.getPath())));
+    }
+
+    /** The -classpath-index file is written once, reused while the
+     * archives are unchanged, and updated when one of them changes. */
+    public void testStoredIndex() throws IOException {
+        File index = new File(tmp, "index");
+        Options.v().set_classpath_index(index.getPath());
+        setClassPath(jar1, jar2);
+        assertEquals(jar2, where("a.C"));
+        assertTrue(index.exists());
+        index.setLastModified(0);
+
+        G.reset();
+        Options.v().set_classpath_index(index.getPath());
+        setClassPath(jar1, jar2);
+        assertEquals(jar1, where("a.B"));
+        assertEquals(jar2, where("a.C"));
+        assertEquals(0, index.lastModified());
+
+        jar2.delete();
+        jar2 = jar("jar2.jar", "a.B", "a.C", "a.G");
+        jar2.setLastModified(jar2.lastModified() + 2000);
+        G.reset();
+        Options.v().set_classpath_index(index.getPath());
+        setClassPath(jar1, jar2);
+        assertEquals(jar2, where("a.G"));
+        assertTrue(index.lastModified() != 0);
+
+        G.reset();
+        Options.v().set_classpath_index(index.getPath());
+        setClassPath(jar1, jar2);
+        assertEquals(jar2, where("a.G"));
+    }
+
+    private static void setClassPath(File... path) {
+        StringBuffer b = new StringBuffer();
+        for (File f : path) {
+            if (b.length() > 0) b.append(File.pathSeparator);
+            b.append(f.getPath());
+        }
+        Scene.v().setSootClassPath(b.toString());
+    }
+
+    /** Returns the directory or archive className is found in. */
+    private static File where(String className) {
+        ClassSource source = SourceLocator.v().getClassSource(className);
+        assertNotNull(className, source);
+        SourceLocator.FoundFile found = ((CoffiClassSource) source).foundFile;
+        if (found.zipFile != null) return new File(found.zipFile.getName());
+        String suffix = File.separator + className.replace('.', File.separatorChar) + ".class";
+        String path = found.file.getPath();
+        assertTrue(path.endsWith(suffix));
+        return new File(path.substring(0, path.length() - suffix.length()));
+    }
+
+    private static List<String> sorted(Collection<String> c) {
+        List<String> ret = new ArrayList<String>(c);
+        Collections.sort(ret);
+        return ret;
+    }
+
+    private File jar(String name, String... classNames) throws IOException {
+        File ret = new File(tmp, name);
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(ret));
+        for (String className : classNames) {
+            out.putNextEntry(new ZipEntry(className.replace('.', '/') + ".class"));
+            out.closeEntry();
+        }
+        out.close();
+        return ret;
+    }
+
+    private File dir(String name, String... classNames) throws IOException {
+        File ret = new File(tmp, name);
+        for (String className : classNames) classFile(ret, className);
+        return ret;
+    }
+
+    private static void classFile(File dir, String className) throws IOException {
+        File f = new File(dir, className.replace('.', File.separatorChar) + ".class");
+        f.getParentFile().mkdirs();
+        new FileOutputStream(f).close();
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) delete(child);
+        }
+        f.delete();
+    }
+}
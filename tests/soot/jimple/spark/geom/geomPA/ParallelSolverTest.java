@@ -0,0 +1,91 @@
+package soot.jimple.spark.geom.geomPA;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.spark.pag.AllocDotField;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.ArrayElement;
+import soot.jimple.spark.pag.Node;
+
+/**
+ * Checks that the geometric points-to analysis gives the same result on 2
+ * and on 4 threads, on a generated program: every pointer, in the order of
+ * their ids, points to the same objects with the same number of figures,
+ * and as many figures are passed between SCCs.
+ */
+public class ParallelSolverTest extends TestCase {
+
+    public ParallelSolverTest(String name) {
+        super(name);
+    }
+
+    public void testGeom() {
+        check("Geom");
+    }
+
+    public void testHeapIns() {
+        check("HeapIns");
+    }
+
+    public void testPtIns() {
+        check("PtIns");
+    }
+
+    private void check(String encoding) {
+        List<String> two = new ArrayList<String>();
+        List<String> four = new ArrayList<String>();
+        String twoStats = run(encoding, 2, two);
+        String fourStats = run(encoding, 4, four);
+        assertFalse(two.isEmpty());
+        assertEquals(two, four);
+        assertEquals(twoStats, fourStats);
+    }
+
+    /** Runs the geometric analysis over a generated program, adds the
+     * points-to figures of each pointer to result, and returns the
+     * statistics of the parallel solver, without the number of threads. */
+    static String run(String encoding, int numThreads, List<String> result) {
+        GeneratedProgram.reset(numThreads);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        G.v().out = new PrintStream(out);
+        GeneratedProgram.generate(12, 3, 5);
+        GeneratedProgram.runSpark("geom-pta:true,geom-encoding:" + encoding);
+
+        GeomPointsTo geom = (GeomPointsTo) Scene.v().getPointsToAnalysis();
+        for (IVarAbstraction pn : geom.pointers) {
+            StringBuilder sb = new StringBuilder(describe(pn.getWrappedNode()));
+            pn = pn.getRepresentative();
+            Set<String> objects = new TreeSet<String>();
+            for (AllocNode obj : pn.get_all_points_to_objects())
+                objects.add(describe(obj) + ": " + pn.count_pts_intervals(obj));
+            result.add(sb.append(" -> ").append(objects).toString());
+        }
+        G.reset();
+
+        for (String line : out.toString().split("\n")) {
+            if (line.startsWith("Parallel solving"))
+                return line.replace(numThreads + " threads", "N threads");
+        }
+        fail("the parallel solver did not run");
+        return null;
+    }
+
+    /** Names a node by what it stands for, not by its number. */
+    static String describe(Node n) {
+        if (n instanceof AllocNode) {
+            AllocNode an = (AllocNode) n;
+            return an.getNewExpr() + " in " + an.getMethod();
+        }
+        if (n instanceof AllocDotField) {
+            AllocDotField af = (AllocDotField) n;
+            if (af.getField() instanceof ArrayElement)
+                return describe(af.getBase()) + "[]";
+            return describe(af.getBase()) + "." + af.getField();
+        }
+        return n.toString();
+    }
+}
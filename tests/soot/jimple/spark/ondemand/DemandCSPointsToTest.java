@@ -0,0 +1,90 @@
+package soot.jimple.spark.ondemand;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.sets.P2SetVisitor;
+
+/**
+ * Checks that the batch query reachingObjects(Collection, int) answers
+ * each local of a generated program as a query of that local alone does,
+ * on 1 and on 4 threads, also when some locals are asked for twice.
+ */
+public class DemandCSPointsToTest extends TestCase {
+
+  private List<Local> locals;
+
+  public DemandCSPointsToTest(String name) {
+    super(name);
+  }
+
+  protected void setUp() {
+    GeneratedProgram.reset(1);
+    GeneratedProgram.generate(12, 2, 5);
+    GeneratedProgram.runSpark("on-fly-cg:true");
+    locals = new ArrayList<Local>();
+    for (Iterator it = Scene.v().getReachableMethods().listener(); it.hasNext(); ) {
+      SootMethod m = ((MethodOrMethodContext) it.next()).method();
+      if (!m.hasActiveBody())
+        continue;
+      for (Local l : m.getActiveBody().getLocals()) {
+        if (l.getType() instanceof RefLikeType)
+          locals.add(l);
+      }
+    }
+    // ask for some locals twice
+    locals.addAll(locals.subList(0, 10));
+  }
+
+  protected void tearDown() {
+    G.reset();
+  }
+
+  public void testBatchSameAsSingle() {
+    DemandCSPointsTo single = DemandCSPointsTo.makeWithBudget(2000, 4, false);
+    Map<Local, String> expected = new HashMap<Local, String>();
+    int refined = 0;
+    for (Local l : locals) {
+      PointsToSet p2set = single.reachingObjects(l);
+      expected.put(l, describe(p2set));
+      if (p2set instanceof AllocAndContextSet && !p2set.isEmpty())
+        refined++;
+    }
+    assertTrue(refined > 10);
+
+    for (int numThreads : new int[] { 1, 4 }) {
+      DemandCSPointsTo batch = DemandCSPointsTo.makeWithBudget(2000, 4, false);
+      Map<Local, PointsToSet> answers = batch.reachingObjects(locals, numThreads);
+      assertEquals(new ArrayList<Local>(new LinkedHashSet<Local>(locals)),
+                   new ArrayList<Local>(answers.keySet()));
+      for (Local l : locals)
+        assertEquals(numThreads + " threads: " + l, expected.get(l), describe(answers.get(l)));
+    }
+  }
+
+  /** Describes the objects of a set by their allocation sites and, for a
+   * refined set, their contexts. */
+  private static String describe(PointsToSet p2set) {
+    final Set<String> objects = new TreeSet<String>();
+    if (p2set instanceof AllocAndContextSet) {
+      for (AllocAndContext ac : (AllocAndContextSet) p2set)
+        objects.add(name(ac.alloc) + " " + ac.context);
+    } else if (p2set instanceof WrappedPointsToSet) {
+      ((WrappedPointsToSet) p2set).getWrapped().forall(new P2SetVisitor() {
+        public void visit(Node n) {
+          objects.add(name((AllocNode) n) + " unrefined");
+        }
+      });
+    } else {
+      assertTrue(p2set.isEmpty());
+    }
+    return objects.toString();
+  }
+
+  private static String name(AllocNode an) {
+    return an.getNewExpr() + " in " + an.getMethod();
+  }
+}
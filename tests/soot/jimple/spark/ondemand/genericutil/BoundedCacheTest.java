@@ -0,0 +1,144 @@
+package soot.jimple.spark.ondemand.genericutil;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that a BoundedCache never holds more entries than its maximum
+ * size, evicts the least recently used or the oldest entry, and counts
+ * hits, misses and evictions, also when shared by several threads.
+ */
+public class BoundedCacheTest extends TestCase {
+
+  public BoundedCacheTest(String name) {
+    super(name);
+  }
+
+  public void testLRU() {
+    BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(3, BoundedCache.Eviction.LRU);
+    cache.put(1, "1");
+    cache.put(2, "2");
+    cache.put(3, "3");
+    // Reading 1 makes 2 the least recently used entry.
+    assertEquals("1", cache.get(1));
+    cache.put(4, "4");
+    assertEquals(3, cache.size());
+    assertNull(cache.get(2));
+    assertEquals("1", cache.get(1));
+    assertEquals("3", cache.get(3));
+    assertEquals("4", cache.get(4));
+    // Writing 1 again makes it the most recently used.
+    cache.put(1, "one");
+    cache.put(5, "5");
+    assertNull(cache.get(3));
+    assertEquals("one", cache.get(1));
+    assertEquals(2, cache.getEvictions());
+  }
+
+  public void testFIFO() {
+    BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(3, BoundedCache.Eviction.FIFO);
+    cache.put(1, "1");
+    cache.put(2, "2");
+    cache.put(3, "3");
+    // Reading 1 does not keep it: it is still the oldest entry.
+    assertEquals("1", cache.get(1));
+    cache.put(4, "4");
+    assertNull(cache.get(1));
+    assertEquals("2", cache.get(2));
+    cache.put(5, "5");
+    assertNull(cache.get(2));
+    assertEquals(3, cache.size());
+    assertEquals(2, cache.getEvictions());
+  }
+
+  public void testRemove() {
+    BoundedCache<Integer, String> cache = new BoundedCache<Integer, String>(2, BoundedCache.Eviction.LRU);
+    cache.put(1, "1");
+    cache.put(2, "2");
+    cache.remove(1);
+    cache.remove(3);
+    assertEquals(1, cache.size());
+    assertNull(cache.get(1));
+    cache.put(3, "3");
+    assertEquals("2", cache.get(2));
+    assertEquals(0, cache.getEvictions());
+  }
+
+  public void testStatistics() {
+    BoundedCache<String, String> cache = new BoundedCache<String, String>(1, BoundedCache.Eviction.LRU);
+    assertNull(cache.get("a"));
+    cache.put("a", "A");
+    assertEquals("A", cache.get("a"));
+    cache.put("b", "B");
+    assertNull(cache.get("a"));
+    assertEquals(1, cache.getHits());
+    assertEquals(2, cache.getMisses());
+    assertEquals(1, cache.getEvictions());
+    assertEquals("1/1 entries, 1 hits, 2 misses (33% hits), 1 evictions", cache.toString());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getHits());
+    cache.resetStatistics();
+    assertEquals(0, cache.getHits());
+    assertEquals(0, cache.getMisses());
+    assertEquals(0, cache.getEvictions());
+  }
+
+  public void testBounds() {
+    BoundedCache<Integer, Integer> unbounded = new BoundedCache<Integer, Integer>();
+    assertEquals(BoundedCache.UNBOUNDED, unbounded.getMaxSize());
+    for (int i = 0; i < 10000; i++)
+      unbounded.put(i, i);
+    assertEquals(10000, unbounded.size());
+    assertEquals(0, unbounded.getEvictions());
+
+    for (int maxSize : new int[] { 0, -1 }) {
+      try {
+        new BoundedCache<Integer, Integer>(maxSize, BoundedCache.Eviction.LRU);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+    }
+  }
+
+  public void testConcurrent() throws Exception {
+    final int maxSize = 100, perThread = 20000, threads = 4;
+    final BoundedCache<Integer, Integer> cache = new BoundedCache<Integer, Integer>(maxSize, BoundedCache.Eviction.LRU);
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+      for (int t = 0; t < threads; t++) {
+        final int seed = t;
+        tasks.add(new Callable<Object>() {
+          public Object call() {
+            Random rand = new Random(seed);
+            for (int i = 0; i < perThread; i++) {
+              int key = rand.nextInt(4 * maxSize);
+              Integer value = cache.get(key);
+              if (value == null)
+                cache.put(key, key);
+              else
+                assertEquals(key, value.intValue());
+              assertTrue(cache.size() <= maxSize);
+            }
+            return null;
+          }
+        });
+      }
+      for (Future<Object> f : executor.invokeAll(tasks))
+        f.get();
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(maxSize, cache.size());
+    assertEquals(threads * perThread, cache.getHits() + cache.getMisses());
+    // Each miss adds an entry, so all but maxSize of the entries added
+    // were evicted, unless two threads missed the same key at once.
+    assertTrue(cache.getEvictions() <= cache.getMisses() - maxSize);
+    assertTrue(cache.getEvictions() > 0);
+  }
+}
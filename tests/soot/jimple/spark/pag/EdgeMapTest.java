@@ -0,0 +1,140 @@
+package soot.jimple.spark.pag;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.GeneratedProgram;
+import soot.PhaseOptions;
+import soot.RefType;
+import soot.options.SparkOptions;
+
+/**
+ * JUnit tests for EdgeMap, over the variable nodes of an empty PAG.
+ */
+public class EdgeMapTest extends TestCase {
+
+    private VarNode[] nodes;
+    private EdgeMap map;
+
+    public EdgeMapTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        PAG pag = new PAG(new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark")));
+        nodes = new VarNode[100];
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = pag.makeGlobalVarNode("v" + i, RefType.v("java.lang.Object"));
+        map = new EdgeMap(pag.getVarNodeNumberer(), pag.getVarNodeNumberer());
+    }
+
+    public void testEmpty() {
+        assertEquals(0, map.get(nodes[0]).length);
+        assertFalse(map.containsKey(nodes[0]));
+        assertFalse(map.remove(nodes[0], nodes[1]));
+        assertTrue(map.keySet().isEmpty());
+    }
+
+    public void testAddAndGet() {
+        assertTrue(map.add(nodes[3], nodes[1]));
+        assertTrue(map.add(nodes[3], nodes[2]));
+        assertFalse(map.add(nodes[3], nodes[1]));
+        assertTrue(map.add(nodes[5], nodes[3]));
+        assertTrue(Arrays.equals(new Node[] { nodes[1], nodes[2] }, map.get(nodes[3])));
+        assertTrue(Arrays.equals(new Node[] { nodes[3] }, map.get(nodes[5])));
+        assertTrue(map.containsKey(nodes[3]));
+        assertFalse(map.containsKey(nodes[1]));
+        assertEquals(2, map.keySet().size());
+    }
+
+    public void testGetReturnsNewArray() {
+        map.add(nodes[0], nodes[1]);
+        map.get(nodes[0])[0] = nodes[2];
+        assertSame(nodes[1], map.get(nodes[0])[0]);
+    }
+
+    public void testLargeRow() {
+        for (int i = 0; i < nodes.length; i++)
+            assertTrue(map.add(nodes[0], nodes[i]));
+        for (int i = 0; i < nodes.length; i++)
+            assertFalse(map.add(nodes[0], nodes[i]));
+        assertEquals(nodes.length, map.get(nodes[0]).length);
+
+        // Shrink the row below the size at which it is indexed, and grow
+        // it again.
+        for (int i = 0; i < 90; i++)
+            assertTrue(map.remove(nodes[0], nodes[i]));
+        assertFalse(map.remove(nodes[0], nodes[0]));
+        assertEquals(10, map.get(nodes[0]).length);
+        for (int i = 0; i < nodes.length; i++)
+            assertEquals(i < 90, map.add(nodes[0], nodes[i]));
+        assertEquals(new HashSet<Node>(Arrays.asList(nodes)),
+                     new HashSet<Node>(Arrays.asList(map.get(nodes[0]))));
+    }
+
+    public void testRemove() {
+        map.add(nodes[0], nodes[1]);
+        map.add(nodes[0], nodes[2]);
+        map.add(nodes[1], nodes[2]);
+        assertTrue(map.remove(nodes[0], nodes[1]));
+        assertFalse(map.remove(nodes[0], nodes[1]));
+        assertTrue(Arrays.equals(new Node[] { nodes[2] }, map.get(nodes[0])));
+        assertTrue(map.remove(nodes[0], nodes[2]));
+        assertFalse(map.containsKey(nodes[0]));
+        assertEquals(1, map.keySet().size());
+
+        map.remove(nodes[1]);
+        assertFalse(map.containsKey(nodes[1]));
+        assertEquals(0, map.get(nodes[1]).length);
+        assertEquals(0, map.keySet().size());
+        map.remove(nodes[1]);
+        assertEquals(0, map.keySet().size());
+    }
+
+    public void testSet() {
+        map.add(nodes[0], nodes[1]);
+        map.set(nodes[0], new Node[] { nodes[2], nodes[3] });
+        assertTrue(Arrays.equals(new Node[] { nodes[2], nodes[3] }, map.get(nodes[0])));
+        assertFalse(map.add(nodes[0], nodes[3]));
+        assertTrue(map.add(nodes[0], nodes[1]));
+
+        Node[] many = new Node[50];
+        System.arraycopy(nodes, 50, many, 0, many.length);
+        map.set(nodes[1], many);
+        assertEquals(2, map.keySet().size());
+        for (Node n : many)
+            assertFalse(map.add(nodes[1], n));
+
+        map.set(nodes[0], new Node[0]);
+        assertFalse(map.containsKey(nodes[0]));
+        assertEquals(1, map.keySet().size());
+    }
+
+    public void testKeySetToleratesAdds() {
+        map.add(nodes[10], nodes[0]);
+        map.add(nodes[20], nodes[0]);
+        List<Object> seen = new ArrayList<Object>();
+        for (Iterator<Object> it = map.keySet().iterator(); it.hasNext(); ) {
+            Object source = it.next();
+            seen.add(source);
+            if (source == nodes[10])
+                map.add(nodes[99], nodes[0]);
+        }
+        assertEquals(Arrays.asList(nodes[10], nodes[20], nodes[99]), seen);
+        assertTrue(map.keySet().contains(nodes[20]));
+        assertFalse(map.keySet().contains(nodes[21]));
+    }
+
+    public void testClearAndTrim() {
+        for (int i = 1; i < 7; i++)
+            map.add(nodes[0], nodes[i]);
+        map.trim();
+        assertTrue(map.add(nodes[0], nodes[7]));
+        assertEquals(7, map.get(nodes[0]).length);
+        map.clear();
+        assertEquals(0, map.keySet().size());
+        assertEquals(0, map.get(nodes[0]).length);
+        assertTrue(map.add(nodes[0], nodes[1]));
+    }
+}
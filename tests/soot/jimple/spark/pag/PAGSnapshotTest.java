@@ -0,0 +1,160 @@
+package soot.jimple.spark.pag;
+
+import java.io.File;
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+import soot.jimple.toolkits.callgraph.CallGraph;
+import soot.jimple.toolkits.callgraph.Edge;
+import soot.options.Options;
+
+/**
+ * Checks that a PAG snapshot, written by Spark with dump-snapshot over a
+ * generated program, answers the same points-to queries as the PAG it
+ * was written from, holds the same call graph, and seeds a new run of
+ * Spark with seed-snapshot without changing its result.
+ */
+public class PAGSnapshotTest extends TestCase {
+
+    private File dir;
+    private File file;
+
+    public PAGSnapshotTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() throws Exception {
+        dir = File.createTempFile("pag", "");
+        dir.delete();
+        dir.mkdir();
+        file = new File(dir, "pag.snapshot");
+        runSpark("dump-snapshot:true");
+    }
+
+    protected void tearDown() {
+        G.reset();
+        file.delete();
+        dir.delete();
+    }
+
+    public void testSameAnswers() {
+        assertTrue(compare(PAGSnapshot.load(file)) > 0);
+    }
+
+    public void testSameCallGraph() {
+        PAGSnapshot snapshot = PAGSnapshot.load(file);
+        CallGraph cg = Scene.v().getCallGraph();
+        assertEquals(cg.size(), snapshot.numCallEdges());
+        assertEquals(edges(cg), edges(snapshot.getCallGraph()));
+    }
+
+    public void testNodes() {
+        PAGSnapshot snapshot = PAGSnapshot.load(file);
+        PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+        assertEquals(pag.getAllocNodeNumberer().size(), snapshot.numAllocNodes());
+        assertEquals(pag.getVarNodeNumberer().size(), snapshot.numVarNodes());
+        assertEquals(pag.getFieldRefNodeNumberer().size(), snapshot.numFieldRefNodes());
+        for (int kind = PAGSnapshot.ALLOC_EDGES; kind <= PAGSnapshot.STORE_EDGES; kind++)
+            assertTrue(snapshot.edges(kind).length > 0);
+    }
+
+    public void testSeed() {
+        runSpark("seed-snapshot:" + file.getPath());
+        assertTrue(compare(PAGSnapshot.load(file)) > 0);
+    }
+
+    private void runSpark(String option) {
+        GeneratedProgram.reset(1);
+        Options.v().set_output_dir(dir.getPath());
+        GeneratedProgram.generate(20, 3, 6);
+        GeneratedProgram.runSpark(option);
+    }
+
+    /** Compares the points-to sets of the reference locals of the
+     * reachable methods, and of the fields they access, in the current
+     * PAG and in snapshot, and returns the number of sets compared. */
+    private static int compare(PAGSnapshot snapshot) {
+        PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+        Map<Node, String> keys = allocKeys(pag);
+        int ret = 0;
+        for (Iterator it = Scene.v().getReachableMethods().listener(); it.hasNext(); ) {
+            SootMethod m = ((MethodOrMethodContext) it.next()).method();
+            if (!m.hasActiveBody())
+                continue;
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (l.getType() instanceof RefLikeType) {
+                    assertSameObjects(m + " " + l, keys, pag.reachingObjects(l),
+                                      snapshot.reachingObjects(l));
+                    ret++;
+                }
+            }
+            for (Unit u : m.getActiveBody().getUnits()) {
+                Stmt s = (Stmt) u;
+                if (!s.containsFieldRef())
+                    continue;
+                FieldRef fr = s.getFieldRef();
+                SootField f = fr.getField();
+                if (fr instanceof InstanceFieldRef) {
+                    Local base = (Local) ((InstanceFieldRef) fr).getBase();
+                    assertSameObjects(m + " " + fr, keys, pag.reachingObjects(base, f),
+                                      snapshot.reachingObjects(base, f));
+                } else {
+                    assertSameObjects(m + " " + fr, keys, pag.reachingObjects(f),
+                                      snapshot.reachingObjects(f));
+                }
+                ret++;
+            }
+        }
+        return ret;
+    }
+
+    /** Returns the keys the snapshot gives the allocation nodes of pag. */
+    private static Map<Node, String> allocKeys(PAG pag) {
+        List<AllocNode> nodes = new ArrayList<AllocNode>();
+        for (Iterator it = pag.getAllocNodeNumberer().iterator(); it.hasNext(); )
+            nodes.add((AllocNode) it.next());
+        String[] keys = PAGSnapshot.allocKeys(nodes);
+        Map<Node, String> ret = new HashMap<Node, String>();
+        for (int i = 0; i < keys.length; i++)
+            ret.put(nodes.get(i), keys[i]);
+        return ret;
+    }
+
+    /** Checks that expected, a set of the PAG, and actual, a set of the
+     * snapshot, hold the same allocation nodes, by their keys. */
+    private static void assertSameObjects(String query, final Map<Node, String> keys,
+                                          PointsToSet expected, PointsToSet actual) {
+        final List<String> e = new ArrayList<String>();
+        if (!expected.isEmpty()) {
+            ((PointsToSetInternal) expected).forall(new P2SetVisitor() {
+                public void visit(Node n) {
+                    e.add(String.valueOf(keys.get(n)));
+                }
+            });
+        }
+        List<String> a = new ArrayList<String>();
+        if (!actual.isEmpty()) {
+            for (String key : ((PAGSnapshot.SnapshotPointsToSet) actual).allocNodeKeys())
+                a.add(String.valueOf(key));
+        }
+        Collections.sort(e);
+        Collections.sort(a);
+        assertEquals(query, e, a);
+        assertEquals(query, expected.possibleTypes(), actual.possibleTypes());
+    }
+
+    /** Returns the edges of cg found through its source methods, since its
+     * listener would also return the edges removed by trim-clinit. */
+    private static Set<String> edges(CallGraph cg) {
+        Set<String> ret = new HashSet<String>();
+        for (Iterator<MethodOrMethodContext> mIt = cg.sourceMethods(); mIt.hasNext(); ) {
+            for (Iterator<Edge> it = cg.edgesOutOf(mIt.next()); it.hasNext(); )
+                ret.add(it.next().toString());
+        }
+        return ret;
+    }
+}
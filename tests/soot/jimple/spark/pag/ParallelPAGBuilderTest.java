@@ -0,0 +1,87 @@
+package soot.jimple.spark.pag;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.util.ArrayNumberer;
+
+/**
+ * Checks that the PAG Spark builds with ParallelPAGBuilder, with several
+ * threads and a CHA call graph, has the same nodes, with the same
+ * numbers, and the same edges, in the same order, as the PAG built one
+ * method at a time.
+ */
+public class ParallelPAGBuilderTest extends TestCase {
+
+    public ParallelPAGBuilderTest(String name) {
+        super(name);
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testSameAsSequential() {
+        List<String> sequential = describe(1, 5);
+        assertTrue(sequential.size() > 100);
+        assertEquals(sequential, describe(4, 5));
+    }
+
+    public void testSameForAnyNumberOfThreads() {
+        assertEquals(describe(2, 9), describe(3, 9));
+    }
+
+    /** Runs Spark with a CHA call graph over a generated program, on
+     * numThreads threads, and returns a description of its PAG: its
+     * nodes, by number, and then its edges. */
+    private static List<String> describe(int numThreads, long seed) {
+        GeneratedProgram.reset(numThreads);
+        GeneratedProgram.generate(25, 3, seed);
+        GeneratedProgram.runSpark("on-fly-cg:false");
+        PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+
+        List<String> ret = new ArrayList<String>();
+        addNodes(ret, pag.getAllocNodeNumberer());
+        addNodes(ret, pag.getVarNodeNumberer());
+        addNodes(ret, pag.getFieldRefNodeNumberer());
+        addNodes(ret, pag.getAllocDotFieldNodeNumberer());
+        for (Object o : sorted(pag.allocSources()))
+            addEdges(ret, "alloc", o, pag.allocLookup((AllocNode) o));
+        for (Object o : sorted(pag.simpleSources()))
+            addEdges(ret, "simple", o, pag.simpleLookup((VarNode) o));
+        for (Object o : sorted(pag.loadSources()))
+            addEdges(ret, "load", o, pag.loadLookup((FieldRefNode) o));
+        for (Object o : sorted(pag.storeSources()))
+            addEdges(ret, "store", o, pag.storeLookup((VarNode) o));
+        return ret;
+    }
+
+    private static void addNodes(List<String> ret, ArrayNumberer numberer) {
+        for (int i = 1; i <= numberer.size(); i++)
+            ret.add(name(numberer.get(i)));
+    }
+
+    private static void addEdges(List<String> ret, String kind, Object source, Node[] targets) {
+        for (Node target : targets)
+            ret.add(kind + " " + name(source) + " -> " + name(target));
+    }
+
+    /** Returns the string of o, without the identity hash codes of the
+     * objects, such as ArrayElement, that print them. */
+    private static String name(Object o) {
+        return String.valueOf(o).replaceAll("@[0-9a-f]+", "");
+    }
+
+    private static List<Node> sorted(Set<Object> nodes) {
+        List<Node> ret = new ArrayList<Node>();
+        for (Object o : nodes)
+            ret.add((Node) o);
+        Collections.sort(ret, new Comparator<Node>() {
+            public int compare(Node a, Node b) {
+                return a.getNumber() - b.getNumber();
+            }
+        });
+        return ret;
+    }
+}
@@ -0,0 +1,145 @@
+package soot.jimple.spark.sets;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.GeneratedProgram;
+import soot.PhaseOptions;
+import soot.RefType;
+import soot.Scene;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.options.SparkOptions;
+
+/**
+ * JUnit tests for RoaringPointsToSet, which compare it with
+ * HashPointsToSet under random operations.  There are enough allocation
+ * nodes for their numbers to fall into two containers, and for the
+ * containers to turn from arrays into bitmaps.
+ */
+public class RoaringPointsToSetTest extends TestCase {
+
+    private static final int NUM_NODES = 70000;
+
+    private PAG pag;
+    private AllocNode[] nodes;
+    private RefType[] types;
+    private Random rand;
+
+    public RoaringPointsToSetTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        GeneratedProgram.generate(7, 1, 0);
+        pag = new PAG(new SparkOptions(PhaseOptions.v().getPhaseOptions("cg.spark")));
+        types = new RefType[7];
+        for (int i = 0; i < types.length; i++)
+            types[i] = Scene.v().getSootClass("gen.C" + i).getType();
+        nodes = new AllocNode[NUM_NODES];
+        for (int i = 0; i < nodes.length; i++)
+            nodes[i] = pag.makeAllocNode(Integer.valueOf(i), types[i % types.length], null);
+        pag.getTypeManager().makeTypeMask();
+        rand = new Random(3);
+    }
+
+    public void testEmpty() {
+        RoaringPointsToSet set = new RoaringPointsToSet(null, pag);
+        assertTrue(set.isEmpty());
+        assertEquals(0, set.size());
+        assertFalse(set.contains(nodes[0]));
+        assertEquals(Collections.emptySet(), elements(set));
+    }
+
+    public void testAdd() {
+        RoaringPointsToSet set = new RoaringPointsToSet(null, pag);
+        assertTrue(set.add(nodes[5]));
+        assertFalse(set.add(nodes[5]));
+        assertTrue(set.add(nodes[NUM_NODES - 1]));
+        assertTrue(set.add(nodes[0]));
+        assertEquals(3, set.size());
+        assertTrue(set.contains(nodes[NUM_NODES - 1]));
+        assertFalse(set.contains(nodes[6]));
+    }
+
+    public void testAddUntilBitmap() {
+        PointsToSetInternal expected = new HashPointsToSet(null, pag);
+        RoaringPointsToSet set = new RoaringPointsToSet(null, pag);
+        for (int i = 0; i < NUM_NODES; i += 3) {
+            assertEquals(expected.add(nodes[i]), set.add(nodes[i]));
+        }
+        for (int i = 0; i < NUM_NODES; i += 2) {
+            assertEquals(expected.add(nodes[i]), set.add(nodes[i]));
+        }
+        assertSameElements(expected, set);
+        for (int i = 0; i < NUM_NODES; i += 1000)
+            assertEquals(expected.contains(nodes[i]), set.contains(nodes[i]));
+    }
+
+    public void testRandomAddAll() {
+        for (int round = 0; round < 20; round++) {
+            int density = 1 + rand.nextInt(200);
+            PointsToSetInternal[] expected = new PointsToSetInternal[3];
+            RoaringPointsToSet[] sets = new RoaringPointsToSet[3];
+            for (int k = 0; k < sets.length; k++) {
+                expected[k] = new HashPointsToSet(null, pag);
+                sets[k] = new RoaringPointsToSet(null, pag);
+                for (int i = rand.nextInt(density); i < NUM_NODES; i += 1 + rand.nextInt(density)) {
+                    expected[k].add(nodes[i]);
+                    sets[k].add(nodes[i]);
+                }
+            }
+            assertEquals(expected[0].addAll(expected[1], expected[2]),
+                         sets[0].addAll(sets[1], sets[2]));
+            assertSameElements(expected[0], sets[0]);
+            assertFalse(sets[0].addAll(sets[1], sets[2]));
+            assertEquals(expected[1].addAll(expected[2], null),
+                         sets[1].addAll(sets[2], null));
+            assertSameElements(expected[1], sets[1]);
+        }
+    }
+
+    public void testAddAllFiltersByType() {
+        for (int t = 0; t < types.length; t++) {
+            PointsToSetInternal expected = new HashPointsToSet(types[t], pag);
+            RoaringPointsToSet set = new RoaringPointsToSet(types[t], pag);
+            RoaringPointsToSet all = new RoaringPointsToSet(null, pag);
+            for (int i = 0; i < NUM_NODES; i += 1 + rand.nextInt(4))
+                all.add(nodes[i]);
+            assertEquals(expected.addAll(all, null), set.addAll(all, null));
+            assertSameElements(expected, set);
+            // Only gen.C0 is a supertype of all the others.
+            assertEquals(t == 0, set.size() == all.size());
+            for (Node n : elements(set))
+                assertTrue(pag.getTypeManager().castNeverFails(n.getType(), types[t]));
+        }
+    }
+
+    public void testAddAllFromOtherImplementation() {
+        PointsToSetInternal other = new HashPointsToSet(null, pag);
+        for (int i = 0; i < NUM_NODES; i += 7)
+            other.add(nodes[i]);
+        RoaringPointsToSet set = new RoaringPointsToSet(null, pag);
+        assertTrue(set.addAll(other, null));
+        assertSameElements(other, set);
+        assertFalse(set.addAll(other, null));
+    }
+
+    private static void assertSameElements(PointsToSetInternal expected, PointsToSetInternal actual) {
+        assertEquals(elements(expected), elements(actual));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+    }
+
+    private static Set<Node> elements(PointsToSetInternal set) {
+        final Set<Node> ret = new HashSet<Node>();
+        set.forall(new P2SetVisitor() {
+            public void visit(Node n) {
+                assertTrue(ret.add(n));
+            }
+        });
+        return ret;
+    }
+}
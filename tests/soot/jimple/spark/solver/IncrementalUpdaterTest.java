@@ -0,0 +1,171 @@
+package soot.jimple.spark.solver;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.AssignStmt;
+import soot.jimple.Jimple;
+import soot.jimple.NewExpr;
+import soot.jimple.NullConstant;
+import soot.jimple.ReturnStmt;
+import soot.jimple.spark.SparkTransformer;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+
+/**
+ * Checks that IncrementalUpdater keeps Spark's points-to sets sound after
+ * method bodies are edited, and that it removes the nodes of the locals
+ * the edits removed.
+ *
+ * After Spark has run over a generated program, some reachable methods
+ * are edited.  Each loses a local that is assigned a new object: the
+ * statements using it are removed, and so is the local.  Each also gets
+ * a new allocation site, whose object it returns.  The PAG is updated,
+ * and then Spark is run again from scratch on the edited bodies.  Every
+ * points-to set of the new analysis must be contained in the updated one.
+ */
+public class IncrementalUpdaterTest extends TestCase {
+
+    public IncrementalUpdaterTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        GeneratedProgram.generate(30, 4, 4);
+        GeneratedProgram.runSpark("simplify-offline:false");
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testEditOneMethod() {
+        check(1);
+    }
+
+    public void testEditManyMethods() {
+        check(40);
+    }
+
+    public void testRejectsMergedNodes() {
+        GeneratedProgram.reset(1);
+        GeneratedProgram.generate(5, 1, 4);
+        GeneratedProgram.runSpark("simplify-offline:true");
+        try {
+            new IncrementalUpdater((PAG) Scene.v().getPointsToAnalysis())
+                .update(Collections.<SootMethod>emptyList());
+            fail();
+        } catch (RuntimeException e) {
+            // expected
+        }
+    }
+
+    private static void check(int toEdit) {
+        PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+        List<SootMethod> changed = new ArrayList<SootMethod>();
+        List<Local> removed = new ArrayList<Local>();
+        for (Iterator it = Scene.v().getReachableMethods().listener();
+             it.hasNext() && changed.size() < toEdit; ) {
+            SootMethod m = ((MethodOrMethodContext) it.next()).method();
+            if (!m.getDeclaringClass().isApplicationClass() || !m.hasActiveBody()
+                || m.getReturnType() instanceof VoidType)
+                continue;
+            Local l = removeAllocatedLocal(m.getActiveBody());
+            if (l == null)
+                continue;
+            returnNewObject(m.getActiveBody());
+            changed.add(m);
+            removed.add(l);
+        }
+        assertEquals(toEdit, changed.size());
+
+        new IncrementalUpdater(pag).update(changed);
+        for (Local l : removed)
+            assertNull(l + " still has a node", pag.findLocalVarNode(l));
+
+        G.v().MethodPAG_methodToPag.clear();
+        SparkTransformer.v().transform("cg.spark", PhaseOptions.v().getPhaseOptions("cg.spark"));
+        PAG fresh = (PAG) Scene.v().getPointsToAnalysis();
+        assertNotSame(pag, fresh);
+
+        int checked = 0;
+        for (Iterator it = Scene.v().getReachableMethods().listener(); it.hasNext(); ) {
+            SootMethod m = ((MethodOrMethodContext) it.next()).method();
+            if (!m.hasActiveBody())
+                continue;
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (!(l.getType() instanceof RefLikeType))
+                    continue;
+                checked++;
+                Set<Object> expected = objects(fresh.reachingObjects(l));
+                Set<Object> actual = objects(pag.reachingObjects(l));
+                assertTrue(m + " " + l + ": " + expected + " not in " + actual,
+                           actual.containsAll(expected));
+            }
+        }
+        assertTrue(checked > 0);
+    }
+
+    /** Removes from body a local of reference type that is assigned a new
+     * object, and is not returned, with all statements using or defining
+     * it, and returns it. */
+    private static Local removeAllocatedLocal(Body body) {
+        Local victim = null;
+        Value returned = returnStmt(body).getOp();
+        for (Unit u : body.getUnits()) {
+            if (u instanceof AssignStmt
+                && ((AssignStmt) u).getRightOp() instanceof NewExpr
+                && ((AssignStmt) u).getLeftOp() != returned) {
+                victim = (Local) ((AssignStmt) u).getLeftOp();
+                break;
+            }
+        }
+        if (victim == null)
+            return null;
+        for (Iterator<Unit> it = body.getUnits().snapshotIterator(); it.hasNext(); ) {
+            Unit u = it.next();
+            for (Object vb : u.getUseAndDefBoxes()) {
+                if (((ValueBox) vb).getValue() == victim) {
+                    body.getUnits().remove(u);
+                    break;
+                }
+            }
+        }
+        body.getLocals().remove(victim);
+        return victim;
+    }
+
+    /** Makes body return an object allocated at a new site, as well as
+     * what it returned before. */
+    private static void returnNewObject(Body body) {
+        ReturnStmt ret = returnStmt(body);
+        Local returned = (Local) ret.getOp();
+        Unit alloc = Jimple.v().newAssignStmt(returned,
+            Jimple.v().newNewExpr(RefType.v("gen.C1")));
+        body.getUnits().insertBefore(
+            Jimple.v().newIfStmt(Jimple.v().newEqExpr(returned, NullConstant.v()), ret),
+            ret);
+        body.getUnits().insertBefore(alloc, ret);
+    }
+
+    private static ReturnStmt returnStmt(Body body) {
+        return (ReturnStmt) body.getUnits().getLast();
+    }
+
+    /** Returns the allocation sites of the objects in pts; those of the
+     * PAG of either analysis are the same NewExprs. */
+    private static Set<Object> objects(PointsToSet pts) {
+        final Set<Object> ret = new HashSet<Object>();
+        ((PointsToSetInternal) pts).forall(new P2SetVisitor() {
+            public void visit(Node n) {
+                ret.add(((AllocNode) n).getNewExpr());
+            }
+        });
+        return ret;
+    }
+}
@@ -0,0 +1,80 @@
+package soot.jimple.spark.solver;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.spark.pag.PAG;
+import soot.jimple.spark.pag.VarNode;
+import soot.jimple.toolkits.callgraph.Edge;
+
+/**
+ * Checks that the worklist propagator computes the same points-to sets and
+ * call graph with lazy-cycle-detection as without it, with and without
+ * on-fly-cg, on a generated program whose copies between locals form
+ * cycles, and that it merges the nodes of at least one of them.
+ */
+public class LazyCycleDetectorTest extends TestCase {
+
+    public LazyCycleDetectorTest(String name) {
+        super(name);
+    }
+
+    public void testSameAsWorklist() {
+        Result plain = run("on-fly-cg:true");
+        Result lazy = run("on-fly-cg:true,lazy-cycle-detection:true");
+        assertEquals(0, plain.numMerged);
+        assertTrue(lazy.numMerged > 0);
+        assertFalse(plain.pointsTo.isEmpty());
+        assertEquals(plain.pointsTo, lazy.pointsTo);
+        assertEquals(plain.callGraph, lazy.callGraph);
+    }
+
+    public void testSameAsWorklistWithoutOnFlyCallGraph() {
+        Result plain = run("on-fly-cg:false");
+        Result lazy = run("on-fly-cg:false,lazy-cycle-detection:true");
+        assertTrue(lazy.numMerged > 0);
+        assertEquals(plain.pointsTo, lazy.pointsTo);
+        assertEquals(plain.callGraph, lazy.callGraph);
+    }
+
+    private static class Result {
+        final Map<String, Set<String>> pointsTo = new TreeMap<String, Set<String>>();
+        final Set<String> callGraph = new TreeSet<String>();
+        int numMerged = 0;
+    }
+
+    /** Runs Spark with the worklist propagator over a generated program,
+     * and returns the points-to sets of the reference locals of the
+     * reachable methods, the edges of the call graph, and the number of
+     * variable nodes merged into others. */
+    private static Result run(String sparkOptions) {
+        GeneratedProgram.reset(1);
+        GeneratedProgram.generate(40, 4, 2);
+        GeneratedProgram.runSpark("propagator:worklist,simplify-sccs:false,simplify-offline:false,"
+                                  + sparkOptions);
+
+        Result result = new Result();
+        PAG pag = (PAG) Scene.v().getPointsToAnalysis();
+        for (Iterator it = Scene.v().getReachableMethods().listener(); it.hasNext(); ) {
+            SootMethod m = ((MethodOrMethodContext) it.next()).method();
+            if (!m.hasActiveBody())
+                continue;
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (l.getType() instanceof RefLikeType)
+                    result.pointsTo.put(m + " " + l, PropParallelTest.objects(pag.reachingObjects(l)));
+            }
+        }
+        for (Iterator<Edge> it = Scene.v().getCallGraph().listener(); it.hasNext(); ) {
+            Edge e = it.next();
+            result.callGraph.add(e.srcStmt() + " in " + e.src() + " -> " + e.tgt());
+        }
+        for (Iterator it = pag.getVarNodeNumberer().iterator(); it.hasNext(); ) {
+            VarNode v = (VarNode) it.next();
+            if (v.getReplacement() != v)
+                result.numMerged++;
+        }
+        G.reset();
+        return result;
+    }
+}
@@ -0,0 +1,69 @@
+package soot.jimple.spark.solver;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.spark.pag.AllocNode;
+import soot.jimple.spark.pag.Node;
+import soot.jimple.spark.sets.P2SetVisitor;
+import soot.jimple.spark.sets.PointsToSetInternal;
+
+/**
+ * Checks that the parallel propagator computes the same points-to sets as
+ * the worklist propagator, on a generated program.  Each allocation site
+ * is named by its expression and method, which do not depend on node
+ * numbering.
+ */
+public class PropParallelTest extends TestCase {
+
+    public PropParallelTest(String name) {
+        super(name);
+    }
+
+    public void testSameAsWorklist() {
+        Map<String, Set<String>> seq = run("propagator:worklist", 1);
+        Map<String, Set<String>> par = run("propagator:parallel", 4);
+        assertFalse(seq.isEmpty());
+        assertEquals(seq, par);
+    }
+
+    public void testSameAsWorklistWithoutOnFlyCallGraph() {
+        Map<String, Set<String>> seq = run("propagator:worklist,on-fly-cg:false", 1);
+        Map<String, Set<String>> par = run("propagator:parallel,on-fly-cg:false", 4);
+        assertEquals(seq, par);
+    }
+
+    /** Runs Spark over a generated program and returns the points-to sets
+     * of the reference locals of the reachable methods. */
+    static Map<String, Set<String>> run(String sparkOptions, int numThreads) {
+        GeneratedProgram.reset(numThreads);
+        GeneratedProgram.generate(40, 4, 2);
+        GeneratedProgram.runSpark(sparkOptions);
+
+        Map<String, Set<String>> result = new TreeMap<String, Set<String>>();
+        PointsToAnalysis pta = Scene.v().getPointsToAnalysis();
+        for (Iterator it = Scene.v().getReachableMethods().listener(); it.hasNext(); ) {
+            SootMethod m = ((MethodOrMethodContext) it.next()).method();
+            if (!m.hasActiveBody())
+                continue;
+            for (Local l : m.getActiveBody().getLocals()) {
+                if (l.getType() instanceof RefLikeType)
+                    result.put(m + " " + l, objects(pta.reachingObjects(l)));
+            }
+        }
+        G.reset();
+        return result;
+    }
+
+    static Set<String> objects(PointsToSet pts) {
+        final Set<String> objects = new TreeSet<String>();
+        ((PointsToSetInternal) pts).forall(new P2SetVisitor() {
+            public void visit(Node n) {
+                AllocNode an = (AllocNode) n;
+                objects.add(an.getNewExpr() + " in " + an.getMethod());
+            }
+        });
+        return objects;
+    }
+}
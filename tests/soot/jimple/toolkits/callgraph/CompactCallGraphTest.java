@@ -0,0 +1,133 @@
+package soot.jimple.toolkits.callgraph;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+
+/**
+ * Checks that a CompactCallGraph has the same edges as the call graph it
+ * was made from, found by source method, call site and target method,
+ * for the call graph Spark builds over a generated program.
+ */
+public class CompactCallGraphTest extends TestCase {
+
+    private CallGraph cg;
+    private CompactCallGraph compact;
+
+    public CompactCallGraphTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        GeneratedProgram.generate(20, 3, 5);
+        GeneratedProgram.runSpark("enabled:true");
+        cg = Scene.v().getCallGraph();
+        compact = new CompactCallGraph(cg);
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testAllEdges() {
+        List<Edge> expected = liveEdges(cg);
+        assertTrue(expected.size() > 0);
+        assertEquals(expected.size(), cg.size());
+        assertEquals(cg.size(), compact.size());
+        assertEquals(expected, liveEdges(compact));
+        assertEquals(expected, edges(compact.listener()));
+        assertFalse(compact.newListener().hasNext());
+    }
+
+    public void testSourceMethods() {
+        assertEquals(set(cg.sourceMethods()), set(compact.sourceMethods()));
+    }
+
+    public void testEdgesByMethod() {
+        for (SootClass c : Scene.v().getApplicationClasses()) {
+            for (SootMethod m : c.getMethods()) {
+                assertEquals(edges(cg.edgesOutOf(m)), edges(compact.edgesOutOf(m)));
+                assertEquals(edges(cg.edgesInto(m)), edges(compact.edgesInto(m)));
+                assertEquals(cg.isEntryMethod(m), compact.isEntryMethod(m));
+            }
+        }
+    }
+
+    public void testEdgesByCallSite() {
+        for (SootClass c : Scene.v().getApplicationClasses()) {
+            for (SootMethod m : c.getMethods()) {
+                for (Unit u : m.getActiveBody().getUnits()) {
+                    List<Edge> expected = edges(cg.edgesOutOf(u));
+                    assertEquals(expected, edges(compact.edgesOutOf(u)));
+                    for (Edge e : expected)
+                        assertEquals(cg.findEdge(u, e.tgt()), compact.findEdge(u, e.tgt()));
+                }
+            }
+        }
+    }
+
+    public void testReflectionKinds() {
+        SootClass c = Scene.v().getSootClass("gen.C1");
+        SootMethod src = c.getMethodByName("m0");
+        Unit u = src.getActiveBody().getUnits().getFirst();
+        CallGraph g = new CallGraph();
+        g.addEdge(new Edge(src, u, c.getMethodByName("m1"), Kind.REFL_INVOKE));
+        g.addEdge(new Edge(src, u, c.getMethodByName("s1"), Kind.STATIC));
+        assertEquals(edges(g.listener()), edges(new CompactCallGraph(g).listener()));
+    }
+
+    public void testUnchangeable() {
+        Edge e = compact.listener().next();
+        try {
+            compact.addEdge(e);
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        try {
+            compact.removeEdge(e);
+            fail();
+        } catch (UnsupportedOperationException ex) {
+            // expected
+        }
+        assertEquals(cg.size(), compact.size());
+    }
+
+    /** Returns the edges of it, sorted, so that lists of equal edges in
+     * any order compare equal. */
+    private static List<Edge> edges(Iterator<Edge> it) {
+        List<Edge> ret = new ArrayList<Edge>();
+        while (it.hasNext())
+            ret.add(it.next());
+        Collections.sort(ret, new Comparator<Edge>() {
+            public int compare(Edge a, Edge b) {
+                return key(a).compareTo(key(b));
+            }
+        });
+        return ret;
+    }
+
+    /** Returns the edges of g, sorted, found through its source methods.
+     * Unlike the listener of a CallGraph, this leaves out edges that were
+     * removed, such as those removed by trim-clinit. */
+    private static List<Edge> liveEdges(CallGraph g) {
+        List<Edge> ret = new ArrayList<Edge>();
+        for (Iterator<MethodOrMethodContext> it = g.sourceMethods(); it.hasNext();)
+            ret.addAll(edges(g.edgesOutOf(it.next())));
+        return edges(ret.iterator());
+    }
+
+    private static String key(Edge e) {
+        return e.getSrc() + " " + System.identityHashCode(e.srcUnit()) + " "
+            + e.getTgt() + " " + e.kind();
+    }
+
+    private static Set<Object> set(Iterator<?> it) {
+        Set<Object> ret = new HashSet<Object>();
+        while (it.hasNext())
+            ret.add(it.next());
+        return ret;
+    }
+}
@@ -0,0 +1,49 @@
+package soot.jimple.toolkits.callgraph;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.options.Options;
+
+/**
+ * Checks that ParallelCHABuilder builds the same call graph as
+ * CallGraphBuilder with the DumbPointerAnalysis, and the same with any
+ * number of threads, over a generated program, in which all receiver
+ * types are concrete and there are no phantom methods.
+ */
+public class ParallelCHABuilderTest extends TestCase {
+
+    public ParallelCHABuilderTest(String name) {
+        super(name);
+    }
+
+    public void testSameAsSequential() {
+        List<String> seq = run(1);
+        List<String> par = run(4);
+        assertFalse(seq.isEmpty());
+        assertEquals(seq, par);
+    }
+
+    public void testSameForAnyNumberOfThreads() {
+        assertEquals(run(2), run(3));
+    }
+
+    /** Builds the CHA call graph of a generated program on numThreads
+     * threads, and returns its edges, sorted. */
+    private static List<String> run(int numThreads) {
+        GeneratedProgram.reset(numThreads);
+        GeneratedProgram.generate(40, 4, 7);
+        Options.v().set_whole_program(true);
+        PackManager.v().getPack("cg").apply();
+
+        List<String> edges = new ArrayList<String>();
+        for (Iterator<Edge> eIt = Scene.v().getCallGraph().listener(); eIt.hasNext(); ) {
+            Edge e = eIt.next();
+            edges.add(e.getSrc() + " " + e.srcStmt() + " " + e.getTgt() + " " + e.kind());
+        }
+        Collections.sort(edges);
+        G.reset();
+        return edges;
+    }
+}
@@ -0,0 +1,114 @@
+package soot.jimple.toolkits.ide;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.AssignStmt;
+import soot.jimple.DefinitionStmt;
+import soot.jimple.IdentityStmt;
+import soot.jimple.NewExpr;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSReachingDefinitions;
+import soot.jimple.toolkits.ide.exampleproblems.IFDSUninitializedVariables;
+import soot.toolkits.scalar.Pair;
+
+/**
+ * Checks that the IFDS solver finds the same facts at every node on 1 and
+ * on 4 threads, for the reaching definitions and uninitialized variables
+ * of a generated program, and that a few facts known from the shape of
+ * the program are among them.
+ */
+public class IFDSSolverTest extends TestCase {
+
+    private SootMethod main;
+    private JimpleBasedInterproceduralCFG icfg;
+
+    public IFDSSolverTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        main = GeneratedProgram.generate(20, 3, 4);
+        GeneratedProgram.runSpark("on-fly-cg:true");
+        icfg = new JimpleBasedInterproceduralCFG();
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testReachingDefinitions() {
+        IFDSSolver<Unit,Pair<Local,DefinitionStmt>,SootMethod> one = solve(new IFDSReachingDefinitions(icfg), 1);
+        IFDSSolver<Unit,Pair<Local,DefinitionStmt>,SootMethod> four = solve(new IFDSReachingDefinitions(icfg), 4);
+        assertSameResults(one, four);
+
+        // the allocation of each object of main reaches its return, since
+        // the calls in between do not assign to the locals
+        Unit ret = main.getActiveBody().getUnits().getLast();
+        Set<Pair<Local,DefinitionStmt>> atReturn = one.ifdsResultsAt(ret);
+        int allocations = 0;
+        for (Unit u : main.getActiveBody().getUnits()) {
+            if (u instanceof AssignStmt && ((AssignStmt) u).getRightOp() instanceof NewExpr) {
+                AssignStmt def = (AssignStmt) u;
+                assertTrue(atReturn.contains(new Pair<Local,DefinitionStmt>((Local) def.getLeftOp(), def)));
+                allocations++;
+            }
+        }
+        assertEquals(20, allocations);
+
+        // main passes the object of gen.C1 to gen.C1.s0, so its allocation
+        // reaches the parameter there
+        AssignStmt allocC1 = allocationOf(RefType.v("gen.C1"));
+        Body s0 = Scene.v().getSootClass("gen.C1").getMethodByName("s0").getActiveBody();
+        Unit afterIdentity = s0.getUnits().getSuccOf(s0.getUnits().getFirst());
+        assertTrue(one.ifdsResultsAt(afterIdentity).contains(
+            new Pair<Local,DefinitionStmt>(s0.getParameterLocal(0), allocC1)));
+    }
+
+    public void testUninitializedVariables() {
+        IFDSSolver<Unit,Local,SootMethod> one = solve(new IFDSUninitializedVariables(icfg), 1);
+        IFDSSolver<Unit,Local,SootMethod> four = solve(new IFDSUninitializedVariables(icfg), 4);
+        assertSameResults(one, four);
+
+        // the objects of main are uninitialized after its identity
+        // statement, but not at its return
+        Body b = main.getActiveBody();
+        Unit first = b.getUnits().getSuccOf(b.getUnits().getFirst());
+        Set<Local> atFirst = one.ifdsResultsAt(first);
+        Local args = (Local) ((IdentityStmt) b.getUnits().getFirst()).getLeftOp();
+        for (Local l : b.getLocals())
+            assertEquals(l != args, atFirst.contains(l));
+        assertTrue(one.ifdsResultsAt(b.getUnits().getLast()).isEmpty());
+    }
+
+    private <D> IFDSSolver<Unit,D,SootMethod> solve(IFDSTabulationProblem<Unit,D,SootMethod> problem, int numThreads) {
+        IFDSSolver<Unit,D,SootMethod> solver = new IFDSSolver<Unit,D,SootMethod>(problem, numThreads);
+        solver.solve();
+        return solver;
+    }
+
+    /** Checks that both solvers found the same facts at every node. */
+    private <D> void assertSameResults(IFDSSolver<Unit,D,SootMethod> one, IFDSSolver<Unit,D,SootMethod> four) {
+        int nonEmpty = 0;
+        for (SootMethod m : icfg.getMethods()) {
+            for (Unit u : m.getActiveBody().getUnits()) {
+                Set<D> facts = one.ifdsResultsAt(u);
+                assertEquals(m + ": " + u, facts, four.ifdsResultsAt(u));
+                if (!facts.isEmpty())
+                    nonEmpty++;
+            }
+        }
+        assertTrue(nonEmpty > 100);
+        assertEquals(one.getPropagationCount(), four.getPropagationCount());
+    }
+
+    private AssignStmt allocationOf(Type type) {
+        for (Unit u : main.getActiveBody().getUnits()) {
+            if (u instanceof AssignStmt && ((AssignStmt) u).getRightOp() instanceof NewExpr
+                    && ((AssignStmt) u).getRightOp().getType() == type)
+                return (AssignStmt) u;
+        }
+        throw new AssertionError(type);
+    }
+}
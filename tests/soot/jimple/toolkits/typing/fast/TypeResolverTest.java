@@ -0,0 +1,207 @@
+package soot.jimple.toolkits.typing.fast;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.*;
+
+/**
+ * Checks that the rounds of type promotion which only look at the
+ * assignments and statements using the locals just changed give the same
+ * typing as rounds which look at the whole body, on generated bodies with
+ * many locals holding boolean, byte and short values, copies, arithmetic
+ * and loops, with and without a local whose assignments have several
+ * least common ancestors, which makes the constraints branch.
+ */
+public class TypeResolverTest extends TestCase {
+
+    private SootMethodRef[] uses;
+
+    public TypeResolverTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        SootClass c = new SootClass("typing.Uses", Modifier.PUBLIC);
+        c.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+        Scene.v().addClass(c);
+        c.setApplicationClass();
+        Type[] types = { BooleanType.v(), ByteType.v(), ShortType.v(), IntType.v() };
+        uses = new SootMethodRef[types.length];
+        for (int i = 0; i < types.length; i++) {
+            SootMethod m = new SootMethod("use" + i, Collections.singletonList(types[i]),
+                VoidType.v(), Modifier.PUBLIC | Modifier.STATIC | Modifier.NATIVE);
+            c.addMethod(m);
+            uses[i] = m.makeRef();
+        }
+        // A and B both implement I and J
+        List<SootClass> interfaces = new ArrayList<SootClass>();
+        for (String name : new String[] { "typing.I", "typing.J" }) {
+            SootClass i = new SootClass(name, Modifier.PUBLIC | Modifier.INTERFACE);
+            i.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+            Scene.v().addClass(i);
+            i.setApplicationClass();
+            interfaces.add(i);
+        }
+        for (String name : new String[] { "typing.A", "typing.B" }) {
+            SootClass k = new SootClass(name, Modifier.PUBLIC);
+            k.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+            for (SootClass i : interfaces)
+                k.addInterface(i);
+            Scene.v().addClass(k);
+            k.setApplicationClass();
+        }
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testSameAsFullPasses() {
+        int fewerSteps = 0;
+        for (long seed = 1; seed <= 10; seed++) {
+            TypeResolver incremental = resolve(seed, false, false);
+            TypeResolver full = resolve(seed, false, true);
+            assertEquals("seed " + seed, typed(seed, false, false), typed(seed, false, true));
+            assertTrue(incremental.getPromotionCount() > 0);
+            assertEquals(full.getPromotionCount(), incremental.getPromotionCount());
+            if (incremental.getStepCount() < full.getStepCount())
+                fewerSteps++;
+        }
+        assertTrue(fewerSteps > 0);
+    }
+
+    public void testSameAsFullPassesWhenBranching() {
+        for (long seed = 1; seed <= 10; seed++) {
+            assertEquals("seed " + seed, typed(seed, true, false), typed(seed, true, true));
+            // r holds an A and a B, whose least common ancestors are I and J
+            assertTrue(resolve(seed, true, false).getTypingCount()
+                       > resolve(seed, false, false).getTypingCount());
+        }
+    }
+
+    /** Types the body generated from seed, and returns its locals with
+     * their types, sorted, followed by its statements. */
+    private List<String> typed(long seed, boolean branching, boolean fullPasses) {
+        JimpleBody b = body(seed, branching);
+        TypeResolver tr = new TypeResolver(b);
+        tr.fullPasses = fullPasses;
+        tr.inferTypes();
+        List<String> ret = new ArrayList<String>();
+        for (Local l : b.getLocals())
+            ret.add(l.getName() + " " + l.getType());
+        Collections.sort(ret);
+        for (Unit u : b.getUnits())
+            ret.add(u.toString());
+        return ret;
+    }
+
+    private TypeResolver resolve(long seed, boolean branching, boolean fullPasses) {
+        TypeResolver tr = new TypeResolver(body(seed, branching));
+        tr.fullPasses = fullPasses;
+        tr.inferTypes();
+        return tr;
+    }
+
+    /** Generates an untyped body whose parameters are a boolean, a byte, a
+     * short and an int, arrays of booleans, bytes and shorts, an A and a
+     * B. Its 40 locals are in four groups, one for each of the first four
+     * types, and only get constants that fit the type of their group, and
+     * copies and combinations of locals of their group or of smaller
+     * groups of numbers. They are stored into the array of their group,
+     * passed to a method taking the type of their group, and branched back
+     * on. If branching, a local r is assigned the A and the B. */
+    private JimpleBody body(long seed, boolean branching) {
+        Random rand = new Random(seed);
+        Jimple j = Jimple.v();
+        Type[] paramTypes = { BooleanType.v(), ByteType.v(), ShortType.v(), IntType.v(),
+            ArrayType.v(BooleanType.v(), 1), ArrayType.v(ByteType.v(), 1),
+            ArrayType.v(ShortType.v(), 1), RefType.v("typing.A"), RefType.v("typing.B") };
+        int[] maxConstants = { 1, 127, 32767, 40000 };
+        SootMethod m = new SootMethod("m", Arrays.asList(paramTypes), VoidType.v(),
+            Modifier.PUBLIC | Modifier.STATIC);
+        JimpleBody b = j.newBody(m);
+        PatchingChain<Unit> units = b.getUnits();
+        List<List<Local>> groups = new ArrayList<List<Local>>();
+        Local[] arrays = new Local[3];
+        Local[] objects = new Local[2];
+        for (int i = 0; i < paramTypes.length; i++) {
+            Local p = j.newLocal("p" + i, UnknownType.v());
+            b.getLocals().add(p);
+            units.add(j.newIdentityStmt(p, j.newParameterRef(paramTypes[i], i)));
+            if (i < 4)
+                groups.add(new ArrayList<Local>());
+            else if (i < 7)
+                arrays[i - 4] = p;
+            else
+                objects[i - 7] = p;
+        }
+        for (int i = 0; i < 40; i++) {
+            int g = i % 4;
+            Local x = j.newLocal("x" + i, UnknownType.v());
+            b.getLocals().add(x);
+            units.add(j.newAssignStmt(x, IntConstant.v(rand.nextInt(maxConstants[g] + 1))));
+            groups.get(g).add(x);
+        }
+        if (branching) {
+            Local r = j.newLocal("r", UnknownType.v());
+            b.getLocals().add(r);
+            units.add(j.newAssignStmt(r, objects[0]));
+            units.add(j.newIfStmt(j.newEqExpr(arrays[0], NullConstant.v()), units.getLast()));
+            units.add(j.newAssignStmt(r, objects[1]));
+        }
+
+        List<Unit> targets = new ArrayList<Unit>();
+        for (int i = 0; i < 300; i++) {
+            int g = rand.nextInt(4);
+            List<Local> group = groups.get(g);
+            Local x = group.get(rand.nextInt(group.size()));
+            Local y = pick(groups, g, rand);
+            Local z = pick(groups, g, rand);
+            Unit u;
+            switch (rand.nextInt(6)) {
+            case 0:
+                u = j.newAssignStmt(x, IntConstant.v(rand.nextInt(maxConstants[g] + 1)));
+                break;
+            case 1:
+                u = j.newAssignStmt(x, y);
+                break;
+            case 2:
+                if (g == 3)
+                    u = j.newAssignStmt(x, j.newAddExpr(y, z));
+                else
+                    u = j.newAssignStmt(x, rand.nextBoolean() ? j.newAndExpr(y, z)
+                        : rand.nextBoolean() ? j.newOrExpr(y, z) : j.newXorExpr(y, z));
+                break;
+            case 3:
+                if (g == 3)
+                    continue;
+                u = j.newAssignStmt(j.newArrayRef(arrays[g], IntConstant.v(0)), y);
+                break;
+            case 4:
+                u = j.newInvokeStmt(j.newStaticInvokeExpr(uses[g], y));
+                break;
+            default:
+                if (targets.isEmpty())
+                    continue;
+                u = j.newIfStmt(j.newEqExpr(y, IntConstant.v(0)),
+                                targets.get(rand.nextInt(targets.size())));
+            }
+            units.add(u);
+            targets.add(u);
+        }
+        units.add(j.newReturnVoidStmt());
+        return b;
+    }
+
+    /** Picks a local of group g, or now and then of a smaller group of
+     * numbers. */
+    private static Local pick(List<List<Local>> groups, int g, Random rand) {
+        if (g > 1 && rand.nextInt(8) == 0)
+            g = 1 + rand.nextInt(g - 1);
+        List<Local> group = groups.get(g);
+        return group.get(rand.nextInt(group.size()));
+    }
+}
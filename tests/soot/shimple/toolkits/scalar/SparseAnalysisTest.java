@@ -0,0 +1,199 @@
+package soot.shimple.toolkits.scalar;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.*;
+import soot.jimple.toolkits.annotation.nullcheck.NullnessAnalysis;
+import soot.shimple.*;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.util.Chain;
+
+/**
+ * Checks that the sparse analyses on Shimple, SparseSCPFAnalysis and
+ * SNullnessAnalysis, agree with their dense counterparts, SCPFAnalysis
+ * and NullnessAnalysis, on a method with constant and unknown branches
+ * and a loop.
+ */
+public class SparseAnalysisTest extends TestCase {
+
+    private JimpleBody jimpleBody;
+    private ShimpleBody body;
+
+    public SparseAnalysisTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Builds the Shimple body of
+     * <pre>
+     * static int f(Object p) {
+     *     a = 1; b = 2; o = new Object; n = null;
+     *     if (a == 1) c = a + b; else c = 3;
+     *     d = c * 2;
+     *     if (p == null) { e = 5; q = o; } else { e = 7; q = n; }
+     *     i = 0;
+     *     while (i < d) i = i + 1;
+     *     return e + i;
+     * }
+     * </pre>
+     */
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        Jimple j = Jimple.v();
+        RefType object = RefType.v("java.lang.Object");
+        SootClass c = new SootClass("test.T", Modifier.PUBLIC);
+        c.setSuperclass(Scene.v().getSootClass("java.lang.Object"));
+        Scene.v().addClass(c);
+        SootMethod m = new SootMethod("f", Collections.<Type>singletonList(object),
+                                      IntType.v(), Modifier.PUBLIC | Modifier.STATIC);
+        c.addMethod(m);
+        JimpleBody b = j.newBody(m);
+        m.setActiveBody(b);
+        Local p = local(b, "p", object), o = local(b, "o", object),
+            n = local(b, "n", object), q = local(b, "q", object);
+        Local a = local(b, "a", IntType.v()), bb = local(b, "b", IntType.v()),
+            cc = local(b, "c", IntType.v()), d = local(b, "d", IntType.v()),
+            e = local(b, "e", IntType.v()), i = local(b, "i", IntType.v()),
+            r = local(b, "r", IntType.v());
+
+        Stmt elseC = j.newAssignStmt(cc, IntConstant.v(3));
+        Stmt joinC = j.newAssignStmt(d, j.newMulExpr(cc, IntConstant.v(2)));
+        Stmt elseE = j.newAssignStmt(e, IntConstant.v(7));
+        Stmt initI = j.newAssignStmt(i, IntConstant.v(0));
+        Stmt exit = j.newAssignStmt(r, j.newAddExpr(e, i));
+        Stmt loop = j.newIfStmt(j.newGeExpr(i, d), exit);
+
+        Chain<Unit> units = b.getUnits();
+        units.add(j.newIdentityStmt(p, j.newParameterRef(object, 0)));
+        units.add(j.newAssignStmt(a, IntConstant.v(1)));
+        units.add(j.newAssignStmt(bb, IntConstant.v(2)));
+        units.add(j.newAssignStmt(o, j.newNewExpr(object)));
+        units.add(j.newAssignStmt(n, NullConstant.v()));
+        units.add(j.newIfStmt(j.newNeExpr(a, IntConstant.v(1)), elseC));
+        units.add(j.newAssignStmt(cc, j.newAddExpr(a, bb)));
+        units.add(j.newGotoStmt(joinC));
+        units.add(elseC);
+        units.add(joinC);
+        units.add(j.newIfStmt(j.newNeExpr(p, NullConstant.v()), elseE));
+        units.add(j.newAssignStmt(e, IntConstant.v(5)));
+        units.add(j.newAssignStmt(q, o));
+        units.add(j.newGotoStmt(initI));
+        units.add(elseE);
+        units.add(j.newAssignStmt(q, n));
+        units.add(initI);
+        units.add(loop);
+        units.add(j.newAssignStmt(i, j.newAddExpr(i, IntConstant.v(1))));
+        units.add(j.newGotoStmt(loop));
+        units.add(exit);
+        units.add(j.newReturnStmt(r));
+
+        jimpleBody = b;
+        body = Shimple.v().newBody(b);
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testConstantsSameAsDense() {
+        SCPFAnalysis dense = new SCPFAnalysis(new ExceptionalUnitGraph(body));
+        SparseSCPFAnalysis sparse = new SparseSCPFAnalysis(new ExceptionalUnitGraph(body));
+        assertEquals(dense.getResults(), sparse.getResults());
+        assertEquals(new HashSet<IfStmt>(dense.getDeadStmts()),
+                     new HashSet<IfStmt>(sparse.getDeadStmts()));
+        assertEquals(dense.getStmtsToReplace().keySet(), sparse.getStmtsToReplace().keySet());
+
+        Map<Local, Constant> results = sparse.getResults();
+        // c_1 = 3 is never reached, so the Phi of c is 3.
+        assertEquals(IntConstant.v(3), results.get(local("c_2")));
+        assertTrue(results.get(local("c_1")) instanceof SEvaluator.TopConstant);
+        assertEquals(IntConstant.v(6), results.get(local("d")));
+        assertTrue(results.get(local("e_2")) instanceof SEvaluator.BottomConstant);
+        assertTrue(results.get(local("i_1")) instanceof SEvaluator.BottomConstant);
+        // Only the test of a is decided.
+        assertEquals(1, sparse.getDeadStmts().size() + sparse.getStmtsToReplace().size());
+    }
+
+    public void testFoldingSameWithSparse() {
+        Map<String, String> options = new HashMap<String, String>();
+        options.put("enabled", "true");
+        options.put("prune-cfg", "true");
+        options.put("sparse", "false");
+        SConstantPropagatorAndFolder.v().transform(body, "sop.cpf", options);
+        ShimpleBody sparseBody = Shimple.v().newBody(jimpleBody);
+        options.put("sparse", "true");
+        SConstantPropagatorAndFolder.v().transform(sparseBody, "sop.cpf", options);
+        assertEquals(body.toString(), sparseBody.toString());
+        // The test of a is gone, and d is folded into a constant.
+        assertEquals(2, count(sparseBody, IfStmt.class));
+        assertTrue(sparseBody.toString().contains("d = 6"));
+    }
+
+    public void testNullnessSameAsDense() {
+        NullnessAnalysis dense = new NullnessAnalysis(new ExceptionalUnitGraph(body));
+        SNullnessAnalysis sparse = new SNullnessAnalysis(new ExceptionalUnitGraph(body));
+        Unit ret = body.getUnits().getLast();
+        int phis = 0;
+        for (Local l : body.getLocals()) {
+            if (!(l.getType() instanceof RefLikeType))
+                continue;
+            boolean nonNull, isNull;
+            if (isPhi(l)) {
+                // q is o on one path and n on the other.
+                nonNull = isNull = false;
+                phis++;
+            } else {
+                nonNull = l.getName().startsWith("o") || definedAs(l, "o");
+                isNull = l.getName().startsWith("n") || definedAs(l, "n");
+            }
+            assertEquals(l.getName(), nonNull, sparse.isAlwaysNonNull(l));
+            assertEquals(l.getName(), nonNull, dense.isAlwaysNonNullBefore(ret, l));
+            assertEquals(l.getName(), isNull, sparse.isAlwaysNull(l));
+        }
+        assertEquals(1, phis);
+    }
+
+    private static int count(Body b, Class<?> c) {
+        int ret = 0;
+        for (Unit u : b.getUnits()) {
+            if (c.isInstance(u))
+                ret++;
+        }
+        return ret;
+    }
+
+    private Local local(String name) {
+        for (Local l : body.getLocals()) {
+            if (l.getName().equals(name))
+                return l;
+        }
+        throw new AssertionError("no local " + name);
+    }
+
+    private boolean isPhi(Local l) {
+        Value v = definition(l);
+        return v != null && Shimple.isPhiExpr(v);
+    }
+
+    /** Returns whether l is a copy of the local named name. */
+    private boolean definedAs(Local l, String name) {
+        Value v = definition(l);
+        return v instanceof Local && ((Local) v).getName().equals(name);
+    }
+
+    private Value definition(Local l) {
+        for (Unit u : body.getUnits()) {
+            if (u instanceof DefinitionStmt && ((DefinitionStmt) u).getLeftOp() == l)
+                return ((DefinitionStmt) u).getRightOp();
+        }
+        return null;
+    }
+
+    private static Local local(Body b, String name, Type type) {
+        Local l = Jimple.v().newLocal(name, type);
+        b.getLocals().add(l);
+        return l;
+    }
+}
@@ -0,0 +1,126 @@
+package soot.toolkits.graph;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.*;
+import soot.toolkits.exceptions.UnitThrowAnalysis;
+
+/**
+ * Checks that CompactExceptionalUnitGraph has the same heads, tails and
+ * edges, in the same order, as ExceptionalUnitGraph, on the bodies of a
+ * generated program to which traps are added.
+ */
+public class CompactExceptionalUnitGraphTest extends TestCase {
+
+    private List<Body> bodies;
+
+    public CompactExceptionalUnitGraphTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        GeneratedProgram.generate(10, 3, 4);
+        bodies = new ArrayList<Body>();
+        Random rand = new Random(4);
+        for (SootClass c : Scene.v().getApplicationClasses()) {
+            for (SootMethod m : c.getMethods()) {
+                Body b = m.getActiveBody();
+                if (m.getReturnType() instanceof RefType)
+                    addTraps(b, rand);
+                bodies.add(b);
+            }
+        }
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testSameAsExceptionalUnitGraph() {
+        int exceptionalEdges = 0;
+        for (Body b : bodies) {
+            ExceptionalUnitGraph g = new ExceptionalUnitGraph(b);
+            assertSameGraph(g, new CompactExceptionalUnitGraph(b));
+            for (Iterator<Unit> unitIt = g.iterator(); unitIt.hasNext(); )
+                exceptionalEdges += g.getExceptionalSuccsOf(unitIt.next()).size();
+        }
+        assertTrue(exceptionalEdges > 0);
+    }
+
+    public void testSameWithoutExceptingUnitEdges() {
+        for (Body b : bodies) {
+            assertSameGraph(
+                new ExceptionalUnitGraph(b, UnitThrowAnalysis.v(), true),
+                new CompactExceptionalUnitGraph(b, UnitThrowAnalysis.v(), true));
+        }
+    }
+
+    public void testNumbers() {
+        for (Body b : bodies) {
+            CompactExceptionalUnitGraph g = new CompactExceptionalUnitGraph(b);
+            int i = 0;
+            for (Unit u : b.getUnits()) {
+                assertEquals(i, g.getNumber(u));
+                assertSame(u, g.getUnit(i));
+                i++;
+            }
+            assertEquals(i, g.size());
+            try {
+                g.getNumber(Jimple.v().newNopStmt());
+                fail();
+            } catch (RuntimeException e) {
+                // expected
+            }
+        }
+    }
+
+    private static void assertSameGraph(ExceptionalUnitGraph e, ExceptionalUnitGraph a) {
+        assertEquals(e.getHeads(), a.getHeads());
+        assertEquals(e.getTails(), a.getTails());
+        assertEquals(e.size(), a.size());
+        for (Iterator<Unit> unitIt = e.iterator(); unitIt.hasNext(); ) {
+            Unit u = unitIt.next();
+            assertEquals(e.getSuccsOf(u), a.getSuccsOf(u));
+            assertEquals(e.getPredsOf(u), a.getPredsOf(u));
+            assertEquals(e.getUnexceptionalSuccsOf(u), a.getUnexceptionalSuccsOf(u));
+            assertEquals(e.getUnexceptionalPredsOf(u), a.getUnexceptionalPredsOf(u));
+            assertEquals(e.getExceptionalSuccsOf(u), a.getExceptionalSuccsOf(u));
+            assertEquals(e.getExceptionalPredsOf(u), a.getExceptionalPredsOf(u));
+            assertEquals(dests(e, u), dests(a, u));
+        }
+    }
+
+    private static List<String> dests(ExceptionalUnitGraph g, Unit u) {
+        List<String> ret = new ArrayList<String>();
+        for (Iterator it = g.getExceptionDests(u).iterator(); it.hasNext(); ) {
+            ExceptionalUnitGraph.ExceptionDest d = (ExceptionalUnitGraph.ExceptionDest) it.next();
+            ret.add(d.getTrap() + " " + d.getThrowables());
+        }
+        return ret;
+    }
+
+    /** Adds a handler returning null at the end of b, and up to two
+     * traps to it over random ranges of b's units. */
+    private static void addTraps(Body b, Random rand) {
+        Jimple j = Jimple.v();
+        RefType throwable = RefType.v("java.lang.Throwable");
+        List<Unit> units = new ArrayList<Unit>(b.getUnits());
+        Local caught = j.newLocal("caught", throwable);
+        b.getLocals().add(caught);
+        Unit handler = j.newIdentityStmt(caught, j.newCaughtExceptionRef());
+        b.getUnits().add(handler);
+        b.getUnits().add(j.newReturnStmt(NullConstant.v()));
+
+        int first = b.getMethod().isStatic() ? 1 : 2;
+        for (int k = rand.nextInt(3); k > 0; k--) {
+            int begin = first + rand.nextInt(units.size() - first);
+            int end = begin + 1 + rand.nextInt(units.size() - begin);
+            b.getTraps().add(j.newTrap(throwable.getSootClass(), units.get(begin),
+                                       end < units.size() ? units.get(end) : handler,
+                                       handler));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package soot.toolkits.scalar;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.jimple.*;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+
+/**
+ * Checks that a BodyAnalysisCache hands out the same analyses while its
+ * Body is unchanged, and new ones after any change, including changes
+ * that keep the numbers of units and traps.
+ */
+public class BodyAnalysisCacheTest extends TestCase {
+
+    private Body body;
+    private BodyAnalysisCache cache;
+
+    public BodyAnalysisCacheTest(String name) {
+        super(name);
+    }
+
+    protected void setUp() {
+        GeneratedProgram.reset(1);
+        GeneratedProgram.generate(4, 2, 1);
+        body = Scene.v().getSootClass("gen.C1").getMethodByName("m0").getActiveBody();
+        cache = body.getAnalysisCache();
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testSameWhileUnchanged() {
+        LocalDefs defs = cache.getLocalDefs();
+        assertSame(cache.getExceptionalUnitGraph(), cache.getExceptionalUnitGraph());
+        assertSame(defs, cache.getLocalDefs());
+        assertSame(cache.getLocalUses(), cache.getLocalUses());
+        assertSame(cache.getDominatorTree(), cache.getDominatorTree());
+    }
+
+    public void testBoxChange() {
+        LocalDefs defs = cache.getLocalDefs();
+        ReturnStmt ret = (ReturnStmt) body.getUnits().getLast();
+        Local other = null;
+        for (Local l : body.getLocals()) {
+            if (l != ret.getOp() && l.getType().equals(ret.getOp().getType()))
+                other = l;
+        }
+        ret.setOp(other);
+        assertNotSame(defs, cache.getLocalDefs());
+    }
+
+    public void testUnitSwap() {
+        ExceptionalUnitGraph graph = cache.getExceptionalUnitGraph();
+        Unit last = body.getUnits().getLast();
+        body.getUnits().swapWith(last, Jimple.v().newReturnStmt(NullConstant.v()));
+        assertNotSame(graph, cache.getExceptionalUnitGraph());
+    }
+
+    public void testLocalRetyped() {
+        LocalDefs defs = cache.getLocalDefs();
+        body.getLocals().getFirst().setType(RefType.v("gen.C2"));
+        assertNotSame(defs, cache.getLocalDefs());
+    }
+
+    public void testInvalidate() {
+        LocalUses uses = cache.getLocalUses();
+        cache.invalidate();
+        assertNotSame(uses, cache.getLocalUses());
+    }
+}
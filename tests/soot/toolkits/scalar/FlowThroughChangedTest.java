@@ -0,0 +1,146 @@
+package soot.toolkits.scalar;
+
+import java.util.*;
+
+import junit.framework.TestCase;
+import soot.*;
+import soot.toolkits.graph.ExceptionalUnitGraph;
+import soot.toolkits.graph.UnitGraph;
+
+/**
+ * Checks that SimpleLiveLocals, SimpleLocalDefs and SmartLocalDefs, which
+ * tell whether the flow function changed a set by its size, give the same
+ * results as with the default flowThroughChanged, which compares the set
+ * with a copy, over the bodies of the JUnit jar, many of which have loops
+ * and traps. The default is run with a check that at each step the size
+ * changed exactly when the set did.
+ */
+public class FlowThroughChangedTest extends TestCase {
+
+    public FlowThroughChangedTest(String name) {
+        super(name);
+    }
+
+    protected void tearDown() {
+        G.reset();
+    }
+
+    public void testSameAsCopyAndEquals() {
+        ClassFileProgram.load(1);
+        int withLoops = 0, withTraps = 0;
+        for (SootClass c : Scene.v().getApplicationClasses()) {
+            for (SootMethod m : c.getMethods()) {
+                if (!m.hasActiveBody())
+                    continue;
+                Body b = m.getActiveBody();
+                UnitGraph g = new ExceptionalUnitGraph(b);
+                if (!b.getTraps().isEmpty())
+                    withTraps++;
+                if (hasLoop(b, g))
+                    withLoops++;
+                checkLiveLocals(g);
+                checkSimpleLocalDefs(g);
+                checkSmartLocalDefs(g);
+            }
+        }
+        assertTrue(withLoops > 10);
+        assertTrue(withTraps > 10);
+    }
+
+    private static void checkLiveLocals(UnitGraph g) {
+        SimpleLiveLocals live = new SimpleLiveLocals(g);
+        FlowAnalysis expected = new SimpleLiveLocalsAnalysis(g) {
+            protected boolean flowThroughChanged(Object in, Object d, Object out) {
+                return copyAndEquals(this, in, d, (FlowSet) out);
+            }
+        };
+        for (Unit u : g) {
+            assertEquals(u.toString(), new HashSet<Object>(((FlowSet) expected.getFlowBefore(u)).toList()),
+                         new HashSet<Object>(live.getLiveLocalsBefore(u)));
+            assertEquals(u.toString(), new HashSet<Object>(((FlowSet) expected.getFlowAfter(u)).toList()),
+                         new HashSet<Object>(live.getLiveLocalsAfter(u)));
+        }
+    }
+
+    private static void checkSimpleLocalDefs(UnitGraph g) {
+        SimpleLocalDefs defs = new SimpleLocalDefs(g);
+        FlowAnalysis expected = new LocalDefsFlowAnalysis(g) {
+            protected boolean flowThroughChanged(Object in, Object d, Object out) {
+                return copyAndEquals(this, in, d, (FlowSet) out);
+            }
+        };
+        for (Unit u : g) {
+            Collection reaching = ((FlowSet) expected.getFlowBefore(u)).toList();
+            for (ValueBox vb : u.getUseBoxes()) {
+                if (vb.getValue() instanceof Local) {
+                    Local l = (Local) vb.getValue();
+                    assertEquals(l + " in " + u, defsOf(l, reaching),
+                                 new HashSet<Unit>(defs.getDefsOfAt(l, u)));
+                }
+            }
+        }
+    }
+
+    private static void checkSmartLocalDefs(UnitGraph g) {
+        SmartLocalDefs defs = new SmartLocalDefs(g, new SimpleLiveLocals(g));
+        FlowAnalysis expected = defs.new LocalDefsAnalysis(g) {
+            protected boolean flowThroughChanged(Object in, Object d, Object out) {
+                Set prev = (Set) newInitialFlow();
+                copy(out, prev);
+                flowThrough(in, d, out);
+                boolean changed = !out.equals(prev);
+                assertEquals(changed, ((Set) out).size() != prev.size());
+                return changed;
+            }
+        };
+        for (Unit u : g) {
+            Collection reaching = (Set) expected.getFlowBefore(u);
+            for (ValueBox vb : u.getUseBoxes()) {
+                if (vb.getValue() instanceof Local) {
+                    Local l = (Local) vb.getValue();
+                    assertEquals(l + " in " + u, defsOf(l, reaching),
+                                 new HashSet<Unit>(defs.getDefsOfAt(l, u)));
+                }
+            }
+        }
+    }
+
+    /** Does what FlowAnalysis.flowThroughChanged does by default, and
+     * checks that the size of out changed if and only if out did. */
+    private static boolean copyAndEquals(FlowAnalysis a, Object in, Object d, FlowSet out) {
+        FlowSet prev = (FlowSet) a.newInitialFlow();
+        a.copy(out, prev);
+        a.flowThrough(in, d, out);
+        boolean changed = !out.equals(prev);
+        assertEquals(changed, out.size() != prev.size());
+        return changed;
+    }
+
+    /** Returns the units of reaching which define l. */
+    private static Set<Unit> defsOf(Local l, Collection reaching) {
+        Set<Unit> ret = new HashSet<Unit>();
+        for (Object o : reaching) {
+            Unit u = (Unit) o;
+            for (ValueBox vb : u.getDefBoxes()) {
+                if (vb.getValue() == l)
+                    ret.add(u);
+            }
+        }
+        return ret;
+    }
+
+    /** Returns whether some edge of g goes back to a unit which is not
+     * after its source in b. */
+    private static boolean hasLoop(Body b, UnitGraph g) {
+        Map<Unit, Integer> index = new HashMap<Unit, Integer>();
+        for (Unit u : b.getUnits())
+            index.put(u, index.size());
+        for (Unit u : g) {
+            for (Unit s : g.getSuccsOf(u)) {
+                if (index.get(s) <= index.get(u))
+                    return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,133 @@
+package soot.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that ConcurrentStringNumberer and ConcurrentArrayNumberer,
+ * used by several threads at once, hand out each number from 1 to
+ * size() exactly once, and give each string a single NumberedString.
+ * Every thread looks up all the objects, starting at a different
+ * offset, so that the threads both race to add new objects and find
+ * objects added by the others.
+ */
+public class ConcurrentNumbererTest extends TestCase {
+
+    private static final int THREADS = 4;
+    /** Enough objects to fill several chunks of ConcurrentArrayNumberer. */
+    private static final int COUNT = 20000;
+
+    public ConcurrentNumbererTest(String name) {
+        super(name);
+    }
+
+    public void testStringNumberer() throws Exception {
+        final String[] strings = new String[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            strings[i] = "void m" + i + "(java.lang.String[])";
+        final StringNumberer numberer = new ConcurrentStringNumberer();
+        List<List<NumberedString>> found = run(new Task<NumberedString>() {
+            public NumberedString call(int i) {
+                NumberedString ns = numberer.findOrAdd(strings[i]);
+                assertEquals(strings[i], ns.getString());
+                return ns;
+            }
+        });
+        for (int i = 0; i < COUNT; i++) {
+            for (List<NumberedString> f : found)
+                assertSame(found.get(0).get(i), f.get(i));
+        }
+        assertDense(numberer, COUNT);
+        assertSame(found.get(0).get(7), numberer.findOrAdd(strings[7]));
+    }
+
+    public void testArrayNumberer() throws Exception {
+        final NumberedString[] items = new NumberedString[COUNT];
+        for (int i = 0; i < COUNT; i++)
+            items[i] = new NumberedString("s" + i);
+        final IterableNumberer<NumberedString> numberer = new ConcurrentArrayNumberer<NumberedString>();
+        run(new Task<NumberedString>() {
+            public NumberedString call(int i) {
+                numberer.add(items[i]);
+                assertSame(items[i], numberer.get(numberer.get(items[i])));
+                return items[i];
+            }
+        });
+        assertDense(numberer, COUNT);
+    }
+
+    public void testLookups() {
+        IterableNumberer<NumberedString> numberer = new ConcurrentArrayNumberer<NumberedString>();
+        assertEquals(0, numberer.get((NumberedString) null));
+        assertNull(numberer.get(0));
+        NumberedString s = new NumberedString("s");
+        try {
+            numberer.get(s);
+            fail();
+        } catch (RuntimeException e) {
+            // expected: s is not numbered
+        }
+        numberer.add(s);
+        numberer.add(s);
+        assertEquals(1, numberer.size());
+        assertEquals(1, numberer.get(s));
+        try {
+            numberer.get(2);
+            fail();
+        } catch (RuntimeException e) {
+            // expected: no object has number 2
+        }
+    }
+
+    interface Task<T> {
+        T call(int i);
+    }
+
+    /** Runs task on all indices on each of THREADS threads, and returns
+     * what each thread got, by index. */
+    private static <T> List<List<T>> run(final Task<T> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<List<T>>> tasks = new ArrayList<Callable<List<T>>>();
+            for (int t = 0; t < THREADS; t++) {
+                final int offset = t * (COUNT / THREADS);
+                tasks.add(new Callable<List<T>>() {
+                    public List<T> call() {
+                        List<T> ret = new ArrayList<T>(Collections.<T>nCopies(COUNT, null));
+                        for (int k = 0; k < COUNT; k++) {
+                            int i = (offset + k) % COUNT;
+                            ret.set(i, task.call(i));
+                        }
+                        return ret;
+                    }
+                });
+            }
+            List<List<T>> ret = new ArrayList<List<T>>();
+            for (Future<List<T>> f : executor.invokeAll(tasks))
+                ret.add(f.get());
+            return ret;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Checks that the numbers are 1 to count, and that each one maps
+     * back to the object which was given it. */
+    private static void assertDense(IterableNumberer<NumberedString> numberer, int count) {
+        assertEquals(count, numberer.size());
+        BitSet seen = new BitSet();
+        int n = 0;
+        for (Iterator<NumberedString> it = numberer.iterator(); it.hasNext(); ) {
+            NumberedString s = it.next();
+            int number = s.getNumber();
+            assertTrue(number >= 1 && number <= count);
+            assertFalse(seen.get(number));
+            assertSame(s, numberer.get(number));
+            seen.set(number);
+            n++;
+        }
+        assertEquals(count, n);
+    }
+}
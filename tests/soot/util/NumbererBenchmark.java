@@ -0,0 +1,178 @@
+package soot.util;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Compares the throughput of StringNumberer.findOrAdd and
+ * ArrayNumberer.add, called under a lock shared by all threads, with
+ * that of their concurrent versions called from several threads at
+ * once, and checks that all the numberers hand out each number from 1
+ * to size() exactly once.
+ *
+ * Usage:
+ *
+ *   java soot.util.NumbererBenchmark [threads [strings [rounds]]]
+ *
+ * Every thread looks up all the strings, starting at a different
+ * offset, so that the threads both race to add new strings and find
+ * strings added by the others.  The default is 4 threads, 200000
+ * strings and 5 rounds; the first round warms up the JIT and is not
+ * reported.
+ */
+public class NumbererBenchmark {
+
+    interface StringNumbererFactory {
+        StringNumberer create();
+    }
+
+    interface ArrayNumbererFactory {
+        IterableNumberer<NumberedString> create();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int count = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++)
+            strings[i] = "void m" + i + "(java.lang.String[])";
+
+        StringNumbererFactory locked = new StringNumbererFactory() {
+            public StringNumberer create() { return new StringNumberer(); }
+        };
+        StringNumbererFactory concurrent = new StringNumbererFactory() {
+            public StringNumberer create() { return new ConcurrentStringNumberer(); }
+        };
+        ArrayNumbererFactory lockedArray = new ArrayNumbererFactory() {
+            public IterableNumberer<NumberedString> create() {
+                return new ArrayNumberer<NumberedString>();
+            }
+        };
+        ArrayNumbererFactory concurrentArray = new ArrayNumbererFactory() {
+            public IterableNumberer<NumberedString> create() {
+                return new ConcurrentArrayNumberer<NumberedString>();
+            }
+        };
+
+        System.out.println(threads + " threads, " + count + " strings");
+        for (int round = 0; round < rounds; round++) {
+            boolean report = round > 0;
+            findOrAdd("StringNumberer", locked, true, strings, threads, report);
+            findOrAdd("ConcurrentStringNumberer", concurrent, false, strings, threads, report);
+            add("ArrayNumberer", lockedArray, true, count, threads, report);
+            add("ConcurrentArrayNumberer", concurrentArray, false, count, threads, report);
+        }
+    }
+
+    static void findOrAdd(String name, StringNumbererFactory factory, final boolean lock,
+                          final String[] strings, int threads, boolean report)
+        throws Exception {
+        final StringNumberer numberer = factory.create();
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * (strings.length / threads);
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    for (int i = 0; i < strings.length; i++) {
+                        String s = strings[(offset + i) % strings.length];
+                        NumberedString ns;
+                        if (lock) {
+                            synchronized (numberer) {
+                                ns = numberer.findOrAdd(s);
+                            }
+                        } else {
+                            ns = numberer.findOrAdd(s);
+                        }
+                        if (!ns.getString().equals(s))
+                            throw new RuntimeException("wrong string for " + s);
+                    }
+                    return null;
+                }
+            });
+        }
+        long time = run(tasks);
+        check(name, numberer, strings.length);
+        if (report)
+            System.out.println("  " + name + ".findOrAdd: " + time / 1000000
+                               + " ms, " + opsPerSecond(threads * (long) strings.length, time)
+                               + " ops/s");
+    }
+
+    static void add(String name, ArrayNumbererFactory factory, final boolean lock,
+                    int count, int threads, boolean report) throws Exception {
+        final IterableNumberer<NumberedString> numberer = factory.create();
+        final NumberedString[] items = new NumberedString[count];
+        for (int i = 0; i < count; i++)
+            items[i] = new NumberedString("s" + i);
+        List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * (count / threads);
+            tasks.add(new Callable<Object>() {
+                public Object call() {
+                    for (int i = 0; i < items.length; i++) {
+                        NumberedString item = items[(offset + i) % items.length];
+                        NumberedString found;
+                        if (lock) {
+                            synchronized (numberer) {
+                                numberer.add(item);
+                                found = numberer.get(numberer.get(item));
+                            }
+                        } else {
+                            numberer.add(item);
+                            found = numberer.get(numberer.get(item));
+                        }
+                        if (found != item)
+                            throw new RuntimeException("wrong object for " + item);
+                    }
+                    return null;
+                }
+            });
+        }
+        long time = run(tasks);
+        check(name, numberer, count);
+        if (report)
+            System.out.println("  " + name + ".add: " + time / 1000000
+                               + " ms, " + opsPerSecond(threads * (long) count, time)
+                               + " ops/s");
+    }
+
+    static long run(List<Callable<Object>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            long start = System.nanoTime();
+            for (Future<Object> f : executor.invokeAll(tasks))
+                f.get();
+            return System.nanoTime() - start;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /** Checks that the numbers are dense and that each one maps back to
+     * the object which was given it. */
+    static void check(String name, IterableNumberer<NumberedString> numberer, int count) {
+        if (numberer.size() != count)
+            throw new RuntimeException(name + ": " + numberer.size()
+                                       + " numbers for " + count + " objects");
+        BitSet seen = new BitSet();
+        int n = 0;
+        for (Iterator<NumberedString> it = numberer.iterator(); it.hasNext(); ) {
+            NumberedString s = it.next();
+            int number = s.getNumber();
+            if (number < 1 || number > count || seen.get(number)
+                || numberer.get(number) != s)
+                throw new RuntimeException(name + ": bad number " + number);
+            seen.set(number);
+            n++;
+        }
+        if (n != count)
+            throw new RuntimeException(name + ": iterated over " + n
+                                       + " of " + count + " objects");
+    }
+
+    static long opsPerSecond(long ops, long nanos) {
+        return nanos == 0 ? 0 : ops * 1000000000L / nanos;
+    }
+}